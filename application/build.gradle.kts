@@ -11,6 +11,7 @@ val libsCatalog = project.extensions.getByType<VersionCatalogsExtension>().named
 dependencies {
     implementation(projects.core)
     implementation(projects.coreOcra)
+    implementation(libs.caffeine)
 
     compileOnlyApi(libsCatalog.findLibrary("spotbugs-annotations").get())
 
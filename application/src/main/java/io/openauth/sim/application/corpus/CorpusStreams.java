@@ -0,0 +1,123 @@
+package io.openauth.sim.application.corpus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/** Deterministic pseudo-random derivation and ordered block streaming shared by the corpus generators. */
+final class CorpusStreams {
+
+    static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private CorpusStreams() {
+        throw new AssertionError("No instances");
+    }
+
+    /**
+     * Computes {@code blocks} on a pool of {@code parallelism} workers and appends them to {@code channel} in
+     * iteration order, holding at most two finished or running blocks per worker.
+     *
+     * @return bytes written
+     * @throws IOException when the channel cannot be written or the calling thread is interrupted
+     */
+    static long writeInOrder(FileChannel channel, int parallelism, Iterator<Callable<byte[]>> blocks, String label)
+            throws IOException {
+        if (!blocks.hasNext()) {
+            return 0L;
+        }
+        int maxInFlight = parallelism * 2;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ArrayDeque<ForkJoinTask<byte[]>> pending = new ArrayDeque<>(maxInFlight);
+        long written = 0L;
+        try {
+            while (blocks.hasNext() || !pending.isEmpty()) {
+                while (pending.size() < maxInFlight && blocks.hasNext()) {
+                    pending.addLast(pool.submit(blocks.next()));
+                }
+                written += writeFully(channel, pending.removeFirst().get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating " + label, ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Failed to generate " + label, ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return written;
+    }
+
+    static long writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return bytes.length;
+    }
+
+    static byte[] randomBytes(long state, int length) {
+        byte[] bytes = new byte[length];
+        long current = state;
+        for (int offset = 0; offset < length; offset += Long.BYTES) {
+            current += GOLDEN_GAMMA;
+            long value = mix(current);
+            for (int i = 0; i < Long.BYTES && offset + i < length; i++) {
+                bytes[offset + i] = (byte) (value >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+            }
+        }
+        return bytes;
+    }
+
+    /** Fills {@code length} characters from {@code alphabet} for item {@code index} of {@code stream}. */
+    static String randomString(long stream, long index, char[] alphabet, int length) {
+        char[] chars = new char[length];
+        long state = mix(stream + index * GOLDEN_GAMMA);
+        for (int i = 0; i < chars.length; i++) {
+            state += GOLDEN_GAMMA;
+            chars[i] = alphabet[(int) Long.remainderUnsigned(mix(state), alphabet.length)];
+        }
+        return new String(chars);
+    }
+
+    /** SplitMix64 finalizer. */
+    static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static long fnv1a(byte[] bytes) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    static void appendJsonString(StringBuilder builder, String field, String value) {
+        builder.append('"').append(field).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                default -> {
+                    if (ch < 0x20) {
+                        builder.append(String.format(Locale.ROOT, "\\u%04x", (int) ch));
+                    } else {
+                        builder.append(ch);
+                    }
+                }
+            }
+        }
+        builder.append('"');
+    }
+}
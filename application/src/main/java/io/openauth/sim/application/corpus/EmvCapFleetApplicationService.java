@@ -0,0 +1,452 @@
+package io.openauth.sim.application.corpus;
+
+import io.openauth.sim.application.emv.cap.EmvCapSeedSamples;
+import io.openauth.sim.application.emv.cap.EmvCapSeedSamples.SeedSample;
+import io.openauth.sim.core.emv.cap.EmvCapAtcWindow;
+import io.openauth.sim.core.emv.cap.EmvCapCredentialDescriptor;
+import io.openauth.sim.core.emv.cap.EmvCapCredentialPersistenceAdapter;
+import io.openauth.sim.core.emv.cap.EmvCapInput;
+import io.openauth.sim.core.emv.cap.EmvCapMode;
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.CredentialType;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.store.CredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulates a fleet of EMV/CAP cards pressing their button across a range of application transaction counters.
+ *
+ * <p>The card set is either the stored EMV/CAP credentials selected by name prefix and mode mix, or
+ * {@code generatedCards} synthetic cards. Synthetic cards take their mode round-robin from the mix. They reuse the
+ * canonical seed sample for that mode with a master key derived from the seed and the card name. Every card produces
+ * one token per ATC in {@code firstAtc .. firstAtc + atcCount - 1}. Respond and Sign presses draw their challenge,
+ * reference and amount from the seed, the card name and the ATC, so the same command always produces the same file
+ * regardless of parallelism.
+ *
+ * <p>Each card is prepared once as an {@link EmvCapAtcWindow}: the keys, issuer data and compiled CDOL template are
+ * decoded up front. Session keys come from the engine's shared key-tree cache, so consecutive ATCs reuse the upper
+ * tree levels. Tokens are computed in blocks of {@value #BLOCK_TOKENS} consecutive ATCs of one card. Finished blocks
+ * are streamed to disk in order with at most two blocks per worker held in memory.
+ *
+ * <p>NDJSON output holds one object per token with {@code cardId}, {@code mode}, {@code atc}, the customer inputs the
+ * mode uses ({@code challenge}, {@code reference}, {@code amount}) and {@code otp}. Binary output is big-endian:
+ *
+ * <pre>
+ * "EMVF" | u8 version | u8[3] reserved | i32 cardCount
+ * cardCount x (u16 nameLength | UTF-8 name | u8 mode ordinal)
+ * i64 tokenCount
+ * tokenCount x (i32 cardIndex | u16 atc | u8 challengeLength | ASCII challenge | u8 referenceLength
+ *     | ASCII reference | u8 amountLength | ASCII amount | u8 otpLength | ASCII otp)
+ * </pre>
+ */
+public final class EmvCapFleetApplicationService {
+
+    /** Tokens computed by one worker task before its output is handed to the writer. */
+    static final int BLOCK_TOKENS = 1_024;
+
+    static final int BINARY_VERSION = 1;
+
+    /** Customer input length used when a card has no default value to take the length from. */
+    static final int DEFAULT_INPUT_DIGITS = 8;
+
+    private static final int MAX_INPUT_DIGITS = 32;
+    private static final byte[] MAGIC = "EMVF".getBytes(StandardCharsets.US_ASCII);
+    private static final char[] DIGITS = "0123456789".toCharArray();
+    private static final long KEY_SALT = 0x4D41535445524B00L;
+    private static final long CHALLENGE_SALT = 0x4348414C4C4E4700L;
+    private static final long REFERENCE_SALT = 0x5245464552454E00L;
+    private static final long AMOUNT_SALT = 0x414D4F554E540000L;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private final CredentialStore credentialStore;
+    private final EmvCapCredentialPersistenceAdapter persistenceAdapter = new EmvCapCredentialPersistenceAdapter();
+
+    public EmvCapFleetApplicationService(CredentialStore credentialStore) {
+        this.credentialStore = Objects.requireNonNull(credentialStore, "credentialStore");
+    }
+
+    /**
+     * Writes the token series for {@code command} to {@code output}, replacing any existing file.
+     *
+     * @throws IOException when the output cannot be written
+     */
+    public FleetResult generate(FleetCommand command, Path output) throws IOException {
+        Objects.requireNonNull(command, "command");
+        Objects.requireNonNull(output, "output");
+        long started = System.nanoTime();
+
+        List<Card> cards = new ArrayList<>();
+        int skipped = 0;
+        if (command.generatedCards() > 0) {
+            synthesize(command, cards);
+        } else {
+            skipped = select(command, cards);
+        }
+        long tokens = Math.multiplyExact((long) cards.size(), command.atcCount());
+        LongAdder busyNanos = new LongAdder();
+
+        long written;
+        try (FileChannel channel = FileChannel.open(
+                output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            written = command.format() == Format.BINARY
+                    ? CorpusStreams.writeFully(channel, header(cards, tokens))
+                    : 0L;
+            written += CorpusStreams.writeInOrder(
+                    channel, command.parallelism(), blocks(command, cards, busyNanos), "EMV/CAP fleet series");
+        }
+        return new FleetResult(
+                cards.size(),
+                skipped,
+                tokens,
+                written,
+                System.nanoTime() - started,
+                busyNanos.sum(),
+                command.parallelism());
+    }
+
+    private int select(FleetCommand command, List<Card> cards) {
+        List<Credential> credentials = credentialStore.findAll().stream()
+                .filter(credential -> credential.type() == CredentialType.EMV_CA)
+                .filter(credential -> credential.name().startsWith(command.cardPrefix()))
+                .sorted(Comparator.comparing(Credential::name))
+                .toList();
+        int skipped = 0;
+        for (Credential credential : credentials) {
+            try {
+                EmvCapCredentialDescriptor descriptor =
+                        persistenceAdapter.deserialize(VersionedCredentialRecordMapper.toRecord(credential));
+                if (!command.includesMode(descriptor.mode())) {
+                    continue;
+                }
+                cards.add(card(cards.size(), descriptor, command));
+            } catch (IllegalArgumentException ex) {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    private static void synthesize(FleetCommand command, List<Card> cards) {
+        List<EmvCapMode> modes = command.modes().isEmpty() ? List.of(EmvCapMode.values()) : command.modes();
+        Map<EmvCapMode, EmvCapInput> samples = new EnumMap<>(EmvCapMode.class);
+        for (SeedSample sample : EmvCapSeedSamples.samples()) {
+            samples.putIfAbsent(sample.mode(), sample.vector().input());
+        }
+        String prefix = command.cardPrefix().isEmpty() ? "card-" : command.cardPrefix();
+        int width = Math.max(6, Integer.toString(command.generatedCards() - 1).length());
+        for (int index = 0; index < command.generatedCards(); index++) {
+            String name = prefix + String.format(Locale.ROOT, "%0" + width + "d", index);
+            EmvCapMode mode = modes.get(index % modes.size());
+            EmvCapInput sample = samples.get(mode);
+            if (sample == null) {
+                throw new IllegalStateException("No canonical EMV/CAP sample for mode " + mode);
+            }
+            long stream = stream(command.seed(), name.getBytes(StandardCharsets.UTF_8));
+            EmvCapInput.CustomerInputs defaults = sample.customerInputs();
+            EmvCapCredentialDescriptor descriptor = new EmvCapCredentialDescriptor(
+                    name,
+                    mode,
+                    SecretMaterial.fromBytes(CorpusStreams.randomBytes(stream ^ KEY_SALT, 16)),
+                    sample.atcHex(),
+                    sample.branchFactor(),
+                    sample.height(),
+                    sample.ivHex(),
+                    sample.cdol1Hex(),
+                    sample.issuerProprietaryBitmapHex(),
+                    sample.iccDataTemplateHex(),
+                    sample.issuerApplicationDataHex(),
+                    defaults.challenge(),
+                    defaults.reference(),
+                    defaults.amount(),
+                    Optional.empty(),
+                    Optional.empty(),
+                    Optional.empty());
+            cards.add(card(index, descriptor, command));
+        }
+    }
+
+    private static Card card(int index, EmvCapCredentialDescriptor descriptor, FleetCommand command) {
+        byte[] name = descriptor.name().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("credential name too long");
+        }
+        EmvCapMode mode = descriptor.mode();
+        return new Card(
+                index,
+                name,
+                descriptor,
+                stream(command.seed(), name),
+                command.firstAtc(),
+                mode == EmvCapMode.IDENTIFY ? 0 : inputDigits(descriptor.defaultChallenge()),
+                mode == EmvCapMode.SIGN ? inputDigits(descriptor.defaultReference()) : 0,
+                mode == EmvCapMode.SIGN ? inputDigits(descriptor.defaultAmount()) : 0);
+    }
+
+    private static Iterator<Callable<byte[]>> blocks(FleetCommand command, List<Card> cards, LongAdder busyNanos) {
+        return new Iterator<>() {
+            private int cardIndex;
+            private int nextPress;
+
+            @Override
+            public boolean hasNext() {
+                return cardIndex < cards.size();
+            }
+
+            @Override
+            public Callable<byte[]> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Card card = cards.get(cardIndex);
+                int first = nextPress;
+                int count = Math.min(BLOCK_TOKENS, command.atcCount() - first);
+                nextPress += count;
+                if (nextPress == command.atcCount()) {
+                    cardIndex++;
+                    nextPress = 0;
+                }
+                return () -> {
+                    long blockStarted = System.nanoTime();
+                    byte[] block = card.render(command.format(), first, count);
+                    busyNanos.add(System.nanoTime() - blockStarted);
+                    return block;
+                };
+            }
+        };
+    }
+
+    private static byte[] header(List<Card> cards, long tokens) {
+        int size = MAGIC.length + 4 + Integer.BYTES + Long.BYTES;
+        for (Card card : cards) {
+            size += Short.BYTES + card.name.length + 1;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC).put((byte) BINARY_VERSION).put(new byte[3]).putInt(cards.size());
+        for (Card card : cards) {
+            buffer.putShort((short) card.name.length).put(card.name).put((byte) card.mode.ordinal());
+        }
+        return buffer.putLong(tokens).array();
+    }
+
+    private static long stream(long seed, byte[] name) {
+        return CorpusStreams.mix(seed ^ CorpusStreams.fnv1a(name));
+    }
+
+    private static int inputDigits(String defaultValue) {
+        if (defaultValue == null || defaultValue.isEmpty()) {
+            return DEFAULT_INPUT_DIGITS;
+        }
+        return Math.min(defaultValue.length(), MAX_INPUT_DIGITS);
+    }
+
+    /** Token series file encodings. */
+    public enum Format {
+        NDJSON,
+        BINARY
+    }
+
+    /**
+     * Fleet request. With {@code generatedCards} of zero the card set is every stored EMV/CAP credential whose name
+     * starts with {@code cardPrefix}; otherwise that many synthetic cards are named {@code cardPrefix} (default
+     * {@code card-}) followed by a zero-padded index. An empty {@code modes} list accepts every mode.
+     */
+    public record FleetCommand(
+            String cardPrefix,
+            int generatedCards,
+            List<EmvCapMode> modes,
+            int firstAtc,
+            int atcCount,
+            long seed,
+            Format format,
+            int parallelism) {
+
+        public FleetCommand {
+            Objects.requireNonNull(format, "format");
+            cardPrefix = cardPrefix == null ? "" : cardPrefix.trim();
+            modes = modes == null
+                    ? List.of()
+                    : modes.stream().filter(Objects::nonNull).distinct().toList();
+            if (generatedCards < 0) {
+                throw new IllegalArgumentException("generatedCards must not be negative");
+            }
+            if (firstAtc < 0 || firstAtc > EmvCapAtcWindow.MAX_ATC) {
+                throw new IllegalArgumentException("firstAtc must be between 0 and " + EmvCapAtcWindow.MAX_ATC);
+            }
+            if (atcCount < 1) {
+                throw new IllegalArgumentException("atcCount must be positive");
+            }
+            if ((long) firstAtc + atcCount - 1 > EmvCapAtcWindow.MAX_ATC) {
+                throw new IllegalArgumentException("ATC range exceeds the two-byte counter field");
+            }
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be positive");
+            }
+        }
+
+        boolean includesMode(EmvCapMode mode) {
+            return modes.isEmpty() || modes.contains(mode);
+        }
+    }
+
+    /** Outcome of a fleet run and the throughput it achieved. */
+    public record FleetResult(
+            int cards,
+            int skippedCards,
+            long tokens,
+            long bytesWritten,
+            long elapsedNanos,
+            long busyNanos,
+            int parallelism) {
+
+        /** @return tokens generated per wall-clock second, or the raw count when the run took no measurable time */
+        public long tokensPerSecond() {
+            return rate(tokens, elapsedNanos);
+        }
+
+        /** @return tokens generated per second of worker time, i.e. the throughput of a single busy core */
+        public long tokensPerCoreSecond() {
+            return rate(tokens, busyNanos);
+        }
+
+        private static long rate(long count, long nanos) {
+            if (nanos <= 0) {
+                return count;
+            }
+            return (long) (count * 1_000_000_000d / nanos);
+        }
+    }
+
+    private static final class Card {
+
+        private final int index;
+        private final byte[] name;
+        private final EmvCapMode mode;
+        private final long stream;
+        private final int firstAtc;
+        private final int challengeDigits;
+        private final int referenceDigits;
+        private final int amountDigits;
+        private final String jsonPrefix;
+        private final EmvCapAtcWindow window;
+
+        /** Validates the card definition and decodes everything that stays fixed across its presses. */
+        private Card(
+                int index,
+                byte[] name,
+                EmvCapCredentialDescriptor descriptor,
+                long stream,
+                int firstAtc,
+                int challengeDigits,
+                int referenceDigits,
+                int amountDigits) {
+            this.index = index;
+            this.name = name;
+            this.mode = descriptor.mode();
+            this.stream = stream;
+            this.firstAtc = firstAtc;
+            this.challengeDigits = challengeDigits;
+            this.referenceDigits = referenceDigits;
+            this.amountDigits = amountDigits;
+
+            StringBuilder prefix = new StringBuilder("{");
+            CorpusStreams.appendJsonString(prefix, "cardId", new String(name, StandardCharsets.UTF_8));
+            prefix.append(",\"mode\":\"").append(mode.name()).append("\",");
+            this.jsonPrefix = prefix.toString();
+            this.window = EmvCapAtcWindow.prepare(new EmvCapInput(
+                    mode,
+                    descriptor.masterKey().asHex(),
+                    String.format(Locale.ROOT, "%04X", firstAtc),
+                    descriptor.branchFactor(),
+                    descriptor.height(),
+                    descriptor.ivHex(),
+                    descriptor.cdol1Hex(),
+                    descriptor.issuerProprietaryBitmapHex(),
+                    inputs(0),
+                    new EmvCapInput.TransactionData(descriptor.terminalDataHex(), descriptor.iccDataHex()),
+                    descriptor.iccDataTemplateHex(),
+                    descriptor.issuerApplicationDataHex()));
+        }
+
+        private byte[] render(Format format, int first, int count) {
+            String[] otps = new String[count];
+            EmvCapInput.CustomerInputs[] inputs = new EmvCapInput.CustomerInputs[count];
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                int press = first + i;
+                inputs[i] = inputs(press);
+                EmvCapAtcWindow pressWindow =
+                        mode == EmvCapMode.IDENTIFY ? window : window.withCustomerInputs(inputs[i]);
+                otps[i] = pressWindow.otp(press);
+                size += otps[i].length();
+            }
+            if (format == Format.BINARY) {
+                int perToken = Integer.BYTES + Short.BYTES + 4 + challengeDigits + referenceDigits + amountDigits;
+                ByteBuffer buffer = ByteBuffer.allocate(count * perToken + size);
+                for (int i = 0; i < count; i++) {
+                    buffer.putInt(index).putShort((short) (firstAtc + first + i));
+                    putAscii(buffer, inputs[i].challenge());
+                    putAscii(buffer, inputs[i].reference());
+                    putAscii(buffer, inputs[i].amount());
+                    putAscii(buffer, otps[i]);
+                }
+                return buffer.array();
+            }
+            StringBuilder lines = new StringBuilder(count * (jsonPrefix.length() + 96));
+            for (int i = 0; i < count; i++) {
+                lines.append(jsonPrefix).append("\"atc\":\"");
+                appendAtc(lines, firstAtc + first + i);
+                lines.append("\",");
+                appendInput(lines, "challenge", inputs[i].challenge());
+                appendInput(lines, "reference", inputs[i].reference());
+                appendInput(lines, "amount", inputs[i].amount());
+                lines.append("\"otp\":\"").append(otps[i]).append("\"}\n");
+            }
+            return lines.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private EmvCapInput.CustomerInputs inputs(int press) {
+            return new EmvCapInput.CustomerInputs(
+                    digits(CHALLENGE_SALT, press, challengeDigits),
+                    digits(REFERENCE_SALT, press, referenceDigits),
+                    digits(AMOUNT_SALT, press, amountDigits));
+        }
+
+        private String digits(long salt, int press, int length) {
+            return length == 0 ? "" : CorpusStreams.randomString(stream ^ salt, press, DIGITS, length);
+        }
+
+        private static void appendInput(StringBuilder lines, String field, String value) {
+            if (!value.isEmpty()) {
+                lines.append('"').append(field).append("\":\"").append(value).append("\",");
+            }
+        }
+
+        private static void appendAtc(StringBuilder lines, int atc) {
+            for (int shift = 12; shift >= 0; shift -= 4) {
+                lines.append(Character.toUpperCase(Character.forDigit((atc >>> shift) & 0xF, 16)));
+            }
+        }
+
+        private static void putAscii(ByteBuffer buffer, String value) {
+            buffer.put((byte) value.length()).put(value.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
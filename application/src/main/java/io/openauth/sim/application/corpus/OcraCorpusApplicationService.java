@@ -0,0 +1,423 @@
+package io.openauth.sim.application.corpus;
+
+import io.openauth.sim.core.credentials.ocra.OcraChallengeFormat;
+import io.openauth.sim.core.credentials.ocra.OcraChallengeQuestion;
+import io.openauth.sim.core.credentials.ocra.OcraCredentialDescriptor;
+import io.openauth.sim.core.credentials.ocra.OcraCredentialPersistenceAdapter;
+import io.openauth.sim.core.credentials.ocra.OcraDataInput;
+import io.openauth.sim.core.credentials.ocra.OcraResponseCalculator.OcraExecutionContext;
+import io.openauth.sim.core.credentials.ocra.OcraResponseKernel;
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.CredentialType;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.store.CredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+/**
+ * Generates OCRA challenge/response corpora for mutual-authentication load tests.
+ *
+ * <p>Stored OCRA credentials are selected by optional name prefix and suite mix. Each credential is expanded into
+ * {@code pairsPerCredential} pairs whose challenges are derived from the seed, the credential name and the pair
+ * index, so the same command always produces the same file regardless of parallelism. Session information and, when
+ * the credential has none stored, the PIN hash are derived the same way and stay fixed per credential; counter
+ * suites advance the stored counter by one per pair, and timestamp suites use the time step of the requested
+ * instant.
+ *
+ * <p>Pairs are computed in blocks of {@value #BLOCK_PAIRS}. Each worker prepares one {@link OcraResponseKernel} per
+ * block, so the PIN, session and timestamp fields are encoded once and each pair only rewrites the counter and
+ * question before one HMAC. Finished blocks are streamed to disk in order with at most two blocks per worker held in
+ * memory.
+ *
+ * <p>NDJSON output holds one object per pair with {@code credentialId}, {@code suite}, optional {@code counter},
+ * {@code challenge}, optional {@code sessionHex}, {@code pinHashHex} and {@code timestampHex}, and {@code otp}.
+ * Binary output is big-endian:
+ *
+ * <pre>
+ * "OCRC" | u8 version | u8[3] reserved | i32 credentialCount
+ * credentialCount x (u16 nameLength | UTF-8 name | u16 suiteLength | ASCII suite | u16 sessionLength | session
+ *     | u8 pinHashLength | pinHash | i64 timestampSteps or -1)
+ * i64 pairCount
+ * pairCount x (i32 credentialIndex | i64 counter or -1 | u8 challengeLength | ASCII challenge | u8 otpLength
+ *     | ASCII otp)
+ * </pre>
+ */
+public final class OcraCorpusApplicationService {
+
+    /** Pairs computed by one worker task before its output is handed to the writer. */
+    static final int BLOCK_PAIRS = 4_096;
+
+    static final int BINARY_VERSION = 1;
+
+    private static final byte[] MAGIC = "OCRC".getBytes(StandardCharsets.US_ASCII);
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+    private static final char[] NUMERIC = "0123456789".toCharArray();
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final char[] ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final long SESSION_SALT = 0x53455353494F4E00L;
+    private static final long PIN_SALT = 0x50494E4841534800L;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private final CredentialStore credentialStore;
+    private final OcraCredentialPersistenceAdapter persistenceAdapter = new OcraCredentialPersistenceAdapter();
+
+    public OcraCorpusApplicationService(CredentialStore credentialStore) {
+        this.credentialStore = Objects.requireNonNull(credentialStore, "credentialStore");
+    }
+
+    /**
+     * Writes the corpus for {@code command} to {@code output}, replacing any existing file.
+     *
+     * @throws IOException when the output cannot be written
+     */
+    public CorpusResult generate(CorpusCommand command, Path output) throws IOException {
+        Objects.requireNonNull(command, "command");
+        Objects.requireNonNull(output, "output");
+        long started = System.nanoTime();
+
+        List<Source> sources = new ArrayList<>();
+        int skipped = select(command, sources);
+        long pairs = Math.multiplyExact((long) sources.size(), command.pairsPerCredential());
+
+        long written;
+        try (FileChannel channel = FileChannel.open(
+                output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            written = command.format() == Format.BINARY
+                    ? CorpusStreams.writeFully(channel, header(sources, pairs))
+                    : 0L;
+            written += stream(channel, command, sources);
+        }
+        return new CorpusResult(sources.size(), skipped, pairs, written, System.nanoTime() - started);
+    }
+
+    private int select(CorpusCommand command, List<Source> sources) {
+        List<Credential> credentials = credentialStore.findAll().stream()
+                .filter(credential -> credential.type() == CredentialType.OATH_OCRA)
+                .filter(credential -> credential.name().startsWith(command.credentialPrefix()))
+                .sorted(Comparator.comparing(Credential::name))
+                .toList();
+        int skipped = 0;
+        for (Credential credential : credentials) {
+            try {
+                OcraCredentialDescriptor descriptor =
+                        persistenceAdapter.deserialize(VersionedCredentialRecordMapper.toRecord(credential));
+                if (!command.includesSuite(descriptor.suite().value())) {
+                    continue;
+                }
+                sources.add(source(sources.size(), descriptor, command));
+            } catch (IllegalArgumentException ex) {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    private static Source source(int index, OcraCredentialDescriptor descriptor, CorpusCommand command) {
+        byte[] name = descriptor.name().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("credential name too long");
+        }
+        OcraDataInput dataInput = descriptor.suite().dataInput();
+        long stream = CorpusStreams.mix(command.seed() ^ CorpusStreams.fnv1a(name));
+
+        long counterBase = -1L;
+        if (dataInput.counter()) {
+            counterBase = descriptor.counter().orElse(0L);
+            if (counterBase < 0 || counterBase > Long.MAX_VALUE - command.pairsPerCredential()) {
+                throw new IllegalArgumentException("counter range exceeds the OCRA counter field");
+            }
+        }
+        byte[] session = dataInput
+                .sessionInformation()
+                .map(specification -> CorpusStreams.randomBytes(stream ^ SESSION_SALT, specification.lengthBytes()))
+                .orElse(null);
+        byte[] pinHash = dataInput
+                .pin()
+                .map(specification -> descriptor
+                        .pinHash()
+                        .map(SecretMaterial::value)
+                        .orElseGet(() -> CorpusStreams.randomBytes(
+                                stream ^ PIN_SALT, specification.hashAlgorithm().digestLengthBytes())))
+                .orElse(null);
+        long timestampSteps = dataInput
+                .timestamp()
+                .map(specification -> Math.floorDiv(
+                        command.timestamp().getEpochSecond(), Math.max(1L, specification.step().toSeconds())))
+                .orElse(-1L);
+
+        Source source = new Source(
+                index,
+                name,
+                descriptor,
+                dataInput.challengeQuestion().orElse(null),
+                stream,
+                counterBase,
+                session,
+                pinHash,
+                timestampSteps);
+        source.prepare(0L);
+        return source;
+    }
+
+    private static byte[] header(List<Source> sources, long pairs) {
+        int size = MAGIC.length + 4 + Integer.BYTES + Long.BYTES;
+        for (Source source : sources) {
+            size += Short.BYTES + source.name.length + Short.BYTES + source.suite.length + Short.BYTES
+                    + length(source.session) + 1 + length(source.pinHash) + Long.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC).put((byte) BINARY_VERSION).put(new byte[3]).putInt(sources.size());
+        for (Source source : sources) {
+            buffer.putShort((short) source.name.length)
+                    .put(source.name)
+                    .putShort((short) source.suite.length)
+                    .put(source.suite)
+                    .putShort((short) length(source.session))
+                    .put(source.session == null ? new byte[0] : source.session)
+                    .put((byte) length(source.pinHash))
+                    .put(source.pinHash == null ? new byte[0] : source.pinHash)
+                    .putLong(source.timestampSteps);
+        }
+        return buffer.putLong(pairs).array();
+    }
+
+    /** Computes blocks on the worker pool and appends them to {@code channel} in order. */
+    private static long stream(FileChannel channel, CorpusCommand command, List<Source> sources) throws IOException {
+        Iterator<Callable<byte[]>> blocks = new Iterator<>() {
+            private int sourceIndex;
+            private long nextPair;
+
+            @Override
+            public boolean hasNext() {
+                return sourceIndex < sources.size();
+            }
+
+            @Override
+            public Callable<byte[]> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Source source = sources.get(sourceIndex);
+                long first = nextPair;
+                int count = (int) Math.min(BLOCK_PAIRS, command.pairsPerCredential() - first);
+                nextPair += count;
+                if (nextPair == command.pairsPerCredential()) {
+                    sourceIndex++;
+                    nextPair = 0L;
+                }
+                return () -> source.render(command.format(), first, count);
+            }
+        };
+        return CorpusStreams.writeInOrder(channel, command.parallelism(), blocks, "OCRA corpus");
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    /** Corpus file encodings. */
+    public enum Format {
+        NDJSON,
+        BINARY
+    }
+
+    /**
+     * Corpus request. A blank {@code credentialPrefix} selects every OCRA credential and an empty {@code suites} list
+     * accepts every suite; otherwise only credentials whose suite matches one of the entries (case-insensitively)
+     * are included. {@code timestamp} supplies the time step for suites with a timestamp input.
+     */
+    public record CorpusCommand(
+            String credentialPrefix,
+            List<String> suites,
+            long pairsPerCredential,
+            long seed,
+            Instant timestamp,
+            Format format,
+            int parallelism) {
+
+        public CorpusCommand {
+            Objects.requireNonNull(timestamp, "timestamp");
+            Objects.requireNonNull(format, "format");
+            credentialPrefix = credentialPrefix == null ? "" : credentialPrefix.trim();
+            suites = suites == null
+                    ? List.of()
+                    : suites.stream()
+                            .filter(Objects::nonNull)
+                            .map(suite -> suite.trim().toUpperCase(Locale.ROOT))
+                            .filter(suite -> !suite.isEmpty())
+                            .distinct()
+                            .toList();
+            if (pairsPerCredential < 1) {
+                throw new IllegalArgumentException("pairsPerCredential must be positive");
+            }
+            if (timestamp.getEpochSecond() < 0) {
+                throw new IllegalArgumentException("timestamp must not be before the epoch");
+            }
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be positive");
+            }
+        }
+
+        boolean includesSuite(String suite) {
+            return suites.isEmpty() || suites.contains(suite.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /** Outcome of a corpus run and the throughput it achieved. */
+    public record CorpusResult(
+            int credentials, int skippedCredentials, long pairs, long bytesWritten, long elapsedNanos) {
+
+        /** @return pairs generated per second, or the raw count when the run finished within a nanosecond */
+        public long pairsPerSecond() {
+            if (elapsedNanos <= 0) {
+                return pairs;
+            }
+            return (long) (pairs * 1_000_000_000d / elapsedNanos);
+        }
+    }
+
+    private static final class Source {
+
+        private final int index;
+        private final byte[] name;
+        private final byte[] suite;
+        private final OcraCredentialDescriptor descriptor;
+        private final char[] alphabet;
+        private final int questionLength;
+        private final long stream;
+        private final long counterBase;
+        private final byte[] session;
+        private final byte[] pinHash;
+        private final long timestampSteps;
+        private final int digits;
+        private final String jsonPrefix;
+        private final String jsonFixed;
+
+        private Source(
+                int index,
+                byte[] name,
+                OcraCredentialDescriptor descriptor,
+                OcraChallengeQuestion question,
+                long stream,
+                long counterBase,
+                byte[] session,
+                byte[] pinHash,
+                long timestampSteps) {
+            this.index = index;
+            this.name = name;
+            this.suite = descriptor.suite().value().getBytes(StandardCharsets.US_ASCII);
+            this.descriptor = descriptor;
+            this.alphabet = question == null ? null : alphabet(question.format());
+            this.questionLength = question == null ? 0 : question.length();
+            this.stream = stream;
+            this.counterBase = counterBase;
+            this.session = session;
+            this.pinHash = pinHash;
+            this.timestampSteps = timestampSteps;
+            this.digits = descriptor.suite().cryptoFunction().responseDigits();
+
+            StringBuilder prefix = new StringBuilder("{");
+            CorpusStreams.appendJsonString(prefix, "credentialId", descriptor.name());
+            prefix.append(',');
+            CorpusStreams.appendJsonString(prefix, "suite", descriptor.suite().value());
+            prefix.append(',');
+            this.jsonPrefix = prefix.toString();
+
+            StringBuilder fixed = new StringBuilder();
+            if (session != null) {
+                CorpusStreams.appendJsonString(fixed, "sessionHex", HEX.formatHex(session));
+                fixed.append(',');
+            }
+            if (pinHash != null) {
+                CorpusStreams.appendJsonString(fixed, "pinHashHex", HEX.formatHex(pinHash));
+                fixed.append(',');
+            }
+            if (timestampSteps >= 0) {
+                CorpusStreams.appendJsonString(
+                        fixed, "timestampHex", Long.toHexString(timestampSteps).toUpperCase(Locale.ROOT));
+                fixed.append(',');
+            }
+            this.jsonFixed = fixed.toString();
+        }
+
+        /** Validates the credential's fixed inputs and returns a kernel positioned at {@code pair}. */
+        private OcraResponseKernel prepare(long pair) {
+            return OcraResponseKernel.prepare(
+                    descriptor,
+                    new OcraExecutionContext(
+                            counterBase < 0 ? null : counterBase + pair,
+                            alphabet == null ? null : challenge(pair),
+                            session == null ? null : HEX.formatHex(session),
+                            null,
+                            null,
+                            pinHash == null ? null : HEX.formatHex(pinHash),
+                            timestampSteps < 0 ? null : Long.toHexString(timestampSteps)));
+        }
+
+        private byte[] render(Format format, long first, int count) {
+            OcraResponseKernel kernel = prepare(first);
+            if (format == Format.BINARY) {
+                ByteBuffer buffer = ByteBuffer.allocate(
+                        count * (Integer.BYTES + Long.BYTES + 1 + questionLength + 1 + digits));
+                for (long pair = first; pair < first + count; pair++) {
+                    String challenge = challenge(pair);
+                    String otp = kernel.response(counter(pair), challenge);
+                    buffer.putInt(index)
+                            .putLong(counterBase < 0 ? -1L : counter(pair))
+                            .put((byte) challenge.length())
+                            .put(challenge.getBytes(StandardCharsets.US_ASCII))
+                            .put((byte) otp.length())
+                            .put(otp.getBytes(StandardCharsets.US_ASCII));
+                }
+                return buffer.array();
+            }
+            StringBuilder lines = new StringBuilder(count * (jsonPrefix.length() + jsonFixed.length() + 64));
+            for (long pair = first; pair < first + count; pair++) {
+                String challenge = challenge(pair);
+                String otp = kernel.response(counter(pair), challenge);
+                lines.append(jsonPrefix);
+                if (counterBase >= 0) {
+                    lines.append("\"counter\":").append(counter(pair)).append(',');
+                }
+                lines.append("\"challenge\":\"").append(challenge).append("\",");
+                lines.append(jsonFixed);
+                lines.append("\"otp\":\"").append(otp).append("\"}\n");
+            }
+            return lines.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private long counter(long pair) {
+            return counterBase < 0 ? 0L : counterBase + pair;
+        }
+
+        private String challenge(long pair) {
+            if (alphabet == null) {
+                return "";
+            }
+            return CorpusStreams.randomString(stream, pair, alphabet, questionLength);
+        }
+
+        private static char[] alphabet(OcraChallengeFormat format) {
+            return switch (format) {
+                case NUMERIC -> NUMERIC;
+                case HEX -> HEX_DIGITS;
+                case ALPHANUMERIC, CHARACTER -> ALPHANUMERIC;
+            };
+        }
+    }
+}
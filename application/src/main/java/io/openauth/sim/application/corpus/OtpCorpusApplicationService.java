@@ -0,0 +1,472 @@
+package io.openauth.sim.application.corpus;
+
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.CredentialType;
+import io.openauth.sim.core.otp.hotp.HotpDescriptor;
+import io.openauth.sim.core.otp.hotp.HotpGenerator;
+import io.openauth.sim.core.otp.hotp.HotpHashAlgorithm;
+import io.openauth.sim.core.otp.totp.TotpCredentialPersistenceAdapter;
+import io.openauth.sim.core.otp.totp.TotpDescriptor;
+import io.openauth.sim.core.otp.totp.TotpGenerator;
+import io.openauth.sim.core.store.CredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Generates {@code (credential, counter or time step, otp)} corpora for external load tools such as JMeter and
+ * NeoLoad.
+ *
+ * <p>Stored HOTP or TOTP credentials are selected by type and optional name prefix. Every credential is expanded
+ * over the requested counter or time range. The exact size of every row is known up front, so the output file is
+ * laid out before any OTP is computed. Consecutive credentials are packed into regions of at most
+ * {@value #MAX_MAPPING_BYTES} bytes, and a credential whose rows do not fit is split across regions; the regions are
+ * then filled in parallel, one memory mapping each. Each worker keeps its HMAC keys warm in the per-thread pool of
+ * the shared HMAC engine, and a region is written by exactly one worker, so no output ordering or locking is needed.
+ *
+ * <p>CSV output starts with a header row. HOTP rows are {@code credentialId,counter,otp}; TOTP rows are
+ * {@code credentialId,timeStep,epochSeconds,otp}. Credential names containing a comma, a double quote or a line
+ * break are quoted as in RFC 4180. Binary output is big-endian:
+ *
+ * <pre>
+ * "OTPC" | u8 version | u8 protocol (0 = HOTP, 1 = TOTP) | u16 reserved | i32 credentialCount
+ * credentialCount x (u16 nameLength | UTF-8 name | u8 digits | i32 stepSeconds, 0 for HOTP)
+ * i64 rowCount
+ * rowCount x (i32 credentialIndex | i64 counter or time step | i32 otp)
+ * </pre>
+ */
+public final class OtpCorpusApplicationService {
+
+    /** Largest file region one worker maps and fills at a time. */
+    static final long MAX_MAPPING_BYTES = 64L * 1024 * 1024;
+
+    static final int BINARY_VERSION = 1;
+    static final int BINARY_ROW_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final byte[] MAGIC = "OTPC".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HOTP_CSV_HEADER = "credentialId,counter,otp\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TOTP_CSV_HEADER =
+            "credentialId,timeStep,epochSeconds,otp\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int OTP_BATCH = 1_024;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private static final String ATTR_HOTP_ALGORITHM = "hotp.algorithm";
+    private static final String ATTR_HOTP_DIGITS = "hotp.digits";
+
+    private final CredentialStore credentialStore;
+    private final long maxMappingBytes;
+    private final TotpCredentialPersistenceAdapter totpAdapter = new TotpCredentialPersistenceAdapter();
+
+    public OtpCorpusApplicationService(CredentialStore credentialStore) {
+        this(credentialStore, MAX_MAPPING_BYTES);
+    }
+
+    OtpCorpusApplicationService(CredentialStore credentialStore, long maxMappingBytes) {
+        this.credentialStore = Objects.requireNonNull(credentialStore, "credentialStore");
+        if (maxMappingBytes < 1) {
+            throw new IllegalArgumentException("maxMappingBytes must be positive");
+        }
+        this.maxMappingBytes = maxMappingBytes;
+    }
+
+    /**
+     * Writes the corpus for {@code command} to {@code output}, replacing any existing file.
+     *
+     * @throws IOException when the output cannot be created or mapped
+     */
+    public CorpusResult generate(CorpusCommand command, Path output) throws IOException {
+        Objects.requireNonNull(command, "command");
+        Objects.requireNonNull(output, "output");
+        long started = System.nanoTime();
+
+        List<Source> sources = new ArrayList<>();
+        int skipped = select(command, sources);
+        byte[] header = header(command, sources);
+
+        long rows = 0;
+        for (Source source : sources) {
+            rows += source.last - source.first + 1;
+        }
+        List<Region> regions = new ArrayList<>();
+        long offset = layout(command.format(), sources, header.length, regions);
+        if (command.format() == Format.BINARY) {
+            ByteBuffer.wrap(header).putLong(header.length - Long.BYTES, rows);
+        }
+
+        try (FileChannel channel = FileChannel.open(
+                output,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+            while (headerBuffer.hasRemaining()) {
+                channel.write(headerBuffer, headerBuffer.position());
+            }
+            fill(channel, command, regions);
+        }
+        return new CorpusResult(sources.size(), skipped, rows, offset, System.nanoTime() - started);
+    }
+
+    private int select(CorpusCommand command, List<Source> sources) {
+        CredentialType type = command.protocol() == Protocol.HOTP ? CredentialType.OATH_HOTP : CredentialType.OATH_TOTP;
+        List<Credential> credentials = credentialStore.findAll().stream()
+                .filter(credential -> credential.type() == type)
+                .filter(credential -> credential.name().startsWith(command.credentialPrefix()))
+                .sorted(Comparator.comparing(Credential::name))
+                .toList();
+        int skipped = 0;
+        for (Credential credential : credentials) {
+            byte[] name = credential.name().getBytes(StandardCharsets.UTF_8);
+            try {
+                if (name.length > MAX_NAME_BYTES) {
+                    throw new IllegalArgumentException("credential name too long");
+                }
+                byte[] rowName = command.format() == Format.CSV ? csvField(credential.name()) : name;
+                sources.add(
+                        command.protocol() == Protocol.HOTP
+                                ? hotpSource(sources.size(), name, rowName, credential, command)
+                                : totpSource(sources.size(), name, rowName, credential, command));
+            } catch (IllegalArgumentException ex) {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    /** Encodes {@code value} as a CSV field, quoting it when it holds a separator, a quote or a line break. */
+    static byte[] csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+        return ('"' + value.replace("\"", "\"\"") + '"').getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Source hotpSource(
+            int index, byte[] name, byte[] rowName, Credential credential, CorpusCommand command) {
+        Map<String, String> attributes = credential.attributes();
+        String algorithm = attributes.get(ATTR_HOTP_ALGORITHM);
+        String digits = attributes.get(ATTR_HOTP_DIGITS);
+        if (algorithm == null || digits == null) {
+            throw new IllegalArgumentException("Missing HOTP metadata");
+        }
+        HotpDescriptor descriptor = HotpDescriptor.create(
+                credential.name(),
+                credential.secret(),
+                HotpHashAlgorithm.valueOf(algorithm.trim()),
+                Integer.parseInt(digits.trim()));
+        HotpGenerator.generateInts(descriptor, command.first(), new int[1], 1);
+        return new Source(
+                index, name, rowName, descriptor.digits(), 0L, command.first(), command.last(), descriptor, null);
+    }
+
+    private Source totpSource(int index, byte[] name, byte[] rowName, Credential credential, CorpusCommand command) {
+        TotpDescriptor descriptor = totpAdapter.deserialize(VersionedCredentialRecordMapper.toRecord(credential));
+        long stepSeconds = descriptor.stepSeconds();
+        long first = command.first() / stepSeconds;
+        TotpGenerator.generateInts(descriptor, first, new int[1], 1);
+        return new Source(
+                index,
+                name,
+                rowName,
+                descriptor.digits(),
+                stepSeconds,
+                first,
+                command.last() / stepSeconds,
+                null,
+                descriptor);
+    }
+
+    private static byte[] header(CorpusCommand command, List<Source> sources) {
+        if (command.format() == Format.CSV) {
+            return command.protocol() == Protocol.HOTP ? HOTP_CSV_HEADER.clone() : TOTP_CSV_HEADER.clone();
+        }
+        int size = MAGIC.length + 4 + Integer.BYTES + Long.BYTES;
+        for (Source source : sources) {
+            size += Short.BYTES + source.name.length + 1 + Integer.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC)
+                .put((byte) BINARY_VERSION)
+                .put((byte) command.protocol().ordinal())
+                .putShort((short) 0)
+                .putInt(sources.size());
+        for (Source source : sources) {
+            buffer.putShort((short) source.name.length)
+                    .put(source.name)
+                    .put((byte) source.digits)
+                    .putInt((int) source.stepSeconds);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Packs the sources' rows, in order, into regions of at most {@code maxMappingBytes} (a single row larger than
+     * that gets a region of its own) and returns the next free offset.
+     */
+    private long layout(Format format, List<Source> sources, long offset, List<Region> regions) {
+        List<Segment> segments = new ArrayList<>();
+        long regionOffset = offset;
+        long regionSize = 0;
+        for (Source source : sources) {
+            // Rows grow with the counter, so the last row bounds every row of the source.
+            long maxRowBytes = source.rowBytes(format, source.last, source.last);
+            for (long first = source.first; first <= source.last; ) {
+                long rowsThatFit = (maxMappingBytes - regionSize) / maxRowBytes;
+                if (rowsThatFit == 0 && !segments.isEmpty()) {
+                    regions.add(new Region(List.copyOf(segments), regionOffset, regionSize));
+                    segments.clear();
+                    regionOffset += regionSize;
+                    regionSize = 0;
+                    continue;
+                }
+                rowsThatFit = Math.max(1L, rowsThatFit);
+                long last = source.last - first < rowsThatFit ? source.last : first + rowsThatFit - 1;
+                segments.add(new Segment(source, first, last));
+                regionSize += source.rowBytes(format, first, last);
+                first = last + 1;
+            }
+        }
+        if (!segments.isEmpty()) {
+            regions.add(new Region(List.copyOf(segments), regionOffset, regionSize));
+        }
+        return regionOffset + regionSize;
+    }
+
+    private static void fill(FileChannel channel, CorpusCommand command, List<Region> regions) throws IOException {
+        if (regions.isEmpty()) {
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(command.parallelism());
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(regions.size());
+            for (Region region : regions) {
+                tasks.add(pool.submit(() -> write(channel, command, region)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating OTP corpus", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IllegalStateException("Failed to generate OTP corpus", ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void write(FileChannel channel, CorpusCommand command, Region region) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, region.offset, region.size);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        boolean binary = command.format() == Format.BINARY;
+        int[] otps = new int[OTP_BATCH];
+        for (Segment segment : region.segments) {
+            Source source = segment.source;
+            for (long first = segment.first; first <= segment.last; ) {
+                int count = (int) Math.min(OTP_BATCH, segment.last - first + 1);
+                source.generate(first, otps, count);
+                for (int i = 0; i < count; i++) {
+                    long step = first + i;
+                    if (binary) {
+                        buffer.putInt(source.index).putLong(step).putInt(otps[i]);
+                    } else {
+                        buffer.put(source.rowName).put((byte) ',');
+                        putDecimal(buffer, step);
+                        buffer.put((byte) ',');
+                        if (source.stepSeconds > 0) {
+                            putDecimal(buffer, step * source.stepSeconds);
+                            buffer.put((byte) ',');
+                        }
+                        putOtp(buffer, otps[i], source.digits);
+                        buffer.put((byte) '\n');
+                    }
+                }
+                first += count;
+            }
+        }
+    }
+
+    private static void putDecimal(ByteBuffer buffer, long value) {
+        int end = buffer.position() + decimalLength(value);
+        long remaining = value;
+        for (int index = end - 1; index >= buffer.position(); index--) {
+            buffer.put(index, (byte) ('0' + remaining % 10));
+            remaining /= 10;
+        }
+        buffer.position(end);
+    }
+
+    private static void putOtp(ByteBuffer buffer, int otp, int digits) {
+        int end = buffer.position() + digits;
+        int remaining = otp;
+        for (int index = end - 1; index >= buffer.position(); index--) {
+            buffer.put(index, (byte) ('0' + remaining % 10));
+            remaining /= 10;
+        }
+        buffer.position(end);
+    }
+
+    static int decimalLength(long value) {
+        int length = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    /** Sum of the decimal lengths of {@code k * multiplier} for every {@code k} in {@code [first, last]}. */
+    static long decimalLengthSum(long first, long last, long multiplier) {
+        long total = 0;
+        long lower = 0;
+        long power = 1;
+        for (int digits = 1; digits <= 19; digits++) {
+            long upper = digits == 19 ? Long.MAX_VALUE : power * 10 - 1;
+            long low = Math.max(first, lower == 0 ? 0 : Math.floorDiv(lower - 1, multiplier) + 1);
+            long high = Math.min(last, upper / multiplier);
+            if (low <= high) {
+                total += (high - low + 1) * digits;
+            }
+            if (digits < 19) {
+                power *= 10;
+                lower = power;
+            }
+        }
+        return total;
+    }
+
+    /** Credential family a corpus is generated for. */
+    public enum Protocol {
+        HOTP,
+        TOTP
+    }
+
+    /** Corpus file encodings. */
+    public enum Format {
+        CSV,
+        BINARY
+    }
+
+    /**
+     * Corpus request. For HOTP, {@code first}/{@code last} are counters; for TOTP, they are epoch seconds and each
+     * credential covers the time steps they fall in. A blank {@code credentialPrefix} selects every credential of the
+     * protocol.
+     */
+    public record CorpusCommand(
+            Protocol protocol, String credentialPrefix, long first, long last, Format format, int parallelism) {
+
+        public CorpusCommand {
+            Objects.requireNonNull(protocol, "protocol");
+            Objects.requireNonNull(format, "format");
+            credentialPrefix = credentialPrefix == null ? "" : credentialPrefix.trim();
+            if (first < 0) {
+                throw new IllegalArgumentException("first must be non-negative");
+            }
+            if (last < first) {
+                throw new IllegalArgumentException("last must not be before first");
+            }
+            if (last == Long.MAX_VALUE) {
+                throw new IllegalArgumentException("last must be below Long.MAX_VALUE");
+            }
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be positive");
+            }
+        }
+    }
+
+    /** Outcome of a corpus run and the throughput it achieved. */
+    public record CorpusResult(
+            int credentials, int skippedCredentials, long otps, long bytesWritten, long elapsedNanos) {
+
+        /** @return OTPs generated per second, or the raw count when the run finished within a nanosecond */
+        public long otpsPerSecond() {
+            if (elapsedNanos <= 0) {
+                return otps;
+            }
+            return (long) (otps * 1_000_000_000d / elapsedNanos);
+        }
+    }
+
+    /** Contiguous file range mapped and filled by one worker. */
+    private record Region(List<Segment> segments, long offset, long size) {}
+
+    /** Rows {@code [first, last]} of one source inside a region. */
+    private record Segment(Source source, long first, long last) {}
+
+    private static final class Source {
+
+        private final int index;
+        private final byte[] name;
+        private final byte[] rowName;
+        private final int digits;
+        private final long stepSeconds;
+        private final long first;
+        private final long last;
+        private final HotpDescriptor hotp;
+        private final TotpDescriptor totp;
+
+        private Source(
+                int index,
+                byte[] name,
+                byte[] rowName,
+                int digits,
+                long stepSeconds,
+                long first,
+                long last,
+                HotpDescriptor hotp,
+                TotpDescriptor totp) {
+            this.index = index;
+            this.name = name;
+            this.rowName = rowName;
+            this.digits = digits;
+            this.stepSeconds = stepSeconds;
+            this.first = first;
+            this.last = last;
+            this.hotp = hotp;
+            this.totp = totp;
+        }
+
+        private void generate(long firstStep, int[] destination, int count) {
+            if (hotp != null) {
+                HotpGenerator.generateInts(hotp, firstStep, destination, count);
+            } else {
+                TotpGenerator.generateInts(totp, firstStep, destination, count);
+            }
+        }
+
+        /** Exact bytes taken by the rows for {@code [from, to]}. */
+        private long rowBytes(Format format, long from, long to) {
+            long rows = to - from + 1;
+            if (format == Format.BINARY) {
+                return rows * BINARY_ROW_BYTES;
+            }
+            long fixed = rowName.length + 1L + 1L + digits + 1L;
+            long bytes = rows * fixed + decimalLengthSum(from, to, 1L);
+            if (stepSeconds > 0) {
+                bytes += rows + decimalLengthSum(from, to, stepSeconds);
+            }
+            return bytes;
+        }
+    }
+}
@@ -4,7 +4,8 @@ import io.openauth.sim.application.preview.OtpPreview;
 import io.openauth.sim.application.telemetry.EmvCapTelemetryAdapter;
 import io.openauth.sim.application.telemetry.TelemetryContracts;
 import io.openauth.sim.application.telemetry.TelemetryFrame;
-import io.openauth.sim.core.emv.cap.EmvCapEngine;
+import io.openauth.sim.core.emv.cap.EmvCapAtcWindow;
+import io.openauth.sim.core.emv.cap.EmvCapEvaluation;
 import io.openauth.sim.core.emv.cap.EmvCapInput;
 import io.openauth.sim.core.emv.cap.EmvCapMode;
 import io.openauth.sim.core.emv.cap.EmvCapResult;
@@ -57,10 +58,10 @@ public final class EmvCapEvaluationApplicationService {
         int previewBackward = Math.max(0, request.previewWindowBackward());
         int previewForward = Math.max(0, request.previewWindowForward());
         try {
-            EmvCapInput input = toDomainInput(request);
-            EmvCapResult result = EmvCapEngine.evaluate(input);
+            EmvCapAtcWindow window = EmvCapAtcWindow.prepare(toDomainInput(request));
+            EmvCapEvaluation evaluation = window.evaluation(0);
 
-            int maskedDigitsCount = countMaskedDigits(result.maskedDigitsOverlay());
+            int maskedDigitsCount = evaluation.maskedDigitCount();
             int ipbMaskLength = request.issuerProprietaryBitmapHex().length() / 2;
 
             TelemetrySignal telemetry = TelemetrySignal.success(
@@ -73,11 +74,13 @@ public final class EmvCapEvaluationApplicationService {
                     previewBackward,
                     previewForward);
 
-            List<OtpPreview> previews = buildPreviewEntries(request, result, previewBackward, previewForward);
-            Trace trace =
-                    verboseTrace ? toTrace(result, request, maskedDigitsCount, previewBackward, previewForward) : null;
+            List<OtpPreview> previews =
+                    buildPreviewEntries(request, window, evaluation.otp(), previewBackward, previewForward);
+            Trace trace = verboseTrace
+                    ? toTrace(evaluation.result(), request, maskedDigitsCount, previewBackward, previewForward)
+                    : null;
 
-            return new EvaluationResult(telemetry, result.otp().decimal(), maskedDigitsCount, previews, trace);
+            return new EvaluationResult(telemetry, evaluation.otp(), maskedDigitsCount, previews, trace);
         } catch (IllegalArgumentException ex) {
             int ipbMaskLength = safeMaskLength(request);
             TelemetrySignal telemetry = TelemetrySignal.validationFailure(
@@ -106,7 +109,11 @@ public final class EmvCapEvaluationApplicationService {
     }
 
     private static List<OtpPreview> buildPreviewEntries(
-            EvaluationRequest request, EmvCapResult centerResult, int backward, int forward) {
+            EvaluationRequest request,
+            EmvCapAtcWindow window,
+            String centerOtp,
+            int backward,
+            int forward) {
         int sanitizedBackward = Math.max(0, backward);
         int sanitizedForward = Math.max(0, forward);
         List<OtpPreview> previews = new ArrayList<>();
@@ -117,19 +124,21 @@ public final class EmvCapEvaluationApplicationService {
             }
             String otp;
             if (delta == 0) {
-                otp = centerResult.otp().decimal();
+                otp = centerOtp;
             } else {
                 try {
-                    EmvCapResult neighbor = EmvCapEngine.evaluate(toDomainInput(request, adjustedAtc.get()));
-                    otp = neighbor.otp().decimal();
+                    otp = window.otp(delta);
                 } catch (RuntimeException ex) {
                     continue;
                 }
+                if (otp == null) {
+                    continue;
+                }
             }
             previews.add(OtpPreview.forCounter(adjustedAtc.get(), delta, otp));
         }
         if (previews.isEmpty()) {
-            previews.add(OtpPreview.centerOnly(centerResult.otp().decimal()));
+            previews.add(OtpPreview.centerOnly(centerOtp));
         }
         return List.copyOf(previews);
     }
@@ -160,11 +169,7 @@ public final class EmvCapEvaluationApplicationService {
         return Optional.of(formatted);
     }
 
-    private static EmvCapInput toDomainInput(EvaluationRequest request) {
-        return toDomainInput(request, request.atcHex());
-    }
-
-    private static EmvCapInput toDomainInput(EvaluationRequest request, String atcHex) {
+    static EmvCapInput toDomainInput(EvaluationRequest request) {
         EmvCapInput.CustomerInputs customerInputs = new EmvCapInput.CustomerInputs(
                 request.customerInputs().challenge(),
                 request.customerInputs().reference(),
@@ -179,7 +184,7 @@ public final class EmvCapEvaluationApplicationService {
         return new EmvCapInput(
                 request.mode(),
                 request.masterKeyHex(),
-                atcHex,
+                request.atcHex(),
                 request.branchFactor(),
                 request.height(),
                 request.ivHex(),
@@ -207,16 +212,6 @@ public final class EmvCapEvaluationApplicationService {
         return bitmap.length() / 2;
     }
 
-    private static int countMaskedDigits(String maskedDigitsOverlay) {
-        int count = 0;
-        for (int i = 0; i < maskedDigitsOverlay.length(); i++) {
-            if (maskedDigitsOverlay.charAt(i) != '.') {
-                count++;
-            }
-        }
-        return count;
-    }
-
     /** Immutable evaluation request payload supplied by facades. */
     public record EvaluationRequest(
             EmvCapMode mode,
@@ -8,6 +8,7 @@ import io.openauth.sim.application.emv.cap.EmvCapEvaluationApplicationService.Tr
 import io.openauth.sim.application.telemetry.TelemetryContracts;
 import io.openauth.sim.application.telemetry.TelemetryFrame;
 import io.openauth.sim.core.emv.cap.EmvCapCredentialDescriptor;
+import io.openauth.sim.core.emv.cap.EmvCapAtcWindow;
 import io.openauth.sim.core.emv.cap.EmvCapCredentialPersistenceAdapter;
 import io.openauth.sim.core.emv.cap.EmvCapMode;
 import io.openauth.sim.core.model.Credential;
@@ -16,9 +17,7 @@ import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
@@ -90,50 +89,39 @@ public final class EmvCapReplayApplicationService {
 
         Objects.requireNonNull(baseRequest, "baseRequest");
 
-        List<Integer> deltas = previewDeltas(driftBackward, driftForward);
-        Optional<EmvCapEvaluationApplicationService.Trace> lastTrace = Optional.empty();
-        String baselineOtp = null;
-        for (int delta : deltas) {
-            EvaluationRequest candidate = delta == 0 ? baseRequest : adjustAtc(baseRequest, delta);
-            if (candidate == null) {
-                continue;
-            }
-
-            EmvCapEvaluationApplicationService.EvaluationResult evaluation =
-                    evaluationService.evaluate(candidate, verbose);
-            if (delta == 0) {
-                baselineOtp = evaluation.otp();
-            }
-            if (verbose) {
-                lastTrace = evaluation.traceOptional();
-            }
-            if (otpMatches(evaluation.otp(), suppliedOtp)) {
-                String otpHash = otpHash(evaluation.otp());
-                TelemetrySignal telemetry = successTelemetry(
-                        candidate,
-                        credentialSource,
-                        credentialId,
-                        driftBackward,
-                        driftForward,
-                        delta,
-                        suppliedOtp.length(),
-                        otpHash);
-
-                Optional<EmvCapEvaluationApplicationService.Trace> trace =
-                        verbose ? evaluation.traceOptional() : Optional.empty();
-
-                return new ReplayResult(
-                        telemetry,
-                        true,
-                        OptionalInt.of(delta),
-                        credentialSource,
-                        credentialId,
-                        driftBackward,
-                        driftForward,
-                        candidate.mode(),
-                        Optional.of(candidate),
-                        trace);
-            }
+        EmvCapAtcWindow window =
+                EmvCapAtcWindow.prepare(EmvCapEvaluationApplicationService.toDomainInput(baseRequest));
+        String baselineOtp = window.otp(0);
+        OptionalInt matchedDelta = window.match(suppliedOtp, driftBackward, driftForward);
+
+        if (matchedDelta.isPresent()) {
+            int delta = matchedDelta.getAsInt();
+            EvaluationRequest candidate = adjustAtc(baseRequest, delta);
+            String otpHash = otpHash(suppliedOtp);
+            TelemetrySignal telemetry = successTelemetry(
+                    candidate,
+                    credentialSource,
+                    credentialId,
+                    driftBackward,
+                    driftForward,
+                    delta,
+                    suppliedOtp.length(),
+                    otpHash);
+
+            Optional<EmvCapEvaluationApplicationService.Trace> trace =
+                    verbose ? evaluationService.evaluate(candidate, true).traceOptional() : Optional.empty();
+
+            return new ReplayResult(
+                    telemetry,
+                    true,
+                    matchedDelta,
+                    credentialSource,
+                    credentialId,
+                    driftBackward,
+                    driftForward,
+                    candidate.mode(),
+                    Optional.of(candidate),
+                    trace);
         }
 
         String expectedOtpHash = otpHash(baselineOtp);
@@ -156,7 +144,7 @@ public final class EmvCapReplayApplicationService {
                 driftForward,
                 baseRequest.mode(),
                 Optional.of(baseRequest),
-                lastTrace);
+                verbose ? evaluationService.evaluate(baseRequest, true).traceOptional() : Optional.empty());
     }
 
     private EvaluationRequest resolveStoredRequest(ReplayCommand.Stored command) {
@@ -249,25 +237,6 @@ public final class EmvCapReplayApplicationService {
                 request.issuerApplicationDataHex());
     }
 
-    private static List<Integer> previewDeltas(int backward, int forward) {
-        List<Integer> deltas = new ArrayList<>();
-        deltas.add(0);
-        int limit = Math.max(backward, forward);
-        for (int step = 1; step <= limit; step++) {
-            if (step <= forward) {
-                deltas.add(step);
-            }
-            if (step <= backward) {
-                deltas.add(-step);
-            }
-        }
-        return deltas;
-    }
-
-    private static boolean otpMatches(String candidate, String supplied) {
-        return candidate != null && candidate.trim().equals(supplied);
-    }
-
     private static TelemetrySignal successTelemetry(
             EvaluationRequest request,
             String credentialSource,
@@ -6,6 +6,7 @@ import io.openauth.sim.core.fido2.WebAuthnCredentialDescriptor;
 import io.openauth.sim.core.fido2.WebAuthnCredentialPersistenceAdapter;
 import io.openauth.sim.core.fido2.WebAuthnRelyingPartyId;
 import io.openauth.sim.core.fido2.WebAuthnSignatureAlgorithm;
+import io.openauth.sim.core.fido2.WebAuthnSignatures;
 import io.openauth.sim.core.model.Credential;
 import io.openauth.sim.core.store.CredentialStore;
 import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
@@ -35,9 +36,7 @@ import java.security.spec.ECPrivateKeySpec;
 import java.security.spec.ECPublicKeySpec;
 import java.security.spec.EllipticCurve;
 import java.security.spec.InvalidKeySpecException;
-import java.security.spec.MGF1ParameterSpec;
 import java.security.spec.PKCS8EncodedKeySpec;
-import java.security.spec.PSSParameterSpec;
 import java.security.spec.RSAPrivateCrtKeySpec;
 import java.security.spec.RSAPrivateKeySpec;
 import java.security.spec.RSAPublicKeySpec;
@@ -339,11 +338,7 @@ public final class WebAuthnAssertionGenerationApplicationService {
         System.arraycopy(authenticatorData, 0, signedPayload, 0, authenticatorData.length);
         System.arraycopy(clientDataHash, 0, signedPayload, authenticatorData.length, clientDataHash.length);
 
-        Signature signature = signatureFor(algorithm);
-        signature.initSign(privateKey);
-        if (algorithm == WebAuthnSignatureAlgorithm.PS256) {
-            signature.setParameter(new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1));
-        }
+        Signature signature = WebAuthnSignatures.signer(algorithm, privateKey);
         signature.update(signedPayload);
         return signature.sign();
     }
@@ -542,17 +537,6 @@ public final class WebAuthnAssertionGenerationApplicationService {
         return String.format("%02x", value & 0xFF);
     }
 
-    private static Signature signatureFor(WebAuthnSignatureAlgorithm algorithm) throws GeneralSecurityException {
-        return switch (algorithm) {
-            case ES256 -> Signature.getInstance("SHA256withECDSA");
-            case ES384 -> Signature.getInstance("SHA384withECDSA");
-            case ES512 -> Signature.getInstance("SHA512withECDSA");
-            case RS256 -> Signature.getInstance("SHA256withRSA");
-            case PS256 -> Signature.getInstance("RSASSA-PSS");
-            case EDDSA -> Signature.getInstance("Ed25519");
-        };
-    }
-
     private static KeyMaterial parsePrivateKey(String value, WebAuthnSignatureAlgorithm algorithm)
             throws GeneralSecurityException {
         if (value == null || value.trim().isEmpty()) {
@@ -128,7 +128,8 @@ public final class WebAuthnAttestationGenerationApplicationService {
                 throw new IllegalArgumentException("Stored credential does not contain attestation metadata");
             }
 
-            WebAuthnAttestationCredentialDescriptor descriptor = persistenceAdapter.deserializeAttestation(record);
+            WebAuthnAttestationCredentialDescriptor descriptor = persistenceAdapter.deserializeAttestation(
+                    persistenceAdapter.resolveArtefacts(record, credentialStore));
 
             storedDescriptor = descriptor;
 
@@ -86,15 +86,16 @@ public final class WebAuthnAttestationReplayApplicationService {
             if (!"true".equals(record.attributes().get(ATTR_ATTESTATION_ENABLED_KEY))) {
                 throw new IllegalArgumentException("Stored credential does not contain attestation metadata");
             }
+            record = persistenceAdapter.resolveArtefacts(record, credentialStore);
 
             WebAuthnAttestationCredentialDescriptor descriptor = persistenceAdapter.deserializeAttestation(record);
 
-            byte[] attestationObject =
-                    decodeBase64Attribute(record.attributes(), "fido2.attestation.stored.attestationObject");
-            byte[] clientDataJson =
-                    decodeBase64Attribute(record.attributes(), "fido2.attestation.stored.clientDataJson");
-            byte[] expectedChallenge =
-                    decodeBase64Attribute(record.attributes(), "fido2.attestation.stored.expectedChallenge");
+            byte[] attestationObject = decodeBase64Attribute(
+                    record.attributes(), WebAuthnCredentialPersistenceAdapter.ATTR_STORED_ATTESTATION_OBJECT);
+            byte[] clientDataJson = decodeBase64Attribute(
+                    record.attributes(), WebAuthnCredentialPersistenceAdapter.ATTR_STORED_CLIENT_DATA_JSON);
+            byte[] expectedChallenge = decodeBase64Attribute(
+                    record.attributes(), WebAuthnCredentialPersistenceAdapter.ATTR_STORED_EXPECTED_CHALLENGE);
 
             List<X509Certificate> trustAnchors = decodeCertificates(descriptor.certificateChainPem());
 
@@ -21,9 +21,12 @@ import java.util.Optional;
 /** Service that seeds curated WebAuthn attestation credentials into the shared credential store. */
 public final class WebAuthnAttestationSeedService {
 
-    private static final String ATTR_ATTESTATION_OBJECT = "fido2.attestation.stored.attestationObject";
-    private static final String ATTR_CLIENT_DATA_JSON = "fido2.attestation.stored.clientDataJson";
-    private static final String ATTR_EXPECTED_CHALLENGE = "fido2.attestation.stored.expectedChallenge";
+    private static final String ATTR_ATTESTATION_OBJECT =
+            WebAuthnCredentialPersistenceAdapter.ATTR_STORED_ATTESTATION_OBJECT;
+    private static final String ATTR_CLIENT_DATA_JSON =
+            WebAuthnCredentialPersistenceAdapter.ATTR_STORED_CLIENT_DATA_JSON;
+    private static final String ATTR_EXPECTED_CHALLENGE =
+            WebAuthnCredentialPersistenceAdapter.ATTR_STORED_EXPECTED_CHALLENGE;
 
     private static final Base64.Encoder URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
 
@@ -77,7 +80,7 @@ public final class WebAuthnAttestationSeedService {
                     baseRecord.secret(),
                     baseRecord.createdAt(),
                     baseRecord.updatedAt(),
-                    Map.copyOf(attributes));
+                    Map.copyOf(persistenceAdapter.externalizeArtefacts(attributes, credentialStore)));
 
             Credential merged = VersionedCredentialRecordMapper.toCredential(enriched);
             SecretMaterial secret = existing.map(Credential::secret)
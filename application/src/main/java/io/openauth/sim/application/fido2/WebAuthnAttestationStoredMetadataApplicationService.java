@@ -13,9 +13,12 @@ import java.util.Optional;
 /** Loads stored WebAuthn attestation metadata through the application layer. */
 public final class WebAuthnAttestationStoredMetadataApplicationService {
 
-    private static final String ATTR_ATTESTATION_OBJECT = "fido2.attestation.stored.attestationObject";
-    private static final String ATTR_CLIENT_DATA_JSON = "fido2.attestation.stored.clientDataJson";
-    private static final String ATTR_EXPECTED_CHALLENGE = "fido2.attestation.stored.expectedChallenge";
+    private static final String ATTR_ATTESTATION_OBJECT =
+            WebAuthnCredentialPersistenceAdapter.ATTR_STORED_ATTESTATION_OBJECT;
+    private static final String ATTR_CLIENT_DATA_JSON =
+            WebAuthnCredentialPersistenceAdapter.ATTR_STORED_CLIENT_DATA_JSON;
+    private static final String ATTR_EXPECTED_CHALLENGE =
+            WebAuthnCredentialPersistenceAdapter.ATTR_STORED_EXPECTED_CHALLENGE;
 
     private final CredentialStore credentialStore;
     private final WebAuthnCredentialPersistenceAdapter persistenceAdapter;
@@ -41,9 +44,11 @@ public final class WebAuthnAttestationStoredMetadataApplicationService {
                 .map(VersionedCredentialRecordMapper::toRecord)
                 .flatMap(record -> {
                     try {
+                        VersionedCredentialRecord resolved =
+                                persistenceAdapter.resolveArtefacts(record, credentialStore);
                         WebAuthnAttestationCredentialDescriptor descriptor =
-                                persistenceAdapter.deserializeAttestation(record);
-                        return Optional.of(toStoredAttestation(record, descriptor));
+                                persistenceAdapter.deserializeAttestation(resolved);
+                        return Optional.of(toStoredAttestation(resolved, descriptor));
                     } catch (IllegalArgumentException ex) {
                         return Optional.empty();
                     }
@@ -6,16 +6,21 @@ import io.openauth.sim.application.telemetry.TelemetryFrame;
 import io.openauth.sim.core.model.Credential;
 import io.openauth.sim.core.model.CredentialType;
 import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.otp.OtpDigits;
 import io.openauth.sim.core.otp.hotp.HotpDescriptor;
 import io.openauth.sim.core.otp.hotp.HotpHashAlgorithm;
-import io.openauth.sim.core.otp.hotp.HotpValidator;
+import io.openauth.sim.core.otp.hotp.HotpResyncSearch;
 import io.openauth.sim.core.otp.hotp.HotpVerificationResult;
+import io.openauth.sim.core.otp.hotp.HotpWindowMatcher;
 import io.openauth.sim.core.store.CredentialStore;
 import io.openauth.sim.core.trace.VerboseTrace;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.function.Consumer;
 
 /** Application-layer HOTP replay orchestrator (stored + inline flows, non-mutating). */
@@ -24,6 +29,10 @@ public final class HotpReplayApplicationService {
     private static final String SPEC_HOTP_INPUT = "rfc4226§5.1";
     private static final String SPEC_HOTP_MOD = "rfc4226§5.4";
     private static final int DEFAULT_LOOK_AHEAD = 10;
+    /** Look-ahead used by facades when a resynchronisation is requested without an explicit window. */
+    public static final int DEFAULT_RESYNC_LOOK_AHEAD = 1_000;
+    /** Upper bound for resynchronisation windows; larger searches belong in an offline tool. */
+    public static final int MAX_RESYNC_LOOK_AHEAD = 10_000_000;
     private static final String SECRET_FORMAT_HEX = "hex";
 
     private static final String ATTR_ALGORITHM = "hotp.algorithm";
@@ -42,17 +51,51 @@ public final class HotpReplayApplicationService {
     }
 
     public ReplayResult replay(ReplayCommand command, boolean verbose) {
+        return replay(command, verbose, null);
+    }
+
+    /**
+     * Replays the command, optionally widening the look-ahead into a parallel resynchronisation search.
+     *
+     * @param resync large-window search parameters, or {@code null} for the default replay window
+     */
+    public ReplayResult replay(ReplayCommand command, boolean verbose, ResyncWindow resync) {
         Objects.requireNonNull(command, "command");
 
         if (command instanceof ReplayCommand.Stored stored) {
-            return replayStored(stored, verbose);
+            return replayStored(stored, verbose, resync);
         }
         if (command instanceof ReplayCommand.Inline inline) {
-            return replayInline(inline, verbose);
+            return replayInline(inline, verbose, resync);
         }
         throw new IllegalStateException("Unsupported HOTP replay command: " + command);
     }
 
+    /**
+     * Resynchronisation window (RFC 4226 §7.4). When {@code nextOtp} is present, the matched counter must also
+     * produce {@code nextOtp} on the following counter.
+     */
+    public record ResyncWindow(int lookAhead, String nextOtp) {
+
+        public ResyncWindow {
+            nextOtp = nextOtp == null || nextOtp.isBlank() ? null : nextOtp.trim();
+        }
+
+        public boolean consecutiveOtps() {
+            return nextOtp != null;
+        }
+    }
+
+    /** Summary of a resynchronisation search, including the observed search rate. */
+    public record ResyncSummary(
+            int lookAhead,
+            boolean consecutiveOtps,
+            long candidatesSearched,
+            long elapsedNanos,
+            long candidatesPerSecond) {
+        // Canonical record; no additional behaviour.
+    }
+
     public sealed interface ReplayCommand permits ReplayCommand.Stored, ReplayCommand.Inline {
         String otp();
 
@@ -106,7 +149,7 @@ public final class HotpReplayApplicationService {
         return counter - lookAhead;
     }
 
-    private record AttemptTrace(long counter, HotpTraceComputation computation, boolean match) {
+    private record AttemptTrace(long counter, int otp, boolean match) {
         // Captures a single verification attempt and whether it matched the provided OTP.
     }
 
@@ -118,7 +161,33 @@ public final class HotpReplayApplicationService {
             long nextCounter,
             HotpHashAlgorithm algorithm,
             Integer digits,
-            VerboseTrace trace) {
+            VerboseTrace trace,
+            ResyncSummary resync) {
+
+        public ReplayResult(
+                TelemetrySignal telemetry,
+                boolean credentialReference,
+                String credentialId,
+                long previousCounter,
+                long nextCounter,
+                HotpHashAlgorithm algorithm,
+                Integer digits,
+                VerboseTrace trace) {
+            this(
+                    telemetry,
+                    credentialReference,
+                    credentialId,
+                    previousCounter,
+                    nextCounter,
+                    algorithm,
+                    digits,
+                    trace,
+                    null);
+        }
+
+        public Optional<ResyncSummary> resyncSummary() {
+            return Optional.ofNullable(resync);
+        }
 
         public ReplayFrame replayFrame(HotpTelemetryAdapter adapter, String telemetryId) {
             return new ReplayFrame(telemetry.emit(adapter, telemetryId));
@@ -164,7 +233,7 @@ public final class HotpReplayApplicationService {
         ERROR
     }
 
-    private ReplayResult replayStored(ReplayCommand.Stored command, boolean verbose) {
+    private ReplayResult replayStored(ReplayCommand.Stored command, boolean verbose, ResyncWindow resync) {
         VerboseTrace.Builder trace = newTrace(verbose, "hotp.replay.stored");
         metadata(trace, "protocol", "HOTP");
         metadata(trace, "mode", "stored");
@@ -187,7 +256,8 @@ public final class HotpReplayApplicationService {
             HotpDescriptor descriptor = resolved.descriptor();
             long counter = resolved.counter();
 
-            return replayDescriptor(descriptor, command.otp(), counter, true, descriptor.name(), "stored", trace);
+            return replayDescriptor(
+                    descriptor, command.otp(), counter, true, descriptor.name(), "stored", resync, trace);
         } catch (IllegalArgumentException ex) {
             addStep(trace, step -> step.id("normalize.input")
                     .summary("Normalize stored HOTP replay request")
@@ -212,7 +282,7 @@ public final class HotpReplayApplicationService {
         }
     }
 
-    private ReplayResult replayInline(ReplayCommand.Inline command, boolean verbose) {
+    private ReplayResult replayInline(ReplayCommand.Inline command, boolean verbose, ResyncWindow resync) {
         VerboseTrace.Builder trace = newTrace(verbose, "hotp.replay.inline");
         metadata(trace, "protocol", "HOTP");
         metadata(trace, "mode", "inline");
@@ -228,7 +298,14 @@ public final class HotpReplayApplicationService {
                     command.digits());
 
             return replayDescriptor(
-                    descriptor, command.otp(), command.counter(), false, INLINE_DESCRIPTOR_NAME, "inline", trace);
+                    descriptor,
+                    command.otp(),
+                    command.counter(),
+                    false,
+                    INLINE_DESCRIPTOR_NAME,
+                    "inline",
+                    resync,
+                    trace);
         } catch (IllegalArgumentException ex) {
             addStep(trace, step -> step.id("normalize.input")
                     .summary("Normalize inline HOTP replay request")
@@ -270,33 +347,52 @@ public final class HotpReplayApplicationService {
             boolean credentialReference,
             String credentialId,
             String credentialSource,
+            ResyncWindow resync,
             VerboseTrace.Builder trace) {
 
         try {
-            final long maxCounter = safeWindowUpperBound(counter, DEFAULT_LOOK_AHEAD);
-            final long minCounter = safeWindowLowerBound(counter, DEFAULT_LOOK_AHEAD);
-            byte[] secretBytes = descriptor.secret().value();
-            HotpVerificationResult verificationResult = HotpVerificationResult.failure(counter);
-            HotpTraceComputation matchComputation = null;
-            Long matchedCounter = null;
-            java.util.List<AttemptTrace> attempts = new java.util.ArrayList<>();
-
-            for (long candidate = counter; candidate <= maxCounter; candidate++) {
-                HotpTraceComputation computation = HotpTraceCalculator.compute(descriptor, secretBytes, candidate);
-                HotpVerificationResult candidateResult = HotpValidator.verify(descriptor, candidate, otp);
-                boolean match = candidateResult.valid();
-                attempts.add(new AttemptTrace(candidate, computation, match));
-                if (match) {
-                    verificationResult = candidateResult;
-                    matchComputation = computation;
-                    matchedCounter = candidate;
-                    break;
-                }
+            if (resync != null && (resync.lookAhead() < 1 || resync.lookAhead() > MAX_RESYNC_LOOK_AHEAD)) {
+                throw new IllegalArgumentException("lookAhead must be between 1 and " + MAX_RESYNC_LOOK_AHEAD);
             }
-
-            HotpTraceComputation baseline = attempts.isEmpty()
-                    ? HotpTraceCalculator.compute(descriptor, secretBytes, counter)
-                    : attempts.get(0).computation();
+            final int lookAhead = resync != null ? resync.lookAhead() : DEFAULT_LOOK_AHEAD;
+            final long maxCounter = safeWindowUpperBound(counter, lookAhead);
+            final long minCounter = safeWindowLowerBound(counter, lookAhead);
+            // Trace material is only gathered when a verbose trace was requested for the default window; otherwise
+            // the window is searched with one HMAC per candidate and nothing is retained.
+            List<AttemptTrace> attempts = trace != null && resync == null ? new ArrayList<>() : null;
+            OptionalLong windowMatch;
+            ResyncSummary resyncSummary = null;
+            if (resync != null) {
+                HotpResyncSearch.Result search =
+                        HotpResyncSearch.search(descriptor, otp, resync.nextOtp(), counter, maxCounter);
+                windowMatch = search.matchedCounter();
+                resyncSummary = new ResyncSummary(
+                        lookAhead,
+                        resync.consecutiveOtps(),
+                        search.candidatesSearched(),
+                        search.elapsedNanos(),
+                        search.candidatesPerSecond());
+            } else {
+                windowMatch = HotpWindowMatcher.findMatch(
+                        descriptor,
+                        otp,
+                        counter,
+                        maxCounter,
+                        attempts == null
+                                ? null
+                                : (candidate, value, hit) -> attempts.add(new AttemptTrace(candidate, value, hit)));
+            }
+            Long matchedCounter = windowMatch.isPresent() ? windowMatch.getAsLong() : null;
+            HotpVerificationResult verificationResult = matchedCounter != null
+                    ? HotpVerificationResult.success(matchedCounter + 1)
+                    : HotpVerificationResult.failure(counter);
+
+            byte[] secretBytes = trace != null ? descriptor.secret().value() : null;
+            HotpTraceComputation matchComputation = trace != null && matchedCounter != null
+                    ? HotpTraceCalculator.compute(descriptor, secretBytes, matchedCounter)
+                    : null;
+            final int secretLength = secretBytes != null ? secretBytes.length : 0;
+            final String secretHash = secretBytes != null ? HotpTraceCalculator.sha256Digest(secretBytes) : null;
 
             final String operationDetail = credentialReference ? "CredentialStore.findByName" : "HotpDescriptor.create";
             final String operationCode = credentialReference ? "replay.stored" : "replay.inline";
@@ -315,9 +411,9 @@ public final class HotpReplayApplicationService {
                         .attribute(VerboseTrace.AttributeType.INT, "digits", descriptor.digits())
                         .attribute(VerboseTrace.AttributeType.STRING, "otp.provided", providedOtp)
                         .attribute(VerboseTrace.AttributeType.INT, "counter.hint", counter)
-                        .attribute(VerboseTrace.AttributeType.INT, "window", DEFAULT_LOOK_AHEAD)
-                        .attribute(VerboseTrace.AttributeType.INT, "secret.len.bytes", baseline.secretLength())
-                        .attribute(VerboseTrace.AttributeType.STRING, "secret.sha256", baseline.secretHash());
+                        .attribute(VerboseTrace.AttributeType.INT, "window", lookAhead)
+                        .attribute(VerboseTrace.AttributeType.INT, "secret.len.bytes", secretLength)
+                        .attribute(VerboseTrace.AttributeType.STRING, "secret.sha256", secretHash);
                 if (!credentialReference) {
                     step.attribute(VerboseTrace.AttributeType.STRING, "secret.format", SECRET_FORMAT_HEX);
                 }
@@ -328,20 +424,32 @@ public final class HotpReplayApplicationService {
 
             HotpTraceComputation matchDetails = matchComputation;
             final Long matchedWindowCounter = matchedCounter;
+            final ResyncSummary searchSummary = resyncSummary;
             addStep(trace, step -> {
                 step.id("search.window")
                         .summary("Search HOTP verification window")
-                        .detail("HotpValidator.verify")
+                        .detail(searchSummary != null ? "HotpResyncSearch.search" : "HotpWindowMatcher.findMatch")
                         .spec(SPEC_HOTP_MOD);
                 step.attribute(
                         VerboseTrace.AttributeType.STRING, "window.range", formatWindowRange(minCounter, maxCounter));
                 step.attribute(VerboseTrace.AttributeType.STRING, "order", "ascending");
-                attempts.forEach(attempt -> {
-                    String attemptValue =
-                            attempt.computation().otpString() + (attempt.match() ? " (match=true)" : " (match=false)");
+                if (searchSummary != null) {
+                    step.attribute(
+                            VerboseTrace.AttributeType.BOOL, "resync.consecutive", searchSummary.consecutiveOtps());
                     step.attribute(
-                            VerboseTrace.AttributeType.STRING, "attempt." + attempt.counter() + ".otp", attemptValue);
-                });
+                            VerboseTrace.AttributeType.INT,
+                            "resync.candidates.searched",
+                            searchSummary.candidatesSearched());
+                } else {
+                    attempts.forEach(attempt -> {
+                        String attemptValue = OtpDigits.format(attempt.otp(), descriptor.digits())
+                                + (attempt.match() ? " (match=true)" : " (match=false)");
+                        step.attribute(
+                                VerboseTrace.AttributeType.STRING,
+                                "attempt." + attempt.counter() + ".otp",
+                                attemptValue);
+                    });
+                }
                 if (matchDetails != null && matchedWindowCounter != null) {
                     step.attribute(
                             VerboseTrace.AttributeType.STRING,
@@ -420,14 +528,13 @@ public final class HotpReplayApplicationService {
                 }
             });
 
-            final boolean match =
-                    matchComputation != null && matchedWindowCounter != null && verificationResult.valid();
+            final boolean match = matchedWindowCounter != null && verificationResult.valid();
             final Long decisionMatchedCounter = matchedWindowCounter;
             final HotpVerificationResult decisionResult = verificationResult;
             addStep(trace, step -> {
                 step.id("decision")
                         .summary("Derive HOTP verification decision")
-                        .detail("HotpValidator.verify")
+                        .detail("HotpWindowMatcher.findMatch")
                         .spec(SPEC_HOTP_MOD)
                         .attribute(VerboseTrace.AttributeType.BOOL, "verify.match", match);
                 if (match) {
@@ -447,6 +554,10 @@ public final class HotpReplayApplicationService {
                 metadata(trace, "matchedCounter", matchedCounterLabel);
                 long previousCounterValue = matchedCounter != null ? matchedCounter.longValue() : counter;
                 long telemetryNextCounter = safeIncrement(previousCounterValue);
+                if (resyncSummary != null && resyncSummary.consecutiveOtps()) {
+                    // The second OTP consumed the following counter as well.
+                    telemetryNextCounter = safeIncrement(telemetryNextCounter);
+                }
                 long nextCounterValue = telemetryNextCounter;
                 return successResult(
                         credentialReference,
@@ -457,6 +568,7 @@ public final class HotpReplayApplicationService {
                         previousCounterValue,
                         nextCounterValue,
                         telemetryNextCounter,
+                        resyncSummary,
                         buildTrace(trace));
             }
 
@@ -469,11 +581,12 @@ public final class HotpReplayApplicationService {
                     counter,
                     credentialReference ? safeIncrement(counter) : counter,
                     counter,
+                    resyncSummary,
                     buildTrace(trace));
         } catch (IllegalArgumentException ex) {
             addStep(trace, step -> step.id("decision")
                     .summary("Derive HOTP verification decision")
-                    .detail("HotpValidator.verify")
+                    .detail("HotpWindowMatcher.findMatch")
                     .note("failure", safeMessage(ex)));
             return validationFailure(
                     credentialId,
@@ -511,13 +624,23 @@ public final class HotpReplayApplicationService {
             long previousCounter,
             long nextCounter,
             long telemetryNextCounter,
+            ResyncSummary resync,
             VerboseTrace trace) {
 
         Map<String, Object> fields =
                 replayFields(credentialSource, credentialId, algorithm, digits, previousCounter, telemetryNextCounter);
+        addResyncFields(fields, resync);
         TelemetrySignal signal = new TelemetrySignal(TelemetryStatus.SUCCESS, "match", null, true, fields, null);
         return new ReplayResult(
-                signal, credentialReference, credentialId, previousCounter, nextCounter, algorithm, digits, trace);
+                signal,
+                credentialReference,
+                credentialId,
+                previousCounter,
+                nextCounter,
+                algorithm,
+                digits,
+                trace,
+                resync);
     }
 
     private ReplayResult mismatchResult(
@@ -529,14 +652,24 @@ public final class HotpReplayApplicationService {
             long previousCounter,
             long nextCounter,
             long telemetryNextCounter,
+            ResyncSummary resync,
             VerboseTrace trace) {
 
         Map<String, Object> fields =
                 replayFields(credentialSource, credentialId, algorithm, digits, previousCounter, telemetryNextCounter);
+        addResyncFields(fields, resync);
         TelemetrySignal signal =
                 new TelemetrySignal(TelemetryStatus.INVALID, "otp_mismatch", "OTP mismatch", true, fields, null);
         return new ReplayResult(
-                signal, credentialReference, credentialId, previousCounter, nextCounter, algorithm, digits, trace);
+                signal,
+                credentialReference,
+                credentialId,
+                previousCounter,
+                nextCounter,
+                algorithm,
+                digits,
+                trace,
+                resync);
     }
 
     private ReplayResult validationFailure(
@@ -650,6 +783,16 @@ public final class HotpReplayApplicationService {
         return fields;
     }
 
+    private static void addResyncFields(Map<String, Object> fields, ResyncSummary resync) {
+        if (resync == null) {
+            return;
+        }
+        fields.put("resyncLookAhead", resync.lookAhead());
+        fields.put("resyncConsecutiveOtps", resync.consecutiveOtps());
+        fields.put("searchedCandidates", resync.candidatesSearched());
+        fields.put("candidatesPerSecond", resync.candidatesPerSecond());
+    }
+
     private static String formatWindowRange(long lowerBound, long upperBound) {
         return "[" + lowerBound + ", " + upperBound + "]";
     }
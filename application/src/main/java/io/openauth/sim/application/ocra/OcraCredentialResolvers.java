@@ -1,13 +1,12 @@
 package io.openauth.sim.application.ocra;
 
-import io.openauth.sim.core.credentials.ocra.OcraCredentialPersistenceAdapter;
+import io.openauth.sim.core.credentials.ocra.OcraDescriptorCache;
 import io.openauth.sim.core.model.CredentialType;
 import io.openauth.sim.core.store.CredentialStore;
-import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
 import java.util.Objects;
 import java.util.Optional;
 
-/** Utility factory for shared OCRA credential resolvers. */
+/** Utility factory for shared OCRA credential resolvers; store-backed resolvers cache descriptors per version. */
 public final class OcraCredentialResolvers {
 
     private OcraCredentialResolvers() {
@@ -16,13 +15,12 @@ public final class OcraCredentialResolvers {
 
     public static OcraEvaluationApplicationService.CredentialResolver forStore(CredentialStore credentialStore) {
         Objects.requireNonNull(credentialStore, "credentialStore");
-        OcraCredentialPersistenceAdapter persistenceAdapter = new OcraCredentialPersistenceAdapter();
+        OcraDescriptorCache descriptorCache = new OcraDescriptorCache();
         return credentialId -> credentialStore
                 .findByName(credentialId)
                 .filter(credential -> credential.type() == CredentialType.OATH_OCRA)
-                .map(VersionedCredentialRecordMapper::toRecord)
-                .map(record -> new OcraEvaluationApplicationService.ResolvedCredential(
-                        persistenceAdapter.deserialize(record)));
+                .map(descriptorCache::descriptorFor)
+                .map(OcraEvaluationApplicationService.ResolvedCredential::new);
     }
 
     public static OcraEvaluationApplicationService.CredentialResolver emptyResolver() {
@@ -36,11 +34,10 @@ public final class OcraCredentialResolvers {
     public static OcraVerificationApplicationService.CredentialResolver forVerificationStore(
             CredentialStore credentialStore) {
         Objects.requireNonNull(credentialStore, "credentialStore");
-        OcraCredentialPersistenceAdapter persistenceAdapter = new OcraCredentialPersistenceAdapter();
+        OcraDescriptorCache descriptorCache = new OcraDescriptorCache();
         return credentialId -> credentialStore
                 .findByName(credentialId)
                 .filter(credential -> credential.type() == CredentialType.OATH_OCRA)
-                .map(VersionedCredentialRecordMapper::toRecord)
-                .map(persistenceAdapter::deserialize);
+                .map(descriptorCache::descriptorFor);
     }
 }
@@ -7,6 +7,7 @@ import io.openauth.sim.core.credentials.ocra.OcraCredentialDescriptor;
 import io.openauth.sim.core.credentials.ocra.OcraCredentialFactory;
 import io.openauth.sim.core.credentials.ocra.OcraCredentialFactory.OcraCredentialRequest;
 import io.openauth.sim.core.credentials.ocra.OcraResponseCalculator;
+import io.openauth.sim.core.credentials.ocra.OcraResponseKernel;
 import io.openauth.sim.core.credentials.ocra.OcraSessionSpecification;
 import io.openauth.sim.core.credentials.ocra.OcraTimestampSpecification;
 import io.openauth.sim.core.model.SecretEncoding;
@@ -177,7 +178,8 @@ public final class OcraEvaluationApplicationService {
 
         OcraTraceData traceData = trace == null ? null : buildTraceData(descriptor, context);
 
-        String otp = OcraResponseCalculator.generate(descriptor, context);
+        OcraResponseKernel kernel = OcraResponseKernel.prepare(descriptor, context);
+        String otp = kernel.response();
         if (traceData != null && !traceData.otp().equals(otp)) {
             throw new IllegalStateException("Trace OTP mismatch with calculator");
         }
@@ -292,7 +294,7 @@ public final class OcraEvaluationApplicationService {
         }
 
         List<OtpPreview> previews =
-                buildPreview(descriptor, request, rawCommand.windowBackward(), rawCommand.windowForward(), otp);
+                buildPreview(kernel, descriptor, request, rawCommand.windowBackward(), rawCommand.windowForward(), otp);
 
         return new EvaluationResult(
                 descriptor.suite().value(), otp, credentialReference, request, previews, buildTrace(trace));
@@ -320,7 +322,8 @@ public final class OcraEvaluationApplicationService {
         return credentialFactory.createDescriptor(credentialRequest);
     }
 
-    private List<OtpPreview> buildPreview(
+    private static List<OtpPreview> buildPreview(
+            OcraResponseKernel kernel,
             OcraCredentialDescriptor descriptor,
             NormalizedRequest request,
             int windowBackward,
@@ -337,6 +340,7 @@ public final class OcraEvaluationApplicationService {
         }
 
         long baseCounter = hasCounter ? request.counter() : 0L;
+        String[] window = kernel.window(windowBackward, windowForward);
         List<OtpPreview> previews = new ArrayList<>();
         for (int delta = -windowBackward; delta <= windowForward; delta++) {
             Long candidateCounter = hasCounter ? baseCounter + delta : null;
@@ -348,9 +352,10 @@ public final class OcraEvaluationApplicationService {
             if (timestampContext != null && candidateTimestampHex == null) {
                 continue;
             }
-            String candidateOtp = (delta == 0)
-                    ? centerOtp
-                    : generatePreviewOtp(descriptor, request, candidateCounter, candidateTimestampHex);
+            String candidateOtp = (delta == 0) ? centerOtp : window[delta + windowBackward];
+            if (candidateOtp == null) {
+                continue;
+            }
             String label = null;
             if (candidateCounter != null) {
                 label = formatCounter(candidateCounter);
@@ -365,19 +370,6 @@ public final class OcraEvaluationApplicationService {
         return List.copyOf(previews);
     }
 
-    private String generatePreviewOtp(
-            OcraCredentialDescriptor descriptor, NormalizedRequest request, Long counter, String timestampHex) {
-        OcraResponseCalculator.OcraExecutionContext context = new OcraResponseCalculator.OcraExecutionContext(
-                counter,
-                request.challenge(),
-                request.sessionHex(),
-                request.clientChallenge(),
-                request.serverChallenge(),
-                request.pinHashHex(),
-                timestampHex);
-        return OcraResponseCalculator.generate(descriptor, context);
-    }
-
     private static TimestampPreviewContext resolveTimestampContext(
             OcraCredentialDescriptor descriptor, String timestampHex) {
         if (!hasText(timestampHex)) {
@@ -101,8 +101,8 @@ public final class OcraVerificationApplicationService {
         metadata(trace, "suite", descriptor.suite().value());
         ensureChallengeProvided(descriptor, context);
 
-        OcraStoredVerificationRequest request =
-                new OcraStoredVerificationRequest(descriptor.name(), stored.otp(), context);
+        OcraStoredVerificationRequest request = new OcraStoredVerificationRequest(
+                descriptor.name(), stored.otp(), context, stored.timestampDriftSteps());
 
         OcraVerificationResult result = storedVerifier.verifyStored(request);
         int responseDigits = descriptor.suite().cryptoFunction().responseDigits();
@@ -139,7 +139,8 @@ public final class OcraVerificationApplicationService {
                 SecretEncoding.HEX,
                 inline.otp(),
                 context,
-                descriptor.metadata());
+                descriptor.metadata(),
+                inline.timestampDriftSteps());
 
         OcraVerificationResult result = inlineVerifier.verifyInline(request);
         int responseDigits = descriptor.suite().cryptoFunction().responseDigits();
@@ -171,7 +172,15 @@ public final class OcraVerificationApplicationService {
                     case UNEXPECTED_ERROR -> VerificationReason.UNEXPECTED_ERROR;
                 };
         return new VerificationResult(
-                status, reason, suite, credentialReference, credentialId, responseDigits, request, trace);
+                status,
+                reason,
+                suite,
+                credentialReference,
+                credentialId,
+                responseDigits,
+                request,
+                trace,
+                result.timestampDriftSteps());
     }
 
     private static String traceOperation(NormalizedRequest request) {
@@ -496,6 +505,9 @@ public final class OcraVerificationApplicationService {
 
         Long counter();
 
+        /** @return the timestamp drift window in steps, or {@code null} to use the credential's allowed drift */
+        Integer timestampDriftSteps();
+
         record Stored(
                 String credentialId,
                 String otp,
@@ -505,13 +517,37 @@ public final class OcraVerificationApplicationService {
                 String sessionHex,
                 String pinHashHex,
                 String timestampHex,
-                Long counter)
+                Long counter,
+                Integer timestampDriftSteps)
                 implements VerificationCommand {
 
             public Stored {
                 credentialId =
                         Objects.requireNonNull(credentialId, "credentialId").trim();
             }
+
+            public Stored(
+                    String credentialId,
+                    String otp,
+                    String challenge,
+                    String clientChallenge,
+                    String serverChallenge,
+                    String sessionHex,
+                    String pinHashHex,
+                    String timestampHex,
+                    Long counter) {
+                this(
+                        credentialId,
+                        otp,
+                        challenge,
+                        clientChallenge,
+                        serverChallenge,
+                        sessionHex,
+                        pinHashHex,
+                        timestampHex,
+                        counter,
+                        null);
+            }
         }
 
         record Inline(
@@ -526,7 +562,8 @@ public final class OcraVerificationApplicationService {
                 String pinHashHex,
                 String timestampHex,
                 Long counter,
-                Duration allowedDrift)
+                Duration allowedDrift,
+                Integer timestampDriftSteps)
                 implements VerificationCommand {
 
             public Inline {
@@ -536,6 +573,35 @@ public final class OcraVerificationApplicationService {
                         .trim();
                 otp = Objects.requireNonNull(otp, "otp").trim();
             }
+
+            public Inline(
+                    String identifier,
+                    String suite,
+                    String sharedSecretHex,
+                    String otp,
+                    String challenge,
+                    String clientChallenge,
+                    String serverChallenge,
+                    String sessionHex,
+                    String pinHashHex,
+                    String timestampHex,
+                    Long counter,
+                    Duration allowedDrift) {
+                this(
+                        identifier,
+                        suite,
+                        sharedSecretHex,
+                        otp,
+                        challenge,
+                        clientChallenge,
+                        serverChallenge,
+                        sessionHex,
+                        pinHashHex,
+                        timestampHex,
+                        counter,
+                        allowedDrift,
+                        null);
+            }
         }
     }
 
@@ -547,8 +613,21 @@ public final class OcraVerificationApplicationService {
             String credentialId,
             int responseDigits,
             NormalizedRequest request,
-            VerboseTrace trace) {
-        // Verification outcome data structure.
+            VerboseTrace trace,
+            int timestampDriftSteps) {
+        // Verification outcome data structure; timestampDriftSteps is the matched step offset.
+
+        public VerificationResult(
+                VerificationStatus status,
+                VerificationReason reason,
+                String suite,
+                boolean credentialReference,
+                String credentialId,
+                int responseDigits,
+                NormalizedRequest request,
+                VerboseTrace trace) {
+            this(status, reason, suite, credentialReference, credentialId, responseDigits, request, trace, 0);
+        }
 
         public Optional<VerboseTrace> verboseTrace() {
             return Optional.ofNullable(trace);
@@ -601,6 +680,8 @@ public final class OcraVerificationApplicationService {
 
         VerificationContext context();
 
+        Integer timestampDriftSteps();
+
         static NormalizedRequest from(VerificationCommand command) {
             if (command instanceof VerificationCommand.Stored stored) {
                 return new Stored(stored);
@@ -615,11 +696,13 @@ public final class OcraVerificationApplicationService {
             private final String credentialId;
             private final String otp;
             private final VerificationContext context;
+            private final Integer timestampDriftSteps;
 
             Stored(VerificationCommand.Stored command) {
                 this.credentialId = command.credentialId();
                 this.otp = command.otp().trim();
                 this.context = VerificationContext.from(command);
+                this.timestampDriftSteps = validateDriftSteps(command.timestampDriftSteps());
             }
 
             public String credentialId() {
@@ -635,6 +718,11 @@ public final class OcraVerificationApplicationService {
             public VerificationContext context() {
                 return context;
             }
+
+            @Override
+            public Integer timestampDriftSteps() {
+                return timestampDriftSteps;
+            }
         }
 
         public static final class Inline implements NormalizedRequest {
@@ -646,6 +734,7 @@ public final class OcraVerificationApplicationService {
             private final Long counter;
             private final String pinHashHex;
             private final Duration allowedDrift;
+            private final Integer timestampDriftSteps;
 
             Inline(VerificationCommand.Inline command) {
                 this.identifier = command.identifier();
@@ -656,6 +745,7 @@ public final class OcraVerificationApplicationService {
                 this.counter = command.counter();
                 this.pinHashHex = normalizeHex(command.pinHashHex(), "pinHashHex");
                 this.allowedDrift = command.allowedDrift();
+                this.timestampDriftSteps = validateDriftSteps(command.timestampDriftSteps());
             }
 
             public String identifier() {
@@ -691,6 +781,25 @@ public final class OcraVerificationApplicationService {
             public VerificationContext context() {
                 return context;
             }
+
+            @Override
+            public Integer timestampDriftSteps() {
+                return timestampDriftSteps;
+            }
+        }
+
+        @SuppressFBWarnings(
+                value = "UPM_UNCALLED_PRIVATE_METHOD",
+                justification = "Helper invoked from nested constructor; SpotBugs false positive")
+        private static Integer validateDriftSteps(Integer value) {
+            if (value != null && (value < 0 || value > OcraReplayVerifier.MAX_TIMESTAMP_DRIFT_STEPS)) {
+                throw new VerificationValidationException(
+                        "timestampDriftSteps",
+                        "timestamp_drift_steps_invalid",
+                        "timestampDriftSteps must be between 0 and " + OcraReplayVerifier.MAX_TIMESTAMP_DRIFT_STEPS,
+                        true);
+            }
+            return value;
         }
 
         @SuppressFBWarnings(
@@ -21,7 +21,8 @@ public final class OcraVerificationRequests {
                 trim(inputs.sessionHex()),
                 normalizeHex(inputs.pinHashHex()),
                 normalizeHex(inputs.timestampHex()),
-                inputs.counter());
+                inputs.counter(),
+                inputs.timestampDriftSteps());
     }
 
     public static VerificationCommand inline(InlineInputs inputs) {
@@ -38,7 +39,8 @@ public final class OcraVerificationRequests {
                 normalizeHex(inputs.pinHashHex()),
                 normalizeHex(inputs.timestampHex()),
                 inputs.counter(),
-                inputs.allowedDrift());
+                inputs.allowedDrift(),
+                inputs.timestampDriftSteps());
     }
 
     private static String trim(String value) {
@@ -82,8 +84,32 @@ public final class OcraVerificationRequests {
             String sessionHex,
             String pinHashHex,
             String timestampHex,
-            Long counter) {
+            Long counter,
+            Integer timestampDriftSteps) {
         // Data carrier for stored OCRA verification inputs.
+
+        public StoredInputs(
+                String credentialId,
+                String otp,
+                String challenge,
+                String clientChallenge,
+                String serverChallenge,
+                String sessionHex,
+                String pinHashHex,
+                String timestampHex,
+                Long counter) {
+            this(
+                    credentialId,
+                    otp,
+                    challenge,
+                    clientChallenge,
+                    serverChallenge,
+                    sessionHex,
+                    pinHashHex,
+                    timestampHex,
+                    counter,
+                    null);
+        }
     }
 
     public record InlineInputs(
@@ -98,7 +124,37 @@ public final class OcraVerificationRequests {
             String pinHashHex,
             String timestampHex,
             Long counter,
-            Duration allowedDrift) {
+            Duration allowedDrift,
+            Integer timestampDriftSteps) {
         // Data carrier for inline OCRA verification inputs.
+
+        public InlineInputs(
+                String identifier,
+                String suite,
+                String sharedSecretHex,
+                String otp,
+                String challenge,
+                String clientChallenge,
+                String serverChallenge,
+                String sessionHex,
+                String pinHashHex,
+                String timestampHex,
+                Long counter,
+                Duration allowedDrift) {
+            this(
+                    identifier,
+                    suite,
+                    sharedSecretHex,
+                    otp,
+                    challenge,
+                    clientChallenge,
+                    serverChallenge,
+                    sessionHex,
+                    pinHashHex,
+                    timestampHex,
+                    counter,
+                    allowedDrift,
+                    null);
+        }
     }
 }
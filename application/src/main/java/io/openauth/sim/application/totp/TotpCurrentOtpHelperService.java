@@ -1,21 +1,45 @@
 package io.openauth.sim.application.totp;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.openauth.sim.core.otp.totp.TotpDriftWindow;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
-/** Helper seam that returns the current OTP and metadata for stored TOTP credentials. */
+/**
+ * Helper seam that returns the current OTP and metadata for stored TOTP credentials.
+ *
+ * <p>The answer only changes when the time step does, so successful lookups are cached per credential,
+ * drift window and override flag until the end of the step they were generated for. Concurrent misses
+ * for the same key share a single evaluation. Credential updates become visible at the next step
+ * boundary at the latest; failed lookups are never cached. The cache is bounded and each answer expires at the
+ * end of its step, or one step after it was generated when the lookup targets another point in time.
+ */
 public final class TotpCurrentOtpHelperService {
 
+    private static final int MAX_CACHED_ENTRIES = 10_000;
+
     private final TotpEvaluationApplicationService evaluationService;
     private final Clock clock;
+    private final Cache<StepKey, CachedStep> steps;
+    private final ConcurrentHashMap<StepKey, CompletableFuture<CachedStep>> inFlight = new ConcurrentHashMap<>();
 
     public TotpCurrentOtpHelperService(TotpEvaluationApplicationService evaluationService, Clock clock) {
         this.evaluationService = Objects.requireNonNull(evaluationService, "evaluationService");
         this.clock = Objects.requireNonNull(clock, "clock");
+        this.steps = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_ENTRIES)
+                .expireAfter(new StepExpiry())
+                .build();
     }
 
     /**
@@ -33,11 +57,119 @@ public final class TotpCurrentOtpHelperService {
                 new TotpEvaluationApplicationService.EvaluationCommand.Stored(
                         command.credentialId(), "", driftWindow, evaluationInstant, timestampOverride);
 
-        TotpEvaluationApplicationService.EvaluationResult result = evaluationService.evaluate(evalCommand, false);
         Instant generationInstant = timestampOverride.orElse(evaluationInstant);
+        StepKey key = new StepKey(command.credentialId(), driftWindow, timestampOverride.isPresent());
+        TotpEvaluationApplicationService.EvaluationResult result =
+                cachedEvaluation(key, evalCommand, generationInstant.getEpochSecond());
         return new LookupResult(result, generationInstant, timestampOverride.isPresent());
     }
 
+    private TotpEvaluationApplicationService.EvaluationResult cachedEvaluation(
+            StepKey key, TotpEvaluationApplicationService.EvaluationCommand.Stored evalCommand, long epochSeconds) {
+        while (true) {
+            CachedStep cached = steps.getIfPresent(key);
+            if (cached != null && cached.covers(epochSeconds)) {
+                return cached.result();
+            }
+            CompletableFuture<CachedStep> pending = inFlight.get(key);
+            if (pending != null) {
+                Optional<CachedStep> shared = await(pending);
+                if (shared.isPresent() && shared.get().covers(epochSeconds)) {
+                    return shared.get().result();
+                }
+                // Finished loads leave the map in their finally block; drop this one now rather than spin on it.
+                if (pending.isDone()) {
+                    inFlight.remove(key, pending);
+                }
+                continue;
+            }
+            CompletableFuture<CachedStep> fresh = new CompletableFuture<>();
+            if (inFlight.putIfAbsent(key, fresh) == null) {
+                return load(key, fresh, evalCommand, epochSeconds);
+            }
+        }
+    }
+
+    private TotpEvaluationApplicationService.EvaluationResult load(
+            StepKey key,
+            CompletableFuture<CachedStep> pending,
+            TotpEvaluationApplicationService.EvaluationCommand.Stored evalCommand,
+            long epochSeconds) {
+        try {
+            TotpEvaluationApplicationService.EvaluationResult evaluated =
+                    evaluationService.evaluate(evalCommand, false);
+            CachedStep loaded = CachedStep.of(evaluated, epochSeconds);
+            if (loaded.cacheable()) {
+                steps.put(key, loaded);
+            }
+            pending.complete(loaded);
+            return evaluated;
+        } catch (Throwable ex) {
+            pending.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private static Optional<CachedStep> await(CompletableFuture<CachedStep> pending) {
+        try {
+            return Optional.of(pending.join());
+        } catch (CompletionException | CancellationException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private record StepKey(String credentialId, TotpDriftWindow driftWindow, boolean timestampOverride) {
+        // Identifies one cached helper answer; the time step itself lives on the entry.
+    }
+
+    /** One evaluation, valid for {@code [stepStart, stepEnd)} epoch seconds; failures cover no second at all. */
+    private record CachedStep(
+            TotpEvaluationApplicationService.EvaluationResult result, long stepStart, long stepEnd) {
+
+        private static CachedStep of(TotpEvaluationApplicationService.EvaluationResult evaluated, long epochSeconds) {
+            Duration step = evaluated.stepDuration();
+            if (evaluated.telemetry().status() != TotpEvaluationApplicationService.TelemetryStatus.SUCCESS
+                    || step == null
+                    || step.getSeconds() <= 0) {
+                return new CachedStep(evaluated, 0L, 0L);
+            }
+            long stepSeconds = step.getSeconds();
+            long stepStart = Math.floorDiv(epochSeconds, stepSeconds) * stepSeconds;
+            return new CachedStep(evaluated, stepStart, stepStart + stepSeconds);
+        }
+
+        private boolean cacheable() {
+            return stepEnd > stepStart;
+        }
+
+        private boolean covers(long epochSeconds) {
+            return epochSeconds >= stepStart && epochSeconds < stepEnd;
+        }
+    }
+
+    /** Expires an answer when its step ends, or one step after it was cached when the step is not the current one. */
+    private final class StepExpiry implements Expiry<StepKey, CachedStep> {
+
+        @Override
+        public long expireAfterCreate(StepKey key, CachedStep value, long currentTime) {
+            long stepSeconds = value.stepEnd() - value.stepStart();
+            long remaining = value.stepEnd() - clock.instant().getEpochSecond();
+            return TimeUnit.SECONDS.toNanos(remaining > 0 && remaining <= stepSeconds ? remaining : stepSeconds);
+        }
+
+        @Override
+        public long expireAfterUpdate(StepKey key, CachedStep value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(StepKey key, CachedStep value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
     public record LookupCommand(
             String credentialId,
             TotpDriftWindow driftWindow,
@@ -6,8 +6,10 @@ import io.openauth.sim.application.telemetry.TelemetryFrame;
 import io.openauth.sim.core.model.Credential;
 import io.openauth.sim.core.model.CredentialType;
 import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.otp.OtpDigits;
 import io.openauth.sim.core.otp.totp.TotpCredentialPersistenceAdapter;
 import io.openauth.sim.core.otp.totp.TotpDescriptor;
+import io.openauth.sim.core.otp.totp.TotpDriftEstimate;
 import io.openauth.sim.core.otp.totp.TotpDriftWindow;
 import io.openauth.sim.core.otp.totp.TotpGenerator;
 import io.openauth.sim.core.otp.totp.TotpHashAlgorithm;
@@ -29,6 +31,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
@@ -51,9 +56,18 @@ public final class TotpEvaluationApplicationService {
     private static final String SPEC_TOTP_WINDOW = "rfc6238§4.1";
     private static final String SPEC_TOTP_INPUT = "rfc6238§1,§2";
 
+    /** Credentials whose in-memory drift estimate is kept before the map is cleared. */
+    static final int MAX_TRACKED_DRIFT_ESTIMATES = 16_384;
+
     private final CredentialStore credentialStore;
     private final Clock clock;
+    private final DriftMode driftMode;
     private final TotpCredentialPersistenceAdapter persistenceAdapter;
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder candidatesEvaluated = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder rejectionCandidatesEvaluated = new LongAdder();
+    private final ConcurrentMap<String, TotpDriftEstimate> driftEstimates = new ConcurrentHashMap<>();
 
     /**
      * Creates a new TOTP evaluation service backed by the supplied credential store.
@@ -70,11 +84,33 @@ public final class TotpEvaluationApplicationService {
      * Creates a new TOTP evaluation service with an explicit clock for time-based tests.
      */
     public TotpEvaluationApplicationService(CredentialStore credentialStore, Clock clock) {
+        this(credentialStore, clock, DriftMode.FIXED);
+    }
+
+    /**
+     * Creates a new TOTP evaluation service with an explicit drift mode.
+     *
+     * <p>With {@link DriftMode#ADAPTIVE}, stored validations start at the credential's learned clock offset; see
+     * {@link TotpValidator#verifyAdaptive}. Successful matches refine the offset in memory, and it is written back to
+     * the store only when its rounded value changes, using a conditional {@link CredentialStore#replace} write.
+     * {@link DriftMode#NARROWED} learns the same way but validates through {@link TotpValidator#verifyNarrowed}.
+     */
+    public TotpEvaluationApplicationService(CredentialStore credentialStore, Clock clock, DriftMode driftMode) {
         this.credentialStore = Objects.requireNonNull(credentialStore, "credentialStore");
         this.clock = Objects.requireNonNull(clock, "clock");
+        this.driftMode = Objects.requireNonNull(driftMode, "driftMode");
         this.persistenceAdapter = new TotpCredentialPersistenceAdapter();
     }
 
+    /** Running totals of OTP validations and the candidate steps they computed. */
+    public VerificationStats verificationStats() {
+        return new VerificationStats(
+                verifications.sum(),
+                candidatesEvaluated.sum(),
+                rejections.sum(),
+                rejectionCandidatesEvaluated.sum());
+    }
+
     /**
      * Evaluates a TOTP request using the supplied command.
      *
@@ -223,23 +259,59 @@ public final class TotpEvaluationApplicationService {
                 computeTotp(descriptor, descriptor.secret().value(), validationCounter.counter());
         appendTotpSteps(trace, descriptor, validationCounter, command.driftWindow(), validationComputation);
 
-        TotpVerificationResult verification = TotpValidator.verify(
-                descriptor,
-                candidateOtp,
-                evaluationInstant,
-                command.driftWindow(),
-                command.timestampOverride().orElse(null));
+        TotpDriftEstimate persistedEstimate = driftMode != DriftMode.FIXED
+                ? TotpCredentialPersistenceAdapter.driftEstimate(credential.attributes())
+                : null;
+        TotpDriftEstimate estimate = persistedEstimate == null
+                ? null
+                : driftEstimates.getOrDefault(credential.name(), persistedEstimate);
+        TotpVerificationResult verification;
+        String validatorDetail;
+        if (estimate == null) {
+            verification = TotpValidator.verify(
+                    descriptor,
+                    candidateOtp,
+                    evaluationInstant,
+                    command.driftWindow(),
+                    command.timestampOverride().orElse(null));
+            validatorDetail = "TotpValidator.verify";
+        } else if (driftMode == DriftMode.NARROWED) {
+            verification = TotpValidator.verifyNarrowed(
+                    descriptor,
+                    OtpDigits.parse(candidateOtp, descriptor.digits()),
+                    evaluationInstant,
+                    command.driftWindow(),
+                    command.timestampOverride().orElse(null),
+                    estimate);
+            validatorDetail = "TotpValidator.verifyNarrowed";
+        } else {
+            verification = TotpValidator.verifyAdaptive(
+                    descriptor,
+                    OtpDigits.parse(candidateOtp, descriptor.digits()),
+                    evaluationInstant,
+                    command.driftWindow(),
+                    command.timestampOverride().orElse(null),
+                    estimate);
+            validatorDetail = "TotpValidator.verifyAdaptive";
+        }
 
         if (verification.valid()) {
+            if (estimate != null && command.timestampOverride().isEmpty()) {
+                recordDrift(credential, persistedEstimate, verification.matchedSkewSteps());
+            }
             addStep(trace, step -> step.id("validate.otp")
                     .summary("Validate stored credential OTP")
-                    .detail("TotpValidator.verify")
+                    .detail(validatorDetail)
                     .spec(SPEC_TOTP_WINDOW)
                     .attribute(VerboseTrace.AttributeType.STRING, "evaluationInstant", evaluationInstant.toString())
                     .attribute(VerboseTrace.AttributeType.BOOL, "valid", true)
-                    .attribute(VerboseTrace.AttributeType.INT, "matchedSkewSteps", verification.matchedSkewSteps()));
+                    .attribute(VerboseTrace.AttributeType.INT, "matchedSkewSteps", verification.matchedSkewSteps())
+                    .attribute(
+                            VerboseTrace.AttributeType.INT,
+                            "candidates.evaluated",
+                            verification.candidatesEvaluated()));
             List<OtpPreview> previews = buildPreview(descriptor, command.driftWindow(), validationCounter.counter());
-            return successResult(
+            return recordVerification(verification, estimate, successResult(
                     true,
                     command.credentialId(),
                     descriptor.algorithm(),
@@ -251,29 +323,87 @@ public final class TotpEvaluationApplicationService {
                     "validated",
                     null,
                     previews,
-                    buildTrace(trace));
+                    buildTrace(trace)));
         }
 
         addStep(trace, step -> step.id("validate.otp")
                 .summary("Validate stored credential OTP")
-                .detail("TotpValidator.verify")
+                .detail(validatorDetail)
                 .spec(SPEC_TOTP_WINDOW)
                 .attribute(VerboseTrace.AttributeType.STRING, "evaluationInstant", evaluationInstant.toString())
                 .attribute(VerboseTrace.AttributeType.BOOL, "valid", false)
                 .attribute(VerboseTrace.AttributeType.INT, "matchedSkewSteps", verification.matchedSkewSteps())
+                .attribute(VerboseTrace.AttributeType.INT, "candidates.evaluated", verification.candidatesEvaluated())
                 .note("reason", "otp_out_of_window"));
-        return validationFailure(
-                command.credentialId(),
-                true,
-                descriptor.algorithm(),
-                descriptor.digits(),
-                descriptor.stepDuration(),
-                command.driftWindow(),
-                "otp_out_of_window",
-                "OTP did not match within the permitted drift window",
-                command.timestampOverride().isPresent(),
-                verification.matchedSkewSteps(),
-                buildTrace(trace));
+        return recordVerification(
+                verification,
+                estimate,
+                validationFailure(
+                        command.credentialId(),
+                        true,
+                        descriptor.algorithm(),
+                        descriptor.digits(),
+                        descriptor.stepDuration(),
+                        command.driftWindow(),
+                        "otp_out_of_window",
+                        "OTP did not match within the permitted drift window",
+                        command.timestampOverride().isPresent(),
+                        verification.matchedSkewSteps(),
+                        buildTrace(trace)));
+    }
+
+    /**
+     * Folds a matched skew into the in-memory estimate for the credential. The store is written only when the
+     * rounded offset differs from the persisted one, and only if the credential is unchanged since it was read; a
+     * lost race is left for the next verification to retry.
+     */
+    private void recordDrift(Credential credential, TotpDriftEstimate persisted, int matchedSkewSteps) {
+        if (driftEstimates.size() >= MAX_TRACKED_DRIFT_ESTIMATES && !driftEstimates.containsKey(credential.name())) {
+            driftEstimates.clear();
+        }
+        TotpDriftEstimate updated = driftEstimates.compute(
+                credential.name(),
+                (name, current) -> (current != null ? current : persisted).observe(matchedSkewSteps));
+        if (updated.expectedOffset() != persisted.expectedOffset()) {
+            credentialStore.replace(
+                    credential,
+                    credential.withAttributes(
+                            TotpCredentialPersistenceAdapter.withDriftEstimate(credential.attributes(), updated)));
+        }
+    }
+
+    /** Adds the verification cost to the running totals and returns the result with those telemetry fields. */
+    private EvaluationResult recordVerification(
+            TotpVerificationResult verification, TotpDriftEstimate estimate, EvaluationResult result) {
+        verifications.increment();
+        candidatesEvaluated.add(verification.candidatesEvaluated());
+        if (!verification.valid()) {
+            rejections.increment();
+            rejectionCandidatesEvaluated.add(verification.candidatesEvaluated());
+        }
+        VerificationStats stats = verificationStats();
+        TelemetrySignal telemetry = result.telemetry();
+        Map<String, Object> fields = new LinkedHashMap<>(telemetry.fields());
+        fields.put("candidatesEvaluated", verification.candidatesEvaluated());
+        fields.put("averageCandidatesEvaluated", stats.averageCandidatesEvaluated());
+        fields.put("averageRejectionCandidatesEvaluated", stats.averageRejectionCandidatesEvaluated());
+        if (estimate != null) {
+            fields.put("driftEstimateSteps", estimate.offsetSteps());
+        }
+        return new EvaluationResult(
+                new TelemetrySignal(
+                        telemetry.status(), telemetry.reasonCode(), telemetry.reason(), telemetry.sanitized(), fields),
+                result.credentialReference(),
+                result.credentialId(),
+                result.valid(),
+                result.matchedSkewSteps(),
+                result.algorithm(),
+                result.digits(),
+                result.stepDuration(),
+                result.driftWindow(),
+                result.otp(),
+                result.previews(),
+                result.trace());
     }
 
     private EvaluationResult evaluateInline(EvaluationCommand.Inline command, boolean verbose) {
@@ -410,19 +540,22 @@ public final class TotpEvaluationApplicationService {
                     .attribute(VerboseTrace.AttributeType.BOOL, "valid", true)
                     .attribute(VerboseTrace.AttributeType.INT, "matchedSkewSteps", verification.matchedSkewSteps()));
             List<OtpPreview> previews = buildPreview(descriptor, command.driftWindow(), inlineCounter.counter());
-            return successResult(
-                    false,
-                    null,
-                    descriptor.algorithm(),
-                    descriptor.digits(),
-                    descriptor.stepDuration(),
-                    descriptor.driftWindow(),
-                    verification.matchedSkewSteps(),
-                    command.timestampOverride().isPresent(),
-                    "validated",
+            return recordVerification(
+                    verification,
                     null,
-                    previews,
-                    buildTrace(trace));
+                    successResult(
+                            false,
+                            null,
+                            descriptor.algorithm(),
+                            descriptor.digits(),
+                            descriptor.stepDuration(),
+                            descriptor.driftWindow(),
+                            verification.matchedSkewSteps(),
+                            command.timestampOverride().isPresent(),
+                            "validated",
+                            null,
+                            previews,
+                            buildTrace(trace)));
         }
 
         addStep(trace, step -> step.id("validate.otp")
@@ -433,18 +566,21 @@ public final class TotpEvaluationApplicationService {
                 .attribute(VerboseTrace.AttributeType.BOOL, "valid", false)
                 .attribute(VerboseTrace.AttributeType.INT, "matchedSkewSteps", verification.matchedSkewSteps())
                 .note("reason", "otp_out_of_window"));
-        return validationFailure(
+        return recordVerification(
+                verification,
                 null,
-                false,
-                descriptor.algorithm(),
-                descriptor.digits(),
-                descriptor.stepDuration(),
-                descriptor.driftWindow(),
-                "otp_out_of_window",
-                "OTP did not match within the permitted drift window",
-                command.timestampOverride().isPresent(),
-                verification.matchedSkewSteps(),
-                buildTrace(trace));
+                validationFailure(
+                        null,
+                        false,
+                        descriptor.algorithm(),
+                        descriptor.digits(),
+                        descriptor.stepDuration(),
+                        descriptor.driftWindow(),
+                        "otp_out_of_window",
+                        "OTP did not match within the permitted drift window",
+                        command.timestampOverride().isPresent(),
+                        verification.matchedSkewSteps(),
+                        buildTrace(trace)));
     }
 
     private EvaluationResult credentialNotFound(String credentialId, VerboseTrace trace) {
@@ -905,6 +1041,37 @@ public final class TotpEvaluationApplicationService {
         }
     }
 
+    /** How stored validations walk the drift window. */
+    public enum DriftMode {
+        /** Every step from {@code -backward} to {@code +forward}, in order. */
+        FIXED,
+        /**
+         * Learned offset first, spiralling outward across the full drift window. Accepted codes get cheaper; a
+         * rejection still computes every step of the window.
+         */
+        ADAPTIVE,
+        /**
+         * As {@link #ADAPTIVE}, but once the learned offset is confident only the steps next to it are tried, so
+         * rejections get cheaper too, at the price of rejecting tokens whose clock jumped away from the estimate.
+         */
+        NARROWED
+    }
+
+    /**
+     * Validation counters exposed for telemetry; the rejection totals show what mismatching codes cost on their own.
+     */
+    public record VerificationStats(
+            long verifications, long candidatesEvaluated, long rejections, long rejectionCandidatesEvaluated) {
+
+        public double averageCandidatesEvaluated() {
+            return verifications == 0 ? 0d : (double) candidatesEvaluated / verifications;
+        }
+
+        public double averageRejectionCandidatesEvaluated() {
+            return rejections == 0 ? 0d : (double) rejectionCandidatesEvaluated / rejections;
+        }
+    }
+
     public enum TelemetryStatus {
         SUCCESS,
         INVALID,
@@ -0,0 +1,463 @@
+package io.openauth.sim.application.totp;
+
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.CredentialType;
+import io.openauth.sim.core.otp.HmacEngine;
+import io.openauth.sim.core.otp.OtpDigits;
+import io.openauth.sim.core.otp.totp.TotpCredentialPersistenceAdapter;
+import io.openauth.sim.core.otp.totp.TotpDescriptor;
+import io.openauth.sim.core.otp.totp.TotpGenerator;
+import io.openauth.sim.core.store.CredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Answers "which stored TOTP credential produced this code?" for audit and fraud-simulation flows.
+ *
+ * <p>The service keeps a reverse index from OTP value to credentials covering the current time step and
+ * each credential's own drift window. The index is valid until the earliest step boundary among the
+ * indexed credentials. Shortly before that boundary a background task reloads the store and builds the
+ * next index, which the first lookup past the boundary swaps in atomically; only when no prepared index
+ * is available (for example after the clock jumped) does a lookup rebuild in line. Each credential keeps
+ * a ring of the OTPs it already computed, so advancing one step only computes the newly exposed forward
+ * step, and those computations run in parallel. Credentials that were added or changed are picked up on
+ * the next build, or immediately through {@link #refresh(Instant)}.
+ *
+ * <p>Lookups at an instant outside the current index are rejected with {@link InstantOutsideIndexException}
+ * rather than answered by scanning and hashing every stored credential, which callers could otherwise
+ * trigger on every request just by varying the timestamp.
+ */
+public final class TotpReverseLookupApplicationService {
+
+    private static final long DEFAULT_VALIDITY_SECONDS = 30L;
+    private static final long PREPARE_LEAD_MILLIS = 5_000L;
+
+    private final CredentialStore credentialStore;
+    private final Clock clock;
+    private final TotpCredentialPersistenceAdapter persistenceAdapter = new TotpCredentialPersistenceAdapter();
+    private final PrepareScheduler scheduler;
+    private final Object rebuildLock = new Object();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private volatile Map<String, IndexedCredential> indexed = Map.of();
+    private volatile Snapshot prepared;
+
+    public TotpReverseLookupApplicationService(CredentialStore credentialStore) {
+        this(credentialStore, Clock.systemUTC());
+    }
+
+    public TotpReverseLookupApplicationService(CredentialStore credentialStore, Clock clock) {
+        this(credentialStore, clock, PrepareScheduler.BACKGROUND);
+    }
+
+    TotpReverseLookupApplicationService(CredentialStore credentialStore, Clock clock, PrepareScheduler scheduler) {
+        this.credentialStore = Objects.requireNonNull(credentialStore, "credentialStore");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+    }
+
+    /** Looks up the credentials whose current drift window produces {@code otp}. */
+    public LookupResult lookup(String otp) {
+        return lookup(otp, clock.instant());
+    }
+
+    /**
+     * Looks up the credentials whose drift window around {@code instant} produces {@code otp}.
+     *
+     * @throws InstantOutsideIndexException when {@code instant} falls outside the current index window
+     * @throws IllegalArgumentException when the OTP is not 1-9 ASCII digits
+     */
+    public LookupResult lookup(String otp, Instant instant) {
+        Objects.requireNonNull(otp, "otp");
+        Objects.requireNonNull(instant, "instant");
+        String normalized = otp.trim();
+        int digits = normalized.length();
+        int value = digits >= 1 && digits <= OtpDigits.MAX_DIGITS ? OtpDigits.parse(normalized, digits) : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("otp must contain between 1 and " + OtpDigits.MAX_DIGITS + " digits");
+        }
+
+        long epochSeconds = instant.getEpochSecond();
+        Snapshot current = currentSnapshot();
+        if (!current.covers(epochSeconds)) {
+            throw new InstantOutsideIndexException(epochSeconds, current.validFrom, current.validUntil);
+        }
+        return new LookupResult(normalized, instant, current.matches(value, digits), current.credentialIds.length);
+    }
+
+    /** Reloads every TOTP credential from the store and rebuilds the index around {@code instant}. */
+    public IndexStats refresh(Instant instant) {
+        Objects.requireNonNull(instant, "instant");
+        synchronized (rebuildLock) {
+            prepared = null;
+            return publish(build(instant.getEpochSecond())).stats;
+        }
+    }
+
+    /** @return statistics of the most recent build, or empty statistics before the first lookup. */
+    public IndexStats stats() {
+        Snapshot current = snapshot.get();
+        return current == null ? new IndexStats(0, 0, 0, 0, 0L) : current.stats;
+    }
+
+    /** Returns the index covering the clock's current instant, swapping in or building it when needed. */
+    private Snapshot currentSnapshot() {
+        long now = clock.instant().getEpochSecond();
+        while (true) {
+            Snapshot current = snapshot.get();
+            if (current != null && current.covers(now)) {
+                return current;
+            }
+            Snapshot next = prepared;
+            if (next == null || !next.covers(now)) {
+                break;
+            }
+            if (snapshot.compareAndSet(current, next)) {
+                prepared = null;
+                schedulePrepare(next);
+                return next;
+            }
+        }
+        synchronized (rebuildLock) {
+            Snapshot current = snapshot.get();
+            if (current != null && current.covers(now)) {
+                return current;
+            }
+            prepared = null;
+            return publish(build(now));
+        }
+    }
+
+    private Snapshot publish(Snapshot built) {
+        snapshot.set(built);
+        schedulePrepare(built);
+        return built;
+    }
+
+    private void schedulePrepare(Snapshot current) {
+        long boundary = current.validUntil;
+        long delayMillis = Math.max(0L, boundary * 1_000L - PREPARE_LEAD_MILLIS - clock.millis());
+        scheduler.schedule(() -> prepare(current, boundary), delayMillis);
+    }
+
+    /** Builds the index for the window starting at {@code boundary} unless {@code expected} was superseded. */
+    private void prepare(Snapshot expected, long boundary) {
+        synchronized (rebuildLock) {
+            if (snapshot.get() == expected && prepared == null) {
+                prepared = build(boundary);
+            }
+        }
+    }
+
+    /** Reloads the store into the shared per-credential rings and builds an index; callers hold the lock. */
+    private Snapshot build(long epochSeconds) {
+        long started = System.nanoTime();
+        Map<String, IndexedCredential> known = indexed;
+        Map<String, IndexedCredential> reloaded = new HashMap<>();
+        int skipped = 0;
+        for (Credential credential : credentialStore.findAll()) {
+            if (credential.type() != CredentialType.OATH_TOTP) {
+                continue;
+            }
+            IndexedCredential existing = known.get(credential.name());
+            if (existing != null && existing.source.equals(credential)) {
+                reloaded.put(credential.name(), existing);
+                continue;
+            }
+            try {
+                reloaded.put(credential.name(), new IndexedCredential(credential, describe(credential)));
+            } catch (IllegalArgumentException | IllegalStateException ex) {
+                skipped++;
+            }
+        }
+        indexed = reloaded;
+
+        List<IndexedCredential> entries = new ArrayList<>(reloaded.values());
+        entries.sort(Comparator.comparing(entry -> entry.source.name()));
+        int computed = entries.parallelStream()
+                .mapToInt(entry -> entry.advanceTo(epochSeconds))
+                .sum();
+        return Snapshot.build(entries, epochSeconds, skipped, computed, started);
+    }
+
+    private TotpDescriptor describe(Credential credential) {
+        TotpDescriptor descriptor =
+                persistenceAdapter.deserialize(VersionedCredentialRecordMapper.toRecord(credential));
+        // Enforces the generator's secret-length rule once so the index can use the raw HMAC path.
+        TotpGenerator.generateInt(descriptor, Instant.EPOCH);
+        return descriptor;
+    }
+
+    /** Runs a task after a delay; the default is a shared daemon thread. */
+    @FunctionalInterface
+    interface PrepareScheduler {
+
+        PrepareScheduler BACKGROUND = (task, delayMillis) -> BackgroundExecutor.INSTANCE.schedule(
+                () -> {
+                    try {
+                        task.run();
+                    } catch (RuntimeException ex) {
+                        // The next lookup past the boundary rebuilds in line instead.
+                    }
+                },
+                delayMillis,
+                TimeUnit.MILLISECONDS);
+
+        void schedule(Runnable task, long delayMillis);
+    }
+
+    private static final class BackgroundExecutor {
+
+        private static final ScheduledExecutorService INSTANCE =
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "totp-reverse-lookup-prepare");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        private BackgroundExecutor() {}
+    }
+
+    /** Raised when a lookup targets an instant the current index does not cover. */
+    public static final class InstantOutsideIndexException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        InstantOutsideIndexException(long epochSeconds, long validFrom, long validUntil) {
+            super("timestamp " + epochSeconds + " is outside the indexed window [" + validFrom + ", " + validUntil
+                    + ")");
+        }
+    }
+
+    /** Credential matched by a reverse lookup. */
+    public record Match(String credentialId, long timeStep, int skewSteps) {
+
+        public Match {
+            Objects.requireNonNull(credentialId, "credentialId");
+        }
+    }
+
+    /** Outcome of a reverse lookup; {@code matches} is ordered by credential id, then skew. */
+    public record LookupResult(String otp, Instant evaluatedAt, List<Match> matches, int indexedCredentials) {
+
+        public LookupResult {
+            Objects.requireNonNull(otp, "otp");
+            Objects.requireNonNull(evaluatedAt, "evaluatedAt");
+            matches = List.copyOf(matches);
+        }
+    }
+
+    /**
+     * Cost of the latest index build: indexed and skipped credentials, indexed OTP values, HMACs computed
+     * for this build (only newly exposed steps on an incremental build), and wall time.
+     */
+    public record IndexStats(int credentials, int skipped, int postings, int computedOtps, long buildNanos) {
+        // Reported by refresh and stats.
+    }
+
+    /** Per-credential ring of OTP values for the steps in its drift window. */
+    private static final class IndexedCredential {
+
+        private final Credential source;
+        private final TotpDescriptor descriptor;
+        private final byte[] secret;
+        private final int backward;
+        private final int forward;
+        private final int[] ring;
+        private long baseStep;
+        private boolean populated;
+
+        private IndexedCredential(Credential source, TotpDescriptor descriptor) {
+            this.source = source;
+            this.descriptor = descriptor;
+            this.secret = descriptor.secret().value();
+            this.backward = descriptor.driftWindow().backwardSteps();
+            this.forward = descriptor.driftWindow().forwardSteps();
+            this.ring = new int[backward + forward + 1];
+        }
+
+        /** Moves the window to the step containing {@code epochSeconds}; returns the HMACs computed. */
+        private int advanceTo(long epochSeconds) {
+            long target = Math.floorDiv(epochSeconds, descriptor.stepSeconds());
+            if (populated && target == baseStep) {
+                return 0;
+            }
+            // Cleared while the ring is being rewritten so a failed pass forces a full recompute next time.
+            boolean reuse = populated;
+            populated = false;
+            int computed = 0;
+            for (long step = target - backward; step <= target + forward; step++) {
+                if (reuse && step >= baseStep - backward && step <= baseStep + forward) {
+                    continue;
+                }
+                ring[slot(step)] = otpAt(step);
+                computed++;
+            }
+            baseStep = target;
+            populated = true;
+            return computed;
+        }
+
+        private int slot(long step) {
+            return (int) Math.floorMod(step, (long) ring.length);
+        }
+
+        private int otpAt(long step) {
+            try {
+                int binary = HmacEngine.dynamicTruncation(descriptor.algorithm().hmacAlgorithm(), secret, step);
+                return binary % OtpDigits.modulus(descriptor.digits());
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("Failed to compute TOTP HMAC", ex);
+            }
+        }
+
+        private long stepStartSeconds() {
+            return baseStep * descriptor.stepSeconds();
+        }
+
+        private long stepEndSeconds() {
+            return (baseStep + 1) * descriptor.stepSeconds();
+        }
+    }
+
+    /**
+     * Immutable open-addressing index from OTP value to postings, each naming a credential and the skew
+     * at which it produced the value. Postings sharing a value are chained through {@code postingNext}.
+     */
+    private static final class Snapshot {
+
+        private final long validFrom;
+        private final long validUntil;
+        private final String[] credentialIds;
+        private final int[] credentialDigits;
+        private final long[] credentialBaseSteps;
+        private final int[] tableKeys;
+        private final int[] tableHeads;
+        private final int[] postingCredential;
+        private final int[] postingSkew;
+        private final int[] postingNext;
+        private final IndexStats stats;
+
+        private Snapshot(
+                long validFrom,
+                long validUntil,
+                String[] credentialIds,
+                int[] credentialDigits,
+                long[] credentialBaseSteps,
+                int[] tableKeys,
+                int[] tableHeads,
+                int[] postingCredential,
+                int[] postingSkew,
+                int[] postingNext,
+                IndexStats stats) {
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+            this.credentialIds = credentialIds;
+            this.credentialDigits = credentialDigits;
+            this.credentialBaseSteps = credentialBaseSteps;
+            this.tableKeys = tableKeys;
+            this.tableHeads = tableHeads;
+            this.postingCredential = postingCredential;
+            this.postingSkew = postingSkew;
+            this.postingNext = postingNext;
+            this.stats = stats;
+        }
+
+        private static Snapshot build(
+                List<IndexedCredential> entries, long epochSeconds, int skipped, int computed, long started) {
+            int count = entries.size();
+            String[] ids = new String[count];
+            int[] digits = new int[count];
+            long[] baseSteps = new long[count];
+            int postings = 0;
+            long validFrom = Long.MIN_VALUE;
+            long validUntil = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                IndexedCredential entry = entries.get(i);
+                ids[i] = entry.source.name();
+                digits[i] = entry.descriptor.digits();
+                baseSteps[i] = entry.baseStep;
+                postings += entry.ring.length;
+                validFrom = Math.max(validFrom, entry.stepStartSeconds());
+                validUntil = Math.min(validUntil, entry.stepEndSeconds());
+            }
+            if (count == 0) {
+                validFrom = Math.floorDiv(epochSeconds, DEFAULT_VALIDITY_SECONDS) * DEFAULT_VALIDITY_SECONDS;
+                validUntil = validFrom + DEFAULT_VALIDITY_SECONDS;
+            }
+
+            int capacity = Integer.highestOneBit(Math.max(2, postings) * 2 - 1) << 1;
+            int[] keys = new int[capacity];
+            int[] heads = new int[capacity];
+            int[] postingCredential = new int[postings];
+            int[] postingSkew = new int[postings];
+            int[] postingNext = new int[postings];
+            int posting = 0;
+            for (int i = 0; i < count; i++) {
+                IndexedCredential entry = entries.get(i);
+                for (int skew = -entry.backward; skew <= entry.forward; skew++) {
+                    int value = entry.ring[entry.slot(entry.baseStep + skew)];
+                    int slot = probe(keys, heads, value);
+                    keys[slot] = value;
+                    postingCredential[posting] = i;
+                    postingSkew[posting] = skew;
+                    postingNext[posting] = heads[slot];
+                    heads[slot] = posting + 1;
+                    posting++;
+                }
+            }
+            IndexStats stats = new IndexStats(count, skipped, postings, computed, System.nanoTime() - started);
+            return new Snapshot(
+                    validFrom,
+                    validUntil,
+                    ids,
+                    digits,
+                    baseSteps,
+                    keys,
+                    heads,
+                    postingCredential,
+                    postingSkew,
+                    postingNext,
+                    stats);
+        }
+
+        /** @return the slot holding {@code value}, or the empty slot where it belongs. */
+        private static int probe(int[] keys, int[] heads, int value) {
+            int mask = keys.length - 1;
+            int hash = value * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (heads[slot] != 0 && keys[slot] != value) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private boolean covers(long epochSeconds) {
+            return epochSeconds >= validFrom && epochSeconds < validUntil;
+        }
+
+        private List<Match> matches(int value, int digits) {
+            int slot = probe(tableKeys, tableHeads, value);
+            List<Match> matches = new ArrayList<>();
+            for (int posting = tableHeads[slot] - 1; posting >= 0; posting = postingNext[posting] - 1) {
+                int credential = postingCredential[posting];
+                if (credentialDigits[credential] == digits) {
+                    int skew = postingSkew[posting];
+                    matches.add(new Match(credentialIds[credential], credentialBaseSteps[credential] + skew, skew));
+                }
+            }
+            matches.sort(Comparator.comparing(Match::credentialId).thenComparingInt(Match::skewSteps));
+            return matches;
+        }
+    }
+}
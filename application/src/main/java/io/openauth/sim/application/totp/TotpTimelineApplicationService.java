@@ -0,0 +1,185 @@
+package io.openauth.sim.application.totp;
+
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.CredentialType;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.otp.totp.TotpCredentialPersistenceAdapter;
+import io.openauth.sim.core.otp.totp.TotpDescriptor;
+import io.openauth.sim.core.otp.totp.TotpHashAlgorithm;
+import io.openauth.sim.core.otp.totp.TotpTimeline;
+import io.openauth.sim.core.store.CredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates the OTP timeline of a stored or inline TOTP credential over a time range for replay corpora.
+ * Requests are validated up front by {@link #prepare(TimelineCommand)}, so facades can reject bad input
+ * before they start streaming; {@link PreparedTimeline#writeTo} then renders NDJSON or CSV straight into a
+ * channel without materialising the sequence.
+ */
+public final class TotpTimelineApplicationService {
+
+    /** Longest timeline a single request may stream (about 9.5 years of 30-second steps). */
+    public static final long MAX_STEPS = 10_000_000L;
+
+    private static final String INLINE_CREDENTIAL_ID = "totp-inline-timeline";
+
+    private final CredentialStore credentialStore;
+    private final TotpCredentialPersistenceAdapter persistenceAdapter = new TotpCredentialPersistenceAdapter();
+
+    public TotpTimelineApplicationService(CredentialStore credentialStore) {
+        this.credentialStore = Objects.requireNonNull(credentialStore, "credentialStore");
+    }
+
+    /**
+     * Resolves the credential and validates the range.
+     *
+     * @throws TimelineValidationException when the credential is unknown or the request is invalid
+     */
+    public PreparedTimeline prepare(TimelineCommand command) {
+        Objects.requireNonNull(command, "command");
+        TotpDescriptor descriptor = command instanceof TimelineCommand.Stored stored
+                ? resolveStored(stored.credentialId())
+                : resolveInline((TimelineCommand.Inline) command);
+        long steps;
+        try {
+            steps = TotpTimeline.stepCount(descriptor, command.from(), command.to());
+        } catch (IllegalArgumentException ex) {
+            throw new TimelineValidationException("range_invalid", ex.getMessage(), ex);
+        }
+        if (steps > MAX_STEPS) {
+            throw new TimelineValidationException(
+                    "range_too_large", "Timeline covers " + steps + " steps; the maximum is " + MAX_STEPS, null);
+        }
+        return new PreparedTimeline(descriptor, command.from(), command.to(), steps);
+    }
+
+    private TotpDescriptor resolveStored(String credentialId) {
+        Optional<Credential> credential = credentialStore.findByName(credentialId);
+        if (credential.isEmpty() || credential.get().type() != CredentialType.OATH_TOTP) {
+            throw new TimelineValidationException(
+                    "credential_not_found", "credentialId " + credentialId + " not found", null);
+        }
+        try {
+            return persistenceAdapter.deserialize(VersionedCredentialRecordMapper.toRecord(credential.get()));
+        } catch (IllegalArgumentException ex) {
+            throw new TimelineValidationException("credential_invalid", ex.getMessage(), ex);
+        }
+    }
+
+    private static TotpDescriptor resolveInline(TimelineCommand.Inline command) {
+        try {
+            return TotpDescriptor.create(
+                    INLINE_CREDENTIAL_ID,
+                    SecretMaterial.fromHex(command.sharedSecretHex()),
+                    command.algorithm(),
+                    command.digits(),
+                    command.stepDuration());
+        } catch (IllegalArgumentException ex) {
+            throw new TimelineValidationException("validation_error", ex.getMessage(), ex);
+        }
+    }
+
+    /** Timeline request for a stored credential or inline TOTP parameters; {@code from}/{@code to} are inclusive. */
+    public sealed interface TimelineCommand permits TimelineCommand.Stored, TimelineCommand.Inline {
+        Instant from();
+
+        Instant to();
+
+        record Stored(String credentialId, Instant from, Instant to) implements TimelineCommand {
+
+            public Stored {
+                credentialId = Objects.requireNonNull(credentialId, "credentialId").trim();
+                Objects.requireNonNull(from, "from");
+                Objects.requireNonNull(to, "to");
+            }
+        }
+
+        record Inline(
+                String sharedSecretHex,
+                TotpHashAlgorithm algorithm,
+                int digits,
+                Duration stepDuration,
+                Instant from,
+                Instant to)
+                implements TimelineCommand {
+
+            public Inline {
+                sharedSecretHex = Objects.requireNonNull(sharedSecretHex, "sharedSecretHex").trim();
+                Objects.requireNonNull(algorithm, "algorithm");
+                Objects.requireNonNull(stepDuration, "stepDuration");
+                Objects.requireNonNull(from, "from");
+                Objects.requireNonNull(to, "to");
+            }
+        }
+    }
+
+    /** A validated timeline ready to be streamed; the secret never leaves this object. */
+    public static final class PreparedTimeline {
+
+        private final TotpDescriptor descriptor;
+        private final Instant from;
+        private final Instant to;
+        private final long steps;
+
+        private PreparedTimeline(TotpDescriptor descriptor, Instant from, Instant to, long steps) {
+            this.descriptor = descriptor;
+            this.from = from;
+            this.to = to;
+            this.steps = steps;
+        }
+
+        public String credentialId() {
+            return descriptor.name();
+        }
+
+        public long stepSeconds() {
+            return descriptor.stepSeconds();
+        }
+
+        public long steps() {
+            return steps;
+        }
+
+        /**
+         * Streams the timeline into {@code channel}.
+         *
+         * @param parallelism number of chunks rendered concurrently; {@code 1} renders on the calling thread
+         * @return the number of steps written
+         */
+        public long writeTo(WritableByteChannel channel, TotpTimeline.Format format, int parallelism)
+                throws IOException {
+            return TotpTimeline.write(descriptor, from, to, format, channel, parallelism);
+        }
+
+        /** Same as {@link #writeTo(WritableByteChannel, TotpTimeline.Format, int)} on a shared rendering pool. */
+        public long writeTo(
+                WritableByteChannel channel, TotpTimeline.Format format, int parallelism, ForkJoinPool pool)
+                throws IOException {
+            Objects.requireNonNull(pool, "pool");
+            return TotpTimeline.write(descriptor, from, to, format, channel, parallelism, pool);
+        }
+    }
+
+    /** Raised by {@link #prepare(TimelineCommand)} with a machine-readable reason code. */
+    public static final class TimelineValidationException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final String reasonCode;
+
+        TimelineValidationException(String reasonCode, String message, Throwable cause) {
+            super(message, cause);
+            this.reasonCode = reasonCode;
+        }
+
+        public String reasonCode() {
+            return reasonCode;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package io.openauth.sim.application.corpus;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.openauth.sim.application.corpus.EmvCapFleetApplicationService.FleetCommand;
+import io.openauth.sim.application.corpus.EmvCapFleetApplicationService.FleetResult;
+import io.openauth.sim.application.corpus.EmvCapFleetApplicationService.Format;
+import io.openauth.sim.application.emv.cap.EmvCapSeedApplicationService;
+import io.openauth.sim.application.emv.cap.EmvCapSeedSamples;
+import io.openauth.sim.application.emv.cap.EmvCapSeedSamples.SeedSample;
+import io.openauth.sim.core.emv.cap.EmvCapCredentialDescriptor;
+import io.openauth.sim.core.emv.cap.EmvCapCredentialPersistenceAdapter;
+import io.openauth.sim.core.emv.cap.EmvCapEngine;
+import io.openauth.sim.core.emv.cap.EmvCapInput;
+import io.openauth.sim.core.emv.cap.EmvCapMode;
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.CredentialType;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.store.MapDbCredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EmvCapFleetApplicationServiceTest {
+
+    private static final Pattern FIELD = Pattern.compile("\"(\\w+)\":\"([^\"]*)\"");
+
+    @TempDir
+    Path tempDir;
+
+    private MapDbCredentialStore store;
+    private EmvCapFleetApplicationService service;
+
+    @BeforeEach
+    void setUp() {
+        store = MapDbCredentialStore.inMemory().open();
+        service = new EmvCapFleetApplicationService(store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void storedCardSeriesMatchesPerAtcEvaluationForTheModeMix() throws IOException {
+        new EmvCapSeedApplicationService()
+                .seed(EmvCapSeedSamples.samples().stream()
+                        .map(SeedSample::toSeedCommand)
+                        .toList(), store);
+        store.save(Credential.create(
+                "emv-cap-broken", CredentialType.EMV_CA, SecretMaterial.fromHex("00112233"), Map.of()));
+        Path output = tempDir.resolve("fleet.ndjson");
+
+        FleetResult result = service.generate(
+                new FleetCommand(
+                        "emv-cap-", 0, List.of(EmvCapMode.SIGN, EmvCapMode.RESPOND), 0x00FE, 3, 5L, Format.NDJSON, 2),
+                output);
+
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(2, result.cards());
+        assertEquals(1, result.skippedCards());
+        assertEquals(6, result.tokens());
+        assertEquals(Files.size(output), result.bytesWritten());
+        assertTrue(result.busyNanos() > 0);
+        assertEquals(6, lines.size());
+        EmvCapCredentialPersistenceAdapter adapter = new EmvCapCredentialPersistenceAdapter();
+        for (int i = 0; i < lines.size(); i++) {
+            Map<String, String> row = fields(lines.get(i));
+            EmvCapCredentialDescriptor descriptor = adapter.deserialize(VersionedCredentialRecordMapper.toRecord(
+                    store.findByName(row.get("cardId")).orElseThrow()));
+            assertEquals(descriptor.mode().name(), row.get("mode"));
+            assertEquals(String.format(Locale.ROOT, "%04X", 0x00FE + i % 3), row.get("atc"));
+            String expected = EmvCapEngine.evaluate(input(descriptor, row))
+                    .otp()
+                    .decimal();
+            assertEquals(expected, row.get("otp"), lines.get(i));
+        }
+        assertEquals("emv-cap-respond-baseline", fields(lines.get(0)).get("cardId"));
+        assertTrue(fields(lines.get(0)).get("challenge").matches("\\d+"));
+        assertTrue(fields(lines.get(3)).get("amount").matches("\\d+"));
+    }
+
+    @Test
+    void generatedFleetIsDeterministicAcrossParallelism() throws IOException {
+        int presses = EmvCapFleetApplicationService.BLOCK_TOKENS + 5;
+        Path sequential = tempDir.resolve("sequential.bin");
+        Path parallel = tempDir.resolve("parallel.bin");
+
+        FleetResult result = service.generate(
+                new FleetCommand("bank-", 4, List.of(), 0x0010, presses, 11L, Format.BINARY, 1), sequential);
+        service.generate(new FleetCommand("bank-", 4, List.of(), 0x0010, presses, 11L, Format.BINARY, 3), parallel);
+
+        assertArrayEquals(Files.readAllBytes(sequential), Files.readAllBytes(parallel));
+        assertEquals(4, result.cards());
+        assertEquals(4L * presses, result.tokens());
+        assertEquals(Files.size(sequential), result.bytesWritten());
+        assertTrue(result.tokensPerCoreSecond() > 0);
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(sequential));
+        byte[] magic = new byte[4];
+        buffer.get(magic);
+        assertArrayEquals("EMVF".getBytes(StandardCharsets.US_ASCII), magic);
+        assertEquals(EmvCapFleetApplicationService.BINARY_VERSION, buffer.get());
+        buffer.position(buffer.position() + 3);
+        assertEquals(4, buffer.getInt());
+        byte[] name = new byte[buffer.getShort()];
+        buffer.get(name);
+        assertEquals("bank-000000", new String(name, StandardCharsets.UTF_8));
+        assertEquals(EmvCapMode.IDENTIFY.ordinal(), buffer.get());
+        for (int card = 1; card < 4; card++) {
+            int nameLength = buffer.getShort();
+            buffer.position(buffer.position() + nameLength + 1);
+        }
+        assertEquals(4L * presses, buffer.getLong());
+        assertEquals(0, buffer.getInt());
+        assertEquals(0x0010, buffer.getShort());
+        assertEquals(0, buffer.get());
+    }
+
+    @Test
+    void rejectsInvalidCommands() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new FleetCommand(null, -1, null, 0, 1, 0L, Format.NDJSON, 1));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new FleetCommand(null, 0, null, 0xFFFF, 2, 0L, Format.NDJSON, 1));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new FleetCommand(null, 0, null, 0, 0, 0L, Format.NDJSON, 1));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new FleetCommand(null, 0, null, 0, 1, 0L, Format.NDJSON, 0));
+    }
+
+    private static EmvCapInput input(EmvCapCredentialDescriptor descriptor, Map<String, String> row) {
+        return new EmvCapInput(
+                descriptor.mode(),
+                descriptor.masterKey().asHex(),
+                row.get("atc"),
+                descriptor.branchFactor(),
+                descriptor.height(),
+                descriptor.ivHex(),
+                descriptor.cdol1Hex(),
+                descriptor.issuerProprietaryBitmapHex(),
+                new EmvCapInput.CustomerInputs(row.get("challenge"), row.get("reference"), row.get("amount")),
+                new EmvCapInput.TransactionData(descriptor.terminalDataHex(), descriptor.iccDataHex()),
+                descriptor.iccDataTemplateHex(),
+                descriptor.issuerApplicationDataHex());
+    }
+
+    private static Map<String, String> fields(String line) {
+        Map<String, String> fields = new HashMap<>();
+        Matcher matcher = FIELD.matcher(line);
+        while (matcher.find()) {
+            fields.put(matcher.group(1), matcher.group(2));
+        }
+        return fields;
+    }
+}
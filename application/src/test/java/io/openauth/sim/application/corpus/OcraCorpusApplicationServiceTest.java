@@ -0,0 +1,187 @@
+package io.openauth.sim.application.corpus;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.openauth.sim.application.corpus.OcraCorpusApplicationService.CorpusCommand;
+import io.openauth.sim.application.corpus.OcraCorpusApplicationService.CorpusResult;
+import io.openauth.sim.application.corpus.OcraCorpusApplicationService.Format;
+import io.openauth.sim.core.credentials.ocra.OcraCredentialDescriptor;
+import io.openauth.sim.core.credentials.ocra.OcraCredentialFactory;
+import io.openauth.sim.core.credentials.ocra.OcraCredentialFactory.OcraCredentialRequest;
+import io.openauth.sim.core.credentials.ocra.OcraCredentialPersistenceAdapter;
+import io.openauth.sim.core.credentials.ocra.OcraResponseCalculator;
+import io.openauth.sim.core.credentials.ocra.OcraResponseCalculator.OcraExecutionContext;
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.CredentialType;
+import io.openauth.sim.core.model.SecretEncoding;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.store.MapDbCredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OcraCorpusApplicationServiceTest {
+
+    private static final String SECRET_32 = "3132333435363738393031323334353637383930313233343536373839303132";
+    private static final String SECRET_64 = SECRET_32 + SECRET_32;
+    private static final String COUNTER_PIN_SUITE = "OCRA-1:HOTP-SHA256-8:C-QN08-PSHA1";
+    private static final String SESSION_TIME_SUITE = "OCRA-1:HOTP-SHA512-8:QH10-S064-T1M";
+    private static final String PIN_HASH = "7110eda4d09e062aa5e4a390b0a572ac0d2c0220";
+    private static final Pattern FIELD = Pattern.compile("\"(\\w+)\":(?:\"([^\"]*)\"|(\\d+))");
+    private static final Instant TIMESTAMP = Instant.ofEpochSecond(1_206_446_760L);
+
+    @TempDir
+    Path tempDir;
+
+    private MapDbCredentialStore store;
+    private OcraCorpusApplicationService service;
+
+    @BeforeEach
+    void setUp() {
+        store = MapDbCredentialStore.inMemory().open();
+        service = new OcraCorpusApplicationService(store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void ndjsonPairsMatchTheResponseCalculatorAndSkipUnusableCredentials() throws IOException {
+        OcraCredentialDescriptor counterPin = save("mutual-a", COUNTER_PIN_SUITE, SECRET_32, 5L, PIN_HASH);
+        OcraCredentialDescriptor sessionTime = save("mutual-b", SESSION_TIME_SUITE, SECRET_64, null, null);
+        store.save(Credential.create(
+                "mutual-broken", CredentialType.OATH_OCRA, SecretMaterial.fromHex(SECRET_32), Map.of()));
+        save("other", COUNTER_PIN_SUITE, SECRET_32, 0L, PIN_HASH);
+        Path output = tempDir.resolve("corpus.ndjson");
+
+        CorpusResult result = service.generate(
+                new CorpusCommand("mutual-", List.of(), 3, 42L, TIMESTAMP, Format.NDJSON, 2), output);
+
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(2, result.credentials());
+        assertEquals(1, result.skippedCredentials());
+        assertEquals(6, result.pairs());
+        assertEquals(Files.size(output), result.bytesWritten());
+        assertEquals(6, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            Map<String, String> row = fields(lines.get(i));
+            OcraCredentialDescriptor descriptor = i < 3 ? counterPin : sessionTime;
+            assertEquals(descriptor.name(), row.get("credentialId"));
+            assertEquals(descriptor.suite().value(), row.get("suite"));
+            String expected = OcraResponseCalculator.generate(
+                    descriptor,
+                    new OcraExecutionContext(
+                            row.containsKey("counter") ? Long.valueOf(row.get("counter")) : null,
+                            row.get("challenge"),
+                            row.get("sessionHex"),
+                            null,
+                            null,
+                            row.get("pinHashHex"),
+                            row.get("timestampHex")));
+            assertEquals(expected, row.get("otp"), lines.get(i));
+        }
+        assertEquals("5", fields(lines.get(0)).get("counter"));
+        assertEquals("7", fields(lines.get(2)).get("counter"));
+        assertTrue(fields(lines.get(0)).get("challenge").matches("\\d{8}"));
+        assertTrue(fields(lines.get(3)).get("challenge").matches("[0-9A-F]{10}"));
+        assertEquals(128, fields(lines.get(3)).get("sessionHex").length());
+        long stepSeconds = sessionTime.suite().dataInput().timestamp().orElseThrow().step().toSeconds();
+        assertEquals(
+                Long.toHexString(TIMESTAMP.getEpochSecond() / stepSeconds).toUpperCase(Locale.ROOT),
+                fields(lines.get(3)).get("timestampHex"));
+        assertNotEquals(fields(lines.get(3)).get("challenge"), fields(lines.get(4)).get("challenge"));
+    }
+
+    @Test
+    void outputIsDeterministicAcrossParallelismAndFollowsTheSuiteMix() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            save("load-c" + i, COUNTER_PIN_SUITE, SECRET_32, (long) i, PIN_HASH);
+            save("load-s" + i, SESSION_TIME_SUITE, SECRET_64, null, null);
+        }
+        int pairs = OcraCorpusApplicationService.BLOCK_PAIRS + 17;
+        Path sequential = tempDir.resolve("sequential.bin");
+        Path parallel = tempDir.resolve("parallel.bin");
+
+        CorpusResult result = service.generate(
+                new CorpusCommand("load-", List.of(), pairs, 7L, TIMESTAMP, Format.BINARY, 1), sequential);
+        service.generate(new CorpusCommand("load-", List.of(), pairs, 7L, TIMESTAMP, Format.BINARY, 4), parallel);
+        List<String> suiteMix = List.of(SESSION_TIME_SUITE.toLowerCase(Locale.ROOT));
+        CorpusResult filtered = service.generate(
+                new CorpusCommand("load-", suiteMix, 1, 7L, TIMESTAMP, Format.BINARY, 1),
+                tempDir.resolve("filtered.bin"));
+
+        assertArrayEquals(Files.readAllBytes(sequential), Files.readAllBytes(parallel));
+        assertEquals(6, result.credentials());
+        assertEquals(6L * pairs, result.pairs());
+        assertEquals(Files.size(sequential), result.bytesWritten());
+        assertEquals(3, filtered.credentials());
+        assertEquals(0, filtered.skippedCredentials());
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(sequential));
+        byte[] magic = new byte[4];
+        buffer.get(magic);
+        assertArrayEquals("OCRC".getBytes(StandardCharsets.US_ASCII), magic);
+        assertEquals(OcraCorpusApplicationService.BINARY_VERSION, buffer.get());
+        buffer.position(buffer.position() + 3);
+        assertEquals(6, buffer.getInt());
+        byte[] name = new byte[buffer.getShort()];
+        buffer.get(name);
+        assertEquals("load-c0", new String(name, StandardCharsets.UTF_8));
+        byte[] suite = new byte[buffer.getShort()];
+        buffer.get(suite);
+        assertEquals(COUNTER_PIN_SUITE, new String(suite, StandardCharsets.US_ASCII));
+        assertEquals(0, buffer.getShort());
+        assertEquals(20, buffer.get());
+    }
+
+    @Test
+    void rejectsInvalidCommands() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new CorpusCommand(null, null, 0, 1L, TIMESTAMP, Format.NDJSON, 1));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new CorpusCommand(null, null, 1, 1L, TIMESTAMP, Format.NDJSON, 0));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new CorpusCommand(null, null, 1, 1L, Instant.ofEpochSecond(-1), Format.NDJSON, 1));
+    }
+
+    private OcraCredentialDescriptor save(String name, String suite, String secret, Long counter, String pinHash) {
+        OcraCredentialDescriptor descriptor = new OcraCredentialFactory()
+                .createDescriptor(new OcraCredentialRequest(
+                        name, suite, secret, SecretEncoding.HEX, counter, pinHash, null, Map.of()));
+        store.save(VersionedCredentialRecordMapper.toCredential(
+                new OcraCredentialPersistenceAdapter().serialize(descriptor)));
+        return descriptor;
+    }
+
+    private static Map<String, String> fields(String line) {
+        Map<String, String> fields = new HashMap<>();
+        Matcher matcher = FIELD.matcher(line);
+        while (matcher.find()) {
+            fields.put(matcher.group(1), matcher.group(2) != null ? matcher.group(2) : matcher.group(3));
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,203 @@
+package io.openauth.sim.application.corpus;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.openauth.sim.application.corpus.OtpCorpusApplicationService.CorpusCommand;
+import io.openauth.sim.application.corpus.OtpCorpusApplicationService.CorpusResult;
+import io.openauth.sim.application.corpus.OtpCorpusApplicationService.Format;
+import io.openauth.sim.application.corpus.OtpCorpusApplicationService.Protocol;
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.CredentialType;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.otp.hotp.HotpDescriptor;
+import io.openauth.sim.core.otp.hotp.HotpGenerator;
+import io.openauth.sim.core.otp.hotp.HotpHashAlgorithm;
+import io.openauth.sim.core.otp.totp.TotpCredentialPersistenceAdapter;
+import io.openauth.sim.core.otp.totp.TotpDescriptor;
+import io.openauth.sim.core.otp.totp.TotpHashAlgorithm;
+import io.openauth.sim.core.store.MapDbCredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OtpCorpusApplicationServiceTest {
+
+    private static final SecretMaterial RFC_SECRET = SecretMaterial.fromStringUtf8("12345678901234567890");
+
+    @TempDir
+    Path tempDir;
+
+    private MapDbCredentialStore store;
+    private OtpCorpusApplicationService service;
+
+    @BeforeEach
+    void setUp() {
+        store = MapDbCredentialStore.inMemory().open();
+        service = new OtpCorpusApplicationService(store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void hotpCsvMatchesRfcVectorsAndSkipsUnusableCredentials() throws IOException {
+        saveHotp("load-a", 6);
+        store.save(Credential.create("load-broken", CredentialType.OATH_HOTP, RFC_SECRET, Map.of()));
+        saveHotp("other", 6);
+        Path output = tempDir.resolve("hotp.csv");
+
+        CorpusResult result =
+                service.generate(new CorpusCommand(Protocol.HOTP, "load-", 7, 9, Format.CSV, 2), output);
+
+        String csv = Files.readString(output, StandardCharsets.US_ASCII);
+        assertEquals("credentialId,counter,otp\nload-a,7,162583\nload-a,8,399871\nload-a,9,520489\n", csv);
+        assertEquals(1, result.credentials());
+        assertEquals(1, result.skippedCredentials());
+        assertEquals(3, result.otps());
+        assertEquals(csv.length(), result.bytesWritten());
+    }
+
+    @Test
+    void totpCsvAndBinaryDescribeTheSameRows() throws IOException {
+        TotpDescriptor descriptor = TotpDescriptor.create(
+                "totp-a", RFC_SECRET, TotpHashAlgorithm.SHA1, 8, Duration.ofSeconds(30));
+        store.save(VersionedCredentialRecordMapper.toCredential(
+                new TotpCredentialPersistenceAdapter().serialize(descriptor)));
+        Path csvOutput = tempDir.resolve("totp.csv");
+        Path binaryOutput = tempDir.resolve("totp.bin");
+
+        service.generate(new CorpusCommand(Protocol.TOTP, null, 0, 89, Format.CSV, 1), csvOutput);
+        CorpusResult binary =
+                service.generate(new CorpusCommand(Protocol.TOTP, "", 0, 89, Format.BINARY, 1), binaryOutput);
+
+        assertEquals(
+                "credentialId,timeStep,epochSeconds,otp\n"
+                        + "totp-a,0,0,84755224\ntotp-a,1,30,94287082\ntotp-a,2,60,37359152\n",
+                Files.readString(csvOutput, StandardCharsets.US_ASCII));
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(binaryOutput));
+        assertEquals(buffer.capacity(), binary.bytesWritten());
+        byte[] magic = new byte[4];
+        buffer.get(magic);
+        assertArrayEquals("OTPC".getBytes(StandardCharsets.US_ASCII), magic);
+        assertEquals(OtpCorpusApplicationService.BINARY_VERSION, buffer.get());
+        assertEquals(Protocol.TOTP.ordinal(), buffer.get());
+        assertEquals(0, buffer.getShort());
+        assertEquals(1, buffer.getInt());
+        byte[] name = new byte[buffer.getShort()];
+        buffer.get(name);
+        assertEquals("totp-a", new String(name, StandardCharsets.UTF_8));
+        assertEquals(8, buffer.get());
+        assertEquals(30, buffer.getInt());
+        assertEquals(3L, buffer.getLong());
+        int[] expected = {84_755_224, 94_287_082, 37_359_152};
+        for (int step = 0; step < expected.length; step++) {
+            assertEquals(0, buffer.getInt());
+            assertEquals(step, buffer.getLong());
+            assertEquals(expected[step], buffer.getInt());
+        }
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    void parallelGenerationWritesTheSameBytesAsSequential() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            saveHotp("bulk-" + i, 6 + i % 3);
+        }
+        Path sequential = tempDir.resolve("sequential.csv");
+        Path parallel = tempDir.resolve("parallel.csv");
+
+        CorpusResult result =
+                service.generate(new CorpusCommand(Protocol.HOTP, "bulk-", 95, 1_204, Format.CSV, 1), sequential);
+        service.generate(new CorpusCommand(Protocol.HOTP, "bulk-", 95, 1_204, Format.CSV, 4), parallel);
+
+        assertArrayEquals(Files.readAllBytes(sequential), Files.readAllBytes(parallel));
+        assertEquals(5L * 1_110, result.otps());
+        assertEquals(Files.size(sequential), result.bytesWritten());
+        HotpDescriptor descriptor = HotpDescriptor.create("bulk-4", RFC_SECRET, HotpHashAlgorithm.SHA1, 7);
+        String lastRow = "bulk-4,1204," + HotpGenerator.generate(descriptor, 1_204) + "\n";
+        assertEquals(lastRow, Files.readString(sequential).substring((int) result.bytesWritten() - lastRow.length()));
+    }
+
+    @Test
+    void packedRegionsSpanCredentialsWithoutChangingTheOutput() throws IOException {
+        for (int i = 0; i < 12; i++) {
+            saveHotp("packed-" + i, 6 + i % 3);
+        }
+        Path unpacked = tempDir.resolve("unpacked.csv");
+        Path packed = tempDir.resolve("packed.csv");
+        Path packedBinary = tempDir.resolve("packed.bin");
+        Path unpackedBinary = tempDir.resolve("unpacked.bin");
+        OtpCorpusApplicationService smallRegions = new OtpCorpusApplicationService(store, 1_000);
+
+        service.generate(new CorpusCommand(Protocol.HOTP, "packed-", 0, 150, Format.CSV, 1), unpacked);
+        smallRegions.generate(new CorpusCommand(Protocol.HOTP, "packed-", 0, 150, Format.CSV, 3), packed);
+        service.generate(new CorpusCommand(Protocol.HOTP, "packed-", 0, 150, Format.BINARY, 1), unpackedBinary);
+        smallRegions.generate(new CorpusCommand(Protocol.HOTP, "packed-", 0, 150, Format.BINARY, 3), packedBinary);
+
+        assertArrayEquals(Files.readAllBytes(unpacked), Files.readAllBytes(packed));
+        assertArrayEquals(Files.readAllBytes(unpackedBinary), Files.readAllBytes(packedBinary));
+    }
+
+    @Test
+    void csvQuotesCredentialNamesWithSeparatorsOrQuotes() throws IOException {
+        saveHotp("load,\"a\"", 6);
+        saveHotp("load\nb", 6);
+        Path output = tempDir.resolve("quoted.csv");
+
+        CorpusResult result = service.generate(new CorpusCommand(Protocol.HOTP, "load", 7, 7, Format.CSV, 1), output);
+
+        String csv = Files.readString(output, StandardCharsets.US_ASCII);
+        assertEquals("credentialId,counter,otp\n\"load\nb\",7,162583\n\"load,\"\"a\"\"\",7,162583\n", csv);
+        assertEquals(csv.length(), result.bytesWritten());
+        assertArrayEquals(
+                "plain".getBytes(StandardCharsets.UTF_8), OtpCorpusApplicationService.csvField("plain"));
+    }
+
+    @Test
+    void decimalLengthSumMatchesDigitByDigitCount() {
+        long[][] ranges = {{0, 0}, {0, 9}, {7, 123}, {95, 100_001}, {999_999_990, 1_000_000_010}};
+        for (long[] range : ranges) {
+            for (long multiplier : new long[] {1, 30, 60}) {
+                long expected = 0;
+                for (long value = range[0]; value <= range[1]; value++) {
+                    expected += Long.toString(value * multiplier).length();
+                }
+                assertEquals(
+                        expected,
+                        OtpCorpusApplicationService.decimalLengthSum(range[0], range[1], multiplier),
+                        range[0] + ".." + range[1] + " x" + multiplier);
+            }
+        }
+    }
+
+    @Test
+    void rejectsInvalidCommands() {
+        assertThrows(
+                IllegalArgumentException.class, () -> new CorpusCommand(Protocol.HOTP, null, -1, 0, Format.CSV, 1));
+        assertThrows(
+                IllegalArgumentException.class, () -> new CorpusCommand(Protocol.HOTP, null, 5, 4, Format.CSV, 1));
+        assertThrows(
+                IllegalArgumentException.class, () -> new CorpusCommand(Protocol.TOTP, null, 0, 1, Format.CSV, 0));
+    }
+
+    private void saveHotp(String name, int digits) {
+        store.save(Credential.create(
+                name,
+                CredentialType.OATH_HOTP,
+                RFC_SECRET,
+                Map.of("hotp.algorithm", "SHA1", "hotp.digits", Integer.toString(digits), "hotp.counter", "0")));
+    }
+}
@@ -6,6 +6,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.openauth.sim.application.hotp.HotpReplayApplicationService.ReplayCommand;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService.ReplayResult;
+import io.openauth.sim.application.hotp.HotpReplayApplicationService.ResyncSummary;
+import io.openauth.sim.application.hotp.HotpReplayApplicationService.ResyncWindow;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService.TelemetryStatus;
 import io.openauth.sim.application.telemetry.TelemetryContractTestSupport;
 import io.openauth.sim.application.telemetry.TelemetryContracts;
@@ -147,6 +149,45 @@ final class HotpReplayApplicationServiceTest {
                 "hotp.counter", Long.toString(counter));
     }
 
+    @Test
+    void storedResyncFindsDriftedCounterAcrossLargeWindow() {
+        long counter = 5L;
+        long drifted = counter + 25_000L;
+        store.save(Credential.create(CREDENTIAL_ID, CredentialType.OATH_HOTP, SECRET, attributes(counter)));
+        HotpDescriptor descriptor = HotpDescriptor.create(CREDENTIAL_ID, SECRET, ALGORITHM, DIGITS);
+        String first = HotpGenerator.generate(descriptor, drifted);
+        String second = HotpGenerator.generate(descriptor, drifted + 1);
+
+        ReplayResult defaultWindow = service.replay(new ReplayCommand.Stored(CREDENTIAL_ID, first));
+        ReplayResult resync = service.replay(
+                new ReplayCommand.Stored(CREDENTIAL_ID, first), false, new ResyncWindow(50_000, second));
+
+        assertEquals("otp_mismatch", defaultWindow.telemetry().reasonCode());
+        assertFalse(defaultWindow.resyncSummary().isPresent());
+        assertEquals(TelemetryStatus.SUCCESS, resync.telemetry().status());
+        assertEquals(drifted, resync.previousCounter());
+        assertEquals(drifted + 2, resync.nextCounter());
+        ResyncSummary summary = resync.resyncSummary().orElseThrow();
+        assertTrue(summary.consecutiveOtps());
+        assertTrue(summary.candidatesSearched() > 25_000L);
+        assertEquals(summary.candidatesPerSecond(), resync.telemetry().fields().get("candidatesPerSecond"));
+        Credential persisted = store.findByName(CREDENTIAL_ID).orElseThrow();
+        assertEquals(Long.toString(counter), persisted.attributes().get("hotp.counter"));
+    }
+
+    @Test
+    void resyncRejectsOutOfRangeLookAheadAndMalformedNextOtp() {
+        store.save(Credential.create(CREDENTIAL_ID, CredentialType.OATH_HOTP, SECRET, attributes(0L)));
+
+        ReplayResult zeroWindow =
+                service.replay(new ReplayCommand.Stored(CREDENTIAL_ID, "755224"), false, new ResyncWindow(0, null));
+        ReplayResult malformed =
+                service.replay(new ReplayCommand.Stored(CREDENTIAL_ID, "755224"), false, new ResyncWindow(100, "12x"));
+
+        assertEquals("validation_error", zeroWindow.telemetry().reasonCode());
+        assertEquals("validation_error", malformed.telemetry().reasonCode());
+    }
+
     private static final class InMemoryCredentialStore implements CredentialStore {
 
         private final ConcurrentHashMap<String, Credential> data = new ConcurrentHashMap<>();
@@ -52,12 +52,31 @@ final class CliSchemaParityTest {
                 "cli.hotp.list", Set.of("success", "validation_error", "unexpected_error"));
     }
 
+    @Test
+    void hotpReplayReasonCodesCoverTelemetry() {
+        assertSchemaContainsTelemetryReasonCodes(
+                "cli.hotp.replay",
+                Set.of(
+                        "match",
+                        "otp_mismatch",
+                        "credential_not_found",
+                        "invalid_hotp_metadata",
+                        "validation_error",
+                        "unexpected_error"));
+    }
+
     @Test
     void totpListReasonCodesCoverTelemetry() {
         assertSchemaContainsTelemetryReasonCodes(
                 "cli.totp.list", Set.of("success", "validation_error", "unexpected_error"));
     }
 
+    @Test
+    void totpReverseLookupReasonCodesCoverTelemetry() {
+        assertSchemaContainsTelemetryReasonCodes(
+                "cli.totp.reverse-lookup", Set.of("success", "validation_error", "unexpected_error"));
+    }
+
     @Test
     void ocraEvaluateReasonCodesCoverTelemetry() {
         assertSchemaContainsTelemetryReasonCodes(
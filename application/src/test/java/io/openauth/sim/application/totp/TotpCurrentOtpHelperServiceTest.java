@@ -2,6 +2,7 @@ package io.openauth.sim.application.totp;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.openauth.sim.application.totp.TotpCurrentOtpHelperService.LookupCommand;
@@ -12,6 +13,7 @@ import io.openauth.sim.core.otp.totp.TotpCredentialPersistenceAdapter;
 import io.openauth.sim.core.otp.totp.TotpDescriptor;
 import io.openauth.sim.core.otp.totp.TotpDriftWindow;
 import io.openauth.sim.core.otp.totp.TotpHashAlgorithm;
+import io.openauth.sim.core.store.CredentialStore;
 import io.openauth.sim.core.store.MapDbCredentialStore;
 import io.openauth.sim.core.store.serialization.VersionedCredentialRecord;
 import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
@@ -19,7 +21,14 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -81,6 +90,79 @@ class TotpCurrentOtpHelperServiceTest {
         assertTrue(!result.timestampOverrideProvided());
     }
 
+    @Test
+    void reusesEvaluationWithinStepAndRefreshesAtBoundary() throws Exception {
+        persistCredential("helper-cached", TotpHashAlgorithm.SHA1, 8, Duration.ofSeconds(30));
+        CountingStore counting = new CountingStore(store);
+        TotpCurrentOtpHelperService service = new TotpCurrentOtpHelperService(
+                new TotpEvaluationApplicationService(counting, FIXED_CLOCK), FIXED_CLOCK);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<LookupResult>> lookups = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                long second = 30 + (i % 30);
+                lookups.add(executor.submit(() -> service.lookup(lookupAt("helper-cached", second))));
+            }
+            for (Future<LookupResult> lookup : lookups) {
+                assertEquals("94287082", lookup.get().evaluationResult().otp());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, counting.lookups.get());
+        assertEquals(Instant.ofEpochSecond(45), service.lookup(lookupAt("helper-cached", 45)).generationInstant());
+        assertEquals(1, counting.lookups.get());
+
+        LookupResult nextStep = service.lookup(lookupAt("helper-cached", 60));
+        assertEquals(2, counting.lookups.get());
+        assertEquals(Instant.ofEpochSecond(60), nextStep.generationInstant());
+        assertTrue(!"94287082".equals(nextStep.evaluationResult().otp()));
+    }
+
+    @Test
+    void doesNotCacheFailedLookups() {
+        CountingStore counting = new CountingStore(store);
+        TotpCurrentOtpHelperService service = new TotpCurrentOtpHelperService(
+                new TotpEvaluationApplicationService(counting, FIXED_CLOCK), FIXED_CLOCK);
+
+        assertEquals(
+                "credential_not_found",
+                service.lookup(lookupAt("late", 31)).evaluationResult().telemetry().reasonCode());
+        persistCredential("late", TotpHashAlgorithm.SHA1, 8, Duration.ofSeconds(30));
+
+        assertEquals("94287082", service.lookup(lookupAt("late", 32)).evaluationResult().otp());
+        assertEquals(2, counting.lookups.get());
+    }
+
+    @Test
+    void errorsDuringEvaluationReleaseTheKeyForLaterCallers() throws Exception {
+        persistCredential("helper-error", TotpHashAlgorithm.SHA1, 8, Duration.ofSeconds(30));
+        CountingStore counting = new CountingStore(store);
+        counting.failNextLookup = true;
+        TotpCurrentOtpHelperService service = new TotpCurrentOtpHelperService(
+                new TotpEvaluationApplicationService(counting, FIXED_CLOCK), FIXED_CLOCK);
+
+        assertThrows(LinkageError.class, () -> service.lookup(lookupAt("helper-error", 31)));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<LookupResult> retry = executor.submit(() -> service.lookup(lookupAt("helper-error", 32)));
+            assertEquals("94287082", retry.get(5, TimeUnit.SECONDS).evaluationResult().otp());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, counting.lookups.get());
+    }
+
+    private static LookupCommand lookupAt(String credentialId, long epochSeconds) {
+        return new LookupCommand(
+                credentialId,
+                TotpDriftWindow.of(1, 1),
+                Optional.of(Instant.ofEpochSecond(epochSeconds)),
+                Optional.empty());
+    }
+
     private void persistCredential(String credentialId, TotpHashAlgorithm algorithm, int digits, Duration step) {
         TotpDescriptor descriptor = TotpDescriptor.create(
                 credentialId, SecretMaterial.fromHex(SECRET_HEX), algorithm, digits, step, TotpDriftWindow.of(1, 1));
@@ -89,4 +171,45 @@ class TotpCurrentOtpHelperServiceTest {
         Credential credential = VersionedCredentialRecordMapper.toCredential(record);
         store.save(credential);
     }
+
+    private static final class CountingStore implements CredentialStore {
+
+        private final CredentialStore delegate;
+        private final AtomicInteger lookups = new AtomicInteger();
+        private volatile boolean failNextLookup;
+
+        private CountingStore(CredentialStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void save(Credential credential) {
+            delegate.save(credential);
+        }
+
+        @Override
+        public Optional<Credential> findByName(String name) {
+            lookups.incrementAndGet();
+            if (failNextLookup) {
+                failNextLookup = false;
+                throw new LinkageError("simulated class loading failure");
+            }
+            return delegate.findByName(name);
+        }
+
+        @Override
+        public List<Credential> findAll() {
+            return delegate.findAll();
+        }
+
+        @Override
+        public boolean delete(String name) {
+            return delegate.delete(name);
+        }
+
+        @Override
+        public void close() {
+            // The wrapped store is closed by the test.
+        }
+    }
 }
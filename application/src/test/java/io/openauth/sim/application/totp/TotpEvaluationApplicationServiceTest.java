@@ -170,9 +170,129 @@ final class TotpEvaluationApplicationServiceTest {
         assertTrue(result.previews().isEmpty());
     }
 
+    @Test
+    void adaptiveDriftLearnsOffsetAndStillChecksTheFullWindowOnRejection() {
+        TotpEvaluationApplicationService adaptive = new TotpEvaluationApplicationService(
+                credentialStore, clock, TotpEvaluationApplicationService.DriftMode.ADAPTIVE);
+        TotpDescriptor descriptor = TotpDescriptor.create(CREDENTIAL_ID, SECRET, ALGORITHM, 6, STEP);
+        credentialStore.save(VersionedCredentialRecordMapper.toCredential(
+                new TotpCredentialPersistenceAdapter().serialize(descriptor)));
+        TotpDriftWindow window = TotpDriftWindow.of(5, 5);
+        Instant now = Instant.ofEpochSecond(1_111_111_199L);
+
+        int savesBefore = credentialStore.history.size();
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Instant verifiedAt = now.plusSeconds(30L * attempt);
+            String otp = TotpGenerator.generate(descriptor, verifiedAt.minusSeconds(90));
+            TotpEvaluationApplicationService.EvaluationResult result =
+                    adaptive.evaluate(new TotpEvaluationApplicationService.EvaluationCommand.Stored(
+                            CREDENTIAL_ID, otp, window, verifiedAt, Optional.empty()));
+            assertEquals("validated", result.telemetry().reasonCode());
+            assertEquals(-3, result.matchedSkewSteps());
+        }
+        Map<String, String> attributes = credentialStore.findByName(CREDENTIAL_ID).orElseThrow().attributes();
+        assertEquals(-3, TotpCredentialPersistenceAdapter.driftEstimate(attributes).expectedOffset());
+        assertEquals(1, credentialStore.history.size() - savesBefore, "only the offset change is persisted");
+
+        TotpEvaluationApplicationService.EvaluationResult rejected =
+                adaptive.evaluate(new TotpEvaluationApplicationService.EvaluationCommand.Stored(
+                        CREDENTIAL_ID, "000000", window, now, Optional.empty()));
+
+        assertEquals("otp_out_of_window", rejected.telemetry().reasonCode());
+        assertEquals(11, rejected.telemetry().fields().get("candidatesEvaluated"));
+        TotpEvaluationApplicationService.VerificationStats stats = adaptive.verificationStats();
+        assertEquals(4, stats.verifications());
+        assertTrue(stats.averageCandidatesEvaluated() < 2 * window.backwardSteps() + 1);
+        assertEquals(1, stats.rejections());
+        assertEquals(11.0d, stats.averageRejectionCandidatesEvaluated(), 1e-9);
+        assertEquals(11.0d, rejected.telemetry().fields().get("averageRejectionCandidatesEvaluated"));
+    }
+
+    @Test
+    void narrowedDriftChecksOnlyTheStepsNextToAConfidentOffsetOnRejection() {
+        TotpEvaluationApplicationService narrowed = new TotpEvaluationApplicationService(
+                credentialStore, clock, TotpEvaluationApplicationService.DriftMode.NARROWED);
+        TotpDescriptor descriptor = TotpDescriptor.create(CREDENTIAL_ID, SECRET, ALGORITHM, 6, STEP);
+        credentialStore.save(VersionedCredentialRecordMapper.toCredential(
+                new TotpCredentialPersistenceAdapter().serialize(descriptor)));
+        TotpDriftWindow window = TotpDriftWindow.of(5, 5);
+        Instant now = Instant.ofEpochSecond(1_111_111_199L);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Instant verifiedAt = now.plusSeconds(30L * attempt);
+            String otp = TotpGenerator.generate(descriptor, verifiedAt.minusSeconds(90));
+            assertEquals(
+                    "validated",
+                    narrowed.evaluate(new TotpEvaluationApplicationService.EvaluationCommand.Stored(
+                                    CREDENTIAL_ID, otp, window, verifiedAt, Optional.empty()))
+                            .telemetry()
+                            .reasonCode());
+        }
+
+        TotpEvaluationApplicationService.EvaluationResult rejected =
+                narrowed.evaluate(new TotpEvaluationApplicationService.EvaluationCommand.Stored(
+                        CREDENTIAL_ID, "000000", window, now, Optional.empty()));
+
+        assertEquals("otp_out_of_window", rejected.telemetry().reasonCode());
+        assertEquals(3, rejected.telemetry().fields().get("candidatesEvaluated"));
+        assertEquals(3.0d, narrowed.verificationStats().averageRejectionCandidatesEvaluated(), 1e-9);
+    }
+
+    @Test
+    void adaptiveDriftWriteIsSkippedWhenTheCredentialChangedConcurrently() {
+        TotpDescriptor descriptor = TotpDescriptor.create(CREDENTIAL_ID, SECRET, ALGORITHM, 6, STEP);
+        credentialStore.save(VersionedCredentialRecordMapper.toCredential(
+                new TotpCredentialPersistenceAdapter().serialize(descriptor)));
+        Credential concurrent = credentialStore.findByName(CREDENTIAL_ID).orElseThrow();
+        credentialStore.beforeNextRead = () -> credentialStore.store.put(
+                CREDENTIAL_ID,
+                new Credential(
+                        concurrent.name(),
+                        concurrent.type(),
+                        concurrent.secret(),
+                        Map.of(),
+                        concurrent.createdAt(),
+                        concurrent.updatedAt().plusSeconds(1)));
+        TotpEvaluationApplicationService adaptive = new TotpEvaluationApplicationService(
+                credentialStore, clock, TotpEvaluationApplicationService.DriftMode.ADAPTIVE);
+        Instant now = Instant.ofEpochSecond(1_111_111_199L);
+
+        TotpEvaluationApplicationService.EvaluationResult result =
+                adaptive.evaluate(new TotpEvaluationApplicationService.EvaluationCommand.Stored(
+                        CREDENTIAL_ID,
+                        TotpGenerator.generate(descriptor, now.minusSeconds(60)),
+                        TotpDriftWindow.of(3, 3),
+                        now,
+                        Optional.empty()));
+
+        assertTrue(result.valid());
+        assertEquals(Map.of(), credentialStore.store.get(CREDENTIAL_ID).attributes());
+        assertEquals(1, credentialStore.history.size(), "the stale drift write must not be applied");
+    }
+
+    @Test
+    void storedVerificationReportsItsCandidateCountInTelemetry() {
+        TotpDescriptor descriptor = TotpDescriptor.create(CREDENTIAL_ID, SECRET, ALGORITHM, 6, STEP);
+        credentialStore.save(VersionedCredentialRecordMapper.toCredential(
+                new TotpCredentialPersistenceAdapter().serialize(descriptor)));
+        Instant now = Instant.ofEpochSecond(1_111_111_199L);
+
+        TotpEvaluationApplicationService.EvaluationResult result =
+                service.evaluate(new TotpEvaluationApplicationService.EvaluationCommand.Stored(
+                        CREDENTIAL_ID,
+                        TotpGenerator.generate(descriptor, now),
+                        TotpDriftWindow.of(1, 1),
+                        now,
+                        Optional.empty()));
+
+        assertEquals(2, result.telemetry().fields().get("candidatesEvaluated"));
+        assertEquals(1, service.verificationStats().verifications());
+    }
+
     private static final class InMemoryCredentialStore implements CredentialStore {
         private final Map<String, Credential> store = new ConcurrentHashMap<>();
         private final List<Credential> history = Collections.synchronizedList(new ArrayList<>());
+        private volatile Runnable beforeNextRead;
 
         @Override
         public void save(Credential credential) {
@@ -182,6 +302,13 @@ final class TotpEvaluationApplicationServiceTest {
 
         @Override
         public Optional<Credential> findByName(String name) {
+            Runnable hook = beforeNextRead;
+            if (hook != null && store.containsKey(name)) {
+                beforeNextRead = null;
+                Optional<Credential> read = Optional.ofNullable(store.get(name));
+                hook.run();
+                return read;
+            }
             return Optional.ofNullable(store.get(name));
         }
 
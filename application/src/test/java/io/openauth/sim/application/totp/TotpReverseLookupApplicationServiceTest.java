@@ -0,0 +1,170 @@
+package io.openauth.sim.application.totp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.openauth.sim.application.totp.TotpReverseLookupApplicationService.IndexStats;
+import io.openauth.sim.application.totp.TotpReverseLookupApplicationService.LookupResult;
+import io.openauth.sim.application.totp.TotpReverseLookupApplicationService.Match;
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.otp.totp.TotpCredentialPersistenceAdapter;
+import io.openauth.sim.core.otp.totp.TotpDescriptor;
+import io.openauth.sim.core.otp.totp.TotpDriftWindow;
+import io.openauth.sim.core.otp.totp.TotpGenerator;
+import io.openauth.sim.core.otp.totp.TotpHashAlgorithm;
+import io.openauth.sim.core.store.MapDbCredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TotpReverseLookupApplicationServiceTest {
+
+    private static final Instant NOW = Instant.ofEpochSecond(1_111_111_109L);
+    private static final SecretMaterial SHARED = SecretMaterial.fromHex("3132333435363738393031323334353637383930");
+
+    private final MutableClock clock = new MutableClock();
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private MapDbCredentialStore store;
+    private TotpReverseLookupApplicationService service;
+
+    @BeforeEach
+    void setUp() {
+        store = MapDbCredentialStore.inMemory().open();
+        service = new TotpReverseLookupApplicationService(
+                store, clock, (task, delayMillis) -> scheduled.add(task));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void findsEveryCredentialProducingTheCodeWithinItsDriftWindow() {
+        TotpDescriptor alpha = persist("alpha", SHARED, 8, TotpDriftWindow.of(1, 1));
+        persist("bravo", SHARED, 8, TotpDriftWindow.of(0, 0));
+        persist("charlie", SHARED, 6, TotpDriftWindow.of(1, 1));
+        SecretMaterial other = SecretMaterial.fromHex("00112233445566778899aabbccddeeff00112233");
+        persist("delta", other, 8, TotpDriftWindow.of(2, 2));
+
+        LookupResult current = service.lookup(TotpGenerator.generate(alpha, NOW));
+
+        assertEquals("07081804", current.otp());
+        assertEquals(4, current.indexedCredentials());
+        assertEquals(
+                List.of(new Match("alpha", 37_037_036L, 0), new Match("bravo", 37_037_036L, 0)), current.matches());
+
+        LookupResult previous = service.lookup(TotpGenerator.generate(alpha, NOW.minusSeconds(30)));
+        assertEquals(List.of(new Match("alpha", 37_037_035L, -1)), previous.matches());
+
+        String sixDigits = TotpGenerator.generate(
+                TotpDescriptor.create("six", SHARED, TotpHashAlgorithm.SHA1, 6, Duration.ofSeconds(30)),
+                NOW.plusSeconds(30));
+        assertEquals(List.of(new Match("charlie", 37_037_037L, 1)), service.lookup(sixDigits).matches());
+    }
+
+    @Test
+    void advancesIncrementallyAtStepBoundaryAndPicksUpNewCredentials() {
+        TotpDescriptor alpha = persist("alpha", SHARED, 8, TotpDriftWindow.of(1, 1));
+        IndexStats initial = service.refresh(NOW);
+        assertEquals(3, initial.computedOtps());
+        assertEquals(3, initial.postings());
+
+        persist("bravo", SHARED, 8, TotpDriftWindow.of(1, 1));
+        runScheduled();
+        assertEquals(initial, service.stats());
+
+        Instant nextStep = NOW.plusSeconds(30);
+        clock.now = nextStep;
+        LookupResult result = service.lookup(TotpGenerator.generate(alpha, nextStep));
+
+        IndexStats advanced = service.stats();
+        assertEquals(2, advanced.credentials());
+        // alpha only computes its newly exposed forward step; bravo is indexed from scratch.
+        assertEquals(1 + 3, advanced.computedOtps());
+        assertEquals(List.of("alpha", "bravo"), result.matches().stream().map(Match::credentialId).toList());
+        assertTrue(result.matches().stream().allMatch(match -> match.skewSteps() == 0));
+    }
+
+    @Test
+    void lookupPastTheBoundaryRebuildsInLineWhenNothingWasPrepared() {
+        TotpDescriptor alpha = persist("alpha", SHARED, 8, TotpDriftWindow.of(0, 0));
+        service.refresh(NOW);
+        scheduled.clear();
+
+        clock.now = NOW.plusSeconds(3_600);
+        LookupResult result = service.lookup(TotpGenerator.generate(alpha, clock.now));
+
+        assertEquals(List.of(new Match("alpha", 37_037_156L, 0)), result.matches());
+        assertEquals(1, service.stats().computedOtps());
+        assertEquals(1, scheduled.size());
+    }
+
+    @Test
+    void instantsOutsideTheIndexAreRejectedWithoutScanningTheStore() {
+        TotpDescriptor alpha = persist("alpha", SHARED, 8, TotpDriftWindow.of(1, 1));
+        IndexStats current = service.refresh(NOW);
+
+        Instant lastYear = NOW.minus(Duration.ofDays(365));
+        assertThrows(
+                TotpReverseLookupApplicationService.InstantOutsideIndexException.class,
+                () -> service.lookup(TotpGenerator.generate(alpha, lastYear), lastYear));
+
+        assertEquals(current, service.stats());
+        assertEquals(
+                List.of(new Match("alpha", 37_037_036L, 0)),
+                service.lookup(TotpGenerator.generate(alpha, NOW), NOW).matches());
+        assertEquals(current, service.stats());
+    }
+
+    @Test
+    void rejectsMalformedCodes() {
+        assertThrows(IllegalArgumentException.class, () -> service.lookup("12ab56"));
+        assertThrows(IllegalArgumentException.class, () -> service.lookup(""));
+        assertThrows(IllegalArgumentException.class, () -> service.lookup("1234567890"));
+    }
+
+    private void runScheduled() {
+        List<Runnable> tasks = new ArrayList<>(scheduled);
+        scheduled.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private TotpDescriptor persist(String name, SecretMaterial secret, int digits, TotpDriftWindow window) {
+        TotpDescriptor descriptor =
+                TotpDescriptor.create(name, secret, TotpHashAlgorithm.SHA1, digits, Duration.ofSeconds(30), window);
+        Credential credential = VersionedCredentialRecordMapper.toCredential(
+                new TotpCredentialPersistenceAdapter().serialize(descriptor));
+        store.save(credential);
+        return descriptor;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = NOW;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package io.openauth.sim.application.totp;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import io.openauth.sim.application.totp.TotpReverseLookupApplicationService.IndexStats;
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.otp.totp.TotpCredentialPersistenceAdapter;
+import io.openauth.sim.core.otp.totp.TotpDescriptor;
+import io.openauth.sim.core.otp.totp.TotpDriftWindow;
+import io.openauth.sim.core.otp.totp.TotpGenerator;
+import io.openauth.sim.core.otp.totp.TotpHashAlgorithm;
+import io.openauth.sim.core.store.CredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Build cost of the TOTP reverse lookup index over a large fleet (default 1,000,000 credentials, override
+ * with {@code -Dio.openauth.sim.benchmark.totpIndexCredentials=N}). Reports the full build, the
+ * incremental rebuild at the next step boundary, and lookup latency. Enable with {@code
+ * -Dio.openauth.sim.benchmark=true}.
+ */
+final class TotpReverseLookupIndexBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger(TotpReverseLookupIndexBenchmark.class.getName());
+
+    private static final String BENCHMARK_FLAG = "io.openauth.sim.benchmark";
+    private static final String CREDENTIALS_PROPERTY = "io.openauth.sim.benchmark.totpIndexCredentials";
+    private static final int DEFAULT_CREDENTIALS = 1_000_000;
+    private static final int MEASURED_LOOKUPS = 100_000;
+    private static final Instant START = Instant.ofEpochSecond(1_700_000_010L);
+
+    @Test
+    void indexBuildCostAtFleetScale() {
+        assumeTrue(isBenchmarkEnabled(), "Benchmark flag not enabled");
+
+        int credentials = Integer.getInteger(CREDENTIALS_PROPERTY, DEFAULT_CREDENTIALS);
+        FleetStore store = new FleetStore(credentials);
+        // The clock sits on the step looked up below; background preparation is disabled so only the builds
+        // requested through refresh are measured.
+        TotpReverseLookupApplicationService service = new TotpReverseLookupApplicationService(
+                store, Clock.fixed(START.plusSeconds(30), ZoneOffset.UTC), (task, delayMillis) -> {});
+
+        IndexStats full = service.refresh(START);
+        log("full", full);
+        IndexStats unchanged = service.refresh(START);
+        log("same-step", unchanged);
+        IndexStats boundary = service.refresh(START.plusSeconds(30));
+        log("next-step", boundary);
+
+        Instant lookupInstant = START.plusSeconds(30);
+        List<String> probes = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            probes.add(TotpGenerator.generate(store.descriptor((int) ((long) i * credentials / 1_000)), lookupInstant));
+        }
+        long matches = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_LOOKUPS; i++) {
+            matches += service.lookup(probes.get(i % probes.size()), lookupInstant)
+                    .matches()
+                    .size();
+        }
+        long elapsed = Math.max(1L, System.nanoTime() - started);
+        long totalMatches = matches;
+        LOGGER.log(
+                Level.INFO,
+                () -> String.format(
+                        Locale.ROOT,
+                        "totp-index.lookup credentials=%d measured=%d throughputOpsPerSec=%.2f nsPerOp=%.1f matches=%d",
+                        credentials,
+                        MEASURED_LOOKUPS,
+                        MEASURED_LOOKUPS / (elapsed / 1_000_000_000.0),
+                        (double) elapsed / MEASURED_LOOKUPS,
+                        totalMatches));
+    }
+
+    private static void log(String phase, IndexStats stats) {
+        LOGGER.log(
+                Level.INFO,
+                () -> String.format(
+                        Locale.ROOT,
+                        "totp-index.build phase=%s credentials=%d postings=%d computedOtps=%d totalMs=%.3f"
+                                + " otpsPerSec=%.2f",
+                        phase,
+                        stats.credentials(),
+                        stats.postings(),
+                        stats.computedOtps(),
+                        stats.buildNanos() / 1_000_000.0,
+                        stats.computedOtps() / (Math.max(1L, stats.buildNanos()) / 1_000_000_000.0)));
+    }
+
+    private static boolean isBenchmarkEnabled() {
+        if (Boolean.getBoolean(BENCHMARK_FLAG)) {
+            return true;
+        }
+        String env = System.getenv("IO_OPENAUTH_SIM_BENCHMARK");
+        return env != null && Boolean.parseBoolean(env);
+    }
+
+    /** Read-only store holding a synthetic fleet with distinct 20-byte secrets and a +/-1 step window. */
+    private static final class FleetStore implements CredentialStore {
+
+        private final List<Credential> credentials;
+
+        private FleetStore(int size) {
+            TotpCredentialPersistenceAdapter adapter = new TotpCredentialPersistenceAdapter();
+            List<Credential> fleet = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                fleet.add(VersionedCredentialRecordMapper.toCredential(adapter.serialize(descriptor(i))));
+            }
+            this.credentials = List.copyOf(fleet);
+        }
+
+        private TotpDescriptor descriptor(int index) {
+            byte[] secret = ByteBuffer.allocate(20)
+                    .putLong(0x5eed_0000_0000_0000L + index)
+                    .putLong(index * 0x9E3779B97F4A7C15L)
+                    .putInt(index)
+                    .array();
+            return TotpDescriptor.create(
+                    String.format(Locale.ROOT, "fleet-%07d", index),
+                    SecretMaterial.fromBytes(secret),
+                    TotpHashAlgorithm.SHA1,
+                    6,
+                    Duration.ofSeconds(30),
+                    TotpDriftWindow.of(1, 1));
+        }
+
+        @Override
+        public void save(Credential credential) {
+            throw new UnsupportedOperationException("read-only fleet");
+        }
+
+        @Override
+        public Optional<Credential> findByName(String name) {
+            return credentials.stream().filter(c -> c.name().equals(name)).findFirst();
+        }
+
+        @Override
+        public List<Credential> findAll() {
+            return credentials;
+        }
+
+        @Override
+        public boolean delete(String name) {
+            throw new UnsupportedOperationException("read-only fleet");
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release.
+        }
+    }
+}
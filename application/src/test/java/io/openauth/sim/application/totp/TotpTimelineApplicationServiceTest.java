@@ -0,0 +1,104 @@
+package io.openauth.sim.application.totp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.openauth.sim.application.totp.TotpTimelineApplicationService.PreparedTimeline;
+import io.openauth.sim.application.totp.TotpTimelineApplicationService.TimelineCommand;
+import io.openauth.sim.application.totp.TotpTimelineApplicationService.TimelineValidationException;
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.otp.totp.TotpCredentialPersistenceAdapter;
+import io.openauth.sim.core.otp.totp.TotpDescriptor;
+import io.openauth.sim.core.otp.totp.TotpHashAlgorithm;
+import io.openauth.sim.core.otp.totp.TotpTimeline;
+import io.openauth.sim.core.store.MapDbCredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TotpTimelineApplicationServiceTest {
+
+    private static final String SECRET_HEX = "3132333435363738393031323334353637383930";
+
+    private MapDbCredentialStore store;
+    private TotpTimelineApplicationService service;
+
+    @BeforeEach
+    void setUp() {
+        store = MapDbCredentialStore.inMemory().open();
+        service = new TotpTimelineApplicationService(store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void storedAndInlineCredentialsStreamTheSameTimeline() throws IOException {
+        TotpDescriptor descriptor = TotpDescriptor.create(
+                "timeline-stored",
+                SecretMaterial.fromHex(SECRET_HEX),
+                TotpHashAlgorithm.SHA1,
+                8,
+                Duration.ofSeconds(30));
+        Credential credential = VersionedCredentialRecordMapper.toCredential(
+                new TotpCredentialPersistenceAdapter().serialize(descriptor));
+        store.save(credential);
+        Instant from = Instant.ofEpochSecond(0);
+        Instant to = Instant.ofEpochSecond(89);
+
+        PreparedTimeline stored = service.prepare(new TimelineCommand.Stored("timeline-stored", from, to));
+        PreparedTimeline inline = service.prepare(
+                new TimelineCommand.Inline(SECRET_HEX, TotpHashAlgorithm.SHA1, 8, Duration.ofSeconds(30), from, to));
+
+        assertEquals("timeline-stored", stored.credentialId());
+        assertEquals(3, stored.steps());
+        String csv = render(stored, TotpTimeline.Format.CSV);
+        assertEquals("timeStep,epochSeconds,otp\n0,0,84755224\n1,30,94287082\n2,60,37359152\n", csv);
+        assertEquals(csv, render(inline, TotpTimeline.Format.CSV));
+    }
+
+    @Test
+    void rejectsUnknownCredentialsInvalidRangesAndOversizedTimelines() {
+        Instant from = Instant.ofEpochSecond(1_000L);
+
+        TimelineValidationException missing = assertThrows(
+                TimelineValidationException.class,
+                () -> service.prepare(new TimelineCommand.Stored("missing", from, from)));
+        TimelineValidationException reversed = assertThrows(
+                TimelineValidationException.class,
+                () -> service.prepare(inline(from, from.minusSeconds(60))));
+        TimelineValidationException oversized = assertThrows(
+                TimelineValidationException.class,
+                () -> service.prepare(
+                        inline(from, from.plusSeconds(30L * TotpTimelineApplicationService.MAX_STEPS))));
+        TimelineValidationException badSecret = assertThrows(
+                TimelineValidationException.class,
+                () -> service.prepare(new TimelineCommand.Inline(
+                        "zz", TotpHashAlgorithm.SHA1, 6, Duration.ofSeconds(30), from, from)));
+
+        assertEquals("credential_not_found", missing.reasonCode());
+        assertEquals("range_invalid", reversed.reasonCode());
+        assertEquals("range_too_large", oversized.reasonCode());
+        assertEquals("validation_error", badSecret.reasonCode());
+    }
+
+    private static TimelineCommand inline(Instant from, Instant to) {
+        return new TimelineCommand.Inline(SECRET_HEX, TotpHashAlgorithm.SHA1, 6, Duration.ofSeconds(30), from, to);
+    }
+
+    private static String render(PreparedTimeline timeline, TotpTimeline.Format format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        timeline.writeTo(Channels.newChannel(output), format, 2);
+        return output.toString(StandardCharsets.US_ASCII);
+    }
+}
@@ -1,5 +1,7 @@
 package io.openauth.sim.cli;
 
+import io.openauth.sim.application.corpus.EmvCapFleetApplicationService;
+import io.openauth.sim.application.corpus.EmvCapFleetApplicationService.FleetResult;
 import io.openauth.sim.application.emv.cap.EmvCapCredentialDirectoryApplicationService;
 import io.openauth.sim.application.emv.cap.EmvCapCredentialDirectoryApplicationService.Hydration;
 import io.openauth.sim.application.emv.cap.EmvCapEvaluationApplicationService;
@@ -156,7 +158,8 @@ public final class EmvCli implements java.util.concurrent.Callable<Integer> {
                 EmvCli.CapCommand.EvaluateStoredCommand.class,
                 EmvCli.CapCommand.EvaluateCommand.class,
                 EmvCli.CapCommand.ReplayCommand.class,
-                EmvCli.CapCommand.SeedCommand.class
+                EmvCli.CapCommand.SeedCommand.class,
+                EmvCli.CapCommand.FleetCommand.class
             })
     static final class CapCommand implements java.util.concurrent.Callable<Integer> {
 
@@ -261,6 +264,129 @@ public final class EmvCli implements java.util.concurrent.Callable<Integer> {
             }
         }
 
+        /** Generate token series for a fleet of stored or synthetic EMV/CAP cards. */
+        @CommandLine.Command(
+                name = "fleet",
+                description = "Write an NDJSON or binary token series for a fleet of EMV/CAP cards over an ATC range.")
+        static final class FleetCommand implements Callable<Integer> {
+
+            private static final String FLEET_EVENT = EVENT_PREFIX + "fleet";
+
+            @CommandLine.ParentCommand
+            private CapCommand parent;
+
+            @CommandLine.Option(
+                    names = "--prefix",
+                    paramLabel = "<prefix>",
+                    description = "Stored credential prefix, or the name prefix for generated cards "
+                            + "(default: all stored / card-)")
+            String prefix;
+
+            @CommandLine.Option(
+                    names = "--generate",
+                    paramLabel = "<cards>",
+                    defaultValue = "0",
+                    description = "Simulate this many synthetic cards instead of the stored credentials (default: 0)")
+            int generatedCards;
+
+            @CommandLine.Option(
+                    names = "--mode",
+                    paramLabel = "<mode>",
+                    description = "Include this mode; repeat for a mode mix (default: IDENTIFY, RESPOND and SIGN)")
+            List<String> modes;
+
+            @CommandLine.Option(
+                    names = "--atc-start",
+                    paramLabel = "<hex>",
+                    defaultValue = "0000",
+                    description = "First application transaction counter, in hex (default: 0000)")
+            String atcStart;
+
+            @CommandLine.Option(
+                    names = "--presses",
+                    paramLabel = "<count>",
+                    required = true,
+                    description = "Button presses (consecutive ATCs) per card")
+            int presses;
+
+            @CommandLine.Option(
+                    names = "--seed",
+                    paramLabel = "<seed>",
+                    defaultValue = "0",
+                    description = "Seed for generated keys and customer inputs (default: 0)")
+            long seed;
+
+            @CommandLine.Option(
+                    names = "--format",
+                    paramLabel = "<ndjson|binary>",
+                    defaultValue = "ndjson",
+                    description = "Output encoding (default: ndjson)")
+            String format;
+
+            @CommandLine.Option(
+                    names = "--parallelism",
+                    paramLabel = "<threads>",
+                    defaultValue = "1",
+                    description = "Worker threads computing tokens (default: 1)")
+            int parallelism;
+
+            @CommandLine.Option(
+                    names = "--output",
+                    paramLabel = "<path>",
+                    required = true,
+                    description = "Token series file")
+            Path output;
+
+            @Override
+            public Integer call() {
+                EmvCapFleetApplicationService.FleetCommand command;
+                try {
+                    List<EmvCapMode> modeMix = modes == null
+                            ? List.of()
+                            : modes.stream().map(EmvCapMode::fromLabel).toList();
+                    command = new EmvCapFleetApplicationService.FleetCommand(
+                            prefix,
+                            generatedCards,
+                            modeMix,
+                            Integer.parseInt(atcStart.trim(), 16),
+                            presses,
+                            seed,
+                            EmvCapFleetApplicationService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT)),
+                            parallelism);
+                } catch (IllegalArgumentException ex) {
+                    parent.err()
+                            .println("event=" + FLEET_EVENT
+                                    + " status=invalid reasonCode=invalid_input sanitized=true");
+                    parent.err().println("error=" + sanitizeMessage(ex.getMessage()));
+                    return CommandLine.ExitCode.USAGE;
+                }
+                try (CredentialStore store = parent.openStore()) {
+                    FleetResult result = new EmvCapFleetApplicationService(store).generate(command, output);
+                    parent.out()
+                            .println(String.format(
+                                    Locale.ROOT,
+                                    "event=%s status=success cards=%d skippedCards=%d tokens=%d bytes=%d "
+                                            + "tokensPerSecond=%d tokensPerCoreSecond=%d parallelism=%d output=%s",
+                                    FLEET_EVENT,
+                                    result.cards(),
+                                    result.skippedCards(),
+                                    result.tokens(),
+                                    result.bytesWritten(),
+                                    result.tokensPerSecond(),
+                                    result.tokensPerCoreSecond(),
+                                    result.parallelism(),
+                                    output.toAbsolutePath()));
+                    return CommandLine.ExitCode.OK;
+                } catch (Exception ex) {
+                    parent.err()
+                            .println("event=" + FLEET_EVENT + " status=error reasonCode=unexpected_error sanitized=true"
+                                    + " exception=" + ex.getClass().getSimpleName());
+                    parent.err().println("error=" + sanitizeMessage(ex.getMessage()));
+                    return CommandLine.ExitCode.SOFTWARE;
+                }
+            }
+        }
+
         /** Validate supplied EMV/CAP OTPs against stored or inline credentials. */
         @CommandLine.Command(
                 name = "replay",
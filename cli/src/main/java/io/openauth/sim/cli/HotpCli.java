@@ -1,5 +1,7 @@
 package io.openauth.sim.cli;
 
+import io.openauth.sim.application.corpus.OtpCorpusApplicationService;
+import io.openauth.sim.application.corpus.OtpCorpusApplicationService.CorpusResult;
 import io.openauth.sim.application.hotp.HotpCredentialDirectoryApplicationService;
 import io.openauth.sim.application.hotp.HotpEvaluationApplicationService;
 import io.openauth.sim.application.hotp.HotpEvaluationApplicationService.EvaluationCommand;
@@ -7,6 +9,9 @@ import io.openauth.sim.application.hotp.HotpEvaluationApplicationService.Evaluat
 import io.openauth.sim.application.hotp.HotpIssuanceApplicationService;
 import io.openauth.sim.application.hotp.HotpIssuanceApplicationService.IssuanceCommand;
 import io.openauth.sim.application.hotp.HotpIssuanceApplicationService.IssuanceResult;
+import io.openauth.sim.application.hotp.HotpReplayApplicationService;
+import io.openauth.sim.application.hotp.HotpReplayApplicationService.ReplayResult;
+import io.openauth.sim.application.hotp.HotpReplayApplicationService.ResyncWindow;
 import io.openauth.sim.application.preview.OtpPreview;
 import io.openauth.sim.application.telemetry.HotpTelemetryAdapter;
 import io.openauth.sim.application.telemetry.TelemetryContracts;
@@ -34,12 +39,19 @@ import picocli.CommandLine;
         name = "hotp",
         mixinStandardHelpOptions = true,
         description = "Manage HOTP credentials and evaluate responses.",
-        subcommands = {HotpCli.ImportCommand.class, HotpCli.ListCommand.class, HotpCli.EvaluateCommand.class})
+        subcommands = {
+            HotpCli.ImportCommand.class,
+            HotpCli.ListCommand.class,
+            HotpCli.EvaluateCommand.class,
+            HotpCli.ReplayCommand.class,
+            HotpCli.CorpusCommand.class
+        })
 public final class HotpCli implements Callable<Integer> {
 
     private static final String EVENT_PREFIX = "cli.hotp.";
     private static final HotpTelemetryAdapter EVALUATION_TELEMETRY = TelemetryContracts.hotpEvaluationAdapter();
     private static final HotpTelemetryAdapter ISSUANCE_TELEMETRY = TelemetryContracts.hotpIssuanceAdapter();
+    private static final HotpTelemetryAdapter REPLAY_TELEMETRY = TelemetryContracts.hotpReplayAdapter();
     private static final String DEFAULT_DATABASE_FILE = "credentials.db";
 
     @CommandLine.Spec
@@ -315,6 +327,173 @@ public final class HotpCli implements Callable<Integer> {
         }
     }
 
+    @CommandLine.Command(
+            name = "corpus",
+            description = "Write a CSV or binary OTP corpus for stored HOTP credentials over a counter range.")
+    static final class CorpusCommand extends AbstractHotpCommand {
+
+        @CommandLine.Option(
+                names = "--prefix",
+                paramLabel = "<prefix>",
+                description = "Only include credentials whose identifier starts with this prefix (default: all)")
+        String prefix;
+
+        @CommandLine.Option(
+                names = "--first-counter",
+                paramLabel = "<counter>",
+                required = true,
+                description = "First counter of the range (inclusive)")
+        long firstCounter;
+
+        @CommandLine.Option(
+                names = "--last-counter",
+                paramLabel = "<counter>",
+                required = true,
+                description = "Last counter of the range (inclusive)")
+        long lastCounter;
+
+        @CommandLine.Option(
+                names = "--format",
+                paramLabel = "<csv|binary>",
+                defaultValue = "csv",
+                description = "Output encoding (default: csv)")
+        String format;
+
+        @CommandLine.Option(
+                names = "--parallelism",
+                paramLabel = "<threads>",
+                defaultValue = "1",
+                description = "Worker threads filling the corpus (default: 1)")
+        int parallelism;
+
+        @CommandLine.Option(names = "--output", paramLabel = "<path>", required = true, description = "Corpus file")
+        Path output;
+
+        @Override
+        public Integer call() {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("prefix", prefix == null ? "" : prefix);
+            try (CredentialStore store = openStore()) {
+                OtpCorpusApplicationService.CorpusCommand command;
+                try {
+                    command = new OtpCorpusApplicationService.CorpusCommand(
+                            OtpCorpusApplicationService.Protocol.HOTP,
+                            prefix,
+                            firstCounter,
+                            lastCounter,
+                            OtpCorpusApplicationService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT)),
+                            parallelism);
+                } catch (IllegalArgumentException ex) {
+                    return parent.failValidation(
+                            event("corpus"), EVALUATION_TELEMETRY, fields, ex.getMessage(), false);
+                }
+                CorpusResult result = new OtpCorpusApplicationService(store).generate(command, output);
+                out().println(String.format(
+                        Locale.ROOT,
+                        "event=%s status=success credentials=%d skippedCredentials=%d otps=%d bytes=%d "
+                                + "otpsPerSecond=%d output=%s",
+                        event("corpus"),
+                        result.credentials(),
+                        result.skippedCredentials(),
+                        result.otps(),
+                        result.bytesWritten(),
+                        result.otpsPerSecond(),
+                        output.toAbsolutePath()));
+                return CommandLine.ExitCode.OK;
+            } catch (Exception ex) {
+                return parent.failUnexpected(
+                        event("corpus"), EVALUATION_TELEMETRY, fields, ex.getMessage(), false);
+            }
+        }
+    }
+
+    @CommandLine.Command(
+            name = "replay",
+            description = "Replay an OTP against a stored HOTP credential without advancing its counter; "
+                    + "--look-ahead/--next-otp run a parallel resynchronisation search.")
+    static final class ReplayCommand extends AbstractHotpCommand {
+
+        @CommandLine.Option(
+                names = "--credential-id",
+                paramLabel = "<id>",
+                required = true,
+                description = "Stored HOTP credential to replay against")
+        String credentialId;
+
+        @CommandLine.Option(names = "--otp", paramLabel = "<digits>", required = true, description = "OTP to replay")
+        String otp;
+
+        @CommandLine.Option(
+                names = "--next-otp",
+                paramLabel = "<digits>",
+                description = "OTP expected on the following counter (RFC 4226 two-OTP resynchronisation)")
+        String nextOtp;
+
+        @CommandLine.Option(
+                names = "--look-ahead",
+                paramLabel = "<counters>",
+                description = "Resynchronisation window size (default "
+                        + HotpReplayApplicationService.DEFAULT_RESYNC_LOOK_AHEAD
+                        + " when --next-otp is set)")
+        Integer lookAhead;
+
+        @CommandLine.Option(names = "--output-json", description = "Emit a single JSON object instead of text output")
+        boolean outputJson;
+
+        @Override
+        public Integer call() {
+            String event = event("replay");
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("credentialId", credentialId);
+            try (CredentialStore store = openStore()) {
+                HotpReplayApplicationService service = new HotpReplayApplicationService(store);
+                HotpReplayApplicationService.ReplayCommand command =
+                        new HotpReplayApplicationService.ReplayCommand.Stored(credentialId, otp);
+                ReplayResult result = lookAhead == null && (nextOtp == null || nextOtp.isBlank())
+                        ? service.replay(command, false)
+                        : service.replay(command, false, new ResyncWindow(resolvedLookAhead(), nextOtp));
+                TelemetryFrame frame = result.telemetry().emit(REPLAY_TELEMETRY, nextTelemetryId());
+                HotpReplayApplicationService.TelemetryStatus status =
+                        result.telemetry().status();
+                if (outputJson) {
+                    JsonPrinter.print(out(), buildResponse(event, frame, result), true);
+                } else {
+                    PrintWriter writer =
+                            status == HotpReplayApplicationService.TelemetryStatus.SUCCESS ? out() : err();
+                    writeFrame(writer, event, frame);
+                }
+                return switch (status) {
+                    case SUCCESS -> CommandLine.ExitCode.OK;
+                    case INVALID -> CommandLine.ExitCode.USAGE;
+                    case ERROR -> CommandLine.ExitCode.SOFTWARE;
+                };
+            } catch (IllegalArgumentException ex) {
+                return parent.failValidation(event, REPLAY_TELEMETRY, fields, ex.getMessage(), outputJson);
+            } catch (Exception ex) {
+                return parent.failUnexpected(event, REPLAY_TELEMETRY, fields, ex.getMessage(), outputJson);
+            }
+        }
+
+        private int resolvedLookAhead() {
+            return lookAhead != null ? lookAhead : HotpReplayApplicationService.DEFAULT_RESYNC_LOOK_AHEAD;
+        }
+
+        private static Map<String, Object> buildResponse(String event, TelemetryFrame frame, ReplayResult result) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("reasonCode", result.telemetry().reasonCode());
+            data.put("credentialId", result.credentialId());
+            data.put("previousCounter", result.previousCounter());
+            data.put("nextCounter", result.nextCounter());
+            result.resyncSummary().ifPresent(summary -> {
+                data.put("resyncLookAhead", summary.lookAhead());
+                data.put("resyncConsecutiveOtps", summary.consecutiveOtps());
+                data.put("searchedCandidates", summary.candidatesSearched());
+                data.put("candidatesPerSecond", summary.candidatesPerSecond());
+            });
+            return TelemetryJson.response(event, frame, data);
+        }
+    }
+
     @CommandLine.Command(name = "evaluate", description = "Validate HOTP responses.")
     static final class EvaluateCommand extends AbstractHotpCommand {
 
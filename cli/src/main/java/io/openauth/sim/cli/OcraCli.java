@@ -1,5 +1,7 @@
 package io.openauth.sim.cli;
 
+import io.openauth.sim.application.corpus.OcraCorpusApplicationService;
+import io.openauth.sim.application.corpus.OcraCorpusApplicationService.CorpusResult;
 import io.openauth.sim.application.ocra.OcraCredentialManagementApplicationService;
 import io.openauth.sim.application.ocra.OcraCredentialManagementApplicationService.Summary;
 import io.openauth.sim.application.ocra.OcraCredentialResolvers;
@@ -13,6 +15,7 @@ import io.openauth.sim.application.ocra.OcraVerificationApplicationService;
 import io.openauth.sim.application.ocra.OcraVerificationApplicationService.VerificationCommand;
 import io.openauth.sim.application.ocra.OcraVerificationApplicationService.VerificationReason;
 import io.openauth.sim.application.ocra.OcraVerificationApplicationService.VerificationResult;
+import io.openauth.sim.application.ocra.OcraVerificationApplicationService.VerificationStatus;
 import io.openauth.sim.application.ocra.OcraVerificationApplicationService.VerificationValidationException;
 import io.openauth.sim.application.ocra.OcraVerificationRequests;
 import io.openauth.sim.application.preview.OtpPreview;
@@ -32,6 +35,7 @@ import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -51,7 +55,8 @@ import picocli.CommandLine;
             OcraCli.ListCommand.class,
             OcraCli.DeleteCommand.class,
             OcraCli.EvaluateCommand.class,
-            OcraCli.VerifyCommand.class
+            OcraCli.VerifyCommand.class,
+            OcraCli.CorpusCommand.class
         })
 public final class OcraCli implements Callable<Integer> {
 
@@ -236,7 +241,7 @@ public final class OcraCli implements Callable<Integer> {
     }
 
     abstract static sealed class AbstractOcraCommand implements Callable<Integer>
-            permits ImportCommand, ListCommand, DeleteCommand, EvaluateCommand, VerifyCommand {
+            permits ImportCommand, ListCommand, DeleteCommand, EvaluateCommand, VerifyCommand, CorpusCommand {
 
         @CommandLine.ParentCommand
         OcraCli parent;
@@ -781,6 +786,12 @@ public final class OcraCli implements Callable<Integer> {
                 description = "PIN hash material if required")
         String pinHashHex;
 
+        @CommandLine.Option(
+                names = {"--timestamp-drift-steps"},
+                paramLabel = "<steps>",
+                description = "Accept timestamps up to this many steps either side (defaults to the stored drift)")
+        Integer timestampDriftSteps;
+
         @CommandLine.Option(
                 names = "--verbose",
                 description = "Emit a detailed verbose trace of the verification steps")
@@ -824,7 +835,8 @@ public final class OcraCli implements Callable<Integer> {
                                         session,
                                         pinHashHex,
                                         timestamp,
-                                        counter));
+                                        counter,
+                                        timestampDriftSteps));
                         VerificationResult result = service.verify(command, verbose);
 
                         Map<String, String> fields = new LinkedHashMap<>();
@@ -863,7 +875,8 @@ public final class OcraCli implements Callable<Integer> {
                         pinHashHex,
                         timestamp,
                         counter,
-                        null));
+                        null,
+                        timestampDriftSteps));
 
                 VerificationResult result = service.verify(command, verbose);
                 fields.put("suite", result.suite());
@@ -885,6 +898,9 @@ public final class OcraCli implements Callable<Integer> {
 
         private int handleResult(String event, VerificationResult result, Map<String, String> fields) {
             String reasonCode = reasonCodeFor(result.reason());
+            if (result.status() == VerificationStatus.MATCH && hasText(timestamp)) {
+                fields.put("timestampDriftSteps", Integer.toString(result.timestampDriftSteps()));
+            }
             if (outputJson) {
                 String statusText =
                         switch (result.status()) {
@@ -898,6 +914,9 @@ public final class OcraCli implements Callable<Integer> {
                 data.put("suite", result.suite());
                 data.put("credentialReference", result.credentialReference());
                 data.put("responseDigits", result.responseDigits());
+                if (fields.containsKey("timestampDriftSteps")) {
+                    data.put("timestampDriftSteps", result.timestampDriftSteps());
+                }
                 if (result.verboseTrace().isPresent()) {
                     data.put(
                             "trace",
@@ -944,4 +963,94 @@ public final class OcraCli implements Callable<Integer> {
             };
         }
     }
+
+    @CommandLine.Command(
+            name = "corpus",
+            description = "Write an NDJSON or binary challenge/response corpus for stored OCRA credentials.")
+    static final class CorpusCommand extends AbstractOcraCommand {
+
+        @CommandLine.Option(
+                names = "--prefix",
+                paramLabel = "<prefix>",
+                description = "Only include credentials whose identifier starts with this prefix (default: all)")
+        String prefix;
+
+        @CommandLine.Option(
+                names = "--suite",
+                paramLabel = "<suite>",
+                description = "Only include credentials using this OCRA suite; repeat for a suite mix (default: all)")
+        List<String> suites;
+
+        @CommandLine.Option(
+                names = "--pairs",
+                paramLabel = "<count>",
+                required = true,
+                description = "Challenge/response pairs generated per credential")
+        long pairs;
+
+        @CommandLine.Option(
+                names = "--seed",
+                paramLabel = "<seed>",
+                defaultValue = "0",
+                description = "Seed for the pseudo-random challenges and session data (default: 0)")
+        long seed;
+
+        @CommandLine.Option(
+                names = "--timestamp",
+                paramLabel = "<epochSeconds>",
+                description = "Instant used for timestamp suites, in epoch seconds (default: now)")
+        Long timestamp;
+
+        @CommandLine.Option(
+                names = "--format",
+                paramLabel = "<ndjson|binary>",
+                defaultValue = "ndjson",
+                description = "Output encoding (default: ndjson)")
+        String format;
+
+        @CommandLine.Option(
+                names = "--parallelism",
+                paramLabel = "<threads>",
+                defaultValue = "1",
+                description = "Worker threads computing responses (default: 1)")
+        int parallelism;
+
+        @CommandLine.Option(names = "--output", paramLabel = "<path>", required = true, description = "Corpus file")
+        Path output;
+
+        @Override
+        public Integer call() {
+            String event = event("corpus");
+            try (CredentialStore store = openStore()) {
+                OcraCorpusApplicationService.CorpusCommand command;
+                try {
+                    command = new OcraCorpusApplicationService.CorpusCommand(
+                            prefix,
+                            suites,
+                            pairs,
+                            seed,
+                            timestamp == null ? Instant.now() : Instant.ofEpochSecond(timestamp),
+                            OcraCorpusApplicationService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT)),
+                            parallelism);
+                } catch (IllegalArgumentException ex) {
+                    return failValidation(event, "validation_error", ex.getMessage());
+                }
+                CorpusResult result = new OcraCorpusApplicationService(store).generate(command, output);
+                out().println(String.format(
+                        Locale.ROOT,
+                        "event=%s status=success credentials=%d skippedCredentials=%d pairs=%d bytes=%d "
+                                + "pairsPerSecond=%d output=%s",
+                        event,
+                        result.credentials(),
+                        result.skippedCredentials(),
+                        result.pairs(),
+                        result.bytesWritten(),
+                        result.pairsPerSecond(),
+                        output.toAbsolutePath()));
+                return CommandLine.ExitCode.OK;
+            } catch (Exception ex) {
+                return failUnexpected(event, ex.getMessage());
+            }
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package io.openauth.sim.cli;
 
+import io.openauth.sim.application.corpus.OtpCorpusApplicationService;
+import io.openauth.sim.application.corpus.OtpCorpusApplicationService.CorpusResult;
 import io.openauth.sim.application.preview.OtpPreview;
 import io.openauth.sim.application.telemetry.TelemetryContracts;
 import io.openauth.sim.application.telemetry.TelemetryFrame;
@@ -10,6 +12,10 @@ import io.openauth.sim.application.totp.TotpEvaluationApplicationService.Evaluat
 import io.openauth.sim.application.totp.TotpEvaluationApplicationService.EvaluationResult;
 import io.openauth.sim.application.totp.TotpEvaluationApplicationService.TelemetrySignal;
 import io.openauth.sim.application.totp.TotpEvaluationApplicationService.TelemetryStatus;
+import io.openauth.sim.application.totp.TotpReverseLookupApplicationService;
+import io.openauth.sim.application.totp.TotpTimelineApplicationService;
+import io.openauth.sim.application.totp.TotpTimelineApplicationService.PreparedTimeline;
+import io.openauth.sim.application.totp.TotpTimelineApplicationService.TimelineValidationException;
 import io.openauth.sim.cli.support.EphemeralCredentialStore;
 import io.openauth.sim.cli.support.JsonPrinter;
 import io.openauth.sim.cli.support.TelemetryJson;
@@ -17,13 +23,20 @@ import io.openauth.sim.cli.support.VerboseTraceMapper;
 import io.openauth.sim.core.encoding.Base32SecretCodec;
 import io.openauth.sim.core.otp.totp.TotpDriftWindow;
 import io.openauth.sim.core.otp.totp.TotpHashAlgorithm;
+import io.openauth.sim.core.otp.totp.TotpTimeline;
 import io.openauth.sim.core.store.CredentialStore;
 import io.openauth.sim.core.support.ProjectPaths;
 import io.openauth.sim.infra.persistence.CredentialStoreFactory;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -38,7 +51,13 @@ import picocli.CommandLine;
         name = "totp",
         mixinStandardHelpOptions = true,
         description = "Validate TOTP credentials and inspect stored entries.",
-        subcommands = {TotpCli.ListCommand.class, TotpCli.EvaluateCommand.class})
+        subcommands = {
+            TotpCli.ListCommand.class,
+            TotpCli.EvaluateCommand.class,
+            TotpCli.ReverseLookupCommand.class,
+            TotpCli.TimelineCommand.class,
+            TotpCli.CorpusCommand.class
+        })
 public final class TotpCli implements Callable<Integer> {
 
     private static final String EVENT_PREFIX = "cli.totp.";
@@ -224,6 +243,324 @@ public final class TotpCli implements Callable<Integer> {
         }
     }
 
+    @CommandLine.Command(
+            name = "reverse-lookup",
+            description = "List stored TOTP credentials whose drift window accepts the given OTP.")
+    static final class ReverseLookupCommand extends AbstractTotpCommand {
+
+        @CommandLine.Option(
+                names = "--otp",
+                paramLabel = "<digits>",
+                required = true,
+                description = "OTP to look up across stored credentials")
+        String otp;
+
+        @CommandLine.Option(
+                names = "--timestamp",
+                paramLabel = "<epochSeconds>",
+                description = "Evaluation timestamp (defaults to the current time); the index is built around it")
+        Long timestamp;
+
+        @CommandLine.Option(names = "--output-json", description = "Emit a single JSON object instead of text output")
+        boolean outputJson;
+
+        @Override
+        public Integer call() {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            try (CredentialStore store = openStore()) {
+                // A one-shot run builds its index anyway, so build it around the requested instant.
+                Clock clock = timestamp != null
+                        ? Clock.fixed(Instant.ofEpochSecond(timestamp), ZoneOffset.UTC)
+                        : Clock.systemUTC();
+                TotpReverseLookupApplicationService service = new TotpReverseLookupApplicationService(store, clock);
+                TotpReverseLookupApplicationService.LookupResult result;
+                try {
+                    result = service.lookup(otp);
+                } catch (IllegalArgumentException ex) {
+                    return failValidation(
+                            event("reverse-lookup"),
+                            new TelemetrySignal(
+                                    TelemetryStatus.INVALID,
+                                    "validation_error",
+                                    sanitizeMessage(ex.getMessage()),
+                                    true,
+                                    fields),
+                            fields,
+                            ex.getMessage(),
+                            outputJson);
+                }
+
+                fields.put("matchCount", result.matches().size());
+                fields.put("indexedCredentials", result.indexedCredentials());
+                if (outputJson) {
+                    Map<String, Object> data = new LinkedHashMap<>();
+                    data.put("evaluatedEpochSeconds", result.evaluatedAt().getEpochSecond());
+                    data.put("indexedCredentials", result.indexedCredentials());
+                    data.put(
+                            "matches",
+                            result.matches().stream()
+                                    .map(match -> Map.of(
+                                            "credentialId",
+                                            match.credentialId(),
+                                            "timeStep",
+                                            match.timeStep(),
+                                            "skewSteps",
+                                            match.skewSteps()))
+                                    .toList());
+                    TelemetryFrame frame =
+                            EVALUATION_TELEMETRY.status("success", nextTelemetryId(), "success", true, null, fields);
+                    JsonPrinter.print(out(), TelemetryJson.response(event("reverse-lookup"), frame, data), true);
+                } else {
+                    out().println(String.format(
+                            Locale.ROOT,
+                            "event=%s status=success matchCount=%d indexedCredentials=%d evaluatedEpochSeconds=%d",
+                            event("reverse-lookup"),
+                            result.matches().size(),
+                            result.indexedCredentials(),
+                            result.evaluatedAt().getEpochSecond()));
+                    result.matches()
+                            .forEach(match -> out().println(String.format(
+                                    Locale.ROOT,
+                                    "credentialId=%s timeStep=%d skewSteps=%d",
+                                    match.credentialId(),
+                                    match.timeStep(),
+                                    match.skewSteps())));
+                }
+                return CommandLine.ExitCode.OK;
+            } catch (Exception ex) {
+                return failUnexpected(
+                        event("reverse-lookup"),
+                        fields,
+                        "Reverse lookup failed: " + sanitizeMessage(ex.getMessage()),
+                        outputJson);
+            }
+        }
+    }
+
+    @CommandLine.Command(
+            name = "timeline",
+            description = "Stream the OTP of every time step of a stored TOTP credential between two instants.")
+    static final class TimelineCommand extends AbstractTotpCommand {
+
+        @CommandLine.Option(
+                names = "--credential-id",
+                paramLabel = "<id>",
+                required = true,
+                description = "Stored credential identifier")
+        String credentialId;
+
+        @CommandLine.Option(
+                names = "--from",
+                paramLabel = "<epochSeconds>",
+                required = true,
+                description = "First instant of the range (inclusive)")
+        long from;
+
+        @CommandLine.Option(
+                names = "--to",
+                paramLabel = "<epochSeconds>",
+                required = true,
+                description = "Last instant of the range (inclusive)")
+        long to;
+
+        @CommandLine.Option(
+                names = "--format",
+                paramLabel = "<ndjson|csv>",
+                defaultValue = "ndjson",
+                description = "Output encoding (default: ndjson)")
+        String format;
+
+        @CommandLine.Option(
+                names = "--parallelism",
+                paramLabel = "<threads>",
+                defaultValue = "1",
+                description = "Chunks rendered concurrently (default: 1)")
+        int parallelism;
+
+        @CommandLine.Option(
+                names = "--output",
+                paramLabel = "<path>",
+                description = "Write the timeline to this file instead of standard output")
+        Path output;
+
+        @Override
+        public Integer call() {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("credentialId", credentialId);
+            try (CredentialStore store = openStore()) {
+                PreparedTimeline timeline;
+                TotpTimeline.Format encoding;
+                try {
+                    encoding = TotpTimeline.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+                    if (parallelism < 1) {
+                        throw new IllegalArgumentException("parallelism must be positive");
+                    }
+                    timeline = new TotpTimelineApplicationService(store)
+                            .prepare(new TotpTimelineApplicationService.TimelineCommand.Stored(
+                                    credentialId, Instant.ofEpochSecond(from), Instant.ofEpochSecond(to)));
+                } catch (TimelineValidationException ex) {
+                    return failTimeline(ex.reasonCode(), ex.getMessage(), fields);
+                } catch (IllegalArgumentException ex) {
+                    return failTimeline("validation_error", ex.getMessage(), fields);
+                }
+
+                if (output == null) {
+                    timeline.writeTo(new WriterChannel(out()), encoding, parallelism);
+                    out().flush();
+                    return CommandLine.ExitCode.OK;
+                }
+                long steps;
+                try (FileChannel channel = FileChannel.open(
+                        output,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+                    steps = timeline.writeTo(channel, encoding, parallelism);
+                }
+                out().println(String.format(
+                        Locale.ROOT,
+                        "event=%s status=success credentialId=%s steps=%d format=%s output=%s",
+                        event("timeline"),
+                        timeline.credentialId(),
+                        steps,
+                        encoding.name().toLowerCase(Locale.ROOT),
+                        output.toAbsolutePath()));
+                return CommandLine.ExitCode.OK;
+            } catch (Exception ex) {
+                return failUnexpected(
+                        event("timeline"), fields, "Timeline failed: " + sanitizeMessage(ex.getMessage()), false);
+            }
+        }
+
+        private int failTimeline(String reasonCode, String message, Map<String, Object> fields) {
+            return failValidation(
+                    event("timeline"),
+                    new TelemetrySignal(TelemetryStatus.INVALID, reasonCode, sanitizeMessage(message), true, fields),
+                    fields,
+                    message,
+                    false);
+        }
+    }
+
+    @CommandLine.Command(
+            name = "corpus",
+            description = "Write a CSV or binary OTP corpus for stored TOTP credentials over a time range.")
+    static final class CorpusCommand extends AbstractTotpCommand {
+
+        @CommandLine.Option(
+                names = "--prefix",
+                paramLabel = "<prefix>",
+                description = "Only include credentials whose identifier starts with this prefix (default: all)")
+        String prefix;
+
+        @CommandLine.Option(
+                names = "--from",
+                paramLabel = "<epochSeconds>",
+                required = true,
+                description = "First instant of the range (inclusive)")
+        long from;
+
+        @CommandLine.Option(
+                names = "--to",
+                paramLabel = "<epochSeconds>",
+                required = true,
+                description = "Last instant of the range (inclusive)")
+        long to;
+
+        @CommandLine.Option(
+                names = "--format",
+                paramLabel = "<csv|binary>",
+                defaultValue = "csv",
+                description = "Output encoding (default: csv)")
+        String format;
+
+        @CommandLine.Option(
+                names = "--parallelism",
+                paramLabel = "<threads>",
+                defaultValue = "1",
+                description = "Worker threads filling the corpus (default: 1)")
+        int parallelism;
+
+        @CommandLine.Option(names = "--output", paramLabel = "<path>", required = true, description = "Corpus file")
+        Path output;
+
+        @Override
+        public Integer call() {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("prefix", prefix == null ? "" : prefix);
+            try (CredentialStore store = openStore()) {
+                OtpCorpusApplicationService.CorpusCommand command;
+                try {
+                    command = new OtpCorpusApplicationService.CorpusCommand(
+                            OtpCorpusApplicationService.Protocol.TOTP,
+                            prefix,
+                            from,
+                            to,
+                            OtpCorpusApplicationService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT)),
+                            parallelism);
+                } catch (IllegalArgumentException ex) {
+                    return failValidation(
+                            event("corpus"),
+                            new TelemetrySignal(
+                                    TelemetryStatus.INVALID,
+                                    "validation_error",
+                                    sanitizeMessage(ex.getMessage()),
+                                    true,
+                                    fields),
+                            fields,
+                            ex.getMessage(),
+                            false);
+                }
+                CorpusResult result = new OtpCorpusApplicationService(store).generate(command, output);
+                out().println(String.format(
+                        Locale.ROOT,
+                        "event=%s status=success credentials=%d skippedCredentials=%d otps=%d bytes=%d "
+                                + "otpsPerSecond=%d output=%s",
+                        event("corpus"),
+                        result.credentials(),
+                        result.skippedCredentials(),
+                        result.otps(),
+                        result.bytesWritten(),
+                        result.otpsPerSecond(),
+                        output.toAbsolutePath()));
+                return CommandLine.ExitCode.OK;
+            } catch (Exception ex) {
+                return failUnexpected(
+                        event("corpus"), fields, "Corpus failed: " + sanitizeMessage(ex.getMessage()), false);
+            }
+        }
+    }
+
+    /** Adapts the command's writer to a byte channel; timeline output is pure ASCII. */
+    private static final class WriterChannel implements WritableByteChannel {
+
+        private final PrintWriter writer;
+        private boolean open = true;
+
+        private WriterChannel(PrintWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            int written = source.remaining();
+            while (source.hasRemaining()) {
+                writer.write((char) source.get());
+            }
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+
     @CommandLine.Command(
             name = "evaluate",
             description =
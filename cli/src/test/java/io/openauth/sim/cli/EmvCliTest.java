@@ -22,6 +22,7 @@ import io.openauth.sim.infra.persistence.CredentialStoreFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -570,6 +571,62 @@ final class EmvCliTest {
         return builder.toString();
     }
 
+    @Test
+    void fleetCommandWritesGeneratedSeriesForModeMix() throws Exception {
+        Path output = tempDir.resolve("fleet.ndjson");
+        CommandHarness harness = CommandHarness.create();
+        harness.cli().overrideDatabase(tempDir.resolve("emv-cap-fleet.db"));
+
+        int exitCode = harness.execute(
+                "cap",
+                "fleet",
+                "--generate",
+                "3",
+                "--mode",
+                "respond",
+                "--mode",
+                "SIGN",
+                "--atc-start",
+                "00FF",
+                "--presses",
+                "4",
+                "--parallelism",
+                "2",
+                "--output",
+                output.toString());
+
+        assertEquals(CommandLine.ExitCode.OK, exitCode, harness.stderr());
+        String stdout = harness.stdout();
+        assertTrue(stdout.contains("event=cli.emv.cap.fleet status=success"), stdout);
+        assertTrue(stdout.contains("cards=3 skippedCards=0 tokens=12"), stdout);
+        assertTrue(stdout.contains("tokensPerCoreSecond="), stdout);
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(12, lines.size());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> first = (Map<String, Object>) SimpleJson.parse(lines.get(0));
+        assertEquals("card-000000", first.get("cardId"));
+        assertEquals("RESPOND", first.get("mode"));
+        assertEquals("00FF", first.get("atc"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> sign = (Map<String, Object>) SimpleJson.parse(lines.get(4));
+        assertEquals("SIGN", sign.get("mode"));
+        assertNotNull(sign.get("amount"));
+
+        int invalid = harness.execute(
+                "cap",
+                "fleet",
+                "--generate",
+                "1",
+                "--atc-start",
+                "FFFF",
+                "--presses",
+                "2",
+                "--output",
+                output.toString());
+        assertEquals(CommandLine.ExitCode.USAGE, invalid);
+        assertTrue(harness.stderr().contains("event=cli.emv.cap.fleet status=invalid"), harness.stderr());
+    }
+
     private static final class CommandHarness {
 
         private final EmvCli cli = new EmvCli();
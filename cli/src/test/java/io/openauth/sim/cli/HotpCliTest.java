@@ -17,6 +17,7 @@ import io.openauth.sim.infra.persistence.CredentialStoreFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Locale;
@@ -463,6 +464,88 @@ final class HotpCliTest {
         return harness;
     }
 
+    @Test
+    void corpusWritesCsvRowsForStoredCredentials() throws Exception {
+        Path databasePath = databasePath();
+        importCredential(databasePath);
+        CommandHarness harness = harness(databasePath);
+        Path output = tempDir.resolve("hotp-corpus.csv");
+
+        int exitCode = harness.execute(
+                "corpus",
+                "--prefix",
+                "hotp-",
+                "--first-counter",
+                "0",
+                "--last-counter",
+                "2",
+                "--parallelism",
+                "2",
+                "--output",
+                output.toString());
+
+        assertEquals(CommandLine.ExitCode.OK, exitCode, harness.stderr());
+        assertTrue(harness.stdout().contains("event=cli.hotp.corpus status=success"), harness.stdout());
+        assertTrue(harness.stdout().contains("credentials=1 skippedCredentials=0 otps=3"), harness.stdout());
+        StringBuilder expected = new StringBuilder("credentialId,counter,otp\n");
+        for (long counter = 0; counter <= 2; counter++) {
+            expected.append(CREDENTIAL_ID)
+                    .append(',')
+                    .append(counter)
+                    .append(',')
+                    .append(otpForCounter(counter))
+                    .append('\n');
+        }
+        assertEquals(expected.toString(), Files.readString(output, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void replayResyncRequiresConsecutiveOtps() throws Exception {
+        Path databasePath = databasePath();
+        importCredential(databasePath);
+        CommandHarness harness = harness(databasePath);
+
+        int exitCode = harness.execute(
+                "replay",
+                "--credential-id",
+                CREDENTIAL_ID,
+                "--otp",
+                otpForCounter(7),
+                "--next-otp",
+                otpForCounter(8),
+                "--look-ahead",
+                "9",
+                "--output-json");
+
+        assertEquals(CommandLine.ExitCode.OK, exitCode, harness.stderr());
+        String stdout = harness.stdout().trim();
+        JsonShapeAsserter.assertMatchesShape(CliJsonSchemas.schemaForEvent("cli.hotp.replay"), stdout);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> root = (Map<String, Object>) SimpleJson.parse(stdout);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) root.get("data");
+        assertEquals("match", root.get("reasonCode"));
+        assertEquals(7L, ((Number) data.get("previousCounter")).longValue());
+        assertEquals(9L, ((Number) data.get("nextCounter")).longValue());
+        assertEquals(Boolean.TRUE, data.get("resyncConsecutiveOtps"));
+
+        int mismatchExit = harness.execute(
+                "replay",
+                "--credential-id",
+                CREDENTIAL_ID,
+                "--otp",
+                otpForCounter(7),
+                "--next-otp",
+                otpForCounter(9));
+
+        assertEquals(CommandLine.ExitCode.USAGE, mismatchExit);
+        assertTrue(harness.stderr().contains("event=cli.hotp.replay status=invalid"), harness.stderr());
+
+        try (CredentialStore store = CredentialStoreFactory.openFileStore(databasePath)) {
+            assertEquals("0", store.findByName(CREDENTIAL_ID).orElseThrow().attributes().get("hotp.counter"));
+        }
+    }
+
     private Path databasePath() {
         return tempDir.resolve("credentials.db");
     }
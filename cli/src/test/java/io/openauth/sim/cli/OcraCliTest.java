@@ -151,6 +151,52 @@ class OcraCliTest {
         assertEquals("true", telemetry.get("sanitized"));
     }
 
+    @Test
+    @DisplayName("verify command accepts skewed timestamps within the requested drift window")
+    void verifyInlineTimestampDriftWindow() {
+        OcraOneWayVector vector = OcraJsonVectorFixtures.getOneWay("rfc6287_time-based-sha512-question-00000000");
+        String secretHex = vector.secret().asHex().toUpperCase(Locale.ROOT);
+        String timestampHex = vector.timestampHex().orElseThrow();
+        String skewed = Long.toHexString(Long.parseLong(timestampHex, 16) + 1);
+        String question = vector.challengeQuestion().orElseThrow();
+
+        CommandHarness strict = CommandHarness.create();
+        int strictExit = strict.execute(
+                "verify",
+                "--suite",
+                vector.suite(),
+                "--secret",
+                secretHex,
+                "--otp",
+                vector.expectedOtp(),
+                "--challenge",
+                question,
+                "--timestamp",
+                skewed);
+
+        CommandHarness drift = CommandHarness.create();
+        int driftExit = drift.execute(
+                "verify",
+                "--suite",
+                vector.suite(),
+                "--secret",
+                secretHex,
+                "--otp",
+                vector.expectedOtp(),
+                "--challenge",
+                question,
+                "--timestamp",
+                skewed,
+                "--timestamp-drift-steps",
+                "1");
+
+        assertEquals(2, strictExit, strict.stdout() + strict.stderr());
+        assertEquals(CommandLine.ExitCode.OK, driftExit, drift.stderr());
+        Map<String, String> telemetry = telemetryLine(drift.stdout() + drift.stderr(), "cli.ocra.verify");
+        assertEquals("match", telemetry.get("reasonCode"));
+        assertEquals("-1", telemetry.get("timestampDriftSteps"));
+    }
+
     @Test
     void verifyInlineEmitsJsonWhenRequested() {
         OcraCredentialDescriptor descriptor = new OcraCredentialFactory()
@@ -816,6 +862,61 @@ class OcraCliTest {
         deleteRecursively(tempDir);
     }
 
+    @Test
+    @DisplayName("corpus command streams NDJSON challenge/response pairs for the selected suite mix")
+    void corpusCommandWritesPairsForSuiteMix() throws Exception {
+        Path tempDir = Files.createTempDirectory("ocra-cli-corpus");
+        Path database = tempDir.resolve("store.db");
+        Path output = tempDir.resolve("corpus.ndjson");
+        seedCredential(database, "alpha", "OCRA-1:HOTP-SHA1-6:QA08", null);
+        OcraCredentialDescriptor beta = new OcraCredentialFactory()
+                .createDescriptor(new OcraCredentialRequest(
+                        "beta",
+                        "OCRA-1:HOTP-SHA1-6:C-QN08",
+                        DEFAULT_SECRET_HEX,
+                        SecretEncoding.HEX,
+                        1L,
+                        null,
+                        null,
+                        Map.of()));
+        persistDescriptor(database, beta);
+
+        CommandHarness harness = CommandHarness.create();
+        int exitCode = harness.execute(
+                "--database",
+                database.toAbsolutePath().toString(),
+                "corpus",
+                "--suite",
+                "ocra-1:hotp-sha1-6:c-qn08",
+                "--pairs",
+                "2",
+                "--seed",
+                "9",
+                "--parallelism",
+                "2",
+                "--output",
+                output.toString());
+
+        assertEquals(CommandLine.ExitCode.OK, exitCode, harness.stderr());
+        assertTrue(harness.stdout().contains("event=cli.ocra.corpus status=success"), harness.stdout());
+        assertTrue(harness.stdout().contains("credentials=1 skippedCredentials=0 pairs=2"), harness.stdout());
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> row = (Map<String, Object>) SimpleJson.parse(lines.get(i));
+            assertEquals("beta", row.get("credentialId"));
+            assertEquals(1L + i, Long.parseLong(String.valueOf(row.get("counter"))));
+            String expected = OcraResponseCalculator.generate(
+                    beta,
+                    new OcraExecutionContext(
+                            1L + i, (String) row.get("challenge"), null, null, null, null, null));
+            assertEquals(expected, row.get("otp"));
+        }
+
+        deleteRecursively(tempDir);
+    }
+
     @Test
     @DisplayName("import command emits JSON envelope when requested")
     void importEmitsJsonWhenRequested() throws Exception {
@@ -22,7 +22,9 @@ import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
 import io.openauth.sim.infra.persistence.CredentialStoreFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
@@ -289,6 +291,148 @@ final class TotpCliTest {
                 () -> "stderr did not include exclusivity hint:\n" + stderr);
     }
 
+    @Test
+    void reverseLookupListsStoredCredentialsAcceptingOtp() throws Exception {
+        Path database = tempDir.resolve("totp-reverse.db");
+        CommandHarness harness = CommandHarness.create(database);
+
+        TotpDescriptor descriptor = TotpDescriptor.create(
+                CREDENTIAL_ID,
+                STORED_VECTOR.secret(),
+                STORED_VECTOR.algorithm(),
+                STORED_VECTOR.digits(),
+                STORED_VECTOR.stepDuration(),
+                TotpDriftWindow.of(STORED_VECTOR.driftBackwardSteps(), STORED_VECTOR.driftForwardSteps()));
+        harness.save(descriptor);
+        Instant timestamp = STORED_VECTOR.timestamp();
+        String otp = TotpGenerator.generate(descriptor, timestamp);
+
+        int exitCode = harness.execute(
+                "reverse-lookup", "--otp", otp, "--timestamp", Long.toString(timestamp.getEpochSecond()));
+
+        assertEquals(CommandLine.ExitCode.OK, exitCode, harness.stderr());
+        String stdout = harness.stdout();
+        assertTrue(stdout.contains("event=cli.totp.reverse-lookup status=success matchCount=1"), stdout);
+        assertTrue(stdout.contains("credentialId=" + CREDENTIAL_ID + " "), stdout);
+        assertTrue(stdout.contains("skewSteps=0"), stdout);
+
+        exitCode = harness.execute(
+                "reverse-lookup",
+                "--otp",
+                otp,
+                "--timestamp",
+                Long.toString(timestamp.getEpochSecond()),
+                "--output-json");
+
+        assertEquals(CommandLine.ExitCode.OK, exitCode, harness.stderr());
+        String json = harness.stdout().trim();
+        JsonShapeAsserter.assertMatchesShape(CliJsonSchemas.schemaForEvent("cli.totp.reverse-lookup"), json);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) ((Map<String, Object>) SimpleJson.parse(json)).get("data");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> matches = (List<Map<String, Object>>) data.get("matches");
+        assertEquals(1, matches.size());
+        assertEquals(CREDENTIAL_ID, matches.get(0).get("credentialId"));
+
+        exitCode = harness.execute("reverse-lookup", "--otp", "12ab56");
+
+        assertEquals(CommandLine.ExitCode.USAGE, exitCode);
+        assertTrue(harness.stderr().contains("event=cli.totp.reverse-lookup status=invalid"), harness.stderr());
+    }
+
+    @Test
+    void timelineStreamsStoredCredentialToStdoutOrFile() throws Exception {
+        Path database = tempDir.resolve("totp-timeline.db");
+        CommandHarness harness = CommandHarness.create(database);
+        harness.save(TotpDescriptor.create(
+                "timeline-demo",
+                SecretMaterial.fromStringUtf8("12345678901234567890"),
+                TotpHashAlgorithm.SHA1,
+                8,
+                Duration.ofSeconds(30)));
+        String expected = "timeStep,epochSeconds,otp\n0,0,84755224\n1,30,94287082\n2,60,37359152\n";
+
+        int exitCode = harness.execute(
+                "timeline", "--credential-id", "timeline-demo", "--from", "0", "--to", "89", "--format", "csv");
+
+        assertEquals(CommandLine.ExitCode.OK, exitCode, harness.stderr());
+        assertEquals(expected, harness.stdout());
+
+        Path output = tempDir.resolve("timeline.csv");
+        exitCode = harness.execute(
+                "timeline",
+                "--credential-id",
+                "timeline-demo",
+                "--from",
+                "0",
+                "--to",
+                "89",
+                "--format",
+                "csv",
+                "--parallelism",
+                "2",
+                "--output",
+                output.toString());
+
+        assertEquals(CommandLine.ExitCode.OK, exitCode, harness.stderr());
+        assertEquals(expected, Files.readString(output, StandardCharsets.US_ASCII));
+        assertTrue(harness.stdout().contains("event=cli.totp.timeline status=success"), harness.stdout());
+        assertTrue(harness.stdout().contains("steps=3 format=csv"), harness.stdout());
+
+        exitCode = harness.execute("timeline", "--credential-id", "timeline-demo", "--from", "90", "--to", "30");
+
+        assertEquals(CommandLine.ExitCode.USAGE, exitCode);
+        assertTrue(harness.stderr().contains("event=cli.totp.timeline status=invalid"), harness.stderr());
+        assertTrue(harness.stderr().contains("reasonCode=range_invalid"), harness.stderr());
+    }
+
+    @Test
+    void corpusWritesBinaryRowsForSelectedCredentials() throws Exception {
+        Path database = tempDir.resolve("totp-corpus.db");
+        CommandHarness harness = CommandHarness.create(database);
+        harness.save(TotpDescriptor.create(
+                "corpus-a",
+                SecretMaterial.fromStringUtf8("12345678901234567890"),
+                TotpHashAlgorithm.SHA1,
+                8,
+                Duration.ofSeconds(30)));
+        harness.save(TotpDescriptor.create(
+                "other",
+                SecretMaterial.fromStringUtf8("12345678901234567890"),
+                TotpHashAlgorithm.SHA1,
+                6,
+                Duration.ofSeconds(30)));
+        Path output = tempDir.resolve("totp-corpus.bin");
+
+        int exitCode = harness.execute(
+                "corpus",
+                "--prefix",
+                "corpus-",
+                "--from",
+                "0",
+                "--to",
+                "89",
+                "--format",
+                "binary",
+                "--output",
+                output.toString());
+
+        assertEquals(CommandLine.ExitCode.OK, exitCode, harness.stderr());
+        assertTrue(harness.stdout().contains("event=cli.totp.corpus status=success"), harness.stdout());
+        assertTrue(harness.stdout().contains("credentials=1 skippedCredentials=0 otps=3"), harness.stdout());
+        ByteBuffer corpus = ByteBuffer.wrap(Files.readAllBytes(output));
+        assertEquals(0x4F545043, corpus.getInt());
+        corpus.position(corpus.capacity() - 16);
+        assertEquals(0, corpus.getInt());
+        assertEquals(2L, corpus.getLong());
+        assertEquals(37_359_152, corpus.getInt());
+
+        exitCode = harness.execute("corpus", "--from", "90", "--to", "30", "--output", output.toString());
+
+        assertEquals(CommandLine.ExitCode.USAGE, exitCode);
+        assertTrue(harness.stderr().contains("event=cli.totp.corpus status=invalid"), harness.stderr());
+    }
+
     private static final class CommandHarness {
 
         private final TotpCli cli;
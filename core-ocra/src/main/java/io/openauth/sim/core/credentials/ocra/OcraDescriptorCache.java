@@ -0,0 +1,72 @@
+package io.openauth.sim.core.credentials.ocra;
+
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the {@link OcraCredentialDescriptor} rebuilt from each stored credential so repeated verifications skip the
+ * record round-trip and suite parsing.
+ *
+ * <p>Entries are keyed by credential name and remember the {@link Credential} they were built from. A lookup only
+ * reuses an entry when the store hands back that same credential version, meaning the same instance or an equal one
+ * with the same {@code updatedAt}. Saving a credential through the store therefore invalidates its entry implicitly,
+ * and callers that observe a delete can drop it with {@link #invalidate(String)}.
+ */
+public final class OcraDescriptorCache {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    private final OcraCredentialPersistenceAdapter persistenceAdapter;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public OcraDescriptorCache() {
+        this(new OcraCredentialPersistenceAdapter());
+    }
+
+    public OcraDescriptorCache(OcraCredentialPersistenceAdapter persistenceAdapter) {
+        this.persistenceAdapter = Objects.requireNonNull(persistenceAdapter, "persistenceAdapter");
+    }
+
+    /**
+     * Returns the descriptor for {@code credential}, deserializing it only when this version has not been seen.
+     *
+     * @throws IllegalArgumentException when the credential does not describe a valid OCRA descriptor
+     */
+    public OcraCredentialDescriptor descriptorFor(Credential credential) {
+        Objects.requireNonNull(credential, "credential");
+        Entry entry = entries.get(credential.name());
+        if (entry != null && entry.matches(credential)) {
+            return entry.descriptor();
+        }
+        OcraCredentialDescriptor descriptor =
+                persistenceAdapter.deserialize(VersionedCredentialRecordMapper.toRecord(credential));
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.clear();
+        }
+        entries.put(credential.name(), new Entry(credential, descriptor));
+        return descriptor;
+    }
+
+    public void invalidate(String credentialName) {
+        entries.remove(Objects.requireNonNull(credentialName, "credentialName"));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private record Entry(Credential source, OcraCredentialDescriptor descriptor) {
+
+        boolean matches(Credential credential) {
+            return source == credential
+                    || (source.updatedAt().equals(credential.updatedAt()) && source.equals(credential));
+        }
+    }
+}
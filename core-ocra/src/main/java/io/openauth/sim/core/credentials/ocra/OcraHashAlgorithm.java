@@ -1,23 +1,31 @@
 package io.openauth.sim.core.credentials.ocra;
 
+import io.openauth.sim.core.otp.HmacAlgorithm;
 import java.util.Locale;
 
 /** Supported hash algorithms within OCRA suite definitions. */
 public enum OcraHashAlgorithm {
-    SHA1("SHA1"),
-    SHA256("SHA256"),
-    SHA512("SHA512");
+    SHA1("SHA1", HmacAlgorithm.HMAC_SHA1),
+    SHA256("SHA256", HmacAlgorithm.HMAC_SHA256),
+    SHA512("SHA512", HmacAlgorithm.HMAC_SHA512);
 
     private final String token;
+    private final HmacAlgorithm hmacAlgorithm;
 
-    OcraHashAlgorithm(String token) {
+    OcraHashAlgorithm(String token, HmacAlgorithm hmacAlgorithm) {
         this.token = token;
+        this.hmacAlgorithm = hmacAlgorithm;
     }
 
     public String token() {
         return token;
     }
 
+    /** HMAC construction used to compute responses for this hash. */
+    public HmacAlgorithm hmacAlgorithm() {
+        return hmacAlgorithm;
+    }
+
     /** Expected digest length in bytes. */
     public int digestLengthBytes() {
         return switch (this) {
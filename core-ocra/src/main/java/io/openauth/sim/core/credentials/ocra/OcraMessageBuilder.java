@@ -0,0 +1,276 @@
+package io.openauth.sim.core.credentials.ocra;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Precomputed RFC 6287 message layout for one OCRA suite.
+ *
+ * <p>The message is {@code suite || 0x00 || C || Q || P || S || T}. Offsets and field lengths are resolved once
+ * per suite string and cached, and each input is written straight into a zero-initialised copy of the suite prefix,
+ * so no hex strings are built along the way. Field presence follows the RFC reference implementation's reading of
+ * the data-input string: only {@code S064}/{@code S128}/{@code S256}/{@code S512} session tokens and a {@code T}
+ * data input reserve space, exactly as the original string-based code did.
+ */
+final class OcraMessageBuilder {
+
+    static final int COUNTER_BYTES = 8;
+    static final int QUESTION_BYTES = 128;
+    static final int TIMESTAMP_BYTES = 8;
+
+    private static final int ABSENT = -1;
+    private static final int MAX_QUESTION_NIBBLES = QUESTION_BYTES * 2;
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final String[] SESSION_TOKENS = {"s064", "s128", "s256", "s512"};
+    private static final int[] SESSION_LENGTHS = {64, 128, 256, 512};
+    private static final int MAX_CACHED_LAYOUTS = 1_024;
+    private static final ConcurrentMap<String, OcraMessageBuilder> LAYOUTS = new ConcurrentHashMap<>();
+
+    private final byte[] template;
+    private final int counterOffset;
+    private final int questionOffset;
+    private final int pinOffset;
+    private final int pinLength;
+    private final int sessionOffset;
+    private final int sessionLength;
+    private final int timestampOffset;
+
+    private OcraMessageBuilder(
+            byte[] template,
+            int counterOffset,
+            int questionOffset,
+            int pinOffset,
+            int pinLength,
+            int sessionOffset,
+            int sessionLength,
+            int timestampOffset) {
+        this.template = template;
+        this.counterOffset = counterOffset;
+        this.questionOffset = questionOffset;
+        this.pinOffset = pinOffset;
+        this.pinLength = pinLength;
+        this.sessionOffset = sessionOffset;
+        this.sessionLength = sessionLength;
+        this.timestampOffset = timestampOffset;
+    }
+
+    /** @return the layout for {@code suite}, resolved once per distinct suite string */
+    static OcraMessageBuilder forSuite(OcraSuite suite) {
+        Objects.requireNonNull(suite, "suite");
+        OcraMessageBuilder cached = LAYOUTS.get(suite.value());
+        if (cached != null) {
+            return cached;
+        }
+        OcraMessageBuilder layout = resolve(suite.value());
+        if (LAYOUTS.size() >= MAX_CACHED_LAYOUTS) {
+            LAYOUTS.clear();
+        }
+        LAYOUTS.putIfAbsent(suite.value(), layout);
+        return layout;
+    }
+
+    private static OcraMessageBuilder resolve(String value) {
+        String dataInput = value.substring(value.lastIndexOf(':') + 1).toLowerCase(Locale.ROOT);
+
+        int pinLength = 0;
+        if (dataInput.contains("psha1")) {
+            pinLength = 20;
+        }
+        if (dataInput.contains("psha256")) {
+            pinLength = 32;
+        }
+        if (dataInput.contains("psha512")) {
+            pinLength = 64;
+        }
+        int sessionLength = 0;
+        for (int i = 0; i < SESSION_TOKENS.length; i++) {
+            if (dataInput.contains(SESSION_TOKENS[i])) {
+                sessionLength = SESSION_LENGTHS[i];
+            }
+        }
+
+        byte[] suiteBytes = value.getBytes(StandardCharsets.US_ASCII);
+        int offset = suiteBytes.length + 1;
+        int counterOffset = ABSENT;
+        if (dataInput.startsWith("c")) {
+            counterOffset = offset;
+            offset += COUNTER_BYTES;
+        }
+        int questionOffset = ABSENT;
+        if (dataInput.startsWith("q") || dataInput.contains("-q")) {
+            questionOffset = offset;
+            offset += QUESTION_BYTES;
+        }
+        int pinOffset = pinLength > 0 ? offset : ABSENT;
+        offset += pinLength;
+        int sessionOffset = sessionLength > 0 ? offset : ABSENT;
+        offset += sessionLength;
+        int timestampOffset = ABSENT;
+        if (dataInput.startsWith("t") || dataInput.contains("-t")) {
+            timestampOffset = offset;
+            offset += TIMESTAMP_BYTES;
+        }
+
+        byte[] template = Arrays.copyOf(suiteBytes, offset);
+        return new OcraMessageBuilder(
+                template,
+                counterOffset,
+                questionOffset,
+                pinOffset,
+                pinLength,
+                sessionOffset,
+                sessionLength,
+                timestampOffset);
+    }
+
+    /** @return a fresh message holding the suite prefix with every data-input field zeroed */
+    byte[] newMessage() {
+        return template.clone();
+    }
+
+    int length() {
+        return template.length;
+    }
+
+    void putCounter(byte[] message, long counter) {
+        if (counterOffset != ABSENT) {
+            putLong(message, counterOffset, counter);
+        }
+    }
+
+    void putTimestamp(byte[] message, byte[] timestamp) {
+        putRightAligned(message, timestampOffset, TIMESTAMP_BYTES, timestamp, "timestamp");
+    }
+
+    void putTimestamp(byte[] message, long steps) {
+        if (timestampOffset != ABSENT) {
+            putLong(message, timestampOffset, steps);
+        }
+    }
+
+    void putPin(byte[] message, byte[] pinHash) {
+        putRightAligned(message, pinOffset, pinLength, pinHash, "pin hash");
+    }
+
+    void putSession(byte[] message, byte[] sessionInformation) {
+        putRightAligned(message, sessionOffset, sessionLength, sessionInformation, "session information");
+    }
+
+    /**
+     * Validates and encodes a challenge question. Numeric and hex questions are packed as nibbles from the start of
+     * the 128-byte field, so an odd nibble count fills the high half of its last byte as in the reference code.
+     *
+     * @throws IllegalArgumentException when the value does not match the challenge format or exceeds 128 bytes
+     */
+    void putQuestion(byte[] message, OcraChallengeFormat format, String value) {
+        switch (format) {
+            case NUMERIC -> putNumericQuestion(message, value);
+            case HEX -> putHexQuestion(message, value);
+            case ALPHANUMERIC, CHARACTER -> {
+                byte[] ascii = value.toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+                if (ascii.length > QUESTION_BYTES) {
+                    throw questionTooLong();
+                }
+                if (questionOffset != ABSENT) {
+                    clear(message, questionOffset, QUESTION_BYTES);
+                    System.arraycopy(ascii, 0, message, questionOffset, ascii.length);
+                }
+            }
+        }
+    }
+
+    private void putNumericQuestion(byte[] message, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                throw new IllegalArgumentException("numeric challenge must contain digits only");
+            }
+        }
+        if (value.length() <= MAX_LONG_DIGITS) {
+            long number = Long.parseLong(value);
+            int nibbles = number == 0 ? 1 : (Long.SIZE - Long.numberOfLeadingZeros(number) + 3) / 4;
+            long aligned = (nibbles & 1) == 1 ? number << 4 : number;
+            int bytes = (nibbles + 1) / 2;
+            if (questionOffset != ABSENT) {
+                clear(message, questionOffset, QUESTION_BYTES);
+                for (int i = 0; i < bytes; i++) {
+                    message[questionOffset + i] = (byte) (aligned >>> (8 * (bytes - 1 - i)));
+                }
+            }
+            return;
+        }
+        BigInteger number = new BigInteger(value, 10);
+        int nibbles = (number.bitLength() + 3) / 4;
+        if (nibbles > MAX_QUESTION_NIBBLES) {
+            throw questionTooLong();
+        }
+        BigInteger aligned = (nibbles & 1) == 1 ? number.shiftLeft(4) : number;
+        int bytes = (nibbles + 1) / 2;
+        byte[] magnitude = aligned.toByteArray();
+        if (questionOffset != ABSENT) {
+            clear(message, questionOffset, QUESTION_BYTES);
+            System.arraycopy(magnitude, magnitude.length - bytes, message, questionOffset, bytes);
+        }
+    }
+
+    private void putHexQuestion(byte[] message, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!isAsciiHex(value.charAt(i))) {
+                throw new IllegalArgumentException("hex challenge must contain hexadecimal characters only");
+            }
+        }
+        if (value.length() > MAX_QUESTION_NIBBLES) {
+            throw questionTooLong();
+        }
+        if (questionOffset == ABSENT) {
+            return;
+        }
+        clear(message, questionOffset, QUESTION_BYTES);
+        for (int i = 0; i < value.length(); i++) {
+            int nibble = Character.digit(value.charAt(i), 16);
+            message[questionOffset + i / 2] |= (byte) ((i & 1) == 0 ? nibble << 4 : nibble);
+        }
+    }
+
+    private static boolean isAsciiHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static IllegalArgumentException questionTooLong() {
+        return new IllegalArgumentException("challenge question exceeds " + QUESTION_BYTES + " bytes");
+    }
+
+    /**
+     * Left-pads {@code value} into its field, mirroring the reference code's leading-zero padding. Leading zero bytes
+     * beyond the field are ignored; any other overflow used to corrupt the following fields and is now rejected.
+     */
+    private static void putRightAligned(byte[] message, int offset, int length, byte[] value, String label) {
+        if (offset == ABSENT) {
+            return;
+        }
+        int start = 0;
+        while (value.length - start > length && value[start] == 0) {
+            start++;
+        }
+        int significant = value.length - start;
+        if (significant > length) {
+            throw new IllegalArgumentException(label + " exceeds " + length + " bytes");
+        }
+        clear(message, offset, length - significant);
+        System.arraycopy(value, start, message, offset + length - significant, significant);
+    }
+
+    private static void putLong(byte[] message, int offset, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            message[offset + i] = (byte) (value >>> (8 * (Long.BYTES - 1 - i)));
+        }
+    }
+
+    private static void clear(byte[] message, int offset, int length) {
+        Arrays.fill(message, offset, offset + length, (byte) 0);
+    }
+}
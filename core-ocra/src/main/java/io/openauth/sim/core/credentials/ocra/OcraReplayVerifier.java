@@ -3,21 +3,30 @@ package io.openauth.sim.core.credentials.ocra;
 import io.openauth.sim.core.model.Credential;
 import io.openauth.sim.core.model.SecretEncoding;
 import io.openauth.sim.core.store.CredentialStore;
-import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-/** Core service responsible for replaying OCRA verifications without mutating state. */
+/**
+ * Core service responsible for replaying OCRA verifications without mutating state.
+ *
+ * <p>Timestamp-based suites accept a drift window expressed in timestamp steps. A request may set it explicitly;
+ * otherwise the descriptor's {@code allowedTimestampDrift} is converted to whole steps, and suites without either
+ * stay strict. Windows are searched nearest step first through one prepared {@link OcraResponseKernel}.
+ */
 public final class OcraReplayVerifier {
 
+    /** Upper bound on the timestamp drift window, in steps on either side of the supplied timestamp. */
+    public static final int MAX_TIMESTAMP_DRIFT_STEPS = 64;
+
     private static final Logger LOGGER = Logger.getLogger("io.openauth.sim.core.credentials.ocra.replay");
 
     private final CredentialStore credentialStore;
     private final OcraCredentialFactory credentialFactory;
-    private final OcraCredentialPersistenceAdapter persistenceAdapter;
+    private final OcraDescriptorCache descriptorCache;
 
     public OcraReplayVerifier(CredentialStore credentialStore) {
         this(credentialStore, new OcraCredentialFactory(), new OcraCredentialPersistenceAdapter());
@@ -29,7 +38,8 @@ public final class OcraReplayVerifier {
             OcraCredentialPersistenceAdapter persistenceAdapter) {
         this.credentialStore = credentialStore;
         this.credentialFactory = Objects.requireNonNull(credentialFactory, "credentialFactory");
-        this.persistenceAdapter = Objects.requireNonNull(persistenceAdapter, "persistenceAdapter");
+        this.descriptorCache =
+                new OcraDescriptorCache(Objects.requireNonNull(persistenceAdapter, "persistenceAdapter"));
     }
 
     public OcraVerificationResult verifyStored(OcraStoredVerificationRequest request) {
@@ -42,16 +52,17 @@ public final class OcraReplayVerifier {
             return invalid(OcraVerificationReason.CREDENTIAL_NOT_FOUND);
         }
 
-        Optional<Credential> credential =
-                credentialStore.findByName(request.credentialId().trim());
+        String credentialId = request.credentialId().trim();
+        Optional<Credential> credential = credentialStore.findByName(credentialId);
         if (credential.isEmpty()) {
+            descriptorCache.invalidate(credentialId);
             return invalid(OcraVerificationReason.CREDENTIAL_NOT_FOUND);
         }
 
         try {
-            OcraCredentialDescriptor descriptor =
-                    persistenceAdapter.deserialize(VersionedCredentialRecordMapper.toRecord(credential.get()));
-            return performVerification(descriptor, request.context(), request.otp());
+            OcraCredentialDescriptor descriptor = descriptorCache.descriptorFor(credential.get());
+            return performVerification(
+                    descriptor, request.context(), request.otp(), request.timestampDriftSteps());
         } catch (IllegalArgumentException ex) {
             logValidation(ex);
             return invalid(OcraVerificationReason.VALIDATION_FAILURE);
@@ -85,7 +96,8 @@ public final class OcraReplayVerifier {
                             metadata);
 
             OcraCredentialDescriptor descriptor = credentialFactory.createDescriptor(descriptorRequest);
-            return performVerification(descriptor, request.context(), request.otp());
+            return performVerification(
+                    descriptor, request.context(), request.otp(), request.timestampDriftSteps());
         } catch (IllegalArgumentException ex) {
             logValidation(ex);
             return invalid(OcraVerificationReason.VALIDATION_FAILURE);
@@ -95,13 +107,22 @@ public final class OcraReplayVerifier {
         }
     }
 
-    public record OcraStoredVerificationRequest(String credentialId, String otp, OcraVerificationContext context) {
+    /**
+     * Stored verification request; a {@code null} {@code timestampDriftSteps} falls back to the drift stored with
+     * the credential.
+     */
+    public record OcraStoredVerificationRequest(
+            String credentialId, String otp, OcraVerificationContext context, Integer timestampDriftSteps) {
 
         public OcraStoredVerificationRequest {
             Objects.requireNonNull(credentialId, "credentialId");
             Objects.requireNonNull(otp, "otp");
             Objects.requireNonNull(context, "context");
         }
+
+        public OcraStoredVerificationRequest(String credentialId, String otp, OcraVerificationContext context) {
+            this(credentialId, otp, context, null);
+        }
     }
 
     public record OcraInlineVerificationRequest(
@@ -111,7 +132,19 @@ public final class OcraReplayVerifier {
             SecretEncoding sharedSecretEncoding,
             String otp,
             OcraVerificationContext context,
-            Map<String, String> metadata) {
+            Map<String, String> metadata,
+            Integer timestampDriftSteps) {
+
+        public OcraInlineVerificationRequest(
+                String descriptorName,
+                String suite,
+                String sharedSecretHex,
+                SecretEncoding sharedSecretEncoding,
+                String otp,
+                OcraVerificationContext context,
+                Map<String, String> metadata) {
+            this(descriptorName, suite, sharedSecretHex, sharedSecretEncoding, otp, context, metadata, null);
+        }
 
         public OcraInlineVerificationRequest {
             Objects.requireNonNull(descriptorName, "descriptorName");
@@ -136,12 +169,18 @@ public final class OcraReplayVerifier {
         // Marker type for passing immutable verification state.
     }
 
-    public record OcraVerificationResult(OcraVerificationStatus status, OcraVerificationReason reason) {
+    /** Verification outcome; {@code timestampDriftSteps} is the step offset that matched, zero otherwise. */
+    public record OcraVerificationResult(
+            OcraVerificationStatus status, OcraVerificationReason reason, int timestampDriftSteps) {
 
         public OcraVerificationResult {
             Objects.requireNonNull(status, "status");
             Objects.requireNonNull(reason, "reason");
         }
+
+        public OcraVerificationResult(OcraVerificationStatus status, OcraVerificationReason reason) {
+            this(status, reason, 0);
+        }
     }
 
     public enum OcraVerificationStatus {
@@ -159,7 +198,10 @@ public final class OcraReplayVerifier {
     }
 
     private OcraVerificationResult performVerification(
-            OcraCredentialDescriptor descriptor, OcraVerificationContext context, String suppliedOtp) {
+            OcraCredentialDescriptor descriptor,
+            OcraVerificationContext context,
+            String suppliedOtp,
+            Integer requestedDriftSteps) {
         Objects.requireNonNull(descriptor, "descriptor");
         Objects.requireNonNull(context, "context");
 
@@ -179,6 +221,7 @@ public final class OcraReplayVerifier {
             credentialFactory.validateChallenge(descriptor, challenge);
             credentialFactory.validateSessionInformation(descriptor, sessionInformation);
             validateTimestamp(descriptor, timestampHex);
+            int driftSteps = resolveDriftSteps(descriptor, requestedDriftSteps);
 
             OcraResponseCalculator.OcraExecutionContext executionContext =
                     new OcraResponseCalculator.OcraExecutionContext(
@@ -190,9 +233,11 @@ public final class OcraReplayVerifier {
                             pinHashHex,
                             timestampHex);
 
-            String expectedOtp = OcraResponseCalculator.generate(descriptor, executionContext);
-            if (expectedOtp.equals(otp)) {
-                return new OcraVerificationResult(OcraVerificationStatus.MATCH, OcraVerificationReason.MATCH);
+            OcraResponseKernel kernel = OcraResponseKernel.prepare(descriptor, executionContext);
+            OptionalInt match = kernel.matchTimestamp(otp, driftSteps, driftSteps);
+            if (match.isPresent()) {
+                return new OcraVerificationResult(
+                        OcraVerificationStatus.MATCH, OcraVerificationReason.MATCH, match.getAsInt());
             }
             return new OcraVerificationResult(OcraVerificationStatus.MISMATCH, OcraVerificationReason.STRICT_MISMATCH);
         } catch (IllegalArgumentException ex) {
@@ -220,6 +265,24 @@ public final class OcraReplayVerifier {
         }
     }
 
+    private static int resolveDriftSteps(OcraCredentialDescriptor descriptor, Integer requestedDriftSteps) {
+        if (requestedDriftSteps != null) {
+            if (requestedDriftSteps < 0 || requestedDriftSteps > MAX_TIMESTAMP_DRIFT_STEPS) {
+                throw new IllegalArgumentException(
+                        "timestampDriftSteps must be between 0 and " + MAX_TIMESTAMP_DRIFT_STEPS);
+            }
+            return requestedDriftSteps;
+        }
+        Optional<OcraTimestampSpecification> timestamp =
+                descriptor.suite().dataInput().timestamp();
+        if (timestamp.isEmpty() || descriptor.allowedTimestampDrift().isEmpty()) {
+            return 0;
+        }
+        long steps = descriptor.allowedTimestampDrift().orElseThrow().toSeconds()
+                / timestamp.orElseThrow().step().toSeconds();
+        return (int) Math.min(steps, MAX_TIMESTAMP_DRIFT_STEPS);
+    }
+
     private static OcraVerificationResult invalid(OcraVerificationReason reason) {
         return new OcraVerificationResult(OcraVerificationStatus.INVALID, reason);
     }
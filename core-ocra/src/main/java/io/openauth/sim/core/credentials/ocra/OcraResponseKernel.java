@@ -0,0 +1,299 @@
+package io.openauth.sim.core.credentials.ocra;
+
+import io.openauth.sim.core.credentials.ocra.OcraResponseCalculator.OcraExecutionContext;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.otp.HmacAlgorithm;
+import io.openauth.sim.core.otp.HmacEngine;
+import io.openauth.sim.core.otp.OtpDigits;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * Batched OCRA evaluation for one descriptor and execution context.
+ *
+ * <p>{@link #prepare} validates the runtime inputs once and writes the fixed data inputs (question, PIN hash and
+ * session information) into a single message buffer. Evaluating another counter or timestamp only rewrites those
+ * 8-byte fields in place and runs one HMAC with the secret read at preparation time, so the keyed
+ * {@link HmacEngine} instance is reused for the whole window. Instances are not thread-safe.
+ */
+public final class OcraResponseKernel {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final OcraMessageBuilder builder;
+    private final byte[] message;
+    private final HmacAlgorithm algorithm;
+    private final byte[] key;
+    private final int digits;
+    private final OcraChallengeFormat questionFormat;
+    private final boolean counterInput;
+    private final boolean timestampInput;
+    private final long counter;
+    private final long timestampSteps;
+
+    private OcraResponseKernel(
+            OcraMessageBuilder builder,
+            byte[] message,
+            OcraCryptoFunction cryptoFunction,
+            byte[] key,
+            OcraChallengeFormat questionFormat,
+            boolean counterInput,
+            boolean timestampInput,
+            long counter,
+            long timestampSteps) {
+        this.builder = builder;
+        this.message = message;
+        this.algorithm = cryptoFunction.hashAlgorithm().hmacAlgorithm();
+        this.key = key;
+        this.digits = cryptoFunction.responseDigits();
+        this.questionFormat = questionFormat;
+        this.counterInput = counterInput;
+        this.timestampInput = timestampInput;
+        this.counter = counter;
+        this.timestampSteps = timestampSteps;
+    }
+
+    /**
+     * Validates {@code context} against the descriptor's suite and prepares the shared message buffer.
+     *
+     * @throws IllegalArgumentException when required runtime inputs are missing or malformed
+     */
+    public static OcraResponseKernel prepare(OcraCredentialDescriptor descriptor, OcraExecutionContext context) {
+        Objects.requireNonNull(descriptor, "descriptor");
+        Objects.requireNonNull(context, "context");
+
+        OcraSuite suite = descriptor.suite();
+        OcraDataInput dataInput = suite.dataInput();
+        OcraMessageBuilder builder = OcraMessageBuilder.forSuite(suite);
+        byte[] message = builder.newMessage();
+
+        long counter = 0L;
+        if (dataInput.counter()) {
+            if (context.counter() == null) {
+                throw new IllegalArgumentException("counter value required for suite: " + suite.value());
+            }
+            if (context.counter() < 0) {
+                throw new IllegalArgumentException("counter value must be non-negative");
+            }
+            counter = context.counter();
+        }
+
+        if (dataInput.challengeQuestion().isPresent()) {
+            OcraChallengeQuestion challenge = dataInput.challengeQuestion().orElseThrow();
+            String value = resolveChallengeInput(context);
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException("challenge question required for suite: " + challenge);
+            }
+            builder.putQuestion(message, challenge.format(), value);
+        }
+
+        if (dataInput.pin().isPresent()) {
+            SecretMaterial material = descriptor.pinHash().orElseGet(() -> {
+                String runtimePin = context.pinHashHex();
+                if (runtimePin == null || runtimePin.isBlank()) {
+                    throw new IllegalArgumentException("pin hash required for suite: " + suite.value());
+                }
+                return SecretMaterial.fromHex(normalizeHex(runtimePin));
+            });
+            builder.putPin(message, material.value());
+        }
+
+        if (dataInput.sessionInformation().isPresent()) {
+            builder.putSession(
+                    message,
+                    decodeSession(
+                            dataInput.sessionInformation().orElseThrow(),
+                            context.sessionInformation(),
+                            suite.value()));
+        }
+
+        long timestampSteps = 0L;
+        if (dataInput.timestamp().isPresent()) {
+            if (context.timestampHex() == null || context.timestampHex().isBlank()) {
+                throw new IllegalArgumentException("timestamp value required for suite: " + suite.value());
+            }
+            byte[] timestamp = HEX.parseHex(normalizeHex(context.timestampHex()));
+            builder.putTimestamp(message, timestamp);
+            for (byte b : timestamp) {
+                timestampSteps = (timestampSteps << 8) | (b & 0xFF);
+            }
+        }
+
+        return new OcraResponseKernel(
+                builder,
+                message,
+                suite.cryptoFunction(),
+                descriptor.sharedSecret().value(),
+                dataInput.challengeQuestion().map(OcraChallengeQuestion::format).orElse(null),
+                dataInput.counter(),
+                dataInput.timestamp().isPresent(),
+                counter,
+                timestampSteps);
+    }
+
+    /** @return whether the suite carries a {@code T} data input that {@link #matchTimestamp} can shift */
+    public boolean hasTimestamp() {
+        return timestampInput;
+    }
+
+    /** @return the response for the prepared counter and timestamp */
+    public String response() {
+        return evaluate(counter, timestampSteps);
+    }
+
+    /**
+     * Returns the response for {@code counterValue} and {@code question} at the prepared PIN hash, session information
+     * and timestamp. The question stays in the buffer for later calls. Suites without a counter or question input
+     * ignore the corresponding argument.
+     *
+     * @throws IllegalArgumentException when the counter is negative or the question does not match the suite's
+     *     challenge format
+     */
+    public String response(long counterValue, String question) {
+        Objects.requireNonNull(question, "question");
+        if (counterInput && counterValue < 0) {
+            throw new IllegalArgumentException("counter value must be non-negative");
+        }
+        if (questionFormat != null) {
+            builder.putQuestion(message, questionFormat, question);
+        }
+        return evaluate(counterValue, timestampSteps);
+    }
+
+    /**
+     * Evaluates the prepared inputs shifted by every delta in {@code -backward..forward}, moving the counter and
+     * timestamp together when the suite uses them. Entry {@code i} holds the response for delta
+     * {@code i - backward}, or {@code null} when that delta would take a moving factor below zero.
+     *
+     * @throws IllegalArgumentException when either bound is negative
+     */
+    public String[] window(int backward, int forward) {
+        requireBounds(backward, forward);
+        String[] responses = new String[backward + forward + 1];
+        for (int delta = -backward; delta <= forward; delta++) {
+            long candidateCounter = counterInput ? shift(counter, delta) : counter;
+            long candidateTimestamp = timestampInput ? shift(timestampSteps, delta) : timestampSteps;
+            if (delta == 0 || (candidateCounter >= 0 && candidateTimestamp >= 0)) {
+                responses[delta + backward] = evaluate(candidateCounter, candidateTimestamp);
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * Searches the timestamp window {@code -backward..forward} for {@code otp}, nearest step first, keeping every
+     * other input fixed. Suites without a timestamp input only compare the prepared response.
+     *
+     * @return the matching step offset, or empty when no step in the window produces {@code otp}
+     * @throws IllegalArgumentException when either bound is negative
+     */
+    public OptionalInt matchTimestamp(String otp, int backward, int forward) {
+        Objects.requireNonNull(otp, "otp");
+        requireBounds(backward, forward);
+        if (otp.equals(response())) {
+            return OptionalInt.of(0);
+        }
+        if (!timestampInput) {
+            return OptionalInt.empty();
+        }
+        for (int distance = 1; distance <= Math.max(backward, forward); distance++) {
+            if (distance <= backward && matchesAt(otp, -distance)) {
+                return OptionalInt.of(-distance);
+            }
+            if (distance <= forward && matchesAt(otp, distance)) {
+                return OptionalInt.of(distance);
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    private boolean matchesAt(String otp, int delta) {
+        long candidate = shift(timestampSteps, delta);
+        return candidate >= 0 && otp.equals(evaluate(counter, candidate));
+    }
+
+    private String evaluate(long counterValue, long timestampValue) {
+        builder.putCounter(message, counterValue);
+        builder.putTimestamp(message, timestampValue);
+        byte[] hash;
+        try {
+            hash = HmacEngine.compute(algorithm, key, message);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to initialize OCRA HMAC engine", ex);
+        }
+        return truncate(hash, digits);
+    }
+
+    private static long shift(long value, int delta) {
+        if (value < 0) {
+            return -1L;
+        }
+        long shifted = value + delta;
+        return delta > 0 && shifted < 0 ? -1L : shifted;
+    }
+
+    private static void requireBounds(int backward, int forward) {
+        if (backward < 0 || forward < 0) {
+            throw new IllegalArgumentException("window bounds must be non-negative");
+        }
+    }
+
+    private static byte[] decodeSession(
+            OcraSessionSpecification specification, String sessionInformation, String suite) {
+        if (sessionInformation == null || sessionInformation.isBlank()) {
+            throw new IllegalArgumentException("session information required for suite: " + suite);
+        }
+        byte[] decoded = HEX.parseHex(normalizeHex(sessionInformation));
+        if (decoded.length > specification.lengthBytes()) {
+            throw new IllegalArgumentException(
+                    "session information exceeds declared length of " + specification.lengthBytes() + " bytes");
+        }
+        return decoded;
+    }
+
+    private static String resolveChallengeInput(OcraExecutionContext context) {
+        if (context.question() != null && !context.question().isBlank()) {
+            return context.question().trim();
+        }
+        if (context.clientChallenge() == null && context.serverChallenge() == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        if (context.clientChallenge() != null) {
+            builder.append(context.clientChallenge());
+        }
+        if (context.serverChallenge() != null) {
+            builder.append(context.serverChallenge());
+        }
+        return builder.toString();
+    }
+
+    private static String normalizeHex(String value) {
+        String trimmed = value.replaceAll("\\s+", "").toUpperCase(Locale.ROOT);
+        if ((trimmed.length() & 1) == 1) {
+            trimmed = '0' + trimmed;
+        }
+        return trimmed;
+    }
+
+    private static String truncate(byte[] hmac, int digits) {
+        int offset = hmac[hmac.length - 1] & 0x0F;
+        int binary = ((hmac[offset] & 0x7F) << 24)
+                | ((hmac[offset + 1] & 0xFF) << 16)
+                | ((hmac[offset + 2] & 0xFF) << 8)
+                | (hmac[offset + 3] & 0xFF);
+
+        if (digits <= OtpDigits.MAX_DIGITS) {
+            return OtpDigits.format(binary % OtpDigits.modulus(digits), digits);
+        }
+        long modulus = 1L;
+        for (int i = 0; i < digits; i++) {
+            modulus *= 10L;
+        }
+        long otp = (binary & 0xFFFFFFFFL) % modulus;
+        return String.format(Locale.ROOT, "%0" + digits + "d", otp);
+    }
+}
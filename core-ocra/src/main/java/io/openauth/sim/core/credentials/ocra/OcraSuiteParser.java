@@ -3,16 +3,37 @@ package io.openauth.sim.core.credentials.ocra;
 import java.time.Duration;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 final class OcraSuiteParser {
 
     private static final String PREFIX = "OCRA-1";
+    static final int MAX_INTERNED_SUITES = 1_024;
+
+    // Parsed suites are immutable, so inline requests that repeat a suite string share one instance.
+    private static final ConcurrentMap<String, OcraSuite> INTERNED = new ConcurrentHashMap<>();
 
     private OcraSuiteParser() {
         // Utility class
     }
 
     static OcraSuite parse(String suite) {
+        if (suite != null) {
+            OcraSuite interned = INTERNED.get(suite);
+            if (interned != null) {
+                return interned;
+            }
+        }
+        OcraSuite parsed = parseUncached(suite);
+        if (INTERNED.size() >= MAX_INTERNED_SUITES) {
+            INTERNED.clear();
+        }
+        INTERNED.putIfAbsent(suite, parsed);
+        return parsed;
+    }
+
+    private static OcraSuite parseUncached(String suite) {
         if (suite == null || suite.isBlank()) {
             throw new IllegalArgumentException("OCRA suite must not be blank");
         }
@@ -0,0 +1,90 @@
+package io.openauth.sim.core.credentials.ocra;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.openauth.sim.core.credentials.ocra.OcraCredentialFactory.OcraCredentialRequest;
+import io.openauth.sim.core.credentials.ocra.OcraReplayVerifier.OcraStoredVerificationRequest;
+import io.openauth.sim.core.credentials.ocra.OcraReplayVerifier.OcraVerificationContext;
+import io.openauth.sim.core.credentials.ocra.OcraReplayVerifier.OcraVerificationReason;
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.SecretEncoding;
+import io.openauth.sim.core.store.MapDbCredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+final class OcraDescriptorCacheTest {
+
+    private static final String SUITE = "OCRA-1:HOTP-SHA1-6:QN08";
+    private static final String SECRET_HEX = "3132333435363738393031323334353637383930";
+
+    private final OcraCredentialPersistenceAdapter persistenceAdapter = new OcraCredentialPersistenceAdapter();
+
+    @Test
+    void reusesDescriptorUntilTheStoredVersionChanges() {
+        OcraDescriptorCache cache = new OcraDescriptorCache();
+        Credential credential = credential("cached", SECRET_HEX);
+        Credential reloaded = new Credential(
+                credential.name(),
+                credential.type(),
+                credential.secret(),
+                credential.attributes(),
+                credential.createdAt(),
+                credential.updatedAt());
+
+        OcraCredentialDescriptor first = cache.descriptorFor(credential);
+
+        assertSame(first, cache.descriptorFor(credential));
+        assertSame(first, cache.descriptorFor(reloaded));
+        Credential updated = new Credential(
+                credential.name(),
+                credential.type(),
+                credential.secret(),
+                credential.attributes(),
+                credential.createdAt(),
+                credential.updatedAt().plusSeconds(1));
+        OcraCredentialDescriptor rebuilt = cache.descriptorFor(updated);
+        assertNotSame(first, rebuilt);
+        assertEquals(first.suite(), rebuilt.suite());
+
+        cache.invalidate("cached");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void storedVerificationFollowsStoreUpdatesAndDeletes() {
+        try (MapDbCredentialStore store = MapDbCredentialStore.inMemory().open()) {
+            OcraReplayVerifier verifier = new OcraReplayVerifier(store);
+            OcraVerificationContext context =
+                    new OcraVerificationContext(null, "00000000", null, null, null, null, null);
+            store.save(credential("rotating", SECRET_HEX));
+
+            OcraReplayVerifier.OcraVerificationResult original =
+                    verifier.verifyStored(new OcraStoredVerificationRequest("rotating", "237653", context));
+            store.save(credential("rotating", "3132333435363738393031323334353637383931"));
+            OcraReplayVerifier.OcraVerificationResult rotated =
+                    verifier.verifyStored(new OcraStoredVerificationRequest("rotating", "237653", context));
+            store.delete("rotating");
+            OcraReplayVerifier.OcraVerificationResult deleted =
+                    verifier.verifyStored(new OcraStoredVerificationRequest("rotating", "237653", context));
+
+            assertEquals(OcraVerificationReason.MATCH, original.reason());
+            assertEquals(OcraVerificationReason.STRICT_MISMATCH, rotated.reason());
+            assertEquals(OcraVerificationReason.CREDENTIAL_NOT_FOUND, deleted.reason());
+        }
+    }
+
+    @Test
+    void repeatedSuiteStringsShareOneParsedSuite() {
+        assertSame(OcraSuiteParser.parse(SUITE), OcraSuiteParser.parse(SUITE));
+    }
+
+    private Credential credential(String name, String secretHex) {
+        OcraCredentialDescriptor descriptor = new OcraCredentialFactory()
+                .createDescriptor(new OcraCredentialRequest(
+                        name, SUITE, secretHex, SecretEncoding.HEX, null, null, null, Map.of()));
+        return VersionedCredentialRecordMapper.toCredential(persistenceAdapter.serialize(descriptor));
+    }
+}
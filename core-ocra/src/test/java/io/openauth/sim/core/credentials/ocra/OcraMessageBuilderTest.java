@@ -0,0 +1,88 @@
+package io.openauth.sim.core.credentials.ocra;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+import org.junit.jupiter.api.Test;
+
+final class OcraMessageBuilderTest {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Test
+    void writesEachFieldAtItsRfcOffset() {
+        String suite = "OCRA-1:HOTP-SHA1-6:C-QN08-PSHA1";
+        OcraMessageBuilder builder = OcraMessageBuilder.forSuite(OcraSuiteParser.parse(suite));
+        int prefix = suite.length() + 1;
+        byte[] message = builder.newMessage();
+
+        builder.putCounter(message, 0x0102L);
+        builder.putQuestion(message, OcraChallengeFormat.NUMERIC, "12345678");
+        builder.putPin(message, HEX.parseHex("00ff"));
+
+        assertEquals(prefix + 8 + 128 + 20, builder.length());
+        assertArrayEquals(suite.getBytes(StandardCharsets.US_ASCII), Arrays.copyOf(message, suite.length()));
+        assertEquals(0, message[suite.length()]);
+        assertEquals("0000000000000102", HEX.formatHex(message, prefix, prefix + 8));
+        assertEquals("bc614e00", HEX.formatHex(message, prefix + 8, prefix + 12));
+        assertEquals(0, message[prefix + 8 + 127]);
+        assertEquals((byte) 0xff, message[message.length - 1]);
+        assertEquals(0, message[message.length - 2]);
+    }
+
+    @Test
+    void oddNibbleQuestionsFillTheHighHalfOfTheirLastByte() {
+        OcraMessageBuilder builder = OcraMessageBuilder.forSuite(OcraSuiteParser.parse("OCRA-1:HOTP-SHA1-6:QH08"));
+        int offset = "OCRA-1:HOTP-SHA1-6:QH08".length() + 1;
+        byte[] hex = builder.newMessage();
+        byte[] numeric = builder.newMessage();
+        byte[] wide = builder.newMessage();
+        String twentyDigits = "98765432109876543210";
+
+        builder.putQuestion(hex, OcraChallengeFormat.HEX, "abc");
+        builder.putQuestion(numeric, OcraChallengeFormat.NUMERIC, "1");
+        builder.putQuestion(wide, OcraChallengeFormat.NUMERIC, twentyDigits);
+
+        assertEquals("abc0", HEX.formatHex(hex, offset, offset + 2));
+        assertEquals("10", HEX.formatHex(numeric, offset, offset + 1));
+        String expected = new BigInteger(twentyDigits).toString(16);
+        String padded = expected.length() % 2 == 0 ? expected : expected + "0";
+        assertEquals(padded, HEX.formatHex(wide, offset, offset + padded.length() / 2));
+    }
+
+    @Test
+    void keepsReferenceFieldSelectionForNonStandardTokens() {
+        String sessionByHash = "OCRA-1:HOTP-SHA1-6:QN08-SH512";
+        String cryptoTimeStep = "OCRA-1:HOTPT30SHA256-7:QN08";
+
+        assertEquals(
+                sessionByHash.length() + 1 + 128,
+                OcraMessageBuilder.forSuite(OcraSuiteParser.parse(sessionByHash)).length());
+        assertEquals(
+                cryptoTimeStep.length() + 1 + 128,
+                OcraMessageBuilder.forSuite(OcraSuiteParser.parse(cryptoTimeStep)).length());
+    }
+
+    @Test
+    void rejectsValuesThatWouldSpillIntoTheNextField() {
+        OcraMessageBuilder builder =
+                OcraMessageBuilder.forSuite(OcraSuiteParser.parse("OCRA-1:HOTP-SHA1-6:QA08-PSHA1-T1M"));
+        byte[] message = builder.newMessage();
+
+        builder.putTimestamp(message, HEX.parseHex("0000000000000000000132d0b6"));
+
+        assertEquals("000000000132d0b6", HEX.formatHex(message, message.length - 8, message.length));
+        byte[] widePin = HEX.parseHex("01" + "00".repeat(20));
+        byte[] wideTimestamp = HEX.parseHex("010000000000000000");
+        assertThrows(IllegalArgumentException.class, () -> builder.putPin(message, widePin));
+        assertThrows(IllegalArgumentException.class, () -> builder.putTimestamp(message, wideTimestamp));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> builder.putQuestion(message, OcraChallengeFormat.ALPHANUMERIC, "A".repeat(129)));
+    }
+}
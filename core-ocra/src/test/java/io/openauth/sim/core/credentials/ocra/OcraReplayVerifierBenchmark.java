@@ -8,11 +8,15 @@ import io.openauth.sim.core.credentials.ocra.OcraReplayVerifier.OcraVerification
 import io.openauth.sim.core.credentials.ocra.OcraReplayVerifier.OcraVerificationResult;
 import io.openauth.sim.core.credentials.ocra.OcraReplayVerifier.OcraVerificationStatus;
 import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.otp.HmacAlgorithm;
+import io.openauth.sim.core.otp.HmacEngine;
 import io.openauth.sim.core.store.MapDbCredentialStore;
 import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.security.GeneralSecurityException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -23,7 +27,8 @@ import org.junit.jupiter.api.Test;
 
 /**
  * Benchmark harness for {@link OcraReplayVerifier}. Enable with {@code
- * -Dio.openauth.sim.benchmark=true} to capture stored vs inline verification latency.
+ * -Dio.openauth.sim.benchmark=true} to capture stored vs inline verification latency against a raw HMAC baseline
+ * over the same keys and message sizes.
  */
 final class OcraReplayVerifierBenchmark {
 
@@ -55,6 +60,40 @@ final class OcraReplayVerifierBenchmark {
         }
     }
 
+    @Test
+    void rawHmacBaselineLatency() throws GeneralSecurityException {
+        assumeTrue(isBenchmarkEnabled(), "Benchmark flag not enabled");
+
+        LOGGER.info(() -> "Starting raw HMAC baseline; env=" + environmentSummary());
+
+        List<OcraRfc6287VectorFixtures.OneWayVector> vectors = storedVectors();
+        List<byte[]> keys = new ArrayList<>(vectors.size());
+        List<byte[]> messages = new ArrayList<>(vectors.size());
+        List<HmacAlgorithm> algorithms = new ArrayList<>(vectors.size());
+        for (OcraRfc6287VectorFixtures.OneWayVector vector : vectors) {
+            OcraSuite suite = OcraSuiteParser.parse(vector.ocraSuite());
+            keys.add(HexFormat.of().parseHex(vector.sharedSecretHex()));
+            messages.add(OcraMessageBuilder.forSuite(suite).newMessage());
+            algorithms.add(suite.cryptoFunction().hashAlgorithm().hmacAlgorithm());
+        }
+
+        int size = vectors.size();
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            HmacEngine.compute(algorithms.get(i % size), keys.get(i % size), messages.get(i % size));
+        }
+        List<Long> latencies = new ArrayList<>(MEASURED_OPERATIONS);
+        long totalStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_OPERATIONS; i++) {
+            long start = System.nanoTime();
+            HmacEngine.compute(algorithms.get(i % size), keys.get(i % size), messages.get(i % size));
+            latencies.add(System.nanoTime() - start);
+        }
+        long totalEnd = System.nanoTime();
+        logReport(
+                "raw-hmac",
+                new BenchmarkReport(MEASURED_OPERATIONS, Duration.ofNanos(totalEnd - totalStart), latencies));
+    }
+
     @Test
     void inlineCredentialVerificationLatency() {
         assumeTrue(isBenchmarkEnabled(), "Benchmark flag not enabled");
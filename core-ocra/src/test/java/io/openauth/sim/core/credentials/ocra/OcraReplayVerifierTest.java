@@ -14,6 +14,7 @@ import io.openauth.sim.core.model.SecretEncoding;
 import io.openauth.sim.core.store.CredentialStore;
 import io.openauth.sim.core.store.serialization.VersionedCredentialRecord;
 import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -498,6 +499,53 @@ final class OcraReplayVerifierTest {
         assertEquals(OcraVerificationReason.VALIDATION_FAILURE, result.reason());
     }
 
+    @Test
+    @DisplayName("timestamp suites honour stored drift and per-request drift windows")
+    void timestampDriftWindowsAcceptSkewedTimestamps() {
+        OcraRfc6287VectorFixtures.OneWayVector vector =
+                OcraRfc6287VectorFixtures.timeBasedSha512Vectors().get(0);
+        InMemoryCredentialStore store = new InMemoryCredentialStore();
+        store.save(toCredential(FACTORY.createDescriptor(new OcraCredentialRequest(
+                "stored-drift",
+                vector.ocraSuite(),
+                vector.sharedSecretHex(),
+                SecretEncoding.HEX,
+                null,
+                null,
+                Duration.ofMinutes(2),
+                Map.of()))));
+        OcraReplayVerifier verifier = new OcraReplayVerifier(store);
+        String skewed = Long.toHexString(Long.parseLong(vector.timestampHex(), 16) + 2);
+        OcraVerificationContext context =
+                new OcraVerificationContext(null, vector.question(), null, null, null, null, skewed);
+
+        OcraVerificationResult storedDrift =
+                verifier.verifyStored(new OcraStoredVerificationRequest("stored-drift", vector.expectedOtp(), context));
+        OcraVerificationResult strictOverride = verifier.verifyStored(
+                new OcraStoredVerificationRequest("stored-drift", vector.expectedOtp(), context, 1));
+        OcraVerificationResult inlineDrift = verifier.verifyInline(new OcraInlineVerificationRequest(
+                "inline-drift",
+                vector.ocraSuite(),
+                vector.sharedSecretHex(),
+                SecretEncoding.HEX,
+                vector.expectedOtp(),
+                context,
+                Map.of(),
+                3));
+        OcraVerificationResult oversized = verifier.verifyStored(new OcraStoredVerificationRequest(
+                "stored-drift",
+                vector.expectedOtp(),
+                context,
+                OcraReplayVerifier.MAX_TIMESTAMP_DRIFT_STEPS + 1));
+
+        assertEquals(OcraVerificationStatus.MATCH, storedDrift.status());
+        assertEquals(-2, storedDrift.timestampDriftSteps());
+        assertEquals(OcraVerificationReason.STRICT_MISMATCH, strictOverride.reason());
+        assertEquals(OcraVerificationStatus.MATCH, inlineDrift.status());
+        assertEquals(-2, inlineDrift.timestampDriftSteps());
+        assertEquals(OcraVerificationReason.VALIDATION_FAILURE, oversized.reason());
+    }
+
     @Test
     @DisplayName("validation logging emits when logger set to FINE")
     @edu.umd.cs.findbugs.annotations.SuppressFBWarnings(
@@ -0,0 +1,94 @@
+package io.openauth.sim.core.credentials.ocra;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.openauth.sim.core.credentials.ocra.OcraCredentialFactory.OcraCredentialRequest;
+import io.openauth.sim.core.credentials.ocra.OcraResponseCalculator.OcraExecutionContext;
+import io.openauth.sim.core.model.SecretEncoding;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
+import org.junit.jupiter.api.Test;
+
+final class OcraResponseKernelTest {
+
+    private static final OcraCredentialFactory FACTORY = new OcraCredentialFactory();
+
+    @Test
+    void counterWindowMatchesPerCounterCalculatorAndSkipsNegativeCounters() {
+        OcraRfc6287VectorFixtures.OneWayVector vector =
+                OcraRfc6287VectorFixtures.counterAndPinVectors().get(1);
+        OcraCredentialDescriptor descriptor = descriptor(vector);
+
+        String[] window = OcraResponseKernel.prepare(descriptor, context(vector, vector.counter(), null))
+                .window(3, 4);
+
+        String[] expected = new String[8];
+        for (int delta = -3; delta <= 4; delta++) {
+            long counter = vector.counter() + delta;
+            expected[delta + 3] = counter < 0
+                    ? null
+                    : OcraResponseCalculator.generate(descriptor, context(vector, counter, null));
+        }
+        assertArrayEquals(expected, window);
+        assertEquals(vector.expectedOtp(), window[3]);
+    }
+
+    @Test
+    void timestampMatchSearchesNearestStepsAndReportsOffset() {
+        OcraRfc6287VectorFixtures.OneWayVector vector =
+                OcraRfc6287VectorFixtures.timeBasedSha512Vectors().get(0);
+        OcraCredentialDescriptor descriptor = descriptor(vector);
+        long base = Long.parseLong(vector.timestampHex(), 16);
+        String skewedTimestamp = Long.toHexString(base - 2).toUpperCase(Locale.ROOT);
+
+        OcraResponseKernel kernel = OcraResponseKernel.prepare(descriptor, context(vector, null, skewedTimestamp));
+
+        assertTrue(kernel.hasTimestamp());
+        assertEquals(OptionalInt.of(2), kernel.matchTimestamp(vector.expectedOtp(), 0, 2));
+        assertFalse(kernel.matchTimestamp(vector.expectedOtp(), 2, 1).isPresent());
+        assertEquals(
+                OcraResponseCalculator.generate(descriptor, context(vector, null, skewedTimestamp)),
+                kernel.response());
+        assertThrows(IllegalArgumentException.class, () -> kernel.matchTimestamp("00000000", -1, 0));
+    }
+
+    @Test
+    void suitesWithoutTimestampOnlyCompareTheCenterResponse() {
+        OcraRfc6287VectorFixtures.OneWayVector vector =
+                OcraRfc6287VectorFixtures.standardChallengeQuestionVectors().get(0);
+        OcraResponseKernel kernel = OcraResponseKernel.prepare(descriptor(vector), context(vector, null, null));
+
+        assertFalse(kernel.hasTimestamp());
+        assertEquals(OptionalInt.of(0), kernel.matchTimestamp(vector.expectedOtp(), 5, 5));
+        assertFalse(kernel.matchTimestamp("000000", 5, 5).isPresent());
+    }
+
+    private static OcraCredentialDescriptor descriptor(OcraRfc6287VectorFixtures.OneWayVector vector) {
+        return FACTORY.createDescriptor(new OcraCredentialRequest(
+                "kernel-test",
+                vector.ocraSuite(),
+                vector.sharedSecretHex(),
+                SecretEncoding.HEX,
+                vector.counter(),
+                vector.pinHashHex(),
+                null,
+                Map.of()));
+    }
+
+    private static OcraExecutionContext context(
+            OcraRfc6287VectorFixtures.OneWayVector vector, Long counter, String timestampHex) {
+        return new OcraExecutionContext(
+                counter,
+                vector.question(),
+                vector.sessionInformation(),
+                null,
+                null,
+                vector.pinHashHex(),
+                timestampHex == null ? vector.timestampHex() : timestampHex);
+    }
+}
@@ -0,0 +1,107 @@
+package io.openauth.sim.core.store.serialization;
+
+import io.openauth.sim.core.model.CredentialType;
+import io.openauth.sim.core.model.SecretEncoding;
+import io.openauth.sim.core.model.SecretMaterial;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact binary encoding for {@link VersionedCredentialRecord} used by replication streams and
+ * archive files. Unlike Java serialization the layout is explicit and does not instantiate arbitrary
+ * classes when reading untrusted input.
+ */
+public final class VersionedCredentialRecordCodec {
+
+    private static final int MAX_FIELD_BYTES = 16 * 1024 * 1024;
+
+    private VersionedCredentialRecordCodec() {
+        // Utility class
+    }
+
+    public static void write(DataOutput out, VersionedCredentialRecord record) throws IOException {
+        Objects.requireNonNull(out, "out");
+        Objects.requireNonNull(record, "record");
+        out.writeInt(record.schemaVersion());
+        writeString(out, record.name());
+        writeString(out, record.type().name());
+        SecretMaterial secret = record.secret();
+        writeString(out, secret.encoding().name());
+        writeBytes(out, secret.value());
+        writeInstant(out, record.createdAt());
+        writeInstant(out, record.updatedAt());
+        Map<String, String> attributes = record.attributes();
+        out.writeInt(attributes.size());
+        for (Map.Entry<String, String> entry : attributes.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    public static VersionedCredentialRecord read(DataInput in) throws IOException {
+        Objects.requireNonNull(in, "in");
+        int schemaVersion = in.readInt();
+        String name = readString(in);
+        CredentialType type = CredentialType.valueOf(readString(in));
+        SecretEncoding encoding = SecretEncoding.valueOf(readString(in));
+        byte[] secretBytes = readBytes(in);
+        Instant createdAt = readInstant(in);
+        Instant updatedAt = readInstant(in);
+        int attributeCount = in.readInt();
+        if (attributeCount < 0) {
+            throw new IOException("Negative attribute count in credential record");
+        }
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < attributeCount; i++) {
+            attributes.put(readString(in), readString(in));
+        }
+        return new VersionedCredentialRecord(
+                schemaVersion,
+                name,
+                type,
+                new SecretMaterial(secretBytes, encoding),
+                createdAt,
+                updatedAt,
+                attributes);
+    }
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FIELD_BYTES) {
+            throw new IOException("Invalid field length " + length + " in credential record");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeInstant(DataOutput out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return Instant.ofEpochSecond(seconds, nanos);
+    }
+}
@@ -0,0 +1,248 @@
+package io.openauth.sim.core.emv.cap;
+
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * EMV/CAP evaluation of one input across a window of application transaction counters.
+ *
+ * <p>{@link #prepare} validates the customer inputs and decodes the master key, IV, issuer data and bitmap once. It
+ * also fills the terminal (CDOL1) payload once from the credential's compiled {@link EmvCapTemplate}, so a candidate
+ * ATC only patches the ICC placeholder bytes. Each candidate then costs a session-key lookup in the shared
+ * derivation cache, one {@code GENERATE AC} MAC and the bitmap extraction. {@link #otp}, {@link #window} and
+ * {@link #match} produce OTP digits only. {@link #evaluation} keeps the raw payloads so the overlays and hex strings
+ * are rendered only if asked for, and {@link #result} renders them straight away. Instances are immutable and may be
+ * shared between threads.
+ */
+public final class EmvCapAtcWindow {
+
+    /** Largest ATC representable in the two-byte counter field. */
+    public static final int MAX_ATC = 0xFFFF;
+
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+    private static final byte CID_TC = (byte) 0x80;
+
+    private final EmvCapInput input;
+    private final byte[] masterKey;
+    private final byte[] iv;
+    private final int baseAtc;
+    private final String terminalHex;
+    private final byte[] terminal;
+    private final byte[] issuerApplicationData;
+    private final byte[] issuerBitmap;
+    private final byte[] iccOverride;
+    private final EmvCapTemplate template;
+    private final boolean terminalOverridden;
+
+    private EmvCapAtcWindow(
+            EmvCapInput input,
+            byte[] masterKey,
+            byte[] iv,
+            int baseAtc,
+            byte[] terminal,
+            String terminalHex,
+            byte[] issuerApplicationData,
+            byte[] issuerBitmap,
+            byte[] iccOverride,
+            EmvCapTemplate template,
+            boolean terminalOverridden) {
+        this.input = input;
+        this.masterKey = masterKey;
+        this.iv = iv;
+        this.baseAtc = baseAtc;
+        this.terminal = terminal;
+        this.terminalHex = terminalHex;
+        this.issuerApplicationData = issuerApplicationData;
+        this.issuerBitmap = issuerBitmap;
+        this.iccOverride = iccOverride;
+        this.template = template;
+        this.terminalOverridden = terminalOverridden;
+    }
+
+    /**
+     * Validates {@code input} and decodes everything that does not depend on the ATC.
+     *
+     * @throws IllegalArgumentException when the inputs are malformed for the requested mode
+     */
+    public static EmvCapAtcWindow prepare(EmvCapInput input) {
+        Objects.requireNonNull(input, "input");
+        input.mode().validateCustomerInputs(input.customerInputs());
+
+        byte[] masterKey = EmvCapEngine.decodeFixed(input.masterKeyHex(), 16, "masterKey");
+        byte[] iv = EmvCapEngine.decodeFixed(input.ivHex(), 16, "iv");
+        EmvCapEngine.decodeFixed(input.atcHex(), 2, "atc");
+        int baseAtc = Integer.parseUnsignedInt(input.atcHex(), 16);
+        // Rejects unsupported tree shapes up front and warms the derivation cache for the base ATC.
+        EmvCapEngine.sessionKey(masterKey, baseAtc, input.branchFactor(), input.height(), iv);
+
+        Optional<String> terminalOverride = input.transactionData().terminalHexOverride();
+        Optional<String> iccOverride = input.transactionData().iccHexOverride();
+        EmvCapTemplate template = terminalOverride.isPresent() && iccOverride.isPresent()
+                ? null
+                : EmvCapTemplate.of(input.mode(), input.cdol1Hex(), input.iccDataTemplateHex());
+        byte[] terminal = terminalOverride.isPresent()
+                ? HEX.parseHex(terminalOverride.get())
+                : template.terminal(input.customerInputs());
+        byte[] issuerApplicationData = HEX.parseHex(input.issuerApplicationDataHex());
+        byte[] issuerBitmap = HEX.parseHex(input.issuerProprietaryBitmapHex());
+        int resultLength = 1 + 2 + 8 + issuerApplicationData.length;
+        if (issuerBitmap.length != resultLength) {
+            throw new IllegalArgumentException("issuerProprietaryBitmap length (" + issuerBitmap.length
+                    + " bytes) must match generate AC result length (" + resultLength + " bytes)");
+        }
+        return new EmvCapAtcWindow(
+                input,
+                masterKey,
+                iv,
+                baseAtc,
+                terminal,
+                HEX.formatHex(terminal),
+                issuerApplicationData,
+                issuerBitmap,
+                iccOverride.map(HEX::parseHex).orElse(null),
+                template,
+                terminalOverride.isPresent());
+    }
+
+    /**
+     * Returns a window over the same card and ATC range with the terminal payload refilled for {@code inputs}. The
+     * decoded keys, issuer data and compiled template are shared, so a new challenge, reference or amount costs only
+     * the slot writes. Inputs that supply a terminal payload override keep that payload.
+     *
+     * @throws IllegalArgumentException when {@code inputs} do not suit the mode or are not decimal
+     */
+    public EmvCapAtcWindow withCustomerInputs(EmvCapInput.CustomerInputs inputs) {
+        Objects.requireNonNull(inputs, "inputs");
+        input.mode().validateCustomerInputs(inputs);
+        if (terminalOverridden) {
+            return this;
+        }
+        byte[] refilled = template.terminal(inputs);
+        return new EmvCapAtcWindow(
+                input,
+                masterKey,
+                iv,
+                baseAtc,
+                refilled,
+                HEX.formatHex(refilled),
+                issuerApplicationData,
+                issuerBitmap,
+                iccOverride,
+                template,
+                false);
+    }
+
+    /** @return the ATC the window is centred on */
+    public int baseAtc() {
+        return baseAtc;
+    }
+
+    /** @return the OTP digits for the ATC shifted by {@code delta}, or {@code null} when that ATC is out of range */
+    public String otp(int delta) {
+        OptionalInt atc = atcFor(delta);
+        if (atc.isEmpty()) {
+            return null;
+        }
+        return EmvCapEngine.OtpComputation.decimal(issuerBitmap, generateAcResult(atc.getAsInt()));
+    }
+
+    /**
+     * Returns the OTP for every delta in {@code -backward..forward}. Entry {@code i} holds delta
+     * {@code i - backward}, or {@code null} when that ATC falls outside {@code 0..}{@value #MAX_ATC}.
+     *
+     * @throws IllegalArgumentException when either bound is negative
+     */
+    public String[] window(int backward, int forward) {
+        requireBounds(backward, forward);
+        String[] otps = new String[backward + forward + 1];
+        for (int delta = -backward; delta <= forward; delta++) {
+            otps[delta + backward] = otp(delta);
+        }
+        return otps;
+    }
+
+    /**
+     * Searches {@code -backward..forward} for {@code otp} in replay order: the base ATC first, then {@code +1},
+     * {@code -1}, {@code +2}, {@code -2} and so on.
+     *
+     * @return the matching delta, or empty when no ATC in the window produces {@code otp}
+     * @throws IllegalArgumentException when either bound is negative
+     */
+    public OptionalInt match(String otp, int backward, int forward) {
+        Objects.requireNonNull(otp, "otp");
+        requireBounds(backward, forward);
+        if (otp.equals(otp(0))) {
+            return OptionalInt.of(0);
+        }
+        for (int step = 1; step <= Math.max(backward, forward); step++) {
+            if (step <= forward && otp.equals(otp(step))) {
+                return OptionalInt.of(step);
+            }
+            if (step <= backward && otp.equals(otp(-step))) {
+                return OptionalInt.of(-step);
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Evaluates the ATC shifted by {@code delta}, extracting the OTP digits and deferring the display artefacts until
+     * {@link EmvCapEvaluation#result()} is called.
+     *
+     * @throws IllegalArgumentException when that ATC is out of range or the ICC payload cannot be expanded
+     */
+    public EmvCapEvaluation evaluation(int delta) {
+        int atc = atcFor(delta)
+                .orElseThrow(() -> new IllegalArgumentException("atc delta " + delta + " is outside 0.." + MAX_ATC));
+        byte[] sessionKey = sessionKey(atc);
+        byte[] icc = icc(atc);
+        return new EmvCapEvaluation(
+                sessionKey,
+                terminalHex,
+                icc,
+                assemble(atc, sessionKey, icc),
+                issuerBitmap,
+                input.issuerProprietaryBitmapHex());
+    }
+
+    /**
+     * Builds the full derivation artefacts for the ATC shifted by {@code delta}.
+     *
+     * @throws IllegalArgumentException when that ATC is out of range or the ICC payload cannot be expanded
+     */
+    public EmvCapResult result(int delta) {
+        return evaluation(delta).result();
+    }
+
+    private OptionalInt atcFor(int delta) {
+        long atc = (long) baseAtc + delta;
+        return atc < 0 || atc > MAX_ATC ? OptionalInt.empty() : OptionalInt.of((int) atc);
+    }
+
+    private byte[] generateAcResult(int atc) {
+        return assemble(atc, sessionKey(atc), icc(atc));
+    }
+
+    private byte[] sessionKey(int atc) {
+        // Only the base ATC is worth keeping whole; shifted ATCs reuse the tree nodes it warmed.
+        return atc == baseAtc
+                ? EmvCapEngine.sessionKey(masterKey, atc, input.branchFactor(), input.height(), iv)
+                : EmvCapEngine.sweepSessionKey(masterKey, atc, input.branchFactor(), input.height(), iv);
+    }
+
+    private byte[] assemble(int atc, byte[] sessionKey, byte[] icc) {
+        return EmvCapEngine.generateAcResult(CID_TC, atc, sessionKey, terminal, icc, issuerApplicationData);
+    }
+
+    private byte[] icc(int atc) {
+        return iccOverride != null ? iccOverride : template.icc(atc);
+    }
+
+    private static void requireBounds(int backward, int forward) {
+        if (backward < 0 || forward < 0) {
+            throw new IllegalArgumentException("window bounds must be non-negative");
+        }
+    }
+}
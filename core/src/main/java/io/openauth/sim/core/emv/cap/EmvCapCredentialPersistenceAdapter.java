@@ -95,7 +95,7 @@ public final class EmvCapCredentialPersistenceAdapter
         int branchFactor = parsePositiveInt(attributes.get(ATTR_BRANCH_FACTOR), ATTR_BRANCH_FACTOR);
         int height = parsePositiveInt(attributes.get(ATTR_HEIGHT), ATTR_HEIGHT);
 
-        return new EmvCapCredentialDescriptor(
+        EmvCapCredentialDescriptor descriptor = new EmvCapCredentialDescriptor(
                 record.name(),
                 mode,
                 record.secret(),
@@ -113,6 +113,20 @@ public final class EmvCapCredentialPersistenceAdapter
                 optional(attributes, ATTR_TRANSACTION_TERMINAL),
                 optional(attributes, ATTR_TRANSACTION_ICC),
                 optional(attributes, ATTR_TRANSACTION_ICC_RESOLVED));
+        compileTemplate(descriptor);
+        return descriptor;
+    }
+
+    /**
+     * Compiles the stored CDOL1 and ICC template into the shared {@link EmvCapTemplate} cache so evaluations of this
+     * credential start from the compiled layout.
+     */
+    private static void compileTemplate(EmvCapCredentialDescriptor descriptor) {
+        try {
+            EmvCapTemplate.of(descriptor.mode(), descriptor.cdol1Hex(), descriptor.iccDataTemplateHex());
+        } catch (IllegalArgumentException ex) {
+            // Loading stays lenient; a malformed definition is reported when the credential is evaluated.
+        }
     }
 
     private static String require(Map<String, String> attributes, String key) {
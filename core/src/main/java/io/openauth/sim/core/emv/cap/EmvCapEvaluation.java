@@ -0,0 +1,77 @@
+package io.openauth.sim.core.emv.cap;
+
+import java.util.HexFormat;
+
+/**
+ * OTP of a single EMV/CAP evaluation with the remaining derivation artefacts rendered on demand.
+ *
+ * <p>The decimal OTP is extracted from the issuer proprietary bitmap when the evaluation is built. The hex payloads
+ * and the bitmask and masked-digit overlays are formatted the first time {@link #result()} is called, and the rendered
+ * {@link EmvCapResult} is kept for later calls. Callers that only need digits never pay for the display strings.
+ */
+public final class EmvCapEvaluation {
+
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+
+    private final byte[] sessionKey;
+    private final String terminalHex;
+    private final byte[] icc;
+    private final byte[] generateAcResult;
+    private final byte[] issuerBitmap;
+    private final String issuerBitmapHex;
+    private final String otp;
+    private volatile EmvCapResult result;
+
+    EmvCapEvaluation(
+            byte[] sessionKey,
+            String terminalHex,
+            byte[] icc,
+            byte[] generateAcResult,
+            byte[] issuerBitmap,
+            String issuerBitmapHex) {
+        this.sessionKey = sessionKey;
+        this.terminalHex = terminalHex;
+        this.icc = icc;
+        this.generateAcResult = generateAcResult;
+        this.issuerBitmap = issuerBitmap;
+        this.issuerBitmapHex = issuerBitmapHex;
+        this.otp = EmvCapEngine.OtpComputation.decimal(issuerBitmap, generateAcResult);
+    }
+
+    /** @return the decimal OTP digits */
+    public String otp() {
+        return otp;
+    }
+
+    /** @return the number of non-zero nibbles in the issuer proprietary bitmap (the masked-digit count) */
+    public int maskedDigitCount() {
+        int count = 0;
+        for (byte value : issuerBitmap) {
+            count += ((value & 0xF0) != 0 ? 1 : 0) + ((value & 0x0F) != 0 ? 1 : 0);
+        }
+        return count;
+    }
+
+    /** @return the full derivation artefacts, rendered on first access */
+    public EmvCapResult result() {
+        EmvCapResult rendered = result;
+        if (rendered == null) {
+            rendered = render();
+            result = rendered;
+        }
+        return rendered;
+    }
+
+    private EmvCapResult render() {
+        String generateAcResultHex = HEX.formatHex(generateAcResult);
+        EmvCapEngine.OtpComputation computation =
+                EmvCapEngine.OtpComputation.extract(issuerBitmap, generateAcResult);
+        return new EmvCapResult(
+                HEX.formatHex(sessionKey),
+                new EmvCapResult.GenerateAcInput(terminalHex, HEX.formatHex(icc)),
+                generateAcResultHex,
+                EmvCapEngine.renderBitmaskOverlay(issuerBitmapHex),
+                EmvCapEngine.renderMaskedDigitsOverlay(issuerBitmapHex, generateAcResultHex),
+                new EmvCapResult.Otp(computation.decimal(), computation.hex()));
+    }
+}
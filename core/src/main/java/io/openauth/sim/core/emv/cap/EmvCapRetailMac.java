@@ -0,0 +1,97 @@
+package io.openauth.sim.core.emv.cap;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * ISO/IEC 9797-1 MAC algorithm 3 ("retail MAC") over the EMV/CAP Generate AC message with DES key schedules prepared
+ * once per session key.
+ *
+ * <p>Instances are not thread-safe; {@link #forCurrentThread()} hands out one per thread. The left-key encrypt and
+ * right-key decrypt ciphers are only re-initialised when the session key differs from the previous call, so a burst of
+ * MACs under one key (a card's ATC window, a fleet press run) shares a single key schedule. The CBC chain runs over the
+ * terminal and ICC payloads in place with ISO/IEC 9797-1 padding method 2 applied on the fly, so the padded message is
+ * never materialised. DES output goes to a second fixed block rather than back over its input because the provider
+ * copies overlapping buffers.
+ */
+final class EmvCapRetailMac {
+
+    static final int MAC_LENGTH = 8;
+
+    private static final String TRANSFORMATION = "DES/ECB/NoPadding";
+    private static final ThreadLocal<EmvCapRetailMac> PER_THREAD = ThreadLocal.withInitial(EmvCapRetailMac::new);
+
+    private final Cipher leftEncrypt;
+    private final Cipher rightDecrypt;
+    private final byte[] sessionKey = new byte[16];
+    private final byte[] chain = new byte[MAC_LENGTH];
+    private final byte[] block = new byte[MAC_LENGTH];
+    private boolean keyed;
+    private long keySchedules;
+
+    EmvCapRetailMac() {
+        try {
+            this.leftEncrypt = Cipher.getInstance(TRANSFORMATION);
+            this.rightDecrypt = Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to initialize cipher " + TRANSFORMATION, ex);
+        }
+    }
+
+    static EmvCapRetailMac forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Writes the MAC of {@code first || second} under the 16-byte {@code sessionKey} to {@code out} at
+     * {@code outOffset}.
+     */
+    void mac(byte[] sessionKey, byte[] first, byte[] second, byte[] out, int outOffset) {
+        try {
+            prepare(sessionKey);
+            Arrays.fill(chain, (byte) 0);
+            int position = absorb(second, absorb(first, 0));
+            chain[position] ^= (byte) 0x80;
+            leftEncrypt.update(chain, 0, MAC_LENGTH, block, 0);
+            rightDecrypt.update(block, 0, MAC_LENGTH, chain, 0);
+            leftEncrypt.update(chain, 0, MAC_LENGTH, out, outOffset);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to compute application cryptogram", ex);
+        }
+    }
+
+    /** @return the number of times the DES key schedules were (re)initialised by this instance */
+    long keySchedules() {
+        return keySchedules;
+    }
+
+    private int absorb(byte[] segment, int start) throws GeneralSecurityException {
+        int position = start;
+        for (byte value : segment) {
+            chain[position++] ^= value;
+            if (position == MAC_LENGTH) {
+                leftEncrypt.update(chain, 0, MAC_LENGTH, block, 0);
+                System.arraycopy(block, 0, chain, 0, MAC_LENGTH);
+                position = 0;
+            }
+        }
+        return position;
+    }
+
+    private void prepare(byte[] key) throws GeneralSecurityException {
+        if (key.length != sessionKey.length) {
+            throw new IllegalArgumentException("Session key must be 16 bytes");
+        }
+        if (keyed && Arrays.equals(sessionKey, key)) {
+            return;
+        }
+        keyed = false;
+        leftEncrypt.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, 0, 8, "DES"));
+        rightDecrypt.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, 8, 8, "DES"));
+        System.arraycopy(key, 0, sessionKey, 0, sessionKey.length);
+        keyed = true;
+        keySchedules++;
+    }
+}
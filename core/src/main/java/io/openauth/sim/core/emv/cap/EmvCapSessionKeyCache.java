@@ -0,0 +1,261 @@
+package io.openauth.sim.core.emv.cap;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Derives EMV/CAP session keys through the branch-factor/height key tree and keeps the results.
+ *
+ * <p>Derived session keys are keyed by a SHA-256 fingerprint of the master key and IV together with the branch
+ * factor, height and ATC, so no master key material is retained as a map key. The intermediate tree nodes are cached
+ * the same way under the ATC path prefix that reaches them: neighbouring ATCs share every node above their last
+ * differing digit, and deriving one of them only runs the {@code phi} steps below the deepest cached node. Both maps
+ * are bounded Caffeine caches that evict individual cold entries when full, so a long ATC sweep keeps the nodes it is
+ * still walking instead of dropping the whole tree, and concurrent fleet workers do not queue on a shared monitor.
+ * ATC sweeps go through {@link #deriveThroughTree} and leave the session-key map to repeated single derivations.
+ * Cached arrays are never handed out; callers receive copies.
+ */
+final class EmvCapSessionKeyCache {
+
+    static final int MAX_SESSION_KEYS = 4_096;
+    static final int MAX_TREE_NODES = 16_384;
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 unavailable", ex);
+        }
+    });
+    private static final ThreadLocal<Cipher> DES_EDE = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance("DESede/ECB/NoPadding");
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to initialize cipher DESede/ECB/NoPadding", ex);
+        }
+    });
+
+    private final Cache<SessionKeyId, byte[]> sessionKeys;
+    private final Cache<NodeId, Node> nodes;
+
+    EmvCapSessionKeyCache() {
+        this(MAX_SESSION_KEYS, MAX_TREE_NODES);
+    }
+
+    EmvCapSessionKeyCache(int maxSessionKeys, int maxTreeNodes) {
+        if (maxSessionKeys < 1 || maxTreeNodes < 1) {
+            throw new IllegalArgumentException("cache bounds must be positive");
+        }
+        this.sessionKeys = bounded(maxSessionKeys);
+        this.nodes = bounded(maxTreeNodes);
+    }
+
+    /** Returns the session key for {@code atc}, deriving only the tree levels not already cached. */
+    byte[] derive(byte[] masterKey, int atc, int branchFactor, int height, byte[] iv) {
+        validate(branchFactor, height, iv);
+        String tree = tree(masterKey, branchFactor, height, iv);
+        SessionKeyId id = new SessionKeyId(tree, atc);
+        byte[] cached = sessionKeys.getIfPresent(id);
+        if (cached != null) {
+            return cached.clone();
+        }
+        byte[] sessionKey = fromTree(tree, masterKey, atc, branchFactor, height, iv);
+        sessionKeys.put(id, sessionKey);
+        return sessionKey.clone();
+    }
+
+    /**
+     * Returns the session key for {@code atc} through the cached tree nodes only, neither consulting nor filling the
+     * session-key map. Meant for ATC sweeps, where each key is used once and would only push out repeated ones.
+     */
+    byte[] deriveThroughTree(byte[] masterKey, int atc, int branchFactor, int height, byte[] iv) {
+        validate(branchFactor, height, iv);
+        return fromTree(tree(masterKey, branchFactor, height, iv), masterKey, atc, branchFactor, height, iv);
+    }
+
+    private byte[] fromTree(String tree, byte[] masterKey, int atc, int branchFactor, int height, byte[] iv) {
+        int[] path = computePath(atc, branchFactor, height);
+        long[] prefixes = new long[path.length];
+        long prefix = 0L;
+        for (int level = 0; level < path.length; level++) {
+            prefix = prefix * branchFactor + path[level];
+            prefixes[level] = prefix;
+        }
+
+        // Node at level i holds the (grandparent, parent) pair after consuming path[0..i]; levels 0..height-2.
+        int deepest = Math.max(0, height - 2);
+        Node node = null;
+        int level = deepest;
+        for (; level >= 0; level--) {
+            node = nodes.getIfPresent(new NodeId(tree, level, prefixes[level]));
+            if (node != null) {
+                break;
+            }
+        }
+        if (node == null) {
+            byte[] grandparent = Arrays.copyOf(masterKey, masterKey.length);
+            ensureOddParity(grandparent);
+            node = new Node(grandparent, phi(grandparent, iv, path[0], branchFactor));
+            level = 0;
+            nodes.put(new NodeId(tree, 0, prefixes[0]), node);
+        }
+        for (level++; level <= deepest; level++) {
+            node = new Node(node.parent(), phi(node.parent(), node.grandparent(), path[level], branchFactor));
+            nodes.put(new NodeId(tree, level, prefixes[level]), node);
+        }
+
+        byte[] finalPhi = phi(node.parent(), node.grandparent(), path[height - 1], branchFactor);
+        byte[] sessionKey = xor(finalPhi, node.grandparent());
+        ensureOddParity(sessionKey);
+        return sessionKey;
+    }
+
+    /** Derives the session key by walking the whole tree without consulting or filling any cache. */
+    static byte[] deriveUncached(byte[] masterKey, int atc, int branchFactor, int height, byte[] iv) {
+        validate(branchFactor, height, iv);
+        int[] path = computePath(atc, branchFactor, height);
+
+        byte[] grandparent = Arrays.copyOf(masterKey, masterKey.length);
+        ensureOddParity(grandparent);
+
+        byte[] parent = phi(grandparent, iv, path[0], branchFactor);
+        byte[] currentGrandparent = grandparent;
+        byte[] currentParent = parent;
+
+        for (int i = 1; i < height - 1; i++) {
+            byte[] next = phi(currentParent, currentGrandparent, path[i], branchFactor);
+            currentGrandparent = currentParent;
+            currentParent = next;
+        }
+
+        byte[] finalPhi = phi(currentParent, currentGrandparent, path[height - 1], branchFactor);
+        byte[] sessionKey = xor(finalPhi, currentGrandparent);
+        ensureOddParity(sessionKey);
+        return sessionKey;
+    }
+
+    int sessionKeyCount() {
+        sessionKeys.cleanUp();
+        return (int) sessionKeys.estimatedSize();
+    }
+
+    int treeNodeCount() {
+        nodes.cleanUp();
+        return (int) nodes.estimatedSize();
+    }
+
+    private static <K, V> Cache<K, V> bounded(int maximumSize) {
+        // Evicting on the calling thread keeps the bound exact instead of deferring it to the common pool.
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    private static String tree(byte[] masterKey, int branchFactor, int height, byte[] iv) {
+        return fingerprint(masterKey, iv) + ':' + branchFactor + ':' + height;
+    }
+
+    private static void validate(int branchFactor, int height, byte[] iv) {
+        if (branchFactor < 2 || branchFactor > 16) {
+            throw new IllegalArgumentException("branchFactor must be between 2 and 16 (inclusive)");
+        }
+        if (height < 1 || height > 16) {
+            throw new IllegalArgumentException("height must be between 1 and 16 (inclusive)");
+        }
+        if (iv.length != 16) {
+            throw new IllegalArgumentException("Initial vector must be 16 bytes");
+        }
+    }
+
+    private static String fingerprint(byte[] masterKey, byte[] iv) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        digest.update(masterKey);
+        digest.update(iv);
+        return HEX.formatHex(digest.digest());
+    }
+
+    private static int[] computePath(int value, int branchFactor, int height) {
+        int[] digits = new int[height];
+        int current = value;
+        for (int index = height - 1; index >= 0; index--) {
+            digits[index] = Math.floorMod(current, branchFactor);
+            current /= branchFactor;
+        }
+        return digits;
+    }
+
+    private static byte[] phi(byte[] key, byte[] data, int branch, int branchFactor) {
+        if (data.length != 16) {
+            throw new IllegalArgumentException("Phi expects a 16-byte input block");
+        }
+        byte[] left = Arrays.copyOfRange(data, 0, 8);
+        byte[] right = Arrays.copyOfRange(data, 8, 16);
+        byte xorValue = (byte) (branch % branchFactor);
+
+        left[7] ^= xorValue;
+        right[7] ^= xorValue;
+        right[7] ^= (byte) 0xF0;
+
+        Cipher cipher = DES_EDE.get();
+        byte[] combined = new byte[16];
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(expandTo24Bytes(key), "DESede"));
+            cipher.doFinal(left, 0, 8, combined, 0);
+            cipher.doFinal(right, 0, 8, combined, 8);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to execute 3DES operation", ex);
+        }
+        return combined;
+    }
+
+    private static byte[] xor(byte[] a, byte[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Unable to XOR arrays of different lengths");
+        }
+        byte[] result = new byte[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = (byte) (a[i] ^ b[i]);
+        }
+        return result;
+    }
+
+    private static void ensureOddParity(byte[] key) {
+        for (int i = 0; i < key.length; i++) {
+            int value = key[i] & 0xFE;
+            int ones = Integer.bitCount(value);
+            if ((ones & 1) == 0) {
+                value |= 0x01;
+            }
+            key[i] = (byte) value;
+        }
+    }
+
+    private static byte[] expandTo24Bytes(byte[] key16) {
+        if (key16.length != 16 && key16.length != 24) {
+            throw new IllegalArgumentException("Triple DES keys must be 16 or 24 bytes");
+        }
+        if (key16.length == 24) {
+            return key16;
+        }
+        byte[] expanded = new byte[24];
+        System.arraycopy(key16, 0, expanded, 0, 16);
+        System.arraycopy(key16, 0, expanded, 16, 8);
+        return expanded;
+    }
+
+    private record SessionKeyId(String tree, int atc) {}
+
+    private record NodeId(String tree, int level, long prefix) {}
+
+    /** Immutable once published; the arrays are never written after construction. */
+    private record Node(byte[] grandparent, byte[] parent) {}
+}
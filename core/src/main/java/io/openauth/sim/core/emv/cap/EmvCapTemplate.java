@@ -0,0 +1,232 @@
+package io.openauth.sim.core.emv.cap;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * EMV/CAP credential definition compiled into fixed byte layouts for the {@code GENERATE AC} payloads.
+ *
+ * <p>{@link #compile} parses the CDOL1 definition once. Tags the simulator fills with constants (zeros, and the TVR
+ * with its first byte set) go into a static terminal buffer. The amount ({@code 9F02}) and the unpredictable number
+ * ({@code 9F37}) become BCD slots at fixed offsets. The unpredictable number is fed from the challenge in Respond mode
+ * and from the reference in Sign mode. The ICC template is decoded with its {@code XXXX} ATC placeholders zeroed and
+ * their offsets recorded. Filling a template per evaluation copies the static buffer and writes the slot bytes.
+ *
+ * <p>Compiled templates are immutable and shared through {@link #of}, which keeps a bounded cache keyed by mode, CDOL1
+ * and ICC template. {@link EmvCapCredentialPersistenceAdapter} warms that cache when it loads stored credentials.
+ */
+public final class EmvCapTemplate {
+
+    static final int MAX_ENTRIES = 1_024;
+
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+    private static final String ATC_PLACEHOLDER = "XXXX";
+    private static final ConcurrentMap<Key, EmvCapTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private final byte[] terminal;
+    private final Slot[] slots;
+    private final byte[] icc;
+    private final int[] iccAtcOffsets;
+    private final String iccFallback;
+
+    private EmvCapTemplate(byte[] terminal, Slot[] slots, byte[] icc, int[] iccAtcOffsets, String iccFallback) {
+        this.terminal = terminal;
+        this.slots = slots;
+        this.icc = icc;
+        this.iccAtcOffsets = iccAtcOffsets;
+        this.iccFallback = iccFallback;
+    }
+
+    /**
+     * Returns the compiled template for the definition, compiling and caching it on first use.
+     *
+     * @throws IllegalArgumentException when the CDOL1 definition or ICC template is malformed
+     */
+    public static EmvCapTemplate of(EmvCapMode mode, String cdol1Hex, String iccDataTemplateHex) {
+        Key key = new Key(
+                Objects.requireNonNull(mode, "mode"),
+                Objects.requireNonNull(cdol1Hex, "cdol1Hex"),
+                Objects.requireNonNull(iccDataTemplateHex, "iccDataTemplateHex"));
+        EmvCapTemplate cached = CACHE.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        EmvCapTemplate compiled = compile(mode, cdol1Hex, iccDataTemplateHex);
+        if (CACHE.size() >= MAX_ENTRIES) {
+            CACHE.clear();
+        }
+        CACHE.putIfAbsent(key, compiled);
+        return compiled;
+    }
+
+    /**
+     * Compiles the definition without consulting the shared cache.
+     *
+     * @throws IllegalArgumentException when the CDOL1 definition or ICC template is malformed
+     */
+    public static EmvCapTemplate compile(EmvCapMode mode, String cdol1Hex, String iccDataTemplateHex) {
+        Objects.requireNonNull(mode, "mode");
+        String cdol1 = Objects.requireNonNull(cdol1Hex, "cdol1Hex").trim().toUpperCase(Locale.ROOT);
+        String template =
+                Objects.requireNonNull(iccDataTemplateHex, "iccDataTemplateHex").trim().toUpperCase(Locale.ROOT);
+
+        byte[] cdol = HEX.parseHex(cdol1);
+        List<Slot> slots = new ArrayList<>();
+        int[] tags = new int[cdol.length];
+        int[] lengths = new int[cdol.length];
+        int fields = 0;
+        int size = 0;
+        int index = 0;
+        while (index < cdol.length) {
+            int tagByte = Byte.toUnsignedInt(cdol[index]);
+            index++;
+            int tag = tagByte;
+            if ((tagByte & 0x1F) == 0x1F) {
+                if (index >= cdol.length) {
+                    throw new IllegalArgumentException("Incomplete multi-byte tag in CDOL definition");
+                }
+                tag = (tagByte << 8) | Byte.toUnsignedInt(cdol[index]);
+                index++;
+            }
+            if (index >= cdol.length) {
+                throw new IllegalArgumentException("Missing length for CDOL tag " + Integer.toHexString(tag));
+            }
+            tags[fields] = tag;
+            lengths[fields] = Byte.toUnsignedInt(cdol[index]);
+            index++;
+            size += lengths[fields];
+            fields++;
+        }
+
+        byte[] terminal = new byte[size];
+        int offset = 0;
+        for (int field = 0; field < fields; field++) {
+            int length = lengths[field];
+            switch (tags[field]) {
+                case 0x9F02 -> slots.add(new Slot(offset, length, Source.AMOUNT));
+                case 0x95 -> {
+                    if (length > 0) {
+                        terminal[offset] = (byte) 0x80;
+                    }
+                }
+                case 0x9F37 -> {
+                    if (mode == EmvCapMode.RESPOND) {
+                        slots.add(new Slot(offset, length, Source.CHALLENGE));
+                    } else if (mode == EmvCapMode.SIGN) {
+                        slots.add(new Slot(offset, length, Source.REFERENCE));
+                    }
+                }
+                default -> {
+                    // 9F03, 9F1A, 5F2A, 9A, 9C and unknown tags stay zero-filled.
+                }
+            }
+            offset += length;
+        }
+
+        if ((template.length() & 1) == 1) {
+            throw new IllegalArgumentException("Expanded ICC payload must contain an even number of hex characters");
+        }
+        List<Integer> atcOffsets = new ArrayList<>();
+        boolean aligned = true;
+        for (int position = template.indexOf(ATC_PLACEHOLDER);
+                position >= 0;
+                position = template.indexOf(ATC_PLACEHOLDER, position + ATC_PLACEHOLDER.length())) {
+            atcOffsets.add(position / 2);
+            aligned &= (position & 1) == 0;
+        }
+        String zeroed = template.replace(ATC_PLACEHOLDER, "0000");
+        Slot[] compiledSlots = slots.toArray(Slot[]::new);
+        if (atcOffsets.isEmpty() || (aligned && zeroed.indexOf('X') < 0)) {
+            return new EmvCapTemplate(
+                    terminal,
+                    compiledSlots,
+                    HEX.parseHex(zeroed),
+                    atcOffsets.stream().mapToInt(Integer::intValue).toArray(),
+                    null);
+        }
+        // Placeholders straddling a byte boundary, or stray X characters, keep the textual substitution.
+        return new EmvCapTemplate(terminal, compiledSlots, null, new int[0], template);
+    }
+
+    /**
+     * Fills the CDOL1 payload for {@code inputs}.
+     *
+     * @throws IllegalArgumentException when a BCD slot has zero length or its input is not decimal
+     */
+    public byte[] terminal(EmvCapInput.CustomerInputs inputs) {
+        Objects.requireNonNull(inputs, "inputs");
+        byte[] payload = terminal.clone();
+        for (Slot slot : slots) {
+            String digits =
+                    switch (slot.source()) {
+                        case AMOUNT -> inputs.amount();
+                        case CHALLENGE -> inputs.challenge();
+                        case REFERENCE -> inputs.reference();
+                    };
+            writeBcd(digits, payload, slot.offset(), slot.length());
+        }
+        return payload;
+    }
+
+    /**
+     * Fills the ICC payload for {@code atc}. Templates without placeholders return a shared array that callers must
+     * not modify.
+     *
+     * @throws IllegalArgumentException when the expanded template is not valid hexadecimal
+     */
+    public byte[] icc(int atc) {
+        if (iccFallback != null) {
+            return HEX.parseHex(iccFallback.replace(ATC_PLACEHOLDER, String.format(Locale.ROOT, "%04X", atc)));
+        }
+        if (iccAtcOffsets.length == 0) {
+            return icc;
+        }
+        byte[] payload = icc.clone();
+        for (int offset : iccAtcOffsets) {
+            payload[offset] = (byte) (atc >>> 8);
+            payload[offset + 1] = (byte) atc;
+        }
+        return payload;
+    }
+
+    static int cacheSize() {
+        return CACHE.size();
+    }
+
+    private static void writeBcd(String digits, byte[] target, int offset, int byteLength) {
+        if (byteLength <= 0) {
+            throw new IllegalArgumentException("BCD length must be positive");
+        }
+        String normalized = digits == null ? "" : digits.trim();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("BCD fields must contain decimal digits only");
+            }
+        }
+        // Longer inputs keep their leading digits; shorter ones are left-padded with zeros.
+        int required = byteLength * 2;
+        int used = Math.min(normalized.length(), required);
+        int padding = required - used;
+        for (int nibble = 0; nibble < required; nibble++) {
+            int value = nibble < padding ? 0 : normalized.charAt(nibble - padding) - '0';
+            int position = offset + nibble / 2;
+            target[position] = (nibble & 1) == 0 ? (byte) (value << 4) : (byte) (target[position] | value);
+        }
+    }
+
+    private enum Source {
+        AMOUNT,
+        CHALLENGE,
+        REFERENCE
+    }
+
+    private record Slot(int offset, int length, Source source) {}
+
+    private record Key(EmvCapMode mode, String cdol1Hex, String iccDataTemplateHex) {}
+}
@@ -15,25 +15,31 @@ import java.security.spec.ECPoint;
 import java.security.spec.ECPublicKeySpec;
 import java.security.spec.EdECPoint;
 import java.security.spec.EdECPublicKeySpec;
-import java.security.spec.MGF1ParameterSpec;
 import java.security.spec.NamedParameterSpec;
-import java.security.spec.PSSParameterSpec;
 import java.security.spec.RSAPublicKeySpec;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-/** Performs WebAuthn assertion verification for FIDO2 credentials. */
+/**
+ * Performs WebAuthn assertion verification for FIDO2 credentials.
+ *
+ * <p>Decoded public keys are shared across verifier instances through a bounded {@link WebAuthnPublicKeyCache}, so
+ * repeated assertions for the same credential skip CBOR decoding and {@link KeyFactory} work.
+ */
 public final class WebAuthnAssertionVerifier {
 
     private static final int RP_ID_HASH_LENGTH = 32;
     private static final int COUNTER_LENGTH = 4;
     private static final Pattern JSON_FIELD_PATTERN =
             Pattern.compile("\\\"(?<key>[^\\\"]+)\\\"\\s*:\\s*\\\"(?<value>[^\\\"]*)\\\"");
+    private static final WebAuthnPublicKeyCache PUBLIC_KEYS = new WebAuthnPublicKeyCache();
+    private static final Map<String, ECParameterSpec> CURVE_PARAMETERS = new ConcurrentHashMap<>();
 
     public WebAuthnVerificationResult verify(
             WebAuthnStoredCredential storedCredential, WebAuthnAssertionRequest assertionRequest) {
@@ -44,16 +50,15 @@ public final class WebAuthnAssertionVerifier {
             parseClientData(assertionRequest, storedCredential);
             parseAuthenticatorData(assertionRequest, storedCredential);
 
-            PublicKey publicKey =
-                    createPublicKeyFromCose(storedCredential.publicKeyCose(), storedCredential.algorithm());
+            PublicKey publicKey = PUBLIC_KEYS.resolve(
+                    storedCredential.credentialId(),
+                    storedCredential.publicKeyCose(),
+                    storedCredential.algorithm(),
+                    WebAuthnAssertionVerifier::createPublicKeyFromCose);
             byte[] clientDataHash = hashSha256(assertionRequest.clientDataJson());
             byte[] signedPayload = concatenate(assertionRequest.authenticatorData(), clientDataHash);
 
-            Signature signature = signatureFor(storedCredential.algorithm());
-            signature.initVerify(publicKey);
-            if (storedCredential.algorithm() == WebAuthnSignatureAlgorithm.PS256) {
-                signature.setParameter(new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1));
-            }
+            Signature signature = WebAuthnSignatures.verifier(storedCredential.algorithm(), publicKey);
             signature.update(signedPayload);
             if (!signature.verify(assertionRequest.signature())) {
                 return WebAuthnVerificationResult.failure(
@@ -205,15 +210,25 @@ public final class WebAuthnAssertionVerifier {
                     default -> throw new GeneralSecurityException("Unsupported EC curve id: " + curve);
                 };
 
-        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
-        parameters.init(new ECGenParameterSpec(curveName));
-        ECParameterSpec ecParameters = parameters.getParameterSpec(ECParameterSpec.class);
+        ECParameterSpec ecParameters = curveParameters(curveName);
 
         ECPoint ecPoint = new ECPoint(new BigInteger(1, x), new BigInteger(1, y));
         KeyFactory factory = KeyFactory.getInstance("EC");
         return factory.generatePublic(new ECPublicKeySpec(ecPoint, ecParameters));
     }
 
+    private static ECParameterSpec curveParameters(String curveName) throws GeneralSecurityException {
+        ECParameterSpec cached = CURVE_PARAMETERS.get(curveName);
+        if (cached != null) {
+            return cached;
+        }
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec(curveName));
+        ECParameterSpec resolved = parameters.getParameterSpec(ECParameterSpec.class);
+        CURVE_PARAMETERS.put(curveName, resolved);
+        return resolved;
+    }
+
     private static PublicKey createRsaPublicKey(Map<Integer, Object> map, int keyType) throws GeneralSecurityException {
         if (keyType != 3) {
             throw new GeneralSecurityException("Expected RSA key type for signature algorithm");
@@ -252,17 +267,6 @@ public final class WebAuthnAssertionVerifier {
         return factory.generatePublic(new EdECPublicKeySpec(parameterSpec, point));
     }
 
-    private static Signature signatureFor(WebAuthnSignatureAlgorithm algorithm) throws GeneralSecurityException {
-        return switch (algorithm) {
-            case ES256 -> Signature.getInstance("SHA256withECDSA");
-            case ES384 -> Signature.getInstance("SHA384withECDSA");
-            case ES512 -> Signature.getInstance("SHA512withECDSA");
-            case RS256 -> Signature.getInstance("SHA256withRSA");
-            case PS256 -> Signature.getInstance("RSASSA-PSS");
-            case EDDSA -> Signature.getInstance("Ed25519");
-        };
-    }
-
     private static int requireInt(Map<Integer, Object> map, int key) throws GeneralSecurityException {
         Object value = map.get(key);
         if (value instanceof Number number) {
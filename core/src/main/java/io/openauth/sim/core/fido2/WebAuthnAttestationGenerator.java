@@ -810,19 +810,17 @@ public final class WebAuthnAttestationGenerator {
 
     private static byte[] sign(ManualEcKey key, WebAuthnSignatureAlgorithm algorithm, byte[] payload)
             throws GeneralSecurityException {
-        Signature signature = Signature.getInstance(signatureAlgorithmName(algorithm));
-        signature.initSign(key.privateKey());
+        requireEcSigningAlgorithm(algorithm);
+        Signature signature = WebAuthnSignatures.signer(algorithm, key.privateKey());
         signature.update(payload);
         return signature.sign();
     }
 
-    private static String signatureAlgorithmName(WebAuthnSignatureAlgorithm algorithm) {
-        return switch (algorithm) {
-            case ES256 -> "SHA256withECDSA";
-            case ES384 -> "SHA384withECDSA";
-            case ES512 -> "SHA512withECDSA";
+    private static void requireEcSigningAlgorithm(WebAuthnSignatureAlgorithm algorithm) {
+        switch (algorithm) {
+            case ES256, ES384, ES512 -> {}
             default -> throw new IllegalArgumentException("Unsupported signing algorithm: " + algorithm);
-        };
+        }
     }
 
     private static X509Certificate generateCertificate(ManualEcKey attestationKey, byte[] serialBytes)
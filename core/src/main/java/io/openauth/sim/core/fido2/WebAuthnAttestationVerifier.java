@@ -11,8 +11,6 @@ import java.security.Signature;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
-import java.security.spec.MGF1ParameterSpec;
-import java.security.spec.PSSParameterSpec;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
@@ -238,8 +236,7 @@ public final class WebAuthnAttestationVerifier {
         buffer.writeBytes(publicKeyU2f);
         byte[] signedPayload = buffer.toByteArray();
 
-        Signature verifier = Signature.getInstance("SHA256withECDSA");
-        verifier.initVerify(certificates.get(0));
+        Signature verifier = WebAuthnSignatures.verifier(WebAuthnSignatureAlgorithm.ES256, certificates.get(0));
         verifier.update(signedPayload);
         if (!verifier.verify(signature)) {
             throw failure(WebAuthnVerificationError.SIGNATURE_INVALID, "FIDO-U2F attestation signature mismatch");
@@ -370,27 +367,13 @@ public final class WebAuthnAttestationVerifier {
     private static void verifySignature(
             WebAuthnSignatureAlgorithm algorithm, PublicKey publicKey, byte[] signedPayload, byte[] signature)
             throws GeneralSecurityException {
-        Signature verifier = signatureFor(algorithm);
-        verifier.initVerify(publicKey);
-        if (algorithm == WebAuthnSignatureAlgorithm.PS256) {
-            verifier.setParameter(new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1));
-        }
+        Signature verifier = WebAuthnSignatures.verifier(algorithm, publicKey);
         verifier.update(signedPayload);
         if (!verifier.verify(signature)) {
             throw failure(WebAuthnVerificationError.SIGNATURE_INVALID, "Attestation signature mismatch");
         }
     }
 
-    private static Signature signatureFor(WebAuthnSignatureAlgorithm algorithm) throws GeneralSecurityException {
-        return switch (algorithm) {
-            case ES256, ES384, ES512 ->
-                Signature.getInstance("SHA" + algorithm.label().substring(2) + "withECDSA");
-            case RS256 -> Signature.getInstance("SHA256withRSA");
-            case PS256 -> Signature.getInstance("RSASSA-PSS");
-            case EDDSA -> Signature.getInstance("Ed25519");
-        };
-    }
-
     private static Map<Integer, Object> decodeCoseMap(byte[] coseKey) throws GeneralSecurityException {
         Object decoded = CborDecoder.decode(coseKey);
         if (!(decoded instanceof Map<?, ?> raw)) {
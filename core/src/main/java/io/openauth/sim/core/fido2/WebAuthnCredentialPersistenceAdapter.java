@@ -3,8 +3,11 @@ package io.openauth.sim.core.fido2;
 import io.openauth.sim.core.json.SimpleJson;
 import io.openauth.sim.core.model.CredentialType;
 import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.store.CredentialBlobStore;
+import io.openauth.sim.core.store.CredentialStore;
 import io.openauth.sim.core.store.serialization.CredentialPersistenceAdapter;
 import io.openauth.sim.core.store.serialization.VersionedCredentialRecord;
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.Base64;
@@ -13,8 +16,18 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-
-/** Persistence adapter bridging WebAuthn credential descriptors and MapDB records. */
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Persistence adapter bridging WebAuthn credential descriptors and MapDB records.
+ *
+ * <p>Attestation artefacts (certificate chains, attestation objects, client data) are only needed by
+ * attestation replay and operator views, yet every assertion lookup reads the full record. When the
+ * backing store offers a {@link CredentialBlobStore}, {@link #externalizeArtefacts(Map, CredentialStore)}
+ * moves those attributes into the content-addressed blob map and leaves a reference on the record;
+ * {@link #resolveArtefacts(VersionedCredentialRecord, CredentialStore)} loads them back on demand.
+ */
 public final class WebAuthnCredentialPersistenceAdapter
         implements CredentialPersistenceAdapter<WebAuthnCredentialDescriptor> {
 
@@ -39,6 +52,19 @@ public final class WebAuthnCredentialPersistenceAdapter
     static final String ATTR_ATTESTATION_CERTIFICATE_SERIAL = "fido2.attestation.certificateSerial";
     static final String ATTR_ATTESTATION_CERTIFICATE_CHAIN = "fido2.attestation.certificateChainPem";
     static final String ATTR_ATTESTATION_CUSTOM_ROOTS = "fido2.attestation.customRootPem";
+    public static final String ATTR_STORED_ATTESTATION_OBJECT = "fido2.attestation.stored.attestationObject";
+    public static final String ATTR_STORED_CLIENT_DATA_JSON = "fido2.attestation.stored.clientDataJson";
+    public static final String ATTR_STORED_EXPECTED_CHALLENGE = "fido2.attestation.stored.expectedChallenge";
+
+    /** Attributes eligible for the blob map; everything the assertion path reads stays inline. */
+    private static final Set<String> ARTEFACT_ATTRIBUTES = Set.of(
+            ATTR_ATTESTATION_CERTIFICATE_CHAIN,
+            ATTR_ATTESTATION_CUSTOM_ROOTS,
+            ATTR_STORED_ATTESTATION_OBJECT,
+            ATTR_STORED_CLIENT_DATA_JSON);
+
+    /** Values shorter than this stay inline; the extra blob lookup would cost more than it saves. */
+    static final int ARTEFACT_INLINE_LIMIT = 256;
 
     private static final Base64.Encoder URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
     private static final Base64.Decoder URL_DECODER = Base64.getUrlDecoder();
@@ -247,6 +273,11 @@ public final class WebAuthnCredentialPersistenceAdapter
         if (!"true".equals(attributes.get(ATTR_ATTESTATION_ENABLED))) {
             throw new IllegalArgumentException("Record does not contain stored attestation metadata");
         }
+        for (String key : ARTEFACT_ATTRIBUTES) {
+            if (CredentialBlobStore.isReference(attributes.get(key))) {
+                throw new IllegalArgumentException("Attestation artefact " + key + " has not been resolved");
+            }
+        }
 
         WebAuthnCredentialDescriptor credentialDescriptor = deserialize(record);
 
@@ -278,6 +309,61 @@ public final class WebAuthnCredentialPersistenceAdapter
                 .build();
     }
 
+    /**
+     * Moves large attestation artefacts into the store's blob map, replacing them with references.
+     * Returns the attributes unchanged when the store has no blob support.
+     */
+    public Map<String, String> externalizeArtefacts(Map<String, String> attributes, CredentialStore store) {
+        Objects.requireNonNull(attributes, "attributes");
+        Objects.requireNonNull(store, "store");
+        Optional<CredentialBlobStore> blobs = CredentialBlobStore.of(store);
+        if (blobs.isEmpty()) {
+            return attributes;
+        }
+        Map<String, String> externalized = new LinkedHashMap<>(attributes);
+        for (String key : ARTEFACT_ATTRIBUTES) {
+            String value = externalized.get(key);
+            if (value != null && value.length() >= ARTEFACT_INLINE_LIMIT && !CredentialBlobStore.isReference(value)) {
+                externalized.put(key, blobs.get().putBlob(value.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        return externalized;
+    }
+
+    /**
+     * Returns the record with blob references replaced by their content. Only attestation replay and
+     * operator views need this; records without references are returned as-is.
+     */
+    public VersionedCredentialRecord resolveArtefacts(VersionedCredentialRecord record, CredentialStore store) {
+        Objects.requireNonNull(record, "record");
+        Objects.requireNonNull(store, "store");
+        Map<String, String> resolved = null;
+        for (String key : ARTEFACT_ATTRIBUTES) {
+            String value = record.attributes().get(key);
+            if (!CredentialBlobStore.isReference(value)) {
+                continue;
+            }
+            byte[] content = CredentialBlobStore.of(store)
+                    .flatMap(blobs -> blobs.findBlob(value))
+                    .orElseThrow(() -> new IllegalArgumentException("Attestation artefact " + key + " is missing"));
+            if (resolved == null) {
+                resolved = new LinkedHashMap<>(record.attributes());
+            }
+            resolved.put(key, new String(content, StandardCharsets.UTF_8));
+        }
+        if (resolved == null) {
+            return record;
+        }
+        return new VersionedCredentialRecord(
+                record.schemaVersion(),
+                record.name(),
+                record.type(),
+                record.secret(),
+                record.createdAt(),
+                record.updatedAt(),
+                resolved);
+    }
+
     private static List<String> decodeStringList(String encoded) {
         if (encoded == null || encoded.isBlank()) {
             return List.of();
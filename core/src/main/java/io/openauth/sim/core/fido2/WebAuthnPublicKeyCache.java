@@ -0,0 +1,80 @@
+package io.openauth.sim.core.fido2;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps ready-to-use {@link PublicKey} instances decoded from WebAuthn COSE keys.
+ *
+ * <p>Entries are keyed by the credential id, the signature algorithm and a SHA-256 fingerprint of the COSE key bytes,
+ * so a stored credential whose key is rotated, or an inline request that reuses a credential id with a different key,
+ * never sees a stale key. Inline requests that repeat the same credential id and COSE key hit the same entry as stored
+ * ones. Keys that fail to decode are not cached. The map is bounded and cleared wholesale when full.
+ */
+final class WebAuthnPublicKeyCache {
+
+    static final int MAX_ENTRIES = 4_096;
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 unavailable", ex);
+        }
+    });
+
+    private final int maxEntries;
+    private final ConcurrentMap<KeyId, PublicKey> keys = new ConcurrentHashMap<>();
+
+    WebAuthnPublicKeyCache() {
+        this(MAX_ENTRIES);
+    }
+
+    WebAuthnPublicKeyCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("cache bound must be positive");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /** Returns the cached key for the COSE bytes, decoding them with {@code decoder} on a miss. */
+    PublicKey resolve(byte[] credentialId, byte[] coseKey, WebAuthnSignatureAlgorithm algorithm, Decoder decoder)
+            throws GeneralSecurityException {
+        Objects.requireNonNull(decoder, "decoder");
+        KeyId id = new KeyId(HEX.formatHex(credentialId), algorithm, fingerprint(coseKey));
+        PublicKey cached = keys.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        PublicKey decoded = decoder.decode(coseKey, algorithm);
+        if (keys.size() >= maxEntries) {
+            keys.clear();
+        }
+        keys.put(id, decoded);
+        return decoded;
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    private static String fingerprint(byte[] coseKey) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        return HEX.formatHex(digest.digest(coseKey));
+    }
+
+    /** Decodes COSE key bytes into a {@link PublicKey}. */
+    @FunctionalInterface
+    interface Decoder {
+        PublicKey decode(byte[] coseKey, WebAuthnSignatureAlgorithm algorithm) throws GeneralSecurityException;
+    }
+
+    private record KeyId(String credentialId, WebAuthnSignatureAlgorithm algorithm, String coseFingerprint) {}
+}
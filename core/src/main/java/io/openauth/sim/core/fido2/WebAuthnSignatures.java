@@ -0,0 +1,87 @@
+package io.openauth.sim.core.fido2;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.Certificate;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-thread {@link Signature} instances for each WebAuthn algorithm, shared by the assertion and attestation
+ * verifiers and generators.
+ *
+ * <p>Each thread looks up and configures one {@code Signature} per algorithm (including the PS256 PSS parameters) the
+ * first time it is needed; afterwards a call only re-initialises it with the supplied key. The returned instance
+ * belongs to the calling thread and is re-keyed by the next call for the same algorithm, so callers must finish their
+ * {@code update}/{@code verify} or {@code sign} sequence before requesting another one.
+ */
+public final class WebAuthnSignatures {
+
+    static final PSSParameterSpec PS256_PARAMETERS =
+            new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1);
+
+    private static final ThreadLocal<Map<WebAuthnSignatureAlgorithm, Signature>> PER_THREAD =
+            ThreadLocal.withInitial(() -> new EnumMap<>(WebAuthnSignatureAlgorithm.class));
+
+    private WebAuthnSignatures() {
+        throw new AssertionError("Utility class");
+    }
+
+    /** @return this thread's {@code Signature} for {@code algorithm}, initialised to verify with {@code publicKey} */
+    public static Signature verifier(WebAuthnSignatureAlgorithm algorithm, PublicKey publicKey)
+            throws GeneralSecurityException {
+        Signature signature = pooled(algorithm);
+        signature.initVerify(publicKey);
+        return signature;
+    }
+
+    /** @return this thread's {@code Signature} for {@code algorithm}, initialised to verify with {@code certificate} */
+    public static Signature verifier(WebAuthnSignatureAlgorithm algorithm, Certificate certificate)
+            throws GeneralSecurityException {
+        Signature signature = pooled(algorithm);
+        signature.initVerify(certificate);
+        return signature;
+    }
+
+    /** @return this thread's {@code Signature} for {@code algorithm}, initialised to sign with {@code privateKey} */
+    public static Signature signer(WebAuthnSignatureAlgorithm algorithm, PrivateKey privateKey)
+            throws GeneralSecurityException {
+        Signature signature = pooled(algorithm);
+        signature.initSign(privateKey);
+        return signature;
+    }
+
+    /** Creates an unpooled, configured {@code Signature} for {@code algorithm}. */
+    static Signature create(WebAuthnSignatureAlgorithm algorithm) throws GeneralSecurityException {
+        Signature signature = Signature.getInstance(jcaName(algorithm));
+        if (algorithm == WebAuthnSignatureAlgorithm.PS256) {
+            signature.setParameter(PS256_PARAMETERS);
+        }
+        return signature;
+    }
+
+    static String jcaName(WebAuthnSignatureAlgorithm algorithm) {
+        return switch (algorithm) {
+            case ES256 -> "SHA256withECDSA";
+            case ES384 -> "SHA384withECDSA";
+            case ES512 -> "SHA512withECDSA";
+            case RS256 -> "SHA256withRSA";
+            case PS256 -> "RSASSA-PSS";
+            case EDDSA -> "Ed25519";
+        };
+    }
+
+    private static Signature pooled(WebAuthnSignatureAlgorithm algorithm) throws GeneralSecurityException {
+        Map<WebAuthnSignatureAlgorithm, Signature> signatures = PER_THREAD.get();
+        Signature signature = signatures.get(algorithm);
+        if (signature == null) {
+            signature = create(algorithm);
+            signatures.put(algorithm, signature);
+        }
+        return signature;
+    }
+}
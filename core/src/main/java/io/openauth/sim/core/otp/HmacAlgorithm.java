@@ -0,0 +1,19 @@
+package io.openauth.sim.core.otp;
+
+/** HMAC constructions shared by the HOTP, TOTP and OCRA hash enums. */
+public enum HmacAlgorithm {
+    HMAC_SHA1("HmacSHA1"),
+    HMAC_SHA256("HmacSHA256"),
+    HMAC_SHA512("HmacSHA512");
+
+    private final String macAlgorithm;
+
+    HmacAlgorithm(String macAlgorithm) {
+        this.macAlgorithm = macAlgorithm;
+    }
+
+    /** JCA {@code Mac} identifier. */
+    public String macAlgorithm() {
+        return macAlgorithm;
+    }
+}
@@ -0,0 +1,129 @@
+package io.openauth.sim.core.otp;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Reusable HMAC computation for the HOTP, TOTP and OCRA calculators.
+ *
+ * <p>Creating a {@link Mac} costs a JCA provider lookup and {@link Mac#init} derives the padded
+ * {@code K ^ ipad} / {@code K ^ opad} key blocks; both used to happen for every OTP, including every
+ * position of a validation window. This engine keeps a per-thread pool of initialised {@code Mac}
+ * instances keyed by algorithm and secret, so repeated calls with the same secret only pay for
+ * {@link Mac#doFinal(byte[])}, which resets the instance to its keyed state. The most recent secret per
+ * algorithm is checked first so window searches skip the pool lookup entirely. Each thread retains at
+ * most {@value #KEYS_PER_ALGORITHM} secrets per algorithm, evicting the least recently used.
+ */
+public final class HmacEngine {
+
+    static final int KEYS_PER_ALGORITHM = 32;
+
+    private static final ThreadLocal<Map<HmacAlgorithm, KeyedMacs>> POOL =
+            ThreadLocal.withInitial(() -> new EnumMap<>(HmacAlgorithm.class));
+
+    private HmacEngine() {
+        throw new AssertionError("No instances");
+    }
+
+    /**
+     * Computes {@code HMAC(secret, message)}.
+     *
+     * @throws GeneralSecurityException when the algorithm is unavailable or the key is rejected
+     * @throws IllegalArgumentException when the secret is empty
+     */
+    public static byte[] compute(HmacAlgorithm algorithm, byte[] secret, byte[] message)
+            throws GeneralSecurityException {
+        Objects.requireNonNull(algorithm, "algorithm");
+        Objects.requireNonNull(secret, "secret");
+        Objects.requireNonNull(message, "message");
+        return POOL.get().computeIfAbsent(algorithm, KeyedMacs::new).macFor(secret).doFinal(message);
+    }
+
+    /** Computes the HMAC of an 8-byte big-endian counter, the HOTP/TOTP moving factor. */
+    public static byte[] compute(HmacAlgorithm algorithm, byte[] secret, long counter)
+            throws GeneralSecurityException {
+        return compute(algorithm, secret, counterBytes(counter));
+    }
+
+    /**
+     * Computes the RFC 4226 dynamic truncation of {@code HMAC(secret, counter)}: the 31-bit value read at
+     * the offset named by the low nibble of the last HMAC byte. The counter and HMAC output go through
+     * per-thread scratch buffers, so repeated calls with a cached secret allocate nothing.
+     */
+    public static int dynamicTruncation(HmacAlgorithm algorithm, byte[] secret, long counter)
+            throws GeneralSecurityException {
+        Objects.requireNonNull(algorithm, "algorithm");
+        Objects.requireNonNull(secret, "secret");
+        return POOL.get().computeIfAbsent(algorithm, KeyedMacs::new).truncate(secret, counter);
+    }
+
+    /** Encodes the moving factor as the 8-byte big-endian message RFC 4226 specifies. */
+    public static byte[] counterBytes(long counter) {
+        byte[] bytes = new byte[Long.BYTES];
+        for (int i = 0; i < Long.BYTES; i++) {
+            bytes[i] = (byte) (counter >>> (8 * (Long.BYTES - 1 - i)));
+        }
+        return bytes;
+    }
+
+    /** Access-ordered, bounded set of initialised {@link Mac} instances for one algorithm. */
+    private static final class KeyedMacs {
+
+        private final HmacAlgorithm algorithm;
+        private final LinkedHashMap<ByteBuffer, Mac> macs = new LinkedHashMap<>(16, 0.75f, true);
+        private final byte[] counter = new byte[Long.BYTES];
+        private byte[] output;
+        private byte[] lastSecret;
+        private Mac lastMac;
+
+        private KeyedMacs(HmacAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        private Mac macFor(byte[] secret) throws GeneralSecurityException {
+            if (lastMac != null && Arrays.equals(lastSecret, secret)) {
+                return lastMac;
+            }
+            byte[] key = secret.clone();
+            Mac mac = macs.get(ByteBuffer.wrap(key));
+            if (mac == null) {
+                mac = Mac.getInstance(algorithm.macAlgorithm());
+                mac.init(new SecretKeySpec(key, algorithm.macAlgorithm()));
+                macs.put(ByteBuffer.wrap(key), mac);
+                if (macs.size() > KEYS_PER_ALGORITHM) {
+                    Iterator<ByteBuffer> eldest = macs.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+            lastSecret = key;
+            lastMac = mac;
+            return mac;
+        }
+
+        private int truncate(byte[] secret, long movingFactor) throws GeneralSecurityException {
+            Mac mac = macFor(secret);
+            for (int i = 0; i < Long.BYTES; i++) {
+                counter[i] = (byte) (movingFactor >>> (8 * (Long.BYTES - 1 - i)));
+            }
+            if (output == null) {
+                output = new byte[mac.getMacLength()];
+            }
+            mac.update(counter);
+            mac.doFinal(output, 0);
+            int offset = output[output.length - 1] & 0x0F;
+            return ((output[offset] & 0x7F) << 24)
+                    | ((output[offset + 1] & 0xFF) << 16)
+                    | ((output[offset + 2] & 0xFF) << 8)
+                    | (output[offset + 3] & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.openauth.sim.core.otp;
+
+/**
+ * Decimal helpers shared by the HOTP and TOTP calculators: modulo reduction from a precomputed table,
+ * zero-padded formatting, and digit parsing without intermediate strings or streams.
+ */
+public final class OtpDigits {
+
+    /** Largest digit count whose modulus fits in an {@code int}. */
+    public static final int MAX_DIGITS = 9;
+
+    private static final int[] POWERS_OF_TEN = {
+        1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000
+    };
+
+    private OtpDigits() {
+        throw new AssertionError("No instances");
+    }
+
+    /** @return {@code 10^digits}, the modulus RFC 4226 applies to the truncated HMAC. */
+    public static int modulus(int digits) {
+        checkDigits(digits);
+        return POWERS_OF_TEN[digits];
+    }
+
+    /** Formats the OTP left-padded with zeros to {@code digits} characters. */
+    public static String format(int otp, int digits) {
+        char[] buffer = new char[digits];
+        formatTo(otp, digits, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * Writes the zero-padded OTP into a caller-owned buffer so bulk producers can reuse it.
+     *
+     * @return the offset just past the written digits
+     */
+    public static int formatTo(int otp, int digits, char[] buffer, int offset) {
+        checkDigits(digits);
+        if (otp < 0 || otp >= POWERS_OF_TEN[digits]) {
+            throw new IllegalArgumentException("otp does not fit in " + digits + " digits");
+        }
+        int value = otp;
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
+    /**
+     * Parses an OTP of exactly {@code digits} ASCII digits, ignoring surrounding whitespace.
+     *
+     * @return the decimal value, or {@code -1} when the input is not a well-formed OTP
+     */
+    public static int parse(CharSequence otp, int digits) {
+        checkDigits(digits);
+        int start = 0;
+        int end = otp.length();
+        while (start < end && otp.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && otp.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start != digits) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = otp.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void checkDigits(int digits) {
+        if (digits < 1 || digits > MAX_DIGITS) {
+            throw new IllegalArgumentException("digits must be between 1 and " + MAX_DIGITS);
+        }
+    }
+}
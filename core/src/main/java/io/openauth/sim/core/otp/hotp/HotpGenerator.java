@@ -1,11 +1,10 @@
 package io.openauth.sim.core.otp.hotp;
 
 import io.openauth.sim.core.model.SecretMaterial;
-import java.nio.ByteBuffer;
+import io.openauth.sim.core.otp.HmacEngine;
+import io.openauth.sim.core.otp.OtpDigits;
 import java.security.GeneralSecurityException;
 import java.util.Objects;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 
 /** Responsible for generating HOTP values. */
 public final class HotpGenerator {
@@ -18,48 +17,63 @@ public final class HotpGenerator {
     private static final int MIN_SECRET_LENGTH_BYTES = 10;
 
     public static String generate(HotpDescriptor descriptor, long counter) {
+        Objects.requireNonNull(descriptor, "descriptor");
+        return OtpDigits.format(generateInt(descriptor, counter), descriptor.digits());
+    }
+
+    /**
+     * Computes the HOTP value as an integer below {@code 10^digits}; format it with {@link
+     * OtpDigits#format(int, int)} or {@link OtpDigits#formatTo(int, int, char[], int)}.
+     */
+    public static int generateInt(HotpDescriptor descriptor, long counter) {
         Objects.requireNonNull(descriptor, "descriptor");
         if (counter < 0) {
             throw new IllegalArgumentException("counter must be non-negative");
         }
+        return otpValue(descriptor, checkedSecret(descriptor), counter);
+    }
 
+    /**
+     * Writes the HOTP values of {@code length} consecutive counters starting at {@code firstCounter} into {@code
+     * destination[0..length)}. The secret is validated and copied once for the whole run, so bulk callers pay only
+     * for the HMACs.
+     */
+    public static void generateInts(HotpDescriptor descriptor, long firstCounter, int[] destination, int length) {
+        Objects.requireNonNull(descriptor, "descriptor");
+        Objects.requireNonNull(destination, "destination");
+        if (firstCounter < 0) {
+            throw new IllegalArgumentException("counter must be non-negative");
+        }
+        if (length < 0 || length > destination.length) {
+            throw new IllegalArgumentException("length must be between 0 and destination.length");
+        }
+        if (length > 0 && firstCounter > Long.MAX_VALUE - (length - 1)) {
+            throw new IllegalArgumentException("counter range overflows");
+        }
+        byte[] secret = checkedSecret(descriptor);
+        for (int i = 0; i < length; i++) {
+            destination[i] = otpValue(descriptor, secret, firstCounter + i);
+        }
+    }
+
+    /** Returns the descriptor secret after enforcing the minimum HOTP key length. */
+    static byte[] checkedSecret(HotpDescriptor descriptor) {
         SecretMaterial secretMaterial = descriptor.secret();
         byte[] secret = secretMaterial.value();
         if (secret.length
                 < Math.max(MIN_SECRET_LENGTH_BYTES, descriptor.algorithm().minimumSecretLengthBytes())) {
             throw new IllegalArgumentException("secret length below minimum for HOTP");
         }
-
-        byte[] counterBytes = ByteBuffer.allocate(Long.BYTES).putLong(counter).array();
-
-        byte[] hmac = hmac(descriptor.algorithm(), secret, counterBytes);
-
-        int offset = hmac[hmac.length - 1] & 0x0F;
-        int binary = ((hmac[offset] & 0x7F) << 24)
-                | ((hmac[offset + 1] & 0xFF) << 16)
-                | ((hmac[offset + 2] & 0xFF) << 8)
-                | (hmac[offset + 3] & 0xFF);
-
-        int modulo = decimalModulo(descriptor.digits());
-        int otp = binary % modulo;
-        return String.format("%0" + descriptor.digits() + "d", otp);
+        return secret;
     }
 
-    private static byte[] hmac(HotpHashAlgorithm algorithm, byte[] secret, byte[] message) {
+    /** Computes HMAC, dynamic truncation and decimal reduction for an already validated secret. */
+    static int otpValue(HotpDescriptor descriptor, byte[] secret, long counter) {
         try {
-            Mac mac = Mac.getInstance(algorithm.macAlgorithm());
-            mac.init(new SecretKeySpec(secret, algorithm.macAlgorithm()));
-            return mac.doFinal(message);
+            int binary = HmacEngine.dynamicTruncation(descriptor.algorithm().hmacAlgorithm(), secret, counter);
+            return binary % OtpDigits.modulus(descriptor.digits());
         } catch (GeneralSecurityException ex) {
             throw new IllegalStateException("Failed to compute HOTP HMAC", ex);
         }
     }
-
-    private static int decimalModulo(int digits) {
-        int modulo = 1;
-        for (int i = 0; i < digits; i++) {
-            modulo *= 10;
-        }
-        return modulo;
-    }
 }
@@ -0,0 +1,161 @@
+package io.openauth.sim.core.otp.hotp;
+
+import io.openauth.sim.core.otp.OtpDigits;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Large-window HOTP resynchronisation (RFC 4226 §7.4). The counter range is split into segments that run on a
+ * fork-join pool; once any segment finds a match, segments above it stop, so the search still reports the lowest
+ * matching counter. With a second OTP, a counter only matches when the following counter produces that OTP.
+ */
+public final class HotpResyncSearch {
+
+    /** Counters each fork-join leaf scans before checking whether a lower match has already been found. */
+    static final int SEGMENT_SIZE = 4_096;
+
+    private static final long NO_MATCH = Long.MAX_VALUE;
+
+    private HotpResyncSearch() {
+        throw new AssertionError("No instances");
+    }
+
+    /** Outcome of a resynchronisation search and the throughput it achieved. */
+    public record Result(OptionalLong matchedCounter, long candidatesSearched, long elapsedNanos) {
+
+        public Result {
+            Objects.requireNonNull(matchedCounter, "matchedCounter");
+        }
+
+        /** @return counters checked per second, or the raw count when the search finished within a nanosecond */
+        public long candidatesPerSecond() {
+            if (elapsedNanos <= 0) {
+                return candidatesSearched;
+            }
+            return (long) (candidatesSearched * 1_000_000_000d / elapsedNanos);
+        }
+    }
+
+    /**
+     * Searches {@code [firstCounter, lastCounter]} on the common fork-join pool.
+     *
+     * @param nextOtp the OTP that must follow {@code otp}, or {@code null} for a single-OTP search
+     * @throws IllegalArgumentException when an OTP is malformed, a counter is negative or the secret is too short
+     * @throws IllegalStateException when the window (including the follow-up counter) reaches {@link Long#MAX_VALUE}
+     */
+    public static Result search(
+            HotpDescriptor descriptor, String otp, String nextOtp, long firstCounter, long lastCounter) {
+        return search(descriptor, otp, nextOtp, firstCounter, lastCounter, ForkJoinPool.commonPool());
+    }
+
+    /** Same as {@link #search(HotpDescriptor, String, String, long, long)} on a caller-supplied pool. */
+    public static Result search(
+            HotpDescriptor descriptor,
+            String otp,
+            String nextOtp,
+            long firstCounter,
+            long lastCounter,
+            ForkJoinPool pool) {
+        Objects.requireNonNull(descriptor, "descriptor");
+        Objects.requireNonNull(otp, "otp");
+        Objects.requireNonNull(pool, "pool");
+        if (firstCounter < 0) {
+            throw new IllegalArgumentException("counter must be non-negative");
+        }
+        int expected = parseOtp(otp, descriptor.digits(), "otp");
+        int expectedNext = nextOtp == null ? -1 : parseOtp(nextOtp, descriptor.digits(), "nextOtp");
+        long start = System.nanoTime();
+        if (lastCounter < firstCounter) {
+            return new Result(OptionalLong.empty(), 0L, System.nanoTime() - start);
+        }
+        if (lastCounter >= Long.MAX_VALUE - 1) {
+            throw new IllegalStateException("Counter overflow");
+        }
+
+        Search search = new Search(descriptor, HotpGenerator.checkedSecret(descriptor), expected, expectedNext);
+        if (lastCounter - firstCounter < SEGMENT_SIZE) {
+            search.scan(firstCounter, lastCounter);
+        } else {
+            pool.invoke(new SegmentTask(search, firstCounter, lastCounter));
+        }
+        long best = search.best.get();
+        OptionalLong matched = best == NO_MATCH ? OptionalLong.empty() : OptionalLong.of(best);
+        return new Result(matched, search.searched.sum(), System.nanoTime() - start);
+    }
+
+    private static int parseOtp(String otp, int digits, String field) {
+        int value = OtpDigits.parse(otp, digits);
+        if (value < 0) {
+            throw new IllegalArgumentException(field + " must contain exactly " + digits + " digits");
+        }
+        return value;
+    }
+
+    private static final class Search {
+
+        private final HotpDescriptor descriptor;
+        private final byte[] secret;
+        private final int expected;
+        private final int expectedNext;
+        private final AtomicLong best = new AtomicLong(NO_MATCH);
+        private final LongAdder searched = new LongAdder();
+
+        private Search(HotpDescriptor descriptor, byte[] secret, int expected, int expectedNext) {
+            this.descriptor = descriptor;
+            this.secret = secret;
+            this.expected = expected;
+            this.expectedNext = expectedNext;
+        }
+
+        private void scan(long from, long to) {
+            long visited = 0;
+            for (long counter = from; counter <= to && counter < best.get(); counter++) {
+                visited++;
+                if (matches(counter)) {
+                    best.accumulateAndGet(counter, Math::min);
+                    break;
+                }
+            }
+            searched.add(visited);
+        }
+
+        private boolean matches(long counter) {
+            if (HotpGenerator.otpValue(descriptor, secret, counter) != expected) {
+                return false;
+            }
+            return expectedNext < 0 || HotpGenerator.otpValue(descriptor, secret, counter + 1) == expectedNext;
+        }
+    }
+
+    private static final class SegmentTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Search search;
+        private final long from;
+        private final long to;
+
+        private SegmentTask(Search search, long from, long to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (from >= search.best.get()) {
+                return;
+            }
+            if (to - from < SEGMENT_SIZE) {
+                search.scan(from, to);
+                return;
+            }
+            long mid = from + (to - from) / 2;
+            invokeAll(new SegmentTask(search, from, mid), new SegmentTask(search, mid + 1, to));
+        }
+    }
+}
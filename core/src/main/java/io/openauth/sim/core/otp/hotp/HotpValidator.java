@@ -1,5 +1,6 @@
 package io.openauth.sim.core.otp.hotp;
 
+import io.openauth.sim.core.otp.OtpDigits;
 import java.util.Objects;
 
 /** Validates HOTP codes against a descriptor and counter. */
@@ -12,6 +13,16 @@ public final class HotpValidator {
     public static HotpVerificationResult verify(HotpDescriptor descriptor, long counter, String candidateOtp) {
         Objects.requireNonNull(descriptor, "descriptor");
         Objects.requireNonNull(candidateOtp, "candidateOtp");
+        return verifyInt(descriptor, counter, OtpDigits.parse(candidateOtp, descriptor.digits()));
+    }
+
+    /**
+     * Integer form of {@link #verify(HotpDescriptor, long, String)}; values outside {@code [0,
+     * 10^digits)}, such as the {@code -1} returned by {@link OtpDigits#parse(CharSequence, int)} for
+     * malformed input, are rejected without computing an HMAC.
+     */
+    public static HotpVerificationResult verifyInt(HotpDescriptor descriptor, long counter, int candidateOtp) {
+        Objects.requireNonNull(descriptor, "descriptor");
 
         if (counter < 0) {
             throw new IllegalArgumentException("counter must be non-negative");
@@ -20,13 +31,11 @@ public final class HotpValidator {
             throw new IllegalStateException("Counter overflow");
         }
 
-        String normalized = candidateOtp.trim();
-        if (normalized.length() != descriptor.digits() || !normalized.chars().allMatch(Character::isDigit)) {
+        if (candidateOtp < 0 || candidateOtp >= OtpDigits.modulus(descriptor.digits())) {
             return HotpVerificationResult.failure(counter);
         }
 
-        String expected = HotpGenerator.generate(descriptor, counter);
-        if (expected.equals(normalized)) {
+        if (HotpGenerator.generateInt(descriptor, counter) == candidateOtp) {
             return HotpVerificationResult.success(counter + 1);
         }
         return HotpVerificationResult.failure(counter);
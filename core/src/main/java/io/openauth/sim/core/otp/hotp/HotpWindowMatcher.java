@@ -0,0 +1,83 @@
+package io.openauth.sim.core.otp.hotp;
+
+import io.openauth.sim.core.otp.OtpDigits;
+import java.util.Objects;
+import java.util.OptionalLong;
+
+/**
+ * Single-pass HOTP look-ahead search. The submitted OTP is parsed once, and every counter in the window
+ * yields exactly one HMAC and one truncated value, which is compared as an integer. Callers that
+ * render traces can observe each attempt; otherwise nothing is allocated per candidate.
+ */
+public final class HotpWindowMatcher {
+
+    private HotpWindowMatcher() {
+        throw new AssertionError("No instances");
+    }
+
+    /** Receives the value computed for each counter the matcher visits, in ascending order. */
+    @FunctionalInterface
+    public interface AttemptObserver {
+        void onAttempt(long counter, int otp, boolean match);
+    }
+
+    /**
+     * Searches {@code [firstCounter, lastCounter]} for the counter that produces {@code candidateOtp}.
+     *
+     * @return the matching counter, or empty when no counter in the window matches
+     * @throws IllegalArgumentException when a counter is negative or the secret is too short
+     * @throws IllegalStateException when the search reaches {@link Long#MAX_VALUE}
+     */
+    public static OptionalLong findMatch(
+            HotpDescriptor descriptor, String candidateOtp, long firstCounter, long lastCounter) {
+        return findMatch(descriptor, candidateOtp, firstCounter, lastCounter, null);
+    }
+
+    /**
+     * Same as {@link #findMatch(HotpDescriptor, String, long, long)} but reports every attempt to the
+     * observer. Malformed OTPs are still evaluated across the whole window so the observer sees the
+     * expected values.
+     */
+    public static OptionalLong findMatch(
+            HotpDescriptor descriptor,
+            String candidateOtp,
+            long firstCounter,
+            long lastCounter,
+            AttemptObserver observer) {
+        Objects.requireNonNull(descriptor, "descriptor");
+        Objects.requireNonNull(candidateOtp, "candidateOtp");
+        if (firstCounter < 0) {
+            throw new IllegalArgumentException("counter must be non-negative");
+        }
+        if (lastCounter < firstCounter) {
+            return OptionalLong.empty();
+        }
+
+        int expected = OtpDigits.parse(candidateOtp, descriptor.digits());
+        if (expected < 0 && observer == null) {
+            // A miss walks the whole window, so it reaches the overflow guard whenever the window does.
+            if (lastCounter == Long.MAX_VALUE) {
+                throw new IllegalStateException("Counter overflow");
+            }
+            return OptionalLong.empty();
+        }
+
+        byte[] secret = HotpGenerator.checkedSecret(descriptor);
+        for (long counter = firstCounter; ; counter++) {
+            if (counter == Long.MAX_VALUE) {
+                throw new IllegalStateException("Counter overflow");
+            }
+            int otp = HotpGenerator.otpValue(descriptor, secret, counter);
+            boolean match = otp == expected;
+            if (observer != null) {
+                observer.onAttempt(counter, otp, match);
+            }
+            if (match) {
+                return OptionalLong.of(counter);
+            }
+            if (counter == lastCounter) {
+                return OptionalLong.empty();
+            }
+        }
+    }
+}
@@ -20,6 +20,8 @@ public final class TotpCredentialPersistenceAdapter implements CredentialPersist
     public static final String ATTR_STEP_SECONDS = "totp.stepSeconds";
     public static final String ATTR_DRIFT_BACKWARD = "totp.drift.backward";
     public static final String ATTR_DRIFT_FORWARD = "totp.drift.forward";
+    public static final String ATTR_DRIFT_ESTIMATE = "totp.drift.estimate";
+    public static final String ATTR_DRIFT_SAMPLES = "totp.drift.samples";
 
     private final Clock clock;
 
@@ -85,6 +87,34 @@ public final class TotpCredentialPersistenceAdapter implements CredentialPersist
                 record.name(), record.secret(), algorithm, digits, Duration.ofSeconds(stepSeconds), driftWindow);
     }
 
+    /**
+     * Reads the learned drift estimate from stored attributes. The estimate is advisory, so missing or unreadable
+     * values fall back to {@link TotpDriftEstimate#none()} instead of failing the credential.
+     */
+    public static TotpDriftEstimate driftEstimate(Map<String, String> attributes) {
+        Objects.requireNonNull(attributes, "attributes");
+        String offsetValue = attributes.get(ATTR_DRIFT_ESTIMATE);
+        String samplesValue = attributes.get(ATTR_DRIFT_SAMPLES);
+        if (offsetValue == null || samplesValue == null) {
+            return TotpDriftEstimate.none();
+        }
+        try {
+            return new TotpDriftEstimate(Double.parseDouble(offsetValue.trim()), Integer.parseInt(samplesValue.trim()));
+        } catch (IllegalArgumentException ex) {
+            return TotpDriftEstimate.none();
+        }
+    }
+
+    /** Returns a copy of {@code attributes} carrying {@code estimate}. */
+    public static Map<String, String> withDriftEstimate(Map<String, String> attributes, TotpDriftEstimate estimate) {
+        Objects.requireNonNull(attributes, "attributes");
+        Objects.requireNonNull(estimate, "estimate");
+        Map<String, String> updated = new LinkedHashMap<>(attributes);
+        updated.put(ATTR_DRIFT_ESTIMATE, Double.toString(estimate.offsetSteps()));
+        updated.put(ATTR_DRIFT_SAMPLES, Integer.toString(estimate.samples()));
+        return updated;
+    }
+
     private static String required(Map<String, String> attributes, String key) {
         String value = attributes.get(key);
         if (value == null || value.isBlank()) {
@@ -0,0 +1,52 @@
+package io.openauth.sim.core.otp.totp;
+
+/**
+ * Learned clock offset of a TOTP credential, in time steps. The offset is an exponentially weighted average of the
+ * skew matched by successful verifications, so it follows gradual clock drift while damping one-off outliers.
+ * {@link TotpValidator#verifyAdaptive} probes the estimated offset first; the estimate never changes which steps are
+ * accepted. The opt-in {@link TotpValidator#verifyNarrowed} additionally restricts a confident estimate to the steps
+ * next to it.
+ */
+public record TotpDriftEstimate(double offsetSteps, int samples) {
+
+    /** Matches required before the estimate is reported as {@linkplain #confident() confident}. */
+    public static final int CONFIDENT_SAMPLES = 3;
+
+    /** Weight given to the newest observation. */
+    static final double SMOOTHING = 0.25;
+
+    private static final TotpDriftEstimate NONE = new TotpDriftEstimate(0d, 0);
+
+    public TotpDriftEstimate {
+        if (!Double.isFinite(offsetSteps)) {
+            throw new IllegalArgumentException("offsetSteps must be finite");
+        }
+        if (samples < 0) {
+            throw new IllegalArgumentException("samples must be non-negative");
+        }
+    }
+
+    /** Estimate for a credential that has not been verified yet. */
+    public static TotpDriftEstimate none() {
+        return NONE;
+    }
+
+    /** Folds the skew of a successful verification into the estimate. */
+    public TotpDriftEstimate observe(int matchedSkewSteps) {
+        if (samples == 0) {
+            return new TotpDriftEstimate(matchedSkewSteps, 1);
+        }
+        double next = offsetSteps + (matchedSkewSteps - offsetSteps) * SMOOTHING;
+        return new TotpDriftEstimate(next, samples == Integer.MAX_VALUE ? samples : samples + 1);
+    }
+
+    /** Offset probed first, rounded to the nearest step. */
+    public int expectedOffset() {
+        return (int) Math.round(offsetSteps);
+    }
+
+    /** @return whether at least {@link #CONFIDENT_SAMPLES} matches have been folded into the estimate */
+    public boolean confident() {
+        return samples >= CONFIDENT_SAMPLES;
+    }
+}
@@ -1,12 +1,11 @@
 package io.openauth.sim.core.otp.totp;
 
 import io.openauth.sim.core.model.SecretMaterial;
-import java.nio.ByteBuffer;
+import io.openauth.sim.core.otp.HmacEngine;
+import io.openauth.sim.core.otp.OtpDigits;
 import java.security.GeneralSecurityException;
 import java.time.Instant;
 import java.util.Objects;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 
 /** Responsible for generating TOTP values. */
 public final class TotpGenerator {
@@ -25,9 +24,49 @@ public final class TotpGenerator {
         return generate(descriptor, timeStep);
     }
 
+    /**
+     * Computes the TOTP value for the timestamp as an integer below {@code 10^digits}; format it with
+     * {@link OtpDigits#format(int, int)} or {@link OtpDigits#formatTo(int, int, char[], int)}.
+     */
+    public static int generateInt(TotpDescriptor descriptor, Instant timestamp) {
+        Objects.requireNonNull(descriptor, "descriptor");
+        Objects.requireNonNull(timestamp, "timestamp");
+
+        return otpValue(descriptor, checkedSecret(descriptor), toTimeStep(timestamp, descriptor.stepSeconds()));
+    }
+
     static String generate(TotpDescriptor descriptor, long timeStep) {
         Objects.requireNonNull(descriptor, "descriptor");
 
+        int otp = otpValue(descriptor, checkedSecret(descriptor), timeStep);
+        return OtpDigits.format(otp, descriptor.digits());
+    }
+
+    /**
+     * Writes the TOTP values of {@code length} consecutive time steps starting at {@code firstTimeStep} into {@code
+     * destination[0..length)}. The secret is validated and copied once for the whole run, so bulk callers pay only
+     * for the HMACs.
+     */
+    public static void generateInts(TotpDescriptor descriptor, long firstTimeStep, int[] destination, int length) {
+        Objects.requireNonNull(descriptor, "descriptor");
+        Objects.requireNonNull(destination, "destination");
+        if (firstTimeStep < 0) {
+            throw new IllegalArgumentException("time step must be non-negative");
+        }
+        if (length < 0 || length > destination.length) {
+            throw new IllegalArgumentException("length must be between 0 and destination.length");
+        }
+        if (length > 0 && firstTimeStep > Long.MAX_VALUE - (length - 1)) {
+            throw new IllegalArgumentException("time step range overflows");
+        }
+        byte[] secret = checkedSecret(descriptor);
+        for (int i = 0; i < length; i++) {
+            destination[i] = otpValue(descriptor, secret, firstTimeStep + i);
+        }
+    }
+
+    /** Returns the descriptor secret after enforcing the minimum TOTP key length. */
+    static byte[] checkedSecret(TotpDescriptor descriptor) {
         SecretMaterial secretMaterial = descriptor.secret();
         byte[] secret = secretMaterial.value();
         int minimumLength =
@@ -35,41 +74,21 @@ public final class TotpGenerator {
         if (secret.length < minimumLength) {
             throw new IllegalArgumentException("secret length below minimum for TOTP");
         }
-
-        byte[] counterBytes = ByteBuffer.allocate(Long.BYTES).putLong(timeStep).array();
-        byte[] hmac = hmac(descriptor.algorithm(), secret, counterBytes);
-
-        int offset = hmac[hmac.length - 1] & 0x0F;
-        int binary = ((hmac[offset] & 0x7F) << 24)
-                | ((hmac[offset + 1] & 0xFF) << 16)
-                | ((hmac[offset + 2] & 0xFF) << 8)
-                | (hmac[offset + 3] & 0xFF);
-
-        int modulo = decimalModulo(descriptor.digits());
-        int otp = binary % modulo;
-        return String.format("%0" + descriptor.digits() + "d", otp);
+        return secret;
     }
 
-    private static long toTimeStep(Instant instant, long stepSeconds) {
-        long epochSeconds = instant.getEpochSecond();
-        return Math.floorDiv(epochSeconds, stepSeconds);
-    }
-
-    private static byte[] hmac(TotpHashAlgorithm algorithm, byte[] secret, byte[] message) {
+    /** Computes HMAC, dynamic truncation and decimal reduction for an already validated secret. */
+    static int otpValue(TotpDescriptor descriptor, byte[] secret, long timeStep) {
         try {
-            Mac mac = Mac.getInstance(algorithm.macAlgorithm());
-            mac.init(new SecretKeySpec(secret, algorithm.macAlgorithm()));
-            return mac.doFinal(message);
+            int binary = HmacEngine.dynamicTruncation(descriptor.algorithm().hmacAlgorithm(), secret, timeStep);
+            return binary % OtpDigits.modulus(descriptor.digits());
         } catch (GeneralSecurityException ex) {
             throw new IllegalStateException("Failed to compute TOTP HMAC", ex);
         }
     }
 
-    private static int decimalModulo(int digits) {
-        int modulo = 1;
-        for (int i = 0; i < digits; i++) {
-            modulo *= 10;
-        }
-        return modulo;
+    private static long toTimeStep(Instant instant, long stepSeconds) {
+        long epochSeconds = instant.getEpochSecond();
+        return Math.floorDiv(epochSeconds, stepSeconds);
     }
 }
@@ -1,22 +1,29 @@
 package io.openauth.sim.core.otp.totp;
 
+import io.openauth.sim.core.otp.HmacAlgorithm;
+
 /** Supported HMAC algorithms for TOTP operations. */
 public enum TotpHashAlgorithm {
-    SHA1("HmacSHA1", 10),
-    SHA256("HmacSHA256", 16),
-    SHA512("HmacSHA512", 32);
+    SHA1(HmacAlgorithm.HMAC_SHA1, 10),
+    SHA256(HmacAlgorithm.HMAC_SHA256, 16),
+    SHA512(HmacAlgorithm.HMAC_SHA512, 32);
 
-    private final String macAlgorithm;
+    private final HmacAlgorithm hmacAlgorithm;
     private final int minimumSecretLengthBytes;
 
-    TotpHashAlgorithm(String macAlgorithm, int minimumSecretLengthBytes) {
-        this.macAlgorithm = macAlgorithm;
+    TotpHashAlgorithm(HmacAlgorithm hmacAlgorithm, int minimumSecretLengthBytes) {
+        this.hmacAlgorithm = hmacAlgorithm;
         this.minimumSecretLengthBytes = minimumSecretLengthBytes;
     }
 
     /** Underlying JCA algorithm identifier. */
     public String macAlgorithm() {
-        return macAlgorithm;
+        return hmacAlgorithm.macAlgorithm();
+    }
+
+    /** HMAC construction used by {@link io.openauth.sim.core.otp.HmacEngine}. */
+    public HmacAlgorithm hmacAlgorithm() {
+        return hmacAlgorithm;
     }
 
     /** Minimum secret length recommended for the algorithm (bytes). */
@@ -0,0 +1,269 @@
+package io.openauth.sim.core.otp.totp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Streams the {@code (timeStep, epochSeconds, otp)} sequence of a TOTP credential over a time range. Steps are
+ * handed to a primitive callback or rendered as NDJSON/CSV straight into reusable byte buffers, so no object is
+ * created per step. Rendering can be split into chunks computed in parallel; chunks are always written in order.
+ */
+public final class TotpTimeline {
+
+    /** Steps rendered per chunk; each chunk owns one buffer of {@code CHUNK_STEPS * MAX_LINE_BYTES} bytes. */
+    static final int CHUNK_STEPS = 4_096;
+
+    /** Upper bound for one NDJSON line: two 19-digit longs, a 9-digit OTP and the fixed punctuation. */
+    private static final int MAX_LINE_BYTES = 96;
+
+    private static final byte[] CSV_HEADER = "timeStep,epochSeconds,otp\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NDJSON_STEP = "{\"timeStep\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NDJSON_EPOCH = ",\"epochSeconds\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NDJSON_OTP = ",\"otp\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NDJSON_END = "\"}\n".getBytes(StandardCharsets.US_ASCII);
+
+    private TotpTimeline() {
+        throw new AssertionError("No instances");
+    }
+
+    /** Output encodings supported by {@link #write}. */
+    public enum Format {
+        /** One JSON object per line: {@code {"timeStep":1,"epochSeconds":30,"otp":"287082"}}. */
+        NDJSON,
+        /** A {@code timeStep,epochSeconds,otp} header followed by one row per step. */
+        CSV
+    }
+
+    /** Receives each step of the timeline in ascending order. */
+    @FunctionalInterface
+    public interface StepConsumer {
+        void accept(long timeStep, long epochSeconds, int otp);
+    }
+
+    /**
+     * Number of steps whose window intersects {@code [from, to]}.
+     *
+     * @throws IllegalArgumentException when {@code from} is before the epoch or after {@code to}
+     */
+    public static long stepCount(TotpDescriptor descriptor, Instant from, Instant to) {
+        Objects.requireNonNull(descriptor, "descriptor");
+        return lastStep(descriptor, from, to) - firstStep(descriptor, from, to) + 1;
+    }
+
+    /**
+     * Calls {@code consumer} for every step whose window intersects {@code [from, to]}.
+     *
+     * @return the number of steps visited
+     */
+    public static long forEach(TotpDescriptor descriptor, Instant from, Instant to, StepConsumer consumer) {
+        Objects.requireNonNull(descriptor, "descriptor");
+        Objects.requireNonNull(consumer, "consumer");
+        long first = firstStep(descriptor, from, to);
+        long last = lastStep(descriptor, from, to);
+        byte[] secret = TotpGenerator.checkedSecret(descriptor);
+        long stepSeconds = descriptor.stepSeconds();
+        for (long step = first; step <= last; step++) {
+            consumer.accept(step, step * stepSeconds, TotpGenerator.otpValue(descriptor, secret, step));
+        }
+        return last - first + 1;
+    }
+
+    /** Writes the timeline sequentially on the calling thread. */
+    public static long write(
+            TotpDescriptor descriptor, Instant from, Instant to, Format format, WritableByteChannel channel)
+            throws IOException {
+        return write(descriptor, from, to, format, channel, 1);
+    }
+
+    /**
+     * Renders the timeline into {@code channel}. With {@code parallelism > 1}, up to that many chunks are computed
+     * concurrently on a dedicated fork-join pool before being written in step order.
+     *
+     * @return the number of steps written
+     */
+    public static long write(
+            TotpDescriptor descriptor,
+            Instant from,
+            Instant to,
+            Format format,
+            WritableByteChannel channel,
+            int parallelism)
+            throws IOException {
+        return write(descriptor, from, to, format, channel, parallelism, null);
+    }
+
+    /**
+     * Same as {@link #write(TotpDescriptor, Instant, Instant, Format, WritableByteChannel, int)}, but parallel chunks
+     * run on {@code pool}, which servers share across requests so concurrent renders stay within one bounded set of
+     * threads. A {@code null} pool makes the call create and shut down its own.
+     */
+    public static long write(
+            TotpDescriptor descriptor,
+            Instant from,
+            Instant to,
+            Format format,
+            WritableByteChannel channel,
+            int parallelism,
+            ForkJoinPool pool)
+            throws IOException {
+        Objects.requireNonNull(descriptor, "descriptor");
+        Objects.requireNonNull(format, "format");
+        Objects.requireNonNull(channel, "channel");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        long first = firstStep(descriptor, from, to);
+        long last = lastStep(descriptor, from, to);
+        byte[] secret = TotpGenerator.checkedSecret(descriptor);
+
+        if (format == Format.CSV) {
+            writeFully(channel, ByteBuffer.wrap(CSV_HEADER));
+        }
+        long chunks = (last - first) / CHUNK_STEPS + 1;
+        int slots = (int) Math.min(parallelism, chunks);
+        ByteBuffer[] buffers = new ByteBuffer[slots];
+        for (int i = 0; i < slots; i++) {
+            buffers[i] = ByteBuffer.allocate(CHUNK_STEPS * MAX_LINE_BYTES);
+        }
+        if (slots == 1) {
+            for (long start = first; start <= last; start += CHUNK_STEPS) {
+                render(descriptor, secret, format, start, chunkEnd(start, last), buffers[0]);
+                writeFully(channel, buffers[0]);
+            }
+            return last - first + 1;
+        }
+
+        ForkJoinPool workers = pool != null ? pool : new ForkJoinPool(slots);
+        ForkJoinTask<?>[] batch = new ForkJoinTask<?>[slots];
+        int pending = 0;
+        try {
+            long start = first;
+            while (start <= last) {
+                pending = 0;
+                while (pending < slots && start <= last) {
+                    long chunkStart = start;
+                    long chunkEnd = chunkEnd(start, last);
+                    ByteBuffer buffer = buffers[pending];
+                    batch[pending] =
+                            workers.submit(() -> render(descriptor, secret, format, chunkStart, chunkEnd, buffer));
+                    pending++;
+                    start = chunkEnd + 1;
+                }
+                for (int i = 0; i < pending; i++) {
+                    batch[i].get();
+                    writeFully(channel, buffers[i]);
+                }
+                pending = 0;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering TOTP timeline", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Failed to render TOTP timeline", ex.getCause());
+        } finally {
+            if (pool == null) {
+                workers.shutdownNow();
+            } else {
+                // A shared pool outlives this call; drop chunks still queued for a failed or abandoned render.
+                for (int i = 0; i < pending; i++) {
+                    batch[i].cancel(true);
+                }
+            }
+        }
+        return last - first + 1;
+    }
+
+    private static long chunkEnd(long start, long last) {
+        return last - start < CHUNK_STEPS ? last : start + CHUNK_STEPS - 1;
+    }
+
+    private static void render(
+            TotpDescriptor descriptor,
+            byte[] secret,
+            Format format,
+            long firstStep,
+            long lastStep,
+            ByteBuffer buffer) {
+        buffer.clear();
+        long stepSeconds = descriptor.stepSeconds();
+        int digits = descriptor.digits();
+        for (long step = firstStep; step <= lastStep; step++) {
+            int otp = TotpGenerator.otpValue(descriptor, secret, step);
+            if (format == Format.NDJSON) {
+                buffer.put(NDJSON_STEP);
+                putDecimal(buffer, step);
+                buffer.put(NDJSON_EPOCH);
+                putDecimal(buffer, step * stepSeconds);
+                buffer.put(NDJSON_OTP);
+                putOtp(buffer, otp, digits);
+                buffer.put(NDJSON_END);
+            } else {
+                putDecimal(buffer, step);
+                buffer.put((byte) ',');
+                putDecimal(buffer, step * stepSeconds);
+                buffer.put((byte) ',');
+                putOtp(buffer, otp, digits);
+                buffer.put((byte) '\n');
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void putDecimal(ByteBuffer buffer, long value) {
+        int length = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            length++;
+        }
+        int end = buffer.position() + length;
+        long remaining = value;
+        for (int index = end - 1; index >= buffer.position(); index--) {
+            buffer.put(index, (byte) ('0' + remaining % 10));
+            remaining /= 10;
+        }
+        buffer.position(end);
+    }
+
+    private static void putOtp(ByteBuffer buffer, int otp, int digits) {
+        int end = buffer.position() + digits;
+        int remaining = otp;
+        for (int index = end - 1; index >= buffer.position(); index--) {
+            buffer.put(index, (byte) ('0' + remaining % 10));
+            remaining /= 10;
+        }
+        buffer.position(end);
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static long firstStep(TotpDescriptor descriptor, Instant from, Instant to) {
+        checkRange(from, to);
+        return from.getEpochSecond() / descriptor.stepSeconds();
+    }
+
+    private static long lastStep(TotpDescriptor descriptor, Instant from, Instant to) {
+        checkRange(from, to);
+        return to.getEpochSecond() / descriptor.stepSeconds();
+    }
+
+    private static void checkRange(Instant from, Instant to) {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+        if (from.getEpochSecond() < 0) {
+            throw new IllegalArgumentException("from must not be before the Unix epoch");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package io.openauth.sim.core.otp.totp;
 
+import io.openauth.sim.core.otp.OtpDigits;
 import java.time.Instant;
 import java.util.Objects;
 
 /** Validates TOTP codes against a descriptor and configurable drift window. */
 public final class TotpValidator {
 
+    /** Steps either side of a confident learned offset that {@link #verifyNarrowed} still tries. */
+    public static final int NARROWED_RADIUS_STEPS = 1;
+
     private TotpValidator() {
         throw new AssertionError("No instances");
     }
@@ -19,11 +23,32 @@ public final class TotpValidator {
 
         Objects.requireNonNull(descriptor, "descriptor");
         Objects.requireNonNull(candidateOtp, "candidateOtp");
+        return verifyInt(
+                descriptor,
+                OtpDigits.parse(candidateOtp, descriptor.digits()),
+                evaluationTime,
+                driftWindow,
+                timestampOverride);
+    }
+
+    /**
+     * Integer form of {@link #verify(TotpDescriptor, String, Instant, TotpDriftWindow, Instant)}; values
+     * outside {@code [0, 10^digits)}, such as the {@code -1} returned by {@link OtpDigits#parse(CharSequence,
+     * int)} for malformed input, are rejected without computing an HMAC. The secret is read once and every
+     * step in the drift window is compared as an integer.
+     */
+    public static TotpVerificationResult verifyInt(
+            TotpDescriptor descriptor,
+            int candidateOtp,
+            Instant evaluationTime,
+            TotpDriftWindow driftWindow,
+            Instant timestampOverride) {
+
+        Objects.requireNonNull(descriptor, "descriptor");
         Objects.requireNonNull(evaluationTime, "evaluationTime");
         Objects.requireNonNull(driftWindow, "driftWindow");
 
-        String normalized = candidateOtp.trim();
-        if (normalized.length() != descriptor.digits() || !normalized.chars().allMatch(Character::isDigit)) {
+        if (candidateOtp < 0 || candidateOtp >= OtpDigits.modulus(descriptor.digits())) {
             return TotpVerificationResult.failure();
         }
 
@@ -34,21 +59,123 @@ public final class TotpValidator {
 
         int backward = driftWindow.backwardSteps();
         int forward = driftWindow.forwardSteps();
+        byte[] secret = TotpGenerator.checkedSecret(descriptor);
 
+        int evaluated = 0;
         for (int offset = -backward; offset <= forward; offset++) {
-            long candidateStep;
-            try {
-                candidateStep = Math.addExact(baseTimeStep, offset);
-            } catch (ArithmeticException ex) {
-                continue;
+            evaluated++;
+            if (matches(descriptor, secret, baseTimeStep, offset, candidateOtp)) {
+                return TotpVerificationResult.success(offset, evaluated);
             }
+        }
 
-            String expected = TotpGenerator.generate(descriptor, candidateStep);
-            if (expected.equals(normalized)) {
-                return TotpVerificationResult.success(offset);
+        return TotpVerificationResult.failure(evaluated);
+    }
+
+    /**
+     * Adaptive form of {@link #verifyInt}: probes the offset predicted by {@code estimate} first and then spirals
+     * outward ({@code e, e+1, e-1, e+2, ...}) until every step of {@code driftWindow} has been tried. The estimate
+     * only changes the probe order: the accepted set is exactly the configured window, so a token whose clock moves
+     * away from the learned offset is still accepted anywhere inside it. The estimate is clamped into the window, so a
+     * stale estimate never widens it.
+     *
+     * <p>Because the accepted set is unchanged, a rejection still computes one HMAC per step of the window; only
+     * accepted codes get cheaper. Use {@link #verifyNarrowed} when mismatch-heavy loads must cost less as well.
+     */
+    public static TotpVerificationResult verifyAdaptive(
+            TotpDescriptor descriptor,
+            int candidateOtp,
+            Instant evaluationTime,
+            TotpDriftWindow driftWindow,
+            Instant timestampOverride,
+            TotpDriftEstimate estimate) {
+        return verifyAround(descriptor, candidateOtp, evaluationTime, driftWindow, timestampOverride, estimate, false);
+    }
+
+    /**
+     * Opt-in form of {@link #verifyAdaptive} that also bounds the cost of rejections: once {@code estimate} is
+     * {@linkplain TotpDriftEstimate#confident() confident}, only the steps within {@value #NARROWED_RADIUS_STEPS} of
+     * the learned offset (clamped to {@code driftWindow}) are tried, so a mismatch computes at most three HMACs
+     * whatever the window. Until then it behaves exactly like {@link #verifyAdaptive}. A token whose clock jumps
+     * further than that from its learned offset is rejected even though the configured window would accept it; the
+     * estimate has to be cleared before such a credential verifies again.
+     */
+    public static TotpVerificationResult verifyNarrowed(
+            TotpDescriptor descriptor,
+            int candidateOtp,
+            Instant evaluationTime,
+            TotpDriftWindow driftWindow,
+            Instant timestampOverride,
+            TotpDriftEstimate estimate) {
+        return verifyAround(
+                descriptor,
+                candidateOtp,
+                evaluationTime,
+                driftWindow,
+                timestampOverride,
+                estimate,
+                Objects.requireNonNull(estimate, "estimate").confident());
+    }
+
+    private static TotpVerificationResult verifyAround(
+            TotpDescriptor descriptor,
+            int candidateOtp,
+            Instant evaluationTime,
+            TotpDriftWindow driftWindow,
+            Instant timestampOverride,
+            TotpDriftEstimate estimate,
+            boolean narrow) {
+
+        Objects.requireNonNull(descriptor, "descriptor");
+        Objects.requireNonNull(evaluationTime, "evaluationTime");
+        Objects.requireNonNull(driftWindow, "driftWindow");
+        Objects.requireNonNull(estimate, "estimate");
+
+        if (candidateOtp < 0 || candidateOtp >= OtpDigits.modulus(descriptor.digits())) {
+            return TotpVerificationResult.failure();
+        }
+
+        Instant effectiveTimestamp = timestampOverride != null ? timestampOverride : evaluationTime;
+        long baseTimeStep = Math.floorDiv(effectiveTimestamp.getEpochSecond(), descriptor.stepSeconds());
+
+        int lowest = -driftWindow.backwardSteps();
+        int highest = driftWindow.forwardSteps();
+        int center = Math.max(lowest, Math.min(highest, estimate.expectedOffset()));
+        if (narrow) {
+            lowest = Math.max(lowest, center - NARROWED_RADIUS_STEPS);
+            highest = Math.min(highest, center + NARROWED_RADIUS_STEPS);
+        }
+        byte[] secret = TotpGenerator.checkedSecret(descriptor);
+
+        int evaluated = 0;
+        for (int distance = 0; center + distance <= highest || center - distance >= lowest; distance++) {
+            int above = center + distance;
+            if (above <= highest) {
+                evaluated++;
+                if (matches(descriptor, secret, baseTimeStep, above, candidateOtp)) {
+                    return TotpVerificationResult.success(above, evaluated);
+                }
+            }
+            int below = center - distance;
+            if (distance > 0 && below >= lowest) {
+                evaluated++;
+                if (matches(descriptor, secret, baseTimeStep, below, candidateOtp)) {
+                    return TotpVerificationResult.success(below, evaluated);
+                }
             }
         }
 
-        return TotpVerificationResult.failure();
+        return TotpVerificationResult.failure(evaluated);
+    }
+
+    private static boolean matches(
+            TotpDescriptor descriptor, byte[] secret, long baseTimeStep, int offset, int candidateOtp) {
+        long candidateStep;
+        try {
+            candidateStep = Math.addExact(baseTimeStep, offset);
+        } catch (ArithmeticException ex) {
+            return false;
+        }
+        return TotpGenerator.otpValue(descriptor, secret, candidateStep) == candidateOtp;
     }
 }
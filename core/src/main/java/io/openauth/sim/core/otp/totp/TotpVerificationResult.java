@@ -1,15 +1,30 @@
 package io.openauth.sim.core.otp.totp;
 
-/** Result of TOTP validation indicating success and any matched skew steps. */
-public record TotpVerificationResult(boolean valid, int matchedSkewSteps) {
+/**
+ * Result of TOTP validation indicating success, any matched skew steps and how many candidate steps were computed
+ * to reach the decision.
+ */
+public record TotpVerificationResult(boolean valid, int matchedSkewSteps, int candidatesEvaluated) {
 
     private static final int FAILURE_SKEW_SENTINEL = Integer.MIN_VALUE;
 
+    public TotpVerificationResult(boolean valid, int matchedSkewSteps) {
+        this(valid, matchedSkewSteps, 0);
+    }
+
     public static TotpVerificationResult success(int matchedSkewSteps) {
         return new TotpVerificationResult(true, matchedSkewSteps);
     }
 
+    public static TotpVerificationResult success(int matchedSkewSteps, int candidatesEvaluated) {
+        return new TotpVerificationResult(true, matchedSkewSteps, candidatesEvaluated);
+    }
+
     public static TotpVerificationResult failure() {
         return new TotpVerificationResult(false, FAILURE_SKEW_SENTINEL);
     }
+
+    public static TotpVerificationResult failure(int candidatesEvaluated) {
+        return new TotpVerificationResult(false, FAILURE_SKEW_SENTINEL, candidatesEvaluated);
+    }
 }
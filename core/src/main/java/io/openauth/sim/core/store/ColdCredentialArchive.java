@@ -0,0 +1,378 @@
+package io.openauth.sim.core.store;
+
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.store.encryption.PersistenceEncryption;
+import io.openauth.sim.core.store.encryption.PersistenceEncryption.EncryptedSecret;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecord;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only, deflate-compressed archive holding the cold tail of a {@link TieredCredentialStore}.
+ *
+ * <p>Each entry is {@code byte op | int nameLength | name | int payloadLength | payload}, where the
+ * payload of a {@code PUT} is a compressed {@link VersionedCredentialRecordCodec} record and a {@code
+ * REMOVE} has an empty payload. Only an in-memory offset index is kept; records are inflated on demand.
+ * The file is rewritten once superseded entries dominate it, so its size tracks the live cold set.
+ */
+final class ColdCredentialArchive implements AutoCloseable {
+
+    private static final byte[] MAGIC = "OASCOLD1".getBytes(StandardCharsets.US_ASCII);
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final long COMPACTION_MIN_BYTES = 1024L * 1024L;
+    private static final String ENCRYPTION_METADATA_PREFIX = "encryption.";
+
+    private final Path path;
+    private final PersistenceEncryption encryption;
+    private final Map<String, Slot> index = new HashMap<>();
+    private FileChannel channel;
+    private long liveBytes;
+
+    private ColdCredentialArchive(Path path, PersistenceEncryption encryption) {
+        this.path = path;
+        this.encryption = encryption;
+    }
+
+    static ColdCredentialArchive open(Path path, PersistenceEncryption encryption) {
+        Objects.requireNonNull(path, "path");
+        ColdCredentialArchive archive = new ColdCredentialArchive(path, encryption);
+        try {
+            archive.load();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open cold credential archive " + path, ex);
+        }
+        return archive;
+    }
+
+    synchronized boolean contains(String name) {
+        return index.containsKey(name);
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    synchronized long fileSize() {
+        try {
+            return channel.size();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    synchronized Optional<VersionedCredentialRecord> find(String name) {
+        Slot slot = index.get(name);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(decode(name, readPayload(slot)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read cold credential '" + name + "'", ex);
+        }
+    }
+
+    synchronized List<VersionedCredentialRecord> findAll() {
+        List<VersionedCredentialRecord> records = new ArrayList<>(index.size());
+        try {
+            for (Map.Entry<String, Slot> entry : index.entrySet()) {
+                records.add(decode(entry.getKey(), readPayload(entry.getValue())));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read cold credential archive " + path, ex);
+        }
+        return List.copyOf(records);
+    }
+
+    synchronized void put(VersionedCredentialRecord record) {
+        Objects.requireNonNull(record, "record");
+        try {
+            byte[] payload = encode(record);
+            Slot slot = append(OP_PUT, record.name(), payload);
+            Slot previous = index.put(record.name(), slot);
+            liveBytes += slot.entryBytes() - (previous == null ? 0L : previous.entryBytes());
+            compactIfNeeded();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to archive credential '" + record.name() + "'", ex);
+        }
+    }
+
+    synchronized boolean remove(String name) {
+        Objects.requireNonNull(name, "name");
+        Slot previous = index.remove(name);
+        if (previous == null) {
+            return false;
+        }
+        try {
+            append(OP_REMOVE, name, new byte[0]);
+            liveBytes -= previous.entryBytes();
+            compactIfNeeded();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to remove archived credential '" + name + "'", ex);
+        }
+        return true;
+    }
+
+    /** Forces appended entries to disk; callers do this before dropping the copies those entries replace. */
+    synchronized void flush() {
+        try {
+            channel.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to flush cold credential archive " + path, ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to close cold credential archive " + path, ex);
+        }
+    }
+
+    private void load() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0L) {
+            channel.write(ByteBuffer.wrap(MAGIC), 0L);
+            channel.force(true);
+            return;
+        }
+        ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+        readFully(magic, 0L);
+        if (!Arrays.equals(magic.array(), MAGIC)) {
+            throw new IOException("Not a cold credential archive: " + path);
+        }
+        long position = MAGIC.length;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(Byte.BYTES + Integer.BYTES);
+        while (position < size) {
+            long entryStart = position;
+            try {
+                header.clear();
+                readFully(header, position);
+                header.flip();
+                byte op = header.get();
+                int nameLength = header.getInt();
+                if (nameLength < 0 || position + header.capacity() + nameLength > size) {
+                    throw new EOFException("Truncated archive entry");
+                }
+                ByteBuffer nameBuffer = ByteBuffer.allocate(nameLength);
+                readFully(nameBuffer, position + header.capacity());
+                ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+                long lengthPosition = position + header.capacity() + nameLength;
+                readFully(lengthBuffer, lengthPosition);
+                int payloadLength = lengthBuffer.getInt(0);
+                long payloadPosition = lengthPosition + Integer.BYTES;
+                if (payloadLength < 0 || payloadPosition + payloadLength > size) {
+                    throw new EOFException("Truncated archive entry");
+                }
+                String name = new String(nameBuffer.array(), StandardCharsets.UTF_8);
+                position = payloadPosition + payloadLength;
+                Slot slot = new Slot(payloadPosition, payloadLength, position - entryStart);
+                Slot previous = op == OP_PUT ? index.put(name, slot) : index.remove(name);
+                if (op == OP_PUT) {
+                    liveBytes += slot.entryBytes();
+                }
+                if (previous != null) {
+                    liveBytes -= previous.entryBytes();
+                }
+            } catch (EOFException ex) {
+                // A crash mid-append leaves a partial tail; drop it and keep the consistent prefix.
+                channel.truncate(entryStart);
+                break;
+            }
+        }
+    }
+
+    private Slot append(byte op, String name, byte[] payload) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(Byte.BYTES + Integer.BYTES * 2 + nameBytes.length + payload.length);
+        buffer.put(op).putInt(nameBytes.length).put(nameBytes).putInt(payload.length).put(payload);
+        buffer.flip();
+        long entryStart = channel.size();
+        long position = entryStart;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        long payloadPosition = entryStart + Byte.BYTES + Integer.BYTES * 2 + nameBytes.length;
+        return new Slot(payloadPosition, payload.length, position - entryStart);
+    }
+
+    private void compactIfNeeded() throws IOException {
+        long size = channel.size();
+        if (size < COMPACTION_MIN_BYTES || liveBytes * 2 > size) {
+            return;
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".compact");
+        Map<String, Slot> rewritten = new HashMap<>();
+        try (FileChannel target = FileChannel.open(
+                temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = target.write(ByteBuffer.wrap(MAGIC), 0L);
+            for (Map.Entry<String, Slot> entry : index.entrySet()) {
+                byte[] nameBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                byte[] payload = readPayload(entry.getValue());
+                ByteBuffer buffer =
+                        ByteBuffer.allocate(Byte.BYTES + Integer.BYTES * 2 + nameBytes.length + payload.length);
+                buffer.put(OP_PUT).putInt(nameBytes.length).put(nameBytes).putInt(payload.length).put(payload);
+                buffer.flip();
+                long entryStart = position;
+                while (buffer.hasRemaining()) {
+                    position += target.write(buffer, position);
+                }
+                long payloadPosition = entryStart + Byte.BYTES + Integer.BYTES * 2 + nameBytes.length;
+                rewritten.put(entry.getKey(), new Slot(payloadPosition, payload.length, position - entryStart));
+            }
+            target.force(true);
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index.clear();
+        index.putAll(rewritten);
+        liveBytes = channel.size() - MAGIC.length;
+    }
+
+    private byte[] readPayload(Slot slot) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(slot.length());
+        readFully(buffer, slot.position());
+        return buffer.array();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of cold credential archive");
+            }
+            offset += read;
+        }
+    }
+
+    private byte[] encode(VersionedCredentialRecord record) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(raw)) {
+            VersionedCredentialRecordCodec.write(out, encryptIfNeeded(record));
+        }
+        byte[] input = raw.toByteArray();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, input.length / 2));
+            byte[] chunk = new byte[1024];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(chunk);
+                compressed.write(chunk, 0, written);
+            }
+            ByteBuffer framed = ByteBuffer.allocate(Integer.BYTES + compressed.size());
+            framed.putInt(input.length).put(compressed.toByteArray());
+            return framed.array();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private VersionedCredentialRecord decode(String name, byte[] payload) throws IOException {
+        ByteBuffer framed = ByteBuffer.wrap(payload);
+        int rawLength = framed.getInt();
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload, Integer.BYTES, payload.length - Integer.BYTES);
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int count = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != rawLength) {
+                throw new IOException("Corrupt cold archive entry for '" + name + "'");
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupt cold archive entry for '" + name + "'", ex);
+        } finally {
+            inflater.end();
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            return decryptIfNeeded(VersionedCredentialRecordCodec.read(in));
+        }
+    }
+
+    private VersionedCredentialRecord encryptIfNeeded(VersionedCredentialRecord record) {
+        if (encryption == null) {
+            return record;
+        }
+        EncryptedSecret encrypted = encryption.encrypt(record.name(), record.secret());
+        Map<String, String> attributes = new LinkedHashMap<>(record.attributes());
+        attributes.keySet().removeIf(key -> key.startsWith(ENCRYPTION_METADATA_PREFIX));
+        attributes.putAll(encrypted.metadata());
+        return new VersionedCredentialRecord(
+                record.schemaVersion(),
+                record.name(),
+                record.type(),
+                encrypted.secret(),
+                record.createdAt(),
+                record.updatedAt(),
+                attributes);
+    }
+
+    private VersionedCredentialRecord decryptIfNeeded(VersionedCredentialRecord record) {
+        if (encryption == null) {
+            return record;
+        }
+        Map<String, String> metadata = new LinkedHashMap<>();
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : record.attributes().entrySet()) {
+            if (entry.getKey().startsWith(ENCRYPTION_METADATA_PREFIX)) {
+                metadata.put(entry.getKey(), entry.getValue());
+            } else {
+                attributes.put(entry.getKey(), entry.getValue());
+            }
+        }
+        SecretMaterial secret = encryption.decrypt(record.name(), record.secret(), metadata);
+        return new VersionedCredentialRecord(
+                record.schemaVersion(),
+                record.name(),
+                record.type(),
+                secret,
+                record.createdAt(),
+                record.updatedAt(),
+                attributes);
+    }
+
+    private record Slot(long position, int length, long entryBytes) {}
+}
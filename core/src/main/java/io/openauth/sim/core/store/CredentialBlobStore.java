@@ -0,0 +1,81 @@
+package io.openauth.sim.core.store;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Content-addressed side store for large credential artefacts that should not live on the credential
+ * record itself. Blobs are keyed by the SHA-256 of their content, so identical payloads shared by many
+ * credentials are stored once.
+ *
+ * <p>A blob lives as long as something references it: a credential record in the owning store whose
+ * attributes carry its reference, or a hold taken with {@link #retainBlob(String)} by a holder outside the
+ * store's records, such as an archive tier. Saving over or deleting the last referencing record removes
+ * the blob; blobs stored but never referenced are swept by store maintenance.
+ */
+public interface CredentialBlobStore {
+
+    /** Prefix of every reference returned by {@link #putBlob(byte[])}. */
+    String REFERENCE_PREFIX = "blob:sha256:";
+
+    /**
+     * Stores the content unless an identical blob already exists.
+     *
+     * @return reference of the form {@code blob:sha256:<hex>} to place on the credential record.
+     */
+    String putBlob(byte[] content);
+
+    /** Loads a blob previously returned by {@link #putBlob(byte[])}. */
+    Optional<byte[]> findBlob(String reference);
+
+    /**
+     * Keeps the blob alive for a holder outside the store's own records until the matching
+     * {@link #releaseBlob(String)}.
+     *
+     * @throws IllegalArgumentException when the blob does not exist
+     */
+    void retainBlob(String reference);
+
+    /** Drops one hold taken with {@link #retainBlob(String)}; the blob goes once nothing references it. */
+    void releaseBlob(String reference);
+
+    /** @return {@code true} when the attribute value is a blob reference rather than inline content. */
+    static boolean isReference(String value) {
+        return value != null && value.startsWith(REFERENCE_PREFIX);
+    }
+
+    /** Computes the reference {@link #putBlob(byte[])} returns for the given content. */
+    static String referenceFor(byte[] content) {
+        Objects.requireNonNull(content, "content");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return REFERENCE_PREFIX + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    /** @return the distinct blob references among the attribute values. */
+    static Set<String> referencesIn(Map<String, String> attributes) {
+        Objects.requireNonNull(attributes, "attributes");
+        Set<String> references = new LinkedHashSet<>();
+        for (String value : attributes.values()) {
+            if (isReference(value)) {
+                references.add(value);
+            }
+        }
+        return references;
+    }
+
+    /** @return the blob view of the store when it supports one. */
+    static Optional<CredentialBlobStore> of(CredentialStore store) {
+        Objects.requireNonNull(store, "store");
+        return store.blobStore();
+    }
+}
@@ -2,6 +2,7 @@ package io.openauth.sim.core.store;
 
 import io.openauth.sim.core.model.Credential;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /** Abstraction for credential persistence used by higher-level modules. */
@@ -25,6 +26,46 @@ public interface CredentialStore extends AutoCloseable {
      */
     boolean delete(String name);
 
+    /**
+     * Saves {@code replacement} only if the stored credential is still the version the caller read as
+     * {@code expected}, i.e. it has the same {@code updatedAt} and attributes.
+     *
+     * <p>The default checks and saves while holding this store's monitor. Implementations with their own
+     * write path override it so the check is atomic with every other mutation.
+     *
+     * @return {@code true} if the replacement was saved, {@code false} if the credential changed or was removed.
+     */
+    default boolean replace(Credential expected, Credential replacement) {
+        Objects.requireNonNull(expected, "expected");
+        Objects.requireNonNull(replacement, "replacement");
+        requireSameName(expected, replacement);
+        synchronized (this) {
+            Optional<Credential> current = findByName(expected.name());
+            if (current.isEmpty() || !sameVersion(current.get(), expected)) {
+                return false;
+            }
+            save(replacement);
+            return true;
+        }
+    }
+
+    /**
+     * @return {@code true} when both credentials carry the same {@code updatedAt} and attributes.
+     */
+    static boolean sameVersion(Credential current, Credential expected) {
+        return current.updatedAt().equals(expected.updatedAt())
+                && current.attributes().equals(expected.attributes());
+    }
+
+    /**
+     * @throws IllegalArgumentException when the credentials have different names.
+     */
+    static void requireSameName(Credential expected, Credential replacement) {
+        if (!expected.name().equals(replacement.name())) {
+            throw new IllegalArgumentException("replacement must keep the credential name");
+        }
+    }
+
     /**
      * @return {@code true} when a credential with the provided name exists.
      */
@@ -32,6 +73,14 @@ public interface CredentialStore extends AutoCloseable {
         return findByName(name).isPresent();
     }
 
+    /**
+     * @return the content-addressed blob store behind this store, or empty when large artefacts must stay
+     *     inline on the credential record.
+     */
+    default Optional<CredentialBlobStore> blobStore() {
+        return Optional.empty();
+    }
+
     @Override
     void close();
 }
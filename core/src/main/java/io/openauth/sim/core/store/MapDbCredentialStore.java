@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -28,10 +29,17 @@ import org.mapdb.DB;
 import org.mapdb.DBMaker;
 import org.mapdb.Serializer;
 
-/** {@link CredentialStore} implementation backed by MapDB with an in-memory caffeine cache. */
-public final class MapDbCredentialStore implements CredentialStore {
+/**
+ * {@link CredentialStore} implementation backed by MapDB with an in-memory caffeine cache. Large
+ * artefacts referenced from credential attributes live in a second, content-addressed map exposed
+ * through {@link CredentialBlobStore}; a third map counts the records and holds referencing each blob so
+ * it is removed together with its last reference.
+ */
+public final class MapDbCredentialStore implements CredentialStore, CredentialBlobStore {
 
     private static final String MAP_NAME = "credentials";
+    private static final String BLOB_MAP_NAME = "credential-blobs";
+    private static final String BLOB_REFERENCE_MAP_NAME = "credential-blob-references";
     private static final Logger TELEMETRY_LOGGER = Logger.getLogger("io.openauth.sim.core.store.persistence");
     private static final String ENCRYPTION_METADATA_PREFIX = "encryption.";
     private static final String ENCRYPTION_FLAG_KEY = ENCRYPTION_METADATA_PREFIX + "status";
@@ -44,20 +52,27 @@ public final class MapDbCredentialStore implements CredentialStore {
 
     private final DB db;
     private final ConcurrentMap<String, VersionedCredentialRecord> backing;
+    private final ConcurrentMap<String, byte[]> blobs;
+    private final ConcurrentMap<String, Long> blobReferences;
     private final Cache<String, Credential> cache;
     private final List<VersionedCredentialRecordMigration> migrations;
     private final String storeProfile;
     private final PersistenceEncryption encryption;
+    private final Object writeLock = new Object();
 
     private MapDbCredentialStore(
             DB db,
             ConcurrentMap<String, VersionedCredentialRecord> backing,
+            ConcurrentMap<String, byte[]> blobs,
+            ConcurrentMap<String, Long> blobReferences,
             Cache<String, Credential> cache,
             List<VersionedCredentialRecordMigration> migrations,
             String storeProfile,
             PersistenceEncryption encryption) {
         this.db = db;
         this.backing = backing;
+        this.blobs = blobs;
+        this.blobReferences = blobReferences;
         this.cache = cache;
         this.migrations = List.copyOf(migrations);
         this.storeProfile = storeProfile;
@@ -65,6 +80,9 @@ public final class MapDbCredentialStore implements CredentialStore {
         if (!Boolean.getBoolean(SKIP_UPGRADE_PROPERTY)) {
             upgradePersistedRecords();
         }
+        if (blobReferences.isEmpty() && !blobs.isEmpty()) {
+            countBlobReferences();
+        }
     }
 
     public static Builder file(Path databasePath) {
@@ -83,9 +101,18 @@ public final class MapDbCredentialStore implements CredentialStore {
         Credential normalized = ensureProtocolDefaults(credential);
         VersionedCredentialRecord record = VersionedCredentialRecordMapper.toRecord(normalized);
         VersionedCredentialRecord persisted = encryptIfNeeded(record);
-        backing.put(normalized.name(), persisted);
-        db.commit();
-        cache.put(normalized.name(), normalized);
+        synchronized (writeLock) {
+            for (String reference : CredentialBlobStore.referencesIn(persisted.attributes())) {
+                if (!blobs.containsKey(reference)) {
+                    throw new IllegalStateException(
+                            "Credential '" + normalized.name() + "' references missing blob " + reference);
+                }
+            }
+            VersionedCredentialRecord previous = backing.put(normalized.name(), persisted);
+            updateBlobReferences(previous, persisted);
+            db.commit();
+            cache.put(normalized.name(), normalized);
+        }
         logMutationEvent(normalized.name(), MutationOperation.SAVE, System.nanoTime() - start);
     }
 
@@ -125,14 +152,32 @@ public final class MapDbCredentialStore implements CredentialStore {
     public boolean delete(String name) {
         Objects.requireNonNull(name, "name");
         long start = System.nanoTime();
-        VersionedCredentialRecord removed = backing.remove(name);
-        if (removed != null) {
+        synchronized (writeLock) {
+            VersionedCredentialRecord removed = backing.remove(name);
+            if (removed == null) {
+                return false;
+            }
+            updateBlobReferences(removed, null);
             db.commit();
             cache.invalidate(name);
-            logMutationEvent(name, MutationOperation.DELETE, System.nanoTime() - start);
+        }
+        logMutationEvent(name, MutationOperation.DELETE, System.nanoTime() - start);
+        return true;
+    }
+
+    @Override
+    public boolean replace(Credential expected, Credential replacement) {
+        Objects.requireNonNull(expected, "expected");
+        Objects.requireNonNull(replacement, "replacement");
+        CredentialStore.requireSameName(expected, replacement);
+        synchronized (writeLock) {
+            Optional<Credential> current = findByName(expected.name());
+            if (current.isEmpty() || !CredentialStore.sameVersion(current.get(), expected)) {
+                return false;
+            }
+            save(replacement);
             return true;
         }
-        return false;
     }
 
     @Override
@@ -141,10 +186,90 @@ public final class MapDbCredentialStore implements CredentialStore {
         db.close();
     }
 
+    @Override
+    public Optional<CredentialBlobStore> blobStore() {
+        return Optional.of(this);
+    }
+
+    @Override
+    public String putBlob(byte[] content) {
+        Objects.requireNonNull(content, "content");
+        String reference = CredentialBlobStore.referenceFor(content);
+        synchronized (writeLock) {
+            if (blobs.putIfAbsent(reference, content.clone()) == null) {
+                db.commit();
+            }
+        }
+        return reference;
+    }
+
+    @Override
+    public void retainBlob(String reference) {
+        Objects.requireNonNull(reference, "reference");
+        synchronized (writeLock) {
+            if (!blobs.containsKey(reference)) {
+                throw new IllegalArgumentException("Unknown blob " + reference);
+            }
+            blobReferences.merge(reference, 1L, Long::sum);
+            db.commit();
+        }
+    }
+
+    @Override
+    public void releaseBlob(String reference) {
+        Objects.requireNonNull(reference, "reference");
+        synchronized (writeLock) {
+            releaseReference(reference);
+            db.commit();
+        }
+    }
+
+    @Override
+    public Optional<byte[]> findBlob(String reference) {
+        Objects.requireNonNull(reference, "reference");
+        byte[] content = blobs.get(reference);
+        return content == null ? Optional.empty() : Optional.of(content.clone());
+    }
+
     Cache<String, Credential> cacheView() {
         return cache;
     }
 
+    /** Adjusts blob reference counts for a record replaced by {@code current}; callers hold the write lock. */
+    private void updateBlobReferences(VersionedCredentialRecord previous, VersionedCredentialRecord current) {
+        Set<String> before = previous == null ? Set.of() : CredentialBlobStore.referencesIn(previous.attributes());
+        Set<String> after = current == null ? Set.of() : CredentialBlobStore.referencesIn(current.attributes());
+        for (String reference : after) {
+            if (!before.contains(reference)) {
+                blobReferences.merge(reference, 1L, Long::sum);
+            }
+        }
+        for (String reference : before) {
+            if (!after.contains(reference)) {
+                releaseReference(reference);
+            }
+        }
+    }
+
+    private void releaseReference(String reference) {
+        Long remaining = blobReferences.computeIfPresent(reference, (key, count) -> count > 1L ? count - 1L : null);
+        if (remaining == null) {
+            blobs.remove(reference);
+        }
+    }
+
+    /** Counts references for blob maps written before reference counting existed. */
+    private void countBlobReferences() {
+        synchronized (writeLock) {
+            for (VersionedCredentialRecord record : backing.values()) {
+                for (String reference : CredentialBlobStore.referencesIn(record.attributes())) {
+                    blobReferences.merge(reference, 1L, Long::sum);
+                }
+            }
+            db.commit();
+        }
+    }
+
     private static Credential ensureProtocolDefaults(Credential credential) {
         Map<String, String> normalizedAttributes;
         if (credential.type() == CredentialType.OATH_HOTP) {
@@ -231,6 +356,8 @@ public final class MapDbCredentialStore implements CredentialStore {
             return new MapDbCredentialStore(
                     components.db,
                     components.backing,
+                    components.blobs,
+                    components.blobReferences,
                     components.cache,
                     migrations,
                     components.storeProfile,
@@ -242,6 +369,8 @@ public final class MapDbCredentialStore implements CredentialStore {
             MapDbCredentialStore store = new MapDbCredentialStore(
                     components.db,
                     components.backing,
+                    components.blobs,
+                    components.blobReferences,
                     components.cache,
                     migrations,
                     components.storeProfile,
@@ -262,9 +391,13 @@ public final class MapDbCredentialStore implements CredentialStore {
             @SuppressWarnings("unchecked")
             ConcurrentMap<String, VersionedCredentialRecord> map = (ConcurrentMap<String, VersionedCredentialRecord>)
                     db.hashMap(MAP_NAME, Serializer.STRING, Serializer.JAVA).createOrOpen();
+            ConcurrentMap<String, byte[]> blobs =
+                    db.hashMap(BLOB_MAP_NAME, Serializer.STRING, Serializer.BYTE_ARRAY).createOrOpen();
+            ConcurrentMap<String, Long> blobReferences =
+                    db.hashMap(BLOB_REFERENCE_MAP_NAME, Serializer.STRING, Serializer.LONG).createOrOpen();
             Cache<String, Credential> cache = buildCache();
             String profile = inMemory ? "IN_MEMORY" : "FILE";
-            return new Components(db, map, cache, profile);
+            return new Components(db, map, blobs, blobReferences, cache, profile);
         }
 
         private Cache<String, Credential> buildCache() {
@@ -280,16 +413,22 @@ public final class MapDbCredentialStore implements CredentialStore {
         private static final class Components {
             private final DB db;
             private final ConcurrentMap<String, VersionedCredentialRecord> backing;
+            private final ConcurrentMap<String, byte[]> blobs;
+            private final ConcurrentMap<String, Long> blobReferences;
             private final Cache<String, Credential> cache;
             private final String storeProfile;
 
             private Components(
                     DB db,
                     ConcurrentMap<String, VersionedCredentialRecord> backing,
+                    ConcurrentMap<String, byte[]> blobs,
+                    ConcurrentMap<String, Long> blobReferences,
                     Cache<String, Credential> cache,
                     String storeProfile) {
                 this.db = db;
                 this.backing = backing;
+                this.blobs = blobs;
+                this.blobReferences = blobReferences;
                 this.cache = cache;
                 this.storeProfile = storeProfile;
             }
@@ -439,13 +578,27 @@ public final class MapDbCredentialStore implements CredentialStore {
             // default constructor to scope helper to its parent store instance
         }
 
+        /**
+         * Sweeps blobs that no record or hold references (stored but never saved on a credential), then
+         * compacts the MapDB store; swept blobs are reported as repaired entries. Run it while no seeding is
+         * in flight, because a blob stored just before its credential is saved counts as unreferenced.
+         */
         public MaintenanceResult compact() {
             ensureOpen();
             long start = System.nanoTime();
             List<String> issues = new ArrayList<>();
             long entriesScanned = backing.size();
+            long entriesRepaired = 0L;
             MaintenanceStatus status = MaintenanceStatus.SUCCESS;
             try {
+                synchronized (writeLock) {
+                    for (String reference : List.copyOf(blobs.keySet())) {
+                        if (!blobReferences.containsKey(reference)) {
+                            blobs.remove(reference);
+                            entriesRepaired++;
+                        }
+                    }
+                }
                 db.commit();
                 db.getStore().compact();
                 db.commit();
@@ -455,7 +608,12 @@ public final class MapDbCredentialStore implements CredentialStore {
             }
             Duration duration = Duration.ofNanos(System.nanoTime() - start);
             MaintenanceResult result = new MaintenanceResult(
-                    MaintenanceOperation.COMPACTION, duration, entriesScanned, 0L, List.copyOf(issues), status);
+                    MaintenanceOperation.COMPACTION,
+                    duration,
+                    entriesScanned,
+                    entriesRepaired,
+                    List.copyOf(issues),
+                    status);
             logMaintenanceEvent(result);
             return result;
         }
@@ -0,0 +1,384 @@
+package io.openauth.sim.core.store;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.store.encryption.PersistenceEncryption;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecord;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link CredentialStore} that keeps only the working set in memory and on the MapDB file.
+ *
+ * <ul>
+ *   <li><strong>Hot</strong> – size-bounded Caffeine cache of live {@link Credential} objects, no
+ *       serialization.
+ *   <li><strong>Warm</strong> – the wrapped store (normally {@link MapDbCredentialStore} with its
+ *       Caffeine cache), authoritative for every credential that is not cold.
+ *   <li><strong>Cold</strong> – compressed append-only archive for credentials idle longer than the
+ *       warm threshold.
+ * </ul>
+ *
+ * <p>Lookups promote credentials towards the hot tier; {@link #demoteIdle()} (run periodically when a
+ * demotion interval is configured) drops idle hot entries and moves idle warm credentials into the
+ * archive. Every credential lives in exactly one of warm or cold; hot is a cache over warm. Warm
+ * credentials that pre-date this instance are enrolled by the first demotion pass rather than at open,
+ * with their idle timer starting when the store was opened.
+ *
+ * <p>Blobs live in the warm store's {@link CredentialBlobStore}; an archived credential holds its blobs
+ * with {@link CredentialBlobStore#retainBlob(String)} until it is promoted or deleted.
+ */
+public final class TieredCredentialStore implements CredentialStore {
+
+    private static final Logger TELEMETRY_LOGGER = Logger.getLogger("io.openauth.sim.core.store.persistence");
+
+    private final CredentialStore warm;
+    private final ColdCredentialArchive cold;
+    private final Cache<String, Credential> hot;
+    private final ConcurrentMap<String, Long> lastAccessMillis = new ConcurrentHashMap<>();
+    private final Duration hotIdle;
+    private final Duration warmIdle;
+    private final Clock clock;
+    private final ScheduledExecutorService demotionExecutor;
+    private final Object tierLock = new Object();
+    private final long openedAtMillis;
+    private boolean preexistingWarmTracked;
+
+    private TieredCredentialStore(Builder builder) {
+        this.warm = builder.warm;
+        this.cold = ColdCredentialArchive.open(builder.coldArchivePath, builder.encryption);
+        this.hot = Caffeine.newBuilder()
+                .maximumSize(builder.hotCapacity)
+                // Evict on the promoting thread so the bound holds as soon as promotion returns.
+                .executor(Runnable::run)
+                .build();
+        this.hotIdle = builder.hotIdle;
+        this.warmIdle = builder.warmIdle;
+        this.clock = builder.clock;
+        this.openedAtMillis = clock.millis();
+        if (builder.demotionInterval != null) {
+            this.demotionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "tiered-credential-store-demotion");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = builder.demotionInterval.toMillis();
+            demotionExecutor.scheduleWithFixedDelay(
+                    this::demoteQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.demotionExecutor = null;
+        }
+    }
+
+    /**
+     * @param warm authoritative store for the warm tier; closed together with this store.
+     * @param coldArchivePath file receiving the compressed cold tier.
+     */
+    public static Builder builder(CredentialStore warm, Path coldArchivePath) {
+        return new Builder(warm, coldArchivePath);
+    }
+
+    @Override
+    public void save(Credential credential) {
+        Objects.requireNonNull(credential, "credential");
+        synchronized (tierLock) {
+            warm.save(credential);
+            removeFromCold(credential.name());
+            touch(credential.name());
+            // Re-read so the hot tier holds the same normalised view the warm store returns.
+            warm.findByName(credential.name()).ifPresent(saved -> promoteToHot(saved.name(), saved));
+        }
+    }
+
+    @Override
+    public boolean replace(Credential expected, Credential replacement) {
+        Objects.requireNonNull(expected, "expected");
+        Objects.requireNonNull(replacement, "replacement");
+        CredentialStore.requireSameName(expected, replacement);
+        synchronized (tierLock) {
+            Optional<Credential> current = findByName(expected.name());
+            if (current.isEmpty() || !CredentialStore.sameVersion(current.get(), expected)) {
+                return false;
+            }
+            save(replacement);
+            return true;
+        }
+    }
+
+    @Override
+    public Optional<Credential> findByName(String name) {
+        Objects.requireNonNull(name, "name");
+        Credential cached = hot.getIfPresent(name);
+        if (cached != null) {
+            touch(name);
+            return Optional.of(cached);
+        }
+        synchronized (tierLock) {
+            // A concurrent save or promotion may have filled the hot tier while this caller waited.
+            Credential promoted = hot.getIfPresent(name);
+            if (promoted != null) {
+                touch(name);
+                return Optional.of(promoted);
+            }
+            Optional<Credential> resolved = warm.findByName(name);
+            if (resolved.isEmpty()) {
+                resolved = cold.find(name).map(VersionedCredentialRecordMapper::toCredential);
+                if (resolved.isPresent()) {
+                    warm.save(resolved.get());
+                    removeFromCold(name);
+                    resolved = warm.findByName(name);
+                    logTierEvent(name, "PROMOTE_COLD");
+                }
+            }
+            resolved.ifPresent(credential -> {
+                touch(name);
+                promoteToHot(name, credential);
+            });
+            return resolved;
+        }
+    }
+
+    @Override
+    public boolean exists(String name) {
+        Objects.requireNonNull(name, "name");
+        return hot.asMap().containsKey(name) || cold.contains(name) || warm.exists(name);
+    }
+
+    @Override
+    public List<Credential> findAll() {
+        synchronized (tierLock) {
+            List<Credential> all = new ArrayList<>(warm.findAll());
+            cold.findAll().forEach(record -> all.add(VersionedCredentialRecordMapper.toCredential(record)));
+            return List.copyOf(all);
+        }
+    }
+
+    @Override
+    public boolean delete(String name) {
+        Objects.requireNonNull(name, "name");
+        synchronized (tierLock) {
+            hot.invalidate(name);
+            lastAccessMillis.remove(name);
+            boolean removedWarm = warm.delete(name);
+            boolean removedCold = removeFromCold(name);
+            return removedWarm || removedCold;
+        }
+    }
+
+    @Override
+    public Optional<CredentialBlobStore> blobStore() {
+        return warm.blobStore();
+    }
+
+    @Override
+    public void close() {
+        if (demotionExecutor != null) {
+            demotionExecutor.shutdownNow();
+        }
+        hot.invalidateAll();
+        try {
+            cold.close();
+        } finally {
+            warm.close();
+        }
+    }
+
+    /**
+     * Runs one demotion pass: hot entries idle for longer than the hot threshold are dropped and warm
+     * credentials idle for longer than the warm threshold are moved to the cold archive.
+     */
+    public DemotionResult demoteIdle() {
+        long now = clock.millis();
+        long hotCutoff = now - hotIdle.toMillis();
+        long warmCutoff = now - warmIdle.toMillis();
+        int hotEvicted = 0;
+        List<String> archived = new ArrayList<>();
+        synchronized (tierLock) {
+            trackPreexistingWarmCredentials();
+            for (Map.Entry<String, Long> entry : new ArrayList<>(lastAccessMillis.entrySet())) {
+                String name = entry.getKey();
+                long accessed = entry.getValue();
+                if (accessed <= warmCutoff) {
+                    Optional<Credential> credential = warm.findByName(name);
+                    hot.invalidate(name);
+                    lastAccessMillis.remove(name);
+                    if (credential.isPresent()) {
+                        VersionedCredentialRecord record = VersionedCredentialRecordMapper.toRecord(credential.get());
+                        cold.put(record);
+                        warm.blobStore().ifPresent(blobs ->
+                                CredentialBlobStore.referencesIn(record.attributes()).forEach(blobs::retainBlob));
+                        archived.add(name);
+                    }
+                } else if (accessed <= hotCutoff && hot.asMap().remove(name) != null) {
+                    hotEvicted++;
+                }
+            }
+            if (!archived.isEmpty()) {
+                // The archived copies must be durable before the warm deletes commit, or a crash loses them.
+                cold.flush();
+                archived.forEach(warm::delete);
+            }
+        }
+        DemotionResult result = new DemotionResult(hotEvicted, archived.size());
+        if (hotEvicted > 0 || !archived.isEmpty()) {
+            logTierEvent("*", "DEMOTE hotEvicted=" + hotEvicted + " archived=" + archived.size());
+        }
+        return result;
+    }
+
+    /** Snapshot of tier occupancy for telemetry and sizing. */
+    public TierSizes tierSizes() {
+        synchronized (tierLock) {
+            hot.cleanUp();
+            return new TierSizes((int) hot.estimatedSize(), lastAccessMillis.size(), cold.size(), cold.fileSize());
+        }
+    }
+
+    private void demoteQuietly() {
+        try {
+            demoteIdle();
+        } catch (RuntimeException ex) {
+            TELEMETRY_LOGGER.log(Level.WARNING, "Tiered credential demotion failed", ex);
+        }
+    }
+
+    /** Drops the archived copy of {@code name}, releasing the blob holds it carried into the archive. */
+    private boolean removeFromCold(String name) {
+        if (!cold.contains(name)) {
+            return false;
+        }
+        Optional<VersionedCredentialRecord> archived = cold.find(name);
+        boolean removed = cold.remove(name);
+        Optional<CredentialBlobStore> blobs = warm.blobStore();
+        if (archived.isPresent() && blobs.isPresent()) {
+            CredentialBlobStore.referencesIn(archived.get().attributes()).forEach(blobs.get()::releaseBlob);
+        }
+        return removed;
+    }
+
+    private void trackPreexistingWarmCredentials() {
+        if (preexistingWarmTracked) {
+            return;
+        }
+        for (Credential credential : warm.findAll()) {
+            lastAccessMillis.putIfAbsent(credential.name(), openedAtMillis);
+        }
+        preexistingWarmTracked = true;
+    }
+
+    private void touch(String name) {
+        lastAccessMillis.put(name, clock.millis());
+    }
+
+    private void promoteToHot(String name, Credential credential) {
+        hot.put(name, credential);
+    }
+
+    private void logTierEvent(String credentialName, String operation) {
+        if (!TELEMETRY_LOGGER.isLoggable(Level.FINE)) {
+            return;
+        }
+        Map<String, String> payload = new LinkedHashMap<>();
+        payload.put("storeProfile", "TIERED");
+        payload.put("credentialName", credentialName);
+        payload.put("operation", operation);
+        payload.put("hotSize", Long.toString(hot.estimatedSize()));
+        payload.put("warmTracked", Integer.toString(lastAccessMillis.size()));
+        payload.put("redacted", Boolean.TRUE.toString());
+        TELEMETRY_LOGGER.log(Level.FINE, "persistence.credential.tier", new Object[] {payload});
+    }
+
+    /** Outcome of a single {@link #demoteIdle()} pass. */
+    public record DemotionResult(int hotEvicted, int archived) {}
+
+    /**
+     * @param hot credentials held as live objects
+     * @param warm credentials tracked in the warm store
+     * @param cold credentials in the compressed archive
+     * @param coldFileBytes current archive file size
+     */
+    public record TierSizes(int hot, int warm, int cold, long coldFileBytes) {}
+
+    public static final class Builder {
+        private final CredentialStore warm;
+        private final Path coldArchivePath;
+        private int hotCapacity = 10_000;
+        private Duration hotIdle = Duration.ofMinutes(5);
+        private Duration warmIdle = Duration.ofHours(24);
+        private Duration demotionInterval = Duration.ofMinutes(1);
+        private PersistenceEncryption encryption;
+        private Clock clock = Clock.systemUTC();
+
+        private Builder(CredentialStore warm, Path coldArchivePath) {
+            this.warm = Objects.requireNonNull(warm, "warm");
+            this.coldArchivePath = Objects.requireNonNull(coldArchivePath, "coldArchivePath");
+        }
+
+        public Builder hotCapacity(int hotCapacity) {
+            if (hotCapacity <= 0) {
+                throw new IllegalArgumentException("hotCapacity must be positive");
+            }
+            this.hotCapacity = hotCapacity;
+            return this;
+        }
+
+        public Builder hotIdle(Duration hotIdle) {
+            this.hotIdle = requirePositive(hotIdle, "hotIdle");
+            return this;
+        }
+
+        public Builder warmIdle(Duration warmIdle) {
+            this.warmIdle = requirePositive(warmIdle, "warmIdle");
+            return this;
+        }
+
+        /** Interval of the background demotion pass; {@code null} disables it (call {@link #demoteIdle()}). */
+        public Builder demotionInterval(Duration demotionInterval) {
+            this.demotionInterval =
+                    demotionInterval == null ? null : requirePositive(demotionInterval, "demotionInterval");
+            return this;
+        }
+
+        /** Encrypts secrets written to the cold archive; normally the same strategy as the warm store. */
+        public Builder encryption(PersistenceEncryption encryption) {
+            this.encryption = Objects.requireNonNull(encryption, "encryption");
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = Objects.requireNonNull(clock, "clock");
+            return this;
+        }
+
+        public TieredCredentialStore open() {
+            if (warmIdle.compareTo(hotIdle) < 0) {
+                throw new IllegalArgumentException("warmIdle must not be shorter than hotIdle");
+            }
+            return new TieredCredentialStore(this);
+        }
+
+        private static Duration requirePositive(Duration duration, String name) {
+            Objects.requireNonNull(duration, name);
+            if (duration.isZero() || duration.isNegative()) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.openauth.sim.core.emv.cap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Locale;
+import java.util.OptionalInt;
+import org.junit.jupiter.api.Test;
+
+class EmvCapAtcWindowTest {
+
+    @Test
+    void windowOtpsMatchPerAtcEvaluationWithLiteralIccPayload() {
+        for (String vectorId : new String[] {"respond-baseline", "identify-b6-h10", "sign-amount-0845"}) {
+            EmvCapInput input = EmvCapVectorFixtures.load(vectorId).input();
+            EmvCapAtcWindow window = EmvCapAtcWindow.prepare(input);
+
+            String[] otps = window.window(4, 4);
+
+            for (int delta = -4; delta <= 4; delta++) {
+                int atc = window.baseAtc() + delta;
+                String expected = atc < 0
+                        ? null
+                        : EmvCapEngine.evaluate(withLiteralAtc(input, atc))
+                                .otp()
+                                .decimal();
+                assertEquals(expected, otps[delta + 4], vectorId + " delta " + delta);
+            }
+            assertEquals(EmvCapEngine.evaluate(input), window.result(0));
+        }
+    }
+
+    @Test
+    void matchSearchesInReplayOrderAndSkipsOutOfRangeCounters() {
+        EmvCapInput input = withLiteralAtc(EmvCapVectorFixtures.load("respond-baseline").input(), 1);
+        EmvCapAtcWindow window = EmvCapAtcWindow.prepare(input);
+        String minusOne = window.otp(-1);
+        String plusThree = window.otp(3);
+
+        assertEquals(OptionalInt.of(-1), window.match(minusOne, 1, 0));
+        assertEquals(OptionalInt.of(3), window.match(plusThree, 0, 3));
+        assertFalse(window.match(plusThree, 3, 2).isPresent());
+        assertNull(window.otp(-2));
+        assertEquals(
+                EmvCapEngine.evaluate(withLiteralAtc(input, 4)).otp().decimal(),
+                window.result(3).otp().decimal());
+        assertThrows(IllegalArgumentException.class, () -> window.result(-2));
+        assertThrows(IllegalArgumentException.class, () -> window.window(-1, 0));
+    }
+
+    @Test
+    void customerInputsCanBeSwappedWithoutPreparingAgain() {
+        EmvCapInput input = EmvCapVectorFixtures.load("sign-baseline").input();
+        EmvCapInput.CustomerInputs updated = input.customerInputs()
+                .withReference("918273")
+                .withAmount("1200");
+        EmvCapInput expectedInput = new EmvCapInput(
+                input.mode(),
+                input.masterKeyHex(),
+                input.atcHex(),
+                input.branchFactor(),
+                input.height(),
+                input.ivHex(),
+                input.cdol1Hex(),
+                input.issuerProprietaryBitmapHex(),
+                updated,
+                input.transactionData(),
+                input.iccDataTemplateHex(),
+                input.issuerApplicationDataHex());
+        EmvCapAtcWindow window = EmvCapAtcWindow.prepare(input);
+
+        EmvCapAtcWindow swapped = window.withCustomerInputs(updated);
+
+        assertEquals(EmvCapEngine.evaluate(expectedInput), swapped.result(0));
+        assertEquals(EmvCapEngine.evaluate(input), window.result(0));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> window.withCustomerInputs(new EmvCapInput.CustomerInputs("1", "", "")));
+    }
+
+    private static EmvCapInput withLiteralAtc(EmvCapInput input, int atc) {
+        String atcHex = String.format(Locale.ROOT, "%04X", atc);
+        return new EmvCapInput(
+                input.mode(),
+                input.masterKeyHex(),
+                atcHex,
+                input.branchFactor(),
+                input.height(),
+                input.ivHex(),
+                input.cdol1Hex(),
+                input.issuerProprietaryBitmapHex(),
+                input.customerInputs(),
+                input.transactionData(),
+                input.iccDataTemplateHex().replace("XXXX", atcHex),
+                input.issuerApplicationDataHex());
+    }
+}
@@ -0,0 +1,71 @@
+package io.openauth.sim.core.emv.cap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.HexFormat;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+class EmvCapEvaluationTest {
+
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+
+    @Test
+    void fastEvaluationMatchesFixtureOutputsAndRendersOnce() {
+        for (String vectorId : new String[] {
+            "identify-baseline", "identify-b6-h10", "respond-challenge4", "sign-amount-0845", "sign-amount-50375"
+        }) {
+            EmvCapVectorFixtures.EmvCapVector vector = EmvCapVectorFixtures.load(vectorId);
+
+            EmvCapEvaluation evaluation = EmvCapEngine.evaluateFast(vector.input());
+
+            assertEquals(vector.outputs().otpDecimal(), evaluation.otp(), vectorId);
+            assertEquals(
+                    vector.outputs().maskedDigitsOverlay().replace(".", "").length(),
+                    evaluation.maskedDigitCount(),
+                    vectorId);
+            EmvCapResult result = evaluation.result();
+            assertSame(result, evaluation.result());
+            assertEquals(EmvCapEngine.evaluate(vector.input()), result, vectorId);
+            assertEquals(vector.outputs().otpHex(), result.otp().hex(), vectorId);
+        }
+    }
+
+    @Test
+    void bitExtractionAgreesWithBigIntegerAcrossTheLongBoundary() {
+        byte[] result = HEX.parseHex("F1E2D3C4B5A69788796A5B4C3D2E1F00");
+        for (String bitmapHex : new String[] {
+            "0000000000000000000000000000000F",
+            "FFFFFFFFFFFFFFFF0000000000000000",
+            "FFFFFFFFFFFFFFFF8000000000000000",
+            "A5A5A5A5A5A5A5A5A5A5A5A5A5A5A5A5"
+        }) {
+            byte[] bitmap = HEX.parseHex(bitmapHex);
+            BigInteger expected = referenceValue(bitmap, result);
+
+            EmvCapEngine.OtpComputation computation = EmvCapEngine.OtpComputation.extract(bitmap, result);
+
+            assertEquals(expected.toString(), computation.decimal(), bitmapHex);
+            assertEquals(expected.toString(16).toUpperCase(Locale.ROOT), computation.hex(), bitmapHex);
+            assertEquals(expected.toString(), EmvCapEngine.OtpComputation.decimal(bitmap, result), bitmapHex);
+        }
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> EmvCapEngine.OtpComputation.decimal(new byte[result.length], result));
+    }
+
+    private static BigInteger referenceValue(byte[] bitmap, byte[] result) {
+        BigInteger value = BigInteger.ZERO;
+        for (int i = 0; i < bitmap.length; i++) {
+            for (int bit = 7; bit >= 0; bit--) {
+                if ((bitmap[i] >> bit & 1) != 0) {
+                    value = value.shiftLeft(1).or(BigInteger.valueOf(result[i] >> bit & 1));
+                }
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,146 @@
+package io.openauth.sim.core.emv.cap;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Single-thread throughput of the EMV/CAP Generate AC retail MAC. The {@code rekey-per-block} row reproduces the
+ * previous behaviour (padded message copy, per-block {@code copyOfRange}/XOR arrays and a {@code Cipher.init} before
+ * every DES operation), {@code prepared} runs {@link EmvCapRetailMac} under one session key and
+ * {@code prepared.rotating-keys} alternates between two keys so every call pays for a fresh key schedule. Each row also
+ * reports heap bytes allocated per operation on the measuring thread. Enable with
+ * {@code -Dio.openauth.sim.benchmark=true}.
+ */
+final class EmvCapRetailMacBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger(EmvCapRetailMacBenchmark.class.getName());
+
+    private static final String BENCHMARK_FLAG = "io.openauth.sim.benchmark";
+    private static final int WARMUP_OPERATIONS = 50_000;
+    private static final int MEASURED_OPERATIONS = 500_000;
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Test
+    void retailMacThroughput() {
+        assumeTrue(isBenchmarkEnabled(), "Benchmark flag not enabled");
+
+        EmvCapVectorFixtures.EmvCapVector vector = EmvCapVectorFixtures.load("sign-baseline");
+        byte[] sessionKey = HEX.parseHex(vector.outputs().sessionKeyHex());
+        byte[] otherKey = sessionKey.clone();
+        otherKey[0] ^= 0x02;
+        byte[] terminal = HEX.parseHex(vector.outputs().generateAcInputTerminalHex());
+        byte[] icc = HEX.parseHex(vector.outputs().generateAcInputIccHex());
+        Cipher encrypt = cipher();
+        Cipher decrypt = cipher();
+        EmvCapRetailMac mac = new EmvCapRetailMac();
+        byte[] out = new byte[EmvCapRetailMac.MAC_LENGTH];
+
+        run("rekey-per-block", iteration -> rekeyPerBlock(encrypt, decrypt, sessionKey, terminal, icc)[0]);
+        run("prepared", iteration -> {
+            mac.mac(sessionKey, terminal, icc, out, 0);
+            return out[0];
+        });
+        run("prepared.rotating-keys", iteration -> {
+            mac.mac((iteration & 1) == 0 ? sessionKey : otherKey, terminal, icc, out, 0);
+            return out[0];
+        });
+    }
+
+    private static void run(String label, Operation operation) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            sink += operation.apply(i);
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_OPERATIONS; i++) {
+            sink += operation.apply(i);
+        }
+        long elapsed = Math.max(1L, System.nanoTime() - start);
+        double bytesPerOp = (allocatedBytes() - allocatedBefore) / (double) MEASURED_OPERATIONS;
+        double opsPerSecond = MEASURED_OPERATIONS / (elapsed / 1_000_000_000.0);
+        long checksum = sink;
+        LOGGER.log(
+                Level.INFO,
+                () -> String.format(
+                        Locale.ROOT,
+                        "emv-cap-mac.%s measured=%d totalMs=%.3f throughputOpsPerSec=%.2f nsPerOp=%.1f"
+                                + " bytesPerOp=%.1f checksum=%d",
+                        label,
+                        MEASURED_OPERATIONS,
+                        elapsed / 1_000_000.0,
+                        opsPerSecond,
+                        (double) elapsed / MEASURED_OPERATIONS,
+                        bytesPerOp,
+                        checksum));
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threads) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return 0L;
+    }
+
+    private static byte[] rekeyPerBlock(
+            Cipher encrypt, Cipher decrypt, byte[] sessionKey, byte[] terminal, byte[] icc) {
+        byte[] message = new byte[terminal.length + icc.length];
+        System.arraycopy(terminal, 0, message, 0, terminal.length);
+        System.arraycopy(icc, 0, message, terminal.length, icc.length);
+        byte[] padded = Arrays.copyOf(message, (message.length / 8 + 1) * 8);
+        padded[message.length] = (byte) 0x80;
+        SecretKey leftKey = new SecretKeySpec(Arrays.copyOfRange(sessionKey, 0, 8), "DES");
+        SecretKey rightKey = new SecretKeySpec(Arrays.copyOfRange(sessionKey, 8, 16), "DES");
+        byte[] chaining = new byte[8];
+        try {
+            for (int offset = 0; offset < padded.length; offset += 8) {
+                byte[] block = Arrays.copyOfRange(padded, offset, offset + 8);
+                byte[] xored = new byte[8];
+                for (int i = 0; i < 8; i++) {
+                    xored[i] = (byte) (block[i] ^ chaining[i]);
+                }
+                encrypt.init(Cipher.ENCRYPT_MODE, leftKey);
+                chaining = encrypt.doFinal(xored);
+            }
+            decrypt.init(Cipher.DECRYPT_MODE, rightKey);
+            byte[] intermediate = decrypt.doFinal(chaining);
+            encrypt.init(Cipher.ENCRYPT_MODE, leftKey);
+            return encrypt.doFinal(intermediate);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Cipher cipher() {
+        try {
+            return Cipher.getInstance("DES/ECB/NoPadding");
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static boolean isBenchmarkEnabled() {
+        if (Boolean.getBoolean(BENCHMARK_FLAG)) {
+            return true;
+        }
+        String env = System.getenv("IO_OPENAUTH_SIM_BENCHMARK");
+        return env != null && Boolean.parseBoolean(env);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        int apply(long iteration);
+    }
+}
@@ -0,0 +1,104 @@
+package io.openauth.sim.core.emv.cap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.Test;
+
+class EmvCapRetailMacTest {
+
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+
+    @Test
+    void inPlaceMacMatchesPaddedCbcReferenceForEveryBlockBoundary() throws GeneralSecurityException {
+        byte[] key = HEX.parseHex("0123456789ABCDEFFEDCBA9876543210");
+        EmvCapRetailMac mac = new EmvCapRetailMac();
+
+        for (int firstLength = 0; firstLength <= 17; firstLength++) {
+            for (int secondLength = 0; secondLength <= 17; secondLength++) {
+                byte[] first = sequence(firstLength, 0x11);
+                byte[] second = sequence(secondLength, 0x5A);
+                byte[] out = new byte[EmvCapRetailMac.MAC_LENGTH + 2];
+
+                mac.mac(key, first, second, out, 1);
+
+                assertArrayEquals(
+                        reference(key, first, second),
+                        Arrays.copyOfRange(out, 1, 1 + EmvCapRetailMac.MAC_LENGTH),
+                        firstLength + "+" + secondLength);
+            }
+        }
+        assertEquals(1, mac.keySchedules());
+    }
+
+    @Test
+    void keySchedulesAreReplacedOnlyWhenTheSessionKeyChanges() throws GeneralSecurityException {
+        byte[] left = HEX.parseHex("0123456789ABCDEFFEDCBA9876543210");
+        byte[] right = HEX.parseHex("FEDCBA98765432100123456789ABCDEF");
+        byte[] message = sequence(21, 0x03);
+        EmvCapRetailMac mac = new EmvCapRetailMac();
+        byte[] out = new byte[EmvCapRetailMac.MAC_LENGTH];
+
+        mac.mac(left, message, new byte[0], out, 0);
+        mac.mac(left.clone(), message, new byte[0], out, 0);
+        mac.mac(right, message, new byte[0], out, 0);
+
+        assertArrayEquals(reference(right, message, new byte[0]), out);
+        assertEquals(2, mac.keySchedules());
+        assertThrows(IllegalArgumentException.class, () -> mac.mac(new byte[8], message, message, out, 0));
+    }
+
+    @Test
+    void generateAcResultReproducesFixtureCryptograms() {
+        for (String vectorId : new String[] {"identify-baseline", "respond-baseline", "sign-baseline"}) {
+            EmvCapVectorFixtures.EmvCapVector vector = EmvCapVectorFixtures.load(vectorId);
+            EmvCapInput input = vector.input();
+            byte[] result = EmvCapEngine.generateAcResult(
+                    (byte) 0x80,
+                    Integer.parseInt(input.atcHex(), 16),
+                    HEX.parseHex(vector.outputs().sessionKeyHex()),
+                    HEX.parseHex(vector.outputs().generateAcInputTerminalHex()),
+                    HEX.parseHex(vector.outputs().generateAcInputIccHex()),
+                    HEX.parseHex(input.issuerApplicationDataHex()));
+
+            assertEquals(vector.outputs().generateAcResultHex(), HEX.formatHex(result), vectorId);
+        }
+    }
+
+    private static byte[] reference(byte[] key, byte[] first, byte[] second) throws GeneralSecurityException {
+        int length = first.length + second.length;
+        byte[] padded = new byte[(length / 8 + 1) * 8];
+        System.arraycopy(first, 0, padded, 0, first.length);
+        System.arraycopy(second, 0, padded, first.length, second.length);
+        padded[length] = (byte) 0x80;
+
+        Cipher cbc = Cipher.getInstance("DES/CBC/NoPadding");
+        cbc.init(
+                Cipher.ENCRYPT_MODE,
+                new SecretKeySpec(Arrays.copyOfRange(key, 0, 8), "DES"),
+                new IvParameterSpec(new byte[8]));
+        byte[] chained = cbc.doFinal(padded);
+        byte[] h = Arrays.copyOfRange(chained, chained.length - 8, chained.length);
+
+        Cipher ecb = Cipher.getInstance("DES/ECB/NoPadding");
+        ecb.init(Cipher.DECRYPT_MODE, new SecretKeySpec(Arrays.copyOfRange(key, 8, 16), "DES"));
+        byte[] intermediate = ecb.doFinal(h);
+        ecb.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(Arrays.copyOfRange(key, 0, 8), "DES"));
+        return ecb.doFinal(intermediate);
+    }
+
+    private static byte[] sequence(int length, int seed) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (seed + i * 37);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,94 @@
+package io.openauth.sim.core.emv.cap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HexFormat;
+import org.junit.jupiter.api.Test;
+
+class EmvCapSessionKeyCacheTest {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Test
+    void cachedDerivationMatchesFullTreeWalkAcrossNeighbouringAtcs() {
+        for (String vectorId : new String[] {"identify-baseline", "identify-b2-h6", "identify-b6-h10"}) {
+            EmvCapInput input = EmvCapVectorFixtures.load(vectorId).input();
+            byte[] masterKey = HEX.parseHex(input.masterKeyHex());
+            byte[] iv = HEX.parseHex(input.ivHex());
+            int base = Integer.parseUnsignedInt(input.atcHex(), 16);
+            EmvCapSessionKeyCache cache = new EmvCapSessionKeyCache();
+
+            for (int atc = Math.max(0, base - 20); atc <= base + 20; atc++) {
+                assertArrayEquals(
+                        EmvCapSessionKeyCache.deriveUncached(
+                                masterKey, atc, input.branchFactor(), input.height(), iv),
+                        cache.derive(masterKey, atc, input.branchFactor(), input.height(), iv),
+                        vectorId + " atc " + atc);
+            }
+            assertTrue(cache.treeNodeCount() < 41 * Math.max(1, input.height() - 1), vectorId);
+        }
+    }
+
+    @Test
+    void boundedCachesStayCorrectAfterEvictionAndHandOutCopies() {
+        EmvCapInput input = EmvCapVectorFixtures.load("identify-b2-h6").input();
+        byte[] masterKey = HEX.parseHex(input.masterKeyHex());
+        byte[] iv = HEX.parseHex(input.ivHex());
+        EmvCapSessionKeyCache cache = new EmvCapSessionKeyCache(4, 3);
+
+        for (int atc = 0; atc < 64; atc++) {
+            byte[] expected = EmvCapSessionKeyCache.deriveUncached(masterKey, atc, 2, 6, iv);
+            byte[] first = cache.derive(masterKey, atc, 2, 6, iv);
+            first[0] ^= 0x01;
+            assertArrayEquals(expected, cache.derive(masterKey, atc, 2, 6, iv), "atc " + atc);
+        }
+        assertTrue(cache.sessionKeyCount() <= 4);
+        assertTrue(cache.treeNodeCount() <= 3);
+
+        byte[] otherIv = iv.clone();
+        otherIv[15] ^= 0x01;
+        assertArrayEquals(
+                EmvCapSessionKeyCache.deriveUncached(masterKey, 7, 2, 6, otherIv),
+                cache.derive(masterKey, 7, 2, 6, otherIv));
+    }
+
+    @Test
+    void fullCachesEvictSingleEntriesAndSweepsSkipTheSessionKeyMap() {
+        EmvCapInput input = EmvCapVectorFixtures.load("identify-b2-h6").input();
+        byte[] masterKey = HEX.parseHex(input.masterKeyHex());
+        byte[] iv = HEX.parseHex(input.ivHex());
+        EmvCapSessionKeyCache cache = new EmvCapSessionKeyCache(2, 20);
+
+        cache.derive(masterKey, 1, 2, 6, iv);
+        cache.derive(masterKey, 2, 2, 6, iv);
+        cache.derive(masterKey, 1, 2, 6, iv);
+        cache.derive(masterKey, 3, 2, 6, iv);
+        // Clearing wholesale would have left only ATC 3 behind.
+        assertEquals(2, cache.sessionKeyCount());
+
+        for (int atc = 0; atc < 32; atc++) {
+            assertArrayEquals(
+                    EmvCapSessionKeyCache.deriveUncached(masterKey, atc, 2, 6, iv),
+                    cache.deriveThroughTree(masterKey, atc, 2, 6, iv),
+                    "atc " + atc);
+        }
+        // The sweep walks 31 distinct nodes; a full map now drops one node at a time instead of all of them.
+        assertEquals(2, cache.sessionKeyCount());
+        assertEquals(20, cache.treeNodeCount());
+    }
+
+    @Test
+    void rejectsInvalidTreeShapes() {
+        EmvCapSessionKeyCache cache = new EmvCapSessionKeyCache();
+        byte[] key = new byte[16];
+        byte[] iv = new byte[16];
+
+        assertThrows(IllegalArgumentException.class, () -> cache.derive(key, 1, 1, 4, iv));
+        assertThrows(IllegalArgumentException.class, () -> cache.derive(key, 1, 4, 17, iv));
+        assertThrows(IllegalArgumentException.class, () -> cache.derive(key, 1, 4, 4, new byte[8]));
+        assertEquals(0, cache.sessionKeyCount());
+    }
+}
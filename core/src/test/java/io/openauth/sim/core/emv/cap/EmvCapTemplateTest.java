@@ -0,0 +1,96 @@
+package io.openauth.sim.core.emv.cap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.openauth.sim.core.model.SecretMaterial;
+import java.util.HexFormat;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class EmvCapTemplateTest {
+
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+
+    @Test
+    void filledTemplatesReproduceFixturePayloads() {
+        for (String vectorId : new String[] {
+            "identify-baseline", "identify-b2-h6", "respond-challenge8", "sign-baseline", "sign-amount-50375"
+        }) {
+            EmvCapVectorFixtures.EmvCapVector vector = EmvCapVectorFixtures.load(vectorId);
+            EmvCapInput input = vector.input();
+            EmvCapTemplate template =
+                    EmvCapTemplate.compile(input.mode(), input.cdol1Hex(), input.iccDataTemplateHex());
+            int atc = Integer.parseInt(input.atcHex(), 16);
+
+            assertEquals(
+                    vector.outputs().generateAcInputTerminalHex(),
+                    HEX.formatHex(template.terminal(input.customerInputs())),
+                    vectorId);
+            assertEquals(vector.outputs().generateAcInputIccHex(), HEX.formatHex(template.icc(atc)), vectorId);
+        }
+    }
+
+    @Test
+    void bcdSlotsPadTruncateAndRejectNonDecimalInput() {
+        EmvCapTemplate sign = EmvCapTemplate.compile(EmvCapMode.SIGN, "9F020395029F3702", "XXXX00");
+
+        assertEquals(
+                "0012348000" + "5678",
+                HEX.formatHex(sign.terminal(new EmvCapInput.CustomerInputs("1", "567890", "1234"))));
+        assertEquals("0A0B00", HEX.formatHex(sign.icc(0x0A0B)));
+        IllegalArgumentException nonDecimal = assertThrows(
+                IllegalArgumentException.class,
+                () -> sign.terminal(new EmvCapInput.CustomerInputs("1", "12", "12A4")));
+        assertEquals("BCD fields must contain decimal digits only", nonDecimal.getMessage());
+
+        EmvCapTemplate zeroLength = EmvCapTemplate.compile(EmvCapMode.IDENTIFY, "9F020095019F3700", "00");
+        assertEquals(
+                "BCD length must be positive",
+                assertThrows(
+                                IllegalArgumentException.class,
+                                () -> zeroLength.terminal(new EmvCapInput.CustomerInputs("", "", "")))
+                        .getMessage());
+        assertThrows(
+                IllegalArgumentException.class, () -> EmvCapTemplate.compile(EmvCapMode.IDENTIFY, "9F", "00"));
+    }
+
+    @Test
+    void deserializedCredentialsShareTheCachedTemplate() {
+        EmvCapInput input = EmvCapVectorFixtures.load("respond-baseline").input();
+        String iccTemplate = input.iccDataTemplateHex() + "00";
+        EmvCapCredentialDescriptor descriptor = new EmvCapCredentialDescriptor(
+                "template-cache",
+                EmvCapMode.RESPOND,
+                SecretMaterial.fromHex(input.masterKeyHex()),
+                input.atcHex(),
+                input.branchFactor(),
+                input.height(),
+                input.ivHex(),
+                input.cdol1Hex(),
+                input.issuerProprietaryBitmapHex(),
+                iccTemplate,
+                input.issuerApplicationDataHex(),
+                input.customerInputs().challenge(),
+                "",
+                "",
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty());
+        EmvCapCredentialPersistenceAdapter adapter = new EmvCapCredentialPersistenceAdapter();
+
+        int before = EmvCapTemplate.cacheSize();
+        adapter.deserialize(adapter.serialize(descriptor));
+        int afterLoad = EmvCapTemplate.cacheSize();
+        EmvCapTemplate cached = EmvCapTemplate.of(EmvCapMode.RESPOND, input.cdol1Hex(), iccTemplate);
+
+        assertEquals(before + 1, afterLoad);
+        assertEquals(afterLoad, EmvCapTemplate.cacheSize());
+        assertSame(cached, EmvCapTemplate.of(EmvCapMode.RESPOND, input.cdol1Hex(), iccTemplate));
+        assertEquals(
+                HEX.formatHex(EmvCapTemplate.compile(EmvCapMode.RESPOND, input.cdol1Hex(), iccTemplate)
+                        .terminal(input.customerInputs())),
+                HEX.formatHex(cached.terminal(input.customerInputs())));
+    }
+}
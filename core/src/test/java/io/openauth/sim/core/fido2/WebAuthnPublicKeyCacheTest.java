@@ -0,0 +1,93 @@
+package io.openauth.sim.core.fido2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.openauth.sim.core.fido2.WebAuthnFixtures.WebAuthnFixture;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class WebAuthnPublicKeyCacheTest {
+
+    private static final WebAuthnFixture PACKED_ES256 = WebAuthnFixtures.loadPackedEs256();
+
+    @Test
+    void repeatedCredentialKeysDecodeOnceAndRotatedKeysDecodeAgain() throws GeneralSecurityException {
+        WebAuthnStoredCredential stored = PACKED_ES256.storedCredential();
+        WebAuthnPublicKeyCache cache = new WebAuthnPublicKeyCache();
+        AtomicInteger decodes = new AtomicInteger();
+        WebAuthnPublicKeyCache.Decoder decoder = (cose, algorithm) -> {
+            decodes.incrementAndGet();
+            return WebAuthnPublicKeyFactory.fromCose(cose, algorithm);
+        };
+
+        PublicKey first = cache.resolve(stored.credentialId(), stored.publicKeyCose(), stored.algorithm(), decoder);
+        PublicKey second = cache.resolve(stored.credentialId(), stored.publicKeyCose(), stored.algorithm(), decoder);
+        assertSame(first, second);
+        assertEquals(1, decodes.get());
+
+        WebAuthnFixture other = WebAuthnFixtures.w3cFixtures().stream()
+                .filter(fixture -> fixture.storedCredential().algorithm() == WebAuthnSignatureAlgorithm.ES256)
+                .filter(fixture -> !fixture.id().equals(PACKED_ES256.id()))
+                .findFirst()
+                .orElseThrow();
+        PublicKey rotated = cache.resolve(
+                stored.credentialId(), other.storedCredential().publicKeyCose(), stored.algorithm(), decoder);
+        assertEquals(2, decodes.get());
+        assertNotEquals(first, rotated);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void decodeFailuresAreNotCachedAndTheMapStaysBounded() throws GeneralSecurityException {
+        WebAuthnPublicKeyCache cache = new WebAuthnPublicKeyCache(2);
+        AtomicInteger decodes = new AtomicInteger();
+        WebAuthnPublicKeyCache.Decoder failing = (cose, algorithm) -> {
+            decodes.incrementAndGet();
+            throw new GeneralSecurityException("bad key");
+        };
+        byte[] credentialId = {1, 2, 3};
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            assertThrows(
+                    GeneralSecurityException.class,
+                    () -> cache.resolve(credentialId, new byte[] {7}, WebAuthnSignatureAlgorithm.ES256, failing));
+        }
+        assertEquals(2, decodes.get());
+        assertEquals(0, cache.size());
+
+        WebAuthnStoredCredential stored = PACKED_ES256.storedCredential();
+        for (int i = 0; i < 5; i++) {
+            cache.resolve(
+                    new byte[] {(byte) i},
+                    stored.publicKeyCose(),
+                    stored.algorithm(),
+                    WebAuthnPublicKeyFactory::fromCose);
+            assertTrue(cache.size() <= 2);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new WebAuthnPublicKeyCache(0));
+    }
+
+    @Test
+    void verifierStillRejectsKeysForTheWrongAlgorithmAfterCaching() {
+        WebAuthnAssertionVerifier verifier = new WebAuthnAssertionVerifier();
+        WebAuthnStoredCredential stored = PACKED_ES256.storedCredential();
+        assertTrue(verifier.verify(stored, PACKED_ES256.request()).success());
+
+        WebAuthnStoredCredential mismatched = new WebAuthnStoredCredential(
+                stored.relyingPartyId(),
+                stored.credentialId(),
+                stored.publicKeyCose(),
+                stored.signatureCounter(),
+                stored.userVerificationRequired(),
+                WebAuthnSignatureAlgorithm.ES384);
+
+        WebAuthnVerificationResult result = verifier.verify(mismatched, PACKED_ES256.request());
+        assertEquals(WebAuthnVerificationError.SIGNATURE_INVALID, result.error().orElseThrow());
+    }
+}
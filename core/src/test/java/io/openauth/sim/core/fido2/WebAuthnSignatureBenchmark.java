@@ -0,0 +1,90 @@
+package io.openauth.sim.core.fido2;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.Signature;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Single-thread verifies per second for each WebAuthn signature algorithm. The {@code get-instance-per-call} rows
+ * reproduce the previous behaviour of looking up (and, for PS256, configuring) a {@link Signature} per verification;
+ * the {@code pooled} rows go through {@link WebAuthnSignatures}. Enable with {@code -Dio.openauth.sim.benchmark=true}.
+ */
+final class WebAuthnSignatureBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger(WebAuthnSignatureBenchmark.class.getName());
+
+    private static final String BENCHMARK_FLAG = "io.openauth.sim.benchmark";
+    private static final int WARMUP_OPERATIONS = 500;
+    private static final int MEASURED_OPERATIONS = 2_000;
+    private static final byte[] PAYLOAD =
+            "authenticator-data||client-data-hash".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void verificationThroughputPerAlgorithm() throws GeneralSecurityException {
+        assumeTrue(isBenchmarkEnabled(), "Benchmark flag not enabled");
+
+        for (WebAuthnSignatureAlgorithm algorithm : WebAuthnSignatureAlgorithm.values()) {
+            KeyPair keyPair = WebAuthnSignaturesTest.keyPair(algorithm);
+            Signature signer = WebAuthnSignatures.signer(algorithm, keyPair.getPrivate());
+            signer.update(PAYLOAD);
+            byte[] signature = signer.sign();
+
+            run(algorithm.name() + ".get-instance-per-call", () -> {
+                Signature verifier = WebAuthnSignatures.create(algorithm);
+                verifier.initVerify(keyPair.getPublic());
+                verifier.update(PAYLOAD);
+                return verifier.verify(signature);
+            });
+            run(algorithm.name() + ".pooled", () -> {
+                Signature verifier = WebAuthnSignatures.verifier(algorithm, keyPair.getPublic());
+                verifier.update(PAYLOAD);
+                return verifier.verify(signature);
+            });
+        }
+    }
+
+    private static void run(String label, Operation operation) throws GeneralSecurityException {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            sink += operation.verify() ? 1 : 0;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_OPERATIONS; i++) {
+            sink += operation.verify() ? 1 : 0;
+        }
+        long elapsed = Math.max(1L, System.nanoTime() - start);
+        double opsPerSecond = MEASURED_OPERATIONS / (elapsed / 1_000_000_000.0);
+        long verified = sink;
+        LOGGER.log(
+                Level.INFO,
+                () -> String.format(
+                        Locale.ROOT,
+                        "webauthn-signature.%s measured=%d totalMs=%.3f verifiesPerSec=%.2f usPerOp=%.2f verified=%d",
+                        label,
+                        MEASURED_OPERATIONS,
+                        elapsed / 1_000_000.0,
+                        opsPerSecond,
+                        elapsed / 1_000.0 / MEASURED_OPERATIONS,
+                        verified));
+    }
+
+    private static boolean isBenchmarkEnabled() {
+        if (Boolean.getBoolean(BENCHMARK_FLAG)) {
+            return true;
+        }
+        String env = System.getenv("IO_OPENAUTH_SIM_BENCHMARK");
+        return env != null && Boolean.parseBoolean(env);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        boolean verify() throws GeneralSecurityException;
+    }
+}
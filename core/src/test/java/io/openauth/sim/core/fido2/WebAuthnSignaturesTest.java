@@ -0,0 +1,89 @@
+package io.openauth.sim.core.fido2;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class WebAuthnSignaturesTest {
+
+    private static final byte[] PAYLOAD = "webauthn-signed-payload".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void pooledInstancesSignAndVerifyAcrossKeyChangesForEveryAlgorithm() throws GeneralSecurityException {
+        for (WebAuthnSignatureAlgorithm algorithm : WebAuthnSignatureAlgorithm.values()) {
+            KeyPair first = keyPair(algorithm);
+            KeyPair second = keyPair(algorithm);
+
+            Signature signer = WebAuthnSignatures.signer(algorithm, first.getPrivate());
+            signer.update(PAYLOAD);
+            byte[] firstSignature = signer.sign();
+            Signature again = WebAuthnSignatures.signer(algorithm, second.getPrivate());
+            assertSame(signer, again, algorithm.name());
+            again.update(PAYLOAD);
+            byte[] secondSignature = again.sign();
+
+            assertTrue(verifies(algorithm, first, firstSignature), algorithm.name());
+            assertTrue(verifies(algorithm, second, secondSignature), algorithm.name());
+            assertFalse(verifies(algorithm, second, firstSignature), algorithm.name());
+
+            Signature reference = WebAuthnSignatures.create(algorithm);
+            reference.initVerify(first.getPublic());
+            reference.update(PAYLOAD);
+            assertTrue(reference.verify(firstSignature), algorithm.name());
+        }
+    }
+
+    @Test
+    void eachThreadOwnsItsInstances() throws Exception {
+        KeyPair keyPair = keyPair(WebAuthnSignatureAlgorithm.ES256);
+        Signature local = WebAuthnSignatures.verifier(WebAuthnSignatureAlgorithm.ES256, keyPair.getPublic());
+        Signature other = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return WebAuthnSignatures.verifier(WebAuthnSignatureAlgorithm.ES256, keyPair.getPublic());
+                    } catch (GeneralSecurityException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                })
+                .get();
+
+        assertNotSame(local, other);
+    }
+
+    private static boolean verifies(WebAuthnSignatureAlgorithm algorithm, KeyPair keyPair, byte[] signature)
+            throws GeneralSecurityException {
+        Signature verifier = WebAuthnSignatures.verifier(algorithm, keyPair.getPublic());
+        verifier.update(PAYLOAD);
+        return verifier.verify(signature);
+    }
+
+    static KeyPair keyPair(WebAuthnSignatureAlgorithm algorithm) throws GeneralSecurityException {
+        KeyPairGenerator generator;
+        switch (algorithm) {
+            case ES256, ES384, ES512 -> {
+                generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec(
+                        switch (algorithm) {
+                            case ES256 -> "secp256r1";
+                            case ES384 -> "secp384r1";
+                            default -> "secp521r1";
+                        }));
+            }
+            case RS256, PS256 -> {
+                generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+            }
+            default -> generator = KeyPairGenerator.getInstance("Ed25519");
+        }
+        return generator.generateKeyPair();
+    }
+}
@@ -0,0 +1,73 @@
+package io.openauth.sim.core.otp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.Test;
+
+final class HmacEngineTest {
+
+    @Test
+    void matchesFreshlyKeyedMacAcrossMoreSecretsThanThePoolHolds() throws Exception {
+        int secrets = HmacEngine.KEYS_PER_ALGORITHM * 2;
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < secrets; i++) {
+                byte[] secret = ("secret-" + i + "-padded-to-32-bytes-min").getBytes(StandardCharsets.US_ASCII);
+                for (HmacAlgorithm algorithm : HmacAlgorithm.values()) {
+                    long counter = i * 31L + round;
+                    assertArrayEquals(
+                            reference(algorithm, secret, counter), HmacEngine.compute(algorithm, secret, counter));
+                }
+            }
+        }
+    }
+
+    @Test
+    void cachedKeyIsNotAffectedByCallerMutatingTheSecret() throws Exception {
+        byte[] secret = "12345678901234567890".getBytes(StandardCharsets.US_ASCII);
+        byte[] original = HmacEngine.compute(HmacAlgorithm.HMAC_SHA1, secret, 1L);
+
+        secret[0] = 'X';
+        assertArrayEquals(
+                reference(HmacAlgorithm.HMAC_SHA1, secret, 1L),
+                HmacEngine.compute(HmacAlgorithm.HMAC_SHA1, secret, 1L));
+
+        secret[0] = '1';
+        assertArrayEquals(original, HmacEngine.compute(HmacAlgorithm.HMAC_SHA1, secret, 1L));
+    }
+
+    @Test
+    void keysLongerThanTheBlockAreHashedFirst() throws Exception {
+        byte[] message = "arbitrary length message spanning more than one block of input data ".repeat(4)
+                .getBytes(StandardCharsets.US_ASCII);
+        for (HmacAlgorithm algorithm : HmacAlgorithm.values()) {
+            // 64 and 128 bytes are the SHA-1/SHA-256 and SHA-512 block lengths.
+            for (int length : new int[] {1, 64, 65, 128, 129, 300}) {
+                byte[] secret = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    secret[i] = (byte) (i * 7 + length);
+                }
+                Mac mac = Mac.getInstance(algorithm.macAlgorithm());
+                mac.init(new SecretKeySpec(secret, algorithm.macAlgorithm()));
+                assertArrayEquals(mac.doFinal(message), HmacEngine.compute(algorithm, secret, message));
+            }
+        }
+    }
+
+    @Test
+    void counterBytesAreBigEndian() {
+        for (long counter : new long[] {0L, 1L, 255L, 256L, 0x0102030405060708L, Long.MAX_VALUE, -1L}) {
+            assertArrayEquals(
+                    ByteBuffer.allocate(Long.BYTES).putLong(counter).array(), HmacEngine.counterBytes(counter));
+        }
+    }
+
+    private static byte[] reference(HmacAlgorithm algorithm, byte[] secret, long counter) throws Exception {
+        Mac mac = Mac.getInstance(algorithm.macAlgorithm());
+        mac.init(new SecretKeySpec(secret, algorithm.macAlgorithm()));
+        return mac.doFinal(ByteBuffer.allocate(Long.BYTES).putLong(counter).array());
+    }
+}
@@ -0,0 +1,47 @@
+package io.openauth.sim.core.otp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class OtpDigitsTest {
+
+    @Test
+    void formatsWithLeadingZeros() {
+        assertEquals("000042", OtpDigits.format(42, 6));
+        assertEquals("94287082", OtpDigits.format(94_287_082, 8));
+        assertEquals("0", OtpDigits.format(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> OtpDigits.format(1_000_000, 6));
+        assertThrows(IllegalArgumentException.class, () -> OtpDigits.format(-1, 6));
+    }
+
+    @Test
+    void formatsIntoReusableBuffer() {
+        char[] buffer = "xx--------yy".toCharArray();
+
+        int end = OtpDigits.formatTo(7, 8, buffer, 2);
+
+        assertEquals(10, end);
+        assertArrayEquals("xx00000007yy".toCharArray(), buffer);
+    }
+
+    @Test
+    void parsesDigitsAndRejectsMalformedInput() {
+        assertEquals(755_224, OtpDigits.parse("755224", 6));
+        assertEquals(42, OtpDigits.parse(" 000042\t", 6));
+        assertEquals(-1, OtpDigits.parse("75522", 6));
+        assertEquals(-1, OtpDigits.parse("75522a", 6));
+        assertEquals(-1, OtpDigits.parse("7552 24", 7));
+        assertEquals(-1, OtpDigits.parse("١٢٣٤٥٦", 6));
+    }
+
+    @Test
+    void modulusComesFromPowersOfTen() {
+        assertEquals(1_000_000, OtpDigits.modulus(6));
+        assertEquals(1_000_000_000, OtpDigits.modulus(OtpDigits.MAX_DIGITS));
+        assertThrows(IllegalArgumentException.class, () -> OtpDigits.modulus(0));
+        assertThrows(IllegalArgumentException.class, () -> OtpDigits.modulus(10));
+    }
+}
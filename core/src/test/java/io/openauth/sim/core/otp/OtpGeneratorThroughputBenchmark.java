@@ -0,0 +1,183 @@
+package io.openauth.sim.core.otp;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.sun.management.ThreadMXBean;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.otp.hotp.HotpDescriptor;
+import io.openauth.sim.core.otp.hotp.HotpGenerator;
+import io.openauth.sim.core.otp.hotp.HotpHashAlgorithm;
+import io.openauth.sim.core.otp.totp.TotpDescriptor;
+import io.openauth.sim.core.otp.totp.TotpDriftWindow;
+import io.openauth.sim.core.otp.totp.TotpHashAlgorithm;
+import io.openauth.sim.core.otp.totp.TotpValidator;
+import java.lang.management.ManagementFactory;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Single-thread (per core) throughput of the OTP HMAC step, HOTP generation and TOTP window
+ * validation. The {@code rekey-per-call} rows reproduce the previous behaviour of looking up and
+ * initialising a {@link Mac} for every OTP, {@code keyed-mac} reuses one initialised {@code Mac}, and
+ * the {@code engine} rows go through the pooled instances of {@link HmacEngine};
+ * {@code generate}/{@code verify} rows measure the string API and {@code generateInt}/{@code verifyInt}
+ * the primitive one. Each row also reports heap bytes allocated per operation on the measuring thread.
+ * Enable with {@code -Dio.openauth.sim.benchmark=true}.
+ */
+final class OtpGeneratorThroughputBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger(OtpGeneratorThroughputBenchmark.class.getName());
+
+    private static final String BENCHMARK_FLAG = "io.openauth.sim.benchmark";
+    private static final int WARMUP_OPERATIONS = 50_000;
+    private static final int MEASURED_OPERATIONS = 500_000;
+    private static final SecretMaterial SECRET = SecretMaterial.fromStringUtf8("12345678901234567890123456789012");
+
+    @Test
+    void hotpGenerationThroughput() {
+        assumeTrue(isBenchmarkEnabled(), "Benchmark flag not enabled");
+
+        for (HotpHashAlgorithm algorithm : HotpHashAlgorithm.values()) {
+            HotpDescriptor descriptor = HotpDescriptor.create("benchmark-hotp", SECRET, algorithm, 6);
+            byte[] secret = SECRET.value();
+            run(
+                    "hmac." + algorithm.name() + ".rekey-per-call",
+                    counter -> rekeyPerCall(algorithm.macAlgorithm(), secret, counter));
+            Mac keyed = keyedMac(algorithm.macAlgorithm(), secret);
+            run("hmac." + algorithm.name() + ".keyed-mac", counter -> doFinal(keyed, counter));
+            run("hmac." + algorithm.name() + ".engine", counter -> engine(algorithm.hmacAlgorithm(), secret, counter));
+            run(
+                    "hotp." + algorithm.name() + ".generate",
+                    counter -> HotpGenerator.generate(descriptor, counter).length());
+            run("hotp." + algorithm.name() + ".generateInt", counter -> HotpGenerator.generateInt(descriptor, counter));
+        }
+    }
+
+    @Test
+    void totpWindowValidationThroughput() {
+        assumeTrue(isBenchmarkEnabled(), "Benchmark flag not enabled");
+
+        // A miss walks the whole +/-3 step window, i.e. seven HMACs per validation.
+        TotpDriftWindow window = TotpDriftWindow.of(3, 3);
+        for (TotpHashAlgorithm algorithm : TotpHashAlgorithm.values()) {
+            TotpDescriptor descriptor =
+                    TotpDescriptor.create("benchmark-totp", SECRET, algorithm, 6, Duration.ofSeconds(30));
+            byte[] secret = SECRET.value();
+            run("totp." + algorithm.name() + ".window7.rekey-per-call", iteration -> {
+                long baseStep = 56_666_666L + iteration;
+                int folded = 0;
+                for (long step = baseStep - 3; step <= baseStep + 3; step++) {
+                    folded ^= rekeyPerCall(algorithm.macAlgorithm(), secret, step);
+                }
+                return folded;
+            });
+            run("totp." + algorithm.name() + ".window7.engine", iteration -> {
+                long baseStep = 56_666_666L + iteration;
+                int folded = 0;
+                for (long step = baseStep - 3; step <= baseStep + 3; step++) {
+                    folded ^= engine(algorithm.hmacAlgorithm(), secret, step);
+                }
+                return folded;
+            });
+            run("totp." + algorithm.name() + ".window7.verify", iteration -> {
+                Instant now = Instant.ofEpochSecond(1_700_000_000L + iteration * 30L);
+                return TotpValidator.verify(descriptor, "000000", now, window, null).valid() ? 1 : 0;
+            });
+            run("totp." + algorithm.name() + ".window7.verifyInt", iteration -> {
+                Instant now = Instant.ofEpochSecond(1_700_000_000L + iteration * 30L);
+                return TotpValidator.verifyInt(descriptor, 0, now, window, null).valid() ? 1 : 0;
+            });
+        }
+    }
+
+    private static void run(String label, Operation operation) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            sink += operation.apply(i);
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_OPERATIONS; i++) {
+            sink += operation.apply(i);
+        }
+        long elapsed = Math.max(1L, System.nanoTime() - start);
+        double bytesPerOp = (allocatedBytes() - allocatedBefore) / (double) MEASURED_OPERATIONS;
+        double opsPerSecond = MEASURED_OPERATIONS / (elapsed / 1_000_000_000.0);
+        long checksum = sink;
+        LOGGER.log(
+                Level.INFO,
+                () -> String.format(
+                        Locale.ROOT,
+                        "otp-hmac.%s measured=%d totalMs=%.3f throughputOpsPerSec=%.2f nsPerOp=%.1f bytesPerOp=%.1f"
+                                + " checksum=%d",
+                        label,
+                        MEASURED_OPERATIONS,
+                        elapsed / 1_000_000.0,
+                        opsPerSecond,
+                        (double) elapsed / MEASURED_OPERATIONS,
+                        bytesPerOp,
+                        checksum));
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threads) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return 0L;
+    }
+
+    private static int rekeyPerCall(String macAlgorithm, byte[] secret, long counter) {
+        try {
+            Mac mac = Mac.getInstance(macAlgorithm);
+            mac.init(new SecretKeySpec(secret, macAlgorithm));
+            byte[] hmac = mac.doFinal(HmacEngine.counterBytes(counter));
+            return hmac[hmac.length - 1];
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Mac keyedMac(String macAlgorithm, byte[] secret) {
+        try {
+            Mac mac = Mac.getInstance(macAlgorithm);
+            mac.init(new SecretKeySpec(secret, macAlgorithm));
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static int doFinal(Mac mac, long counter) {
+        byte[] hmac = mac.doFinal(HmacEngine.counterBytes(counter));
+        return hmac[hmac.length - 1];
+    }
+
+    private static int engine(HmacAlgorithm algorithm, byte[] secret, long counter) {
+        try {
+            byte[] hmac = HmacEngine.compute(algorithm, secret, counter);
+            return hmac[hmac.length - 1];
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static boolean isBenchmarkEnabled() {
+        if (Boolean.getBoolean(BENCHMARK_FLAG)) {
+            return true;
+        }
+        String env = System.getenv("IO_OPENAUTH_SIM_BENCHMARK");
+        return env != null && Boolean.parseBoolean(env);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        int apply(long iteration);
+    }
+}
@@ -2,6 +2,7 @@ package io.openauth.sim.core.otp.hotp;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.openauth.sim.core.model.SecretMaterial;
 import java.util.Comparator;
@@ -40,6 +41,34 @@ class HotpGeneratorTest {
         assertEquals(vector.otp(), otp, () -> "vectorId=" + vector.vectorId());
     }
 
+    @Test
+    void integerApiAgreesWithStringApi() {
+        HotpJsonVectorFixtures.loadAll().forEach(vector -> {
+            HotpDescriptor descriptor = HotpDescriptor.create(
+                    "vector-" + vector.vectorId(), vector.secret(), vector.algorithm(), vector.digits());
+            int otp = HotpGenerator.generateInt(descriptor, vector.counter());
+            assertEquals(Integer.parseInt(vector.otp()), otp, () -> "vectorId=" + vector.vectorId());
+            assertTrue(HotpValidator.verifyInt(descriptor, vector.counter(), otp).valid());
+        });
+    }
+
+    @Test
+    void bulkApiMatchesSingleCounterApi() {
+        HotpDescriptor descriptor = HotpDescriptor.create(
+                "bulk", SecretMaterial.fromStringUtf8("12345678901234567890"), HotpHashAlgorithm.SHA1, 6);
+        int[] otps = new int[12];
+
+        HotpGenerator.generateInts(descriptor, 3, otps, 10);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(HotpGenerator.generateInt(descriptor, 3 + i), otps[i]);
+        }
+        assertEquals(0, otps[10]);
+        assertThrows(IllegalArgumentException.class, () -> HotpGenerator.generateInts(descriptor, 0, otps, 13));
+        assertThrows(
+                IllegalArgumentException.class, () -> HotpGenerator.generateInts(descriptor, Long.MAX_VALUE, otps, 2));
+    }
+
     @Test
     void rejectsSecretsBelowMinimumLength() {
         SecretMaterial shortSecret = SecretMaterial.fromStringUtf8("short");
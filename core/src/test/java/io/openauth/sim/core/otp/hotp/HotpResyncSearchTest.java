@@ -0,0 +1,59 @@
+package io.openauth.sim.core.otp.hotp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.openauth.sim.core.model.SecretMaterial;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class HotpResyncSearchTest {
+
+    private static final HotpDescriptor DESCRIPTOR = HotpDescriptor.create(
+            "resync-search", SecretMaterial.fromStringUtf8("12345678901234567890"), HotpHashAlgorithm.SHA1, 6);
+
+    @Test
+    void parallelSearchAgreesWithSequentialMatcher() {
+        String otp = HotpGenerator.generate(DESCRIPTOR, 30_123L);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            HotpResyncSearch.Result result = HotpResyncSearch.search(DESCRIPTOR, otp, null, 0L, 40_000L, pool);
+
+            assertEquals(HotpWindowMatcher.findMatch(DESCRIPTOR, otp, 0L, 40_000L), result.matchedCounter());
+            assertTrue(result.candidatesSearched() > 0);
+            assertTrue(result.candidatesPerSecond() > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void consecutiveOtpsRequireFollowingCounter() {
+        long counter = 12_345L;
+        String first = HotpGenerator.generate(DESCRIPTOR, counter);
+        String second = HotpGenerator.generate(DESCRIPTOR, counter + 1);
+        String unrelated = HotpGenerator.generate(DESCRIPTOR, counter + 2);
+
+        HotpResyncSearch.Result matched = HotpResyncSearch.search(DESCRIPTOR, first, second, 0L, 20_000L);
+        HotpResyncSearch.Result mismatched = HotpResyncSearch.search(DESCRIPTOR, first, unrelated, 0L, 20_000L);
+
+        assertEquals(OptionalLong.of(counter), matched.matchedCounter());
+        assertFalse(mismatched.matchedCounter().isPresent());
+        assertEquals(20_001L, mismatched.candidatesSearched());
+    }
+
+    @Test
+    void rejectsMalformedInputAndCounterOverflow() {
+        String otp = HotpGenerator.generate(DESCRIPTOR, 0L);
+
+        assertThrows(IllegalArgumentException.class, () -> HotpResyncSearch.search(DESCRIPTOR, "12ab56", null, 0L, 9L));
+        assertThrows(IllegalArgumentException.class, () -> HotpResyncSearch.search(DESCRIPTOR, otp, "123", 0L, 9L));
+        assertThrows(IllegalArgumentException.class, () -> HotpResyncSearch.search(DESCRIPTOR, otp, null, -1L, 9L));
+        assertThrows(
+                IllegalStateException.class,
+                () -> HotpResyncSearch.search(DESCRIPTOR, otp, null, Long.MAX_VALUE - 5, Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,75 @@
+package io.openauth.sim.core.otp.hotp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.openauth.sim.core.model.SecretMaterial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import org.junit.jupiter.api.Test;
+
+class HotpWindowMatcherTest {
+
+    private static final HotpDescriptor DESCRIPTOR = HotpDescriptor.create(
+            "window-matcher", SecretMaterial.fromStringUtf8("12345678901234567890"), HotpHashAlgorithm.SHA1, 6);
+
+    @Test
+    void findsMatchingCounterAndStopsSearching() {
+        String otp = HotpGenerator.generate(DESCRIPTOR, 7L);
+        List<Long> visited = new ArrayList<>();
+
+        OptionalLong match = HotpWindowMatcher.findMatch(
+                DESCRIPTOR, " " + otp + " ", 3L, 13L, (counter, value, hit) -> visited.add(counter));
+
+        assertEquals(OptionalLong.of(7L), match);
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L), visited);
+    }
+
+    @Test
+    void observerReceivesExpectedValuesForEveryCandidate() {
+        List<String> observed = new ArrayList<>();
+
+        OptionalLong match = HotpWindowMatcher.findMatch(
+                DESCRIPTOR,
+                "not-an-otp",
+                0L,
+                9L,
+                (counter, value, hit) -> observed.add(String.format("%06d", value) + (hit ? "*" : "")));
+
+        assertFalse(match.isPresent());
+        assertEquals(10, observed.size());
+        for (int counter = 0; counter < 10; counter++) {
+            assertEquals(HotpGenerator.generate(DESCRIPTOR, counter), observed.get(counter));
+        }
+    }
+
+    @Test
+    void agreesWithValidatorAcrossLargeWindow() {
+        String otp = HotpGenerator.generate(DESCRIPTOR, 4_000L);
+
+        OptionalLong match = HotpWindowMatcher.findMatch(DESCRIPTOR, otp, 0L, 5_000L);
+
+        assertTrue(match.isPresent());
+        long matched = match.getAsLong();
+        assertTrue(HotpValidator.verify(DESCRIPTOR, matched, otp).valid());
+        for (long counter = 0; counter < matched; counter++) {
+            assertFalse(HotpValidator.verify(DESCRIPTOR, counter, otp).valid());
+        }
+    }
+
+    @Test
+    void preservesValidatorCounterGuards() {
+        String otp = HotpGenerator.generate(DESCRIPTOR, 0L);
+
+        assertThrows(IllegalArgumentException.class, () -> HotpWindowMatcher.findMatch(DESCRIPTOR, otp, -1L, 5L));
+        assertThrows(
+                IllegalStateException.class,
+                () -> HotpWindowMatcher.findMatch(DESCRIPTOR, otp, Long.MAX_VALUE - 2, Long.MAX_VALUE));
+        assertThrows(
+                IllegalStateException.class,
+                () -> HotpWindowMatcher.findMatch(DESCRIPTOR, "12", Long.MAX_VALUE - 2, Long.MAX_VALUE));
+    }
+}
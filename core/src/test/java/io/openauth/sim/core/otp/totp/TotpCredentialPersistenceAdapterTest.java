@@ -86,4 +86,20 @@ class TotpCredentialPersistenceAdapterTest {
 
         assertThrows(IllegalArgumentException.class, () -> adapter.deserialize(record));
     }
+
+    @Test
+    void driftEstimateRoundTripsThroughAttributesAndToleratesBadValues() {
+        Map<String, String> attributes = adapter.serialize(TotpDescriptor.create(
+                        "totp-drift", SECRET, TotpHashAlgorithm.SHA1, 6, Duration.ofSeconds(30)))
+                .attributes();
+        TotpDriftEstimate estimate = TotpDriftEstimate.none().observe(-1).observe(1);
+
+        Map<String, String> updated = TotpCredentialPersistenceAdapter.withDriftEstimate(attributes, estimate);
+
+        assertEquals(TotpDriftEstimate.none(), TotpCredentialPersistenceAdapter.driftEstimate(attributes));
+        assertEquals(estimate, TotpCredentialPersistenceAdapter.driftEstimate(updated));
+        assertEquals("totp.drift.samples", TotpCredentialPersistenceAdapter.ATTR_DRIFT_SAMPLES);
+        updated.put(TotpCredentialPersistenceAdapter.ATTR_DRIFT_ESTIMATE, "not-a-number");
+        assertEquals(TotpDriftEstimate.none(), TotpCredentialPersistenceAdapter.driftEstimate(updated));
+    }
 }
@@ -0,0 +1,123 @@
+package io.openauth.sim.core.otp.totp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.openauth.sim.core.model.SecretMaterial;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class TotpTimelineTest {
+
+    private static final TotpDescriptor DESCRIPTOR = TotpDescriptor.create(
+            "timeline",
+            SecretMaterial.fromStringUtf8("12345678901234567890"),
+            TotpHashAlgorithm.SHA1,
+            8,
+            Duration.ofSeconds(30));
+
+    @Test
+    void streamsRfcVectorsAsNdjsonAndCsv() throws IOException {
+        Instant from = Instant.ofEpochSecond(0);
+        Instant to = Instant.ofEpochSecond(89);
+
+        String ndjson = render(from, to, TotpTimeline.Format.NDJSON, 1);
+        String csv = render(from, to, TotpTimeline.Format.CSV, 1);
+
+        String[] lines = ndjson.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"timeStep\":1,\"epochSeconds\":30,\"otp\":\"94287082\"}", lines[1]);
+        assertEquals("timeStep,epochSeconds,otp\n0,0,84755224\n1,30,94287082\n2,60,37359152\n", csv);
+    }
+
+    @Test
+    void forEachVisitsEveryStepWithGeneratorValues() {
+        List<String> visited = new ArrayList<>();
+        Instant from = Instant.ofEpochSecond(1_111_111_109L);
+        Instant to = from.plusSeconds(120);
+
+        long steps = TotpTimeline.forEach(DESCRIPTOR, from, to, (step, epochSeconds, otp) -> visited.add(
+                step + "@" + epochSeconds + "=" + otp));
+
+        assertEquals(5, steps);
+        assertEquals(TotpTimeline.stepCount(DESCRIPTOR, from, to), steps);
+        long firstStep = 1_111_111_109L / 30;
+        assertEquals(firstStep + "@" + firstStep * 30 + "=" + 7_081_804, visited.get(0));
+        for (int i = 0; i < visited.size(); i++) {
+            long step = firstStep + i;
+            int expected = TotpGenerator.generateInt(DESCRIPTOR, Instant.ofEpochSecond(step * 30));
+            assertEquals(step + "@" + step * 30 + "=" + expected, visited.get(i));
+        }
+    }
+
+    @Test
+    void parallelChunksProduceSameBytesAsSequentialWrite() throws IOException {
+        Instant from = Instant.ofEpochSecond(1_700_000_000L);
+        Instant to = from.plusSeconds(30L * (TotpTimeline.CHUNK_STEPS * 5L + 17));
+
+        byte[] sequential = render(from, to, TotpTimeline.Format.NDJSON, 1).getBytes(StandardCharsets.US_ASCII);
+        byte[] parallel = render(from, to, TotpTimeline.Format.NDJSON, 3).getBytes(StandardCharsets.US_ASCII);
+
+        assertArrayEquals(sequential, parallel);
+    }
+
+    @Test
+    void sharedPoolRendersConcurrentTimelinesAndStaysUsable() throws Exception {
+        Instant from = Instant.ofEpochSecond(1_700_000_000L);
+        Instant to = from.plusSeconds(30L * (TotpTimeline.CHUNK_STEPS * 3L + 5));
+        byte[] expected = render(from, to, TotpTimeline.Format.CSV, 1).getBytes(StandardCharsets.US_ASCII);
+        ForkJoinPool shared = new ForkJoinPool(2);
+        try {
+            List<CompletableFuture<byte[]>> renders = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                renders.add(CompletableFuture.supplyAsync(() -> {
+                    ByteArrayOutputStream output = new ByteArrayOutputStream();
+                    try {
+                        TotpTimeline.write(
+                                DESCRIPTOR, from, to, TotpTimeline.Format.CSV, Channels.newChannel(output), 4, shared);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    return output.toByteArray();
+                }));
+            }
+            for (CompletableFuture<byte[]> render : renders) {
+                assertArrayEquals(expected, render.get());
+            }
+            assertFalse(shared.isShutdown(), "a caller-supplied pool must outlive the render");
+        } finally {
+            shared.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        Instant now = Instant.ofEpochSecond(1_000L);
+
+        assertThrows(
+                IllegalArgumentException.class, () -> TotpTimeline.stepCount(DESCRIPTOR, now, now.minusSeconds(1)));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> TotpTimeline.stepCount(DESCRIPTOR, Instant.ofEpochSecond(-30), now));
+        assertThrows(IllegalArgumentException.class, () -> render(now, now, TotpTimeline.Format.CSV, 0));
+    }
+
+    private static String render(Instant from, Instant to, TotpTimeline.Format format, int parallelism)
+            throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TotpTimeline.write(DESCRIPTOR, from, to, format, Channels.newChannel(output), parallelism);
+        return output.toString(StandardCharsets.US_ASCII);
+    }
+}
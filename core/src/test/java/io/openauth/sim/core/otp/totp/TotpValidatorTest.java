@@ -114,4 +114,93 @@ class TotpValidatorTest {
         assertTrue(result.valid(), "OTP should validate using the supplied timestamp override");
         assertEquals(0, result.matchedSkewSteps());
     }
+
+    @Test
+    void integerApiMatchesWithinDriftAndRejectsOutOfRangeValues() {
+        TotpDescriptor descriptor = descriptorEightDigits();
+        Instant issued = Instant.ofEpochSecond(1_111_111_109L);
+        int otp = TotpGenerator.generateInt(descriptor, issued);
+
+        assertEquals(7_081_804, otp);
+        TotpVerificationResult result = TotpValidator.verifyInt(
+                descriptor, otp, issued.plusSeconds(60), TotpDriftWindow.of(2, 0), null);
+        assertTrue(result.valid());
+        assertEquals(-2, result.matchedSkewSteps());
+        assertFalse(TotpValidator.verifyInt(descriptor, -1, issued, TotpDriftWindow.of(1, 1), null)
+                .valid());
+        assertFalse(TotpValidator.verifyInt(descriptor, 100_000_000, issued, TotpDriftWindow.of(1, 1), null)
+                .valid());
+    }
+
+    @Test
+    void adaptiveVerificationProbesLearnedOffsetFirstAndKeepsTheFullWindowOnceConfident() {
+        TotpDescriptor descriptor = descriptorEightDigits();
+        Instant issued = Instant.ofEpochSecond(1_111_111_109L);
+        Instant verifiedAt = issued.plusSeconds(90);
+        int otp = TotpGenerator.generateInt(descriptor, issued);
+        TotpDriftWindow window = TotpDriftWindow.of(5, 5);
+
+        TotpVerificationResult fixed = TotpValidator.verifyInt(descriptor, otp, verifiedAt, window, null);
+        TotpDriftEstimate learning = TotpDriftEstimate.none().observe(-3);
+        TotpVerificationResult guided =
+                TotpValidator.verifyAdaptive(descriptor, otp, verifiedAt, window, null, learning);
+
+        assertEquals(-3, fixed.matchedSkewSteps());
+        assertEquals(3, fixed.candidatesEvaluated());
+        assertEquals(-3, guided.matchedSkewSteps());
+        assertEquals(1, guided.candidatesEvaluated());
+
+        TotpDriftEstimate confident = learning.observe(-3).observe(-3);
+        TotpVerificationResult rejected =
+                TotpValidator.verifyAdaptive(descriptor, 0, verifiedAt, window, null, confident);
+        TotpVerificationResult unconfidentRejection =
+                TotpValidator.verifyAdaptive(descriptor, 0, verifiedAt, window, null, learning);
+
+        assertFalse(rejected.valid());
+        assertEquals(11, rejected.candidatesEvaluated());
+        assertEquals(11, unconfidentRejection.candidatesEvaluated());
+
+        TotpVerificationResult movedClock =
+                TotpValidator.verifyAdaptive(descriptor, otp, verifiedAt.plusSeconds(60), window, null, confident);
+        assertTrue(movedClock.valid());
+        assertEquals(-5, movedClock.matchedSkewSteps());
+        assertTrue(TotpValidator.verifyAdaptive(descriptor, otp, issued, window, null, confident)
+                .valid());
+    }
+
+    @Test
+    void narrowedVerificationBoundsRejectionCostOnceTheEstimateIsConfident() {
+        TotpDescriptor descriptor = descriptorEightDigits();
+        Instant issued = Instant.ofEpochSecond(1_111_111_109L);
+        Instant verifiedAt = issued.plusSeconds(90);
+        int otp = TotpGenerator.generateInt(descriptor, issued);
+        TotpDriftWindow window = TotpDriftWindow.of(5, 5);
+        TotpDriftEstimate learning = TotpDriftEstimate.none().observe(-3);
+        TotpDriftEstimate confident = learning.observe(-3).observe(-3);
+
+        assertEquals(11, TotpValidator.verifyNarrowed(descriptor, 0, verifiedAt, window, null, learning)
+                .candidatesEvaluated());
+        TotpVerificationResult rejected =
+                TotpValidator.verifyNarrowed(descriptor, 0, verifiedAt, window, null, confident);
+        assertFalse(rejected.valid());
+        assertEquals(3, rejected.candidatesEvaluated());
+
+        TotpVerificationResult neighbour =
+                TotpValidator.verifyNarrowed(descriptor, otp, verifiedAt.plusSeconds(30), window, null, confident);
+        assertTrue(neighbour.valid());
+        assertEquals(-4, neighbour.matchedSkewSteps());
+        assertFalse(TotpValidator.verifyNarrowed(descriptor, otp, issued, window, null, confident)
+                .valid());
+    }
+
+    @Test
+    void driftEstimateSmoothsObservedSkew() {
+        TotpDriftEstimate estimate = TotpDriftEstimate.none().observe(2).observe(2).observe(-2);
+
+        assertEquals(3, estimate.samples());
+        assertTrue(estimate.confident());
+        assertEquals(1.0d, estimate.offsetSteps(), 1e-9);
+        assertEquals(1, estimate.expectedOffset());
+        assertThrows(IllegalArgumentException.class, () -> new TotpDriftEstimate(Double.NaN, 1));
+    }
 }
@@ -21,6 +21,7 @@ import io.openauth.sim.core.store.encryption.AesGcmPersistenceEncryption;
 import io.openauth.sim.core.store.encryption.PersistenceEncryption;
 import io.openauth.sim.core.store.serialization.VersionedCredentialRecord;
 import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Arrays;
@@ -99,6 +100,58 @@ class MapDbCredentialStoreTest {
         }
     }
 
+    @Test
+    void blobsAreRemovedWithTheirLastReference() {
+        Path dbPath = tempDir.resolve("blobs.db");
+        byte[] shared = "shared-certificate-chain".getBytes(StandardCharsets.UTF_8);
+        byte[] rotated = "rotated-certificate-chain".getBytes(StandardCharsets.UTF_8);
+        String sharedReference;
+        String rotatedReference;
+
+        try (var store = MapDbCredentialStore.file(dbPath).open()) {
+            sharedReference = store.putBlob(shared);
+            store.save(blobCredential("blob-a", sharedReference));
+            store.save(blobCredential("blob-b", sharedReference));
+            assertThrows(
+                    IllegalStateException.class,
+                    () -> store.save(blobCredential("blob-c", CredentialBlobStore.referenceFor(new byte[] {1}))));
+        }
+
+        try (var store = MapDbCredentialStore.file(dbPath).open()) {
+            assertTrue(store.delete("blob-a"));
+            assertArrayEquals(shared, store.findBlob(sharedReference).orElseThrow());
+
+            rotatedReference = store.putBlob(rotated);
+            store.save(blobCredential("blob-b", rotatedReference));
+            assertTrue(store.findBlob(sharedReference).isEmpty(), "overwriting the last reference frees the blob");
+            assertArrayEquals(rotated, store.findBlob(rotatedReference).orElseThrow());
+
+            store.retainBlob(rotatedReference);
+            assertTrue(store.delete("blob-b"));
+            assertTrue(store.findBlob(rotatedReference).isPresent(), "a retained blob outlives its records");
+            store.releaseBlob(rotatedReference);
+            assertTrue(store.findBlob(rotatedReference).isEmpty());
+        }
+    }
+
+    @Test
+    void compactionSweepsBlobsThatWereNeverReferenced() {
+        MapDbCredentialStore.MaintenanceBundle opened =
+                MapDbCredentialStore.file(tempDir.resolve("sweep.db")).openWithMaintenance();
+
+        try (var store = opened.store()) {
+            String orphan = store.putBlob(new byte[] {1, 2, 3});
+            String referenced = store.putBlob(new byte[] {4, 5, 6});
+            store.save(blobCredential("kept", referenced));
+
+            MapDbCredentialStore.MaintenanceResult result = opened.maintenance().compact();
+
+            assertEquals(1L, result.entriesRepaired());
+            assertTrue(store.findBlob(orphan).isEmpty());
+            assertTrue(store.findBlob(referenced).isPresent());
+        }
+    }
+
     @Test
     void persistsAndReloadsFido2CredentialWithMetadata() {
         Path dbPath = tempDir.resolve("fido2.db");
@@ -461,6 +514,14 @@ class MapDbCredentialStoreTest {
                 MapDbCredentialStore.CacheSettings.ExpirationStrategy.AFTER_ACCESS, container.expirationStrategy());
     }
 
+    private static Credential blobCredential(String name, String reference) {
+        return Credential.create(
+                name,
+                CredentialType.FIDO2,
+                SecretMaterial.fromHex("0011"),
+                Map.of("fido2.attestation.chain", reference));
+    }
+
     private static Map<String, String> extractPayload(LogRecord record) {
         Object[] parameters = record.getParameters();
         assertNotNull(parameters, "Expected structured payload parameters");
@@ -0,0 +1,283 @@
+package io.openauth.sim.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.CredentialType;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.store.encryption.AesGcmPersistenceEncryption;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TieredCredentialStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void idleCredentialsMoveToColdArchiveAndPromoteOnAccess() {
+        Path archive = tempDir.resolve("credentials.db.cold");
+        try (TieredCredentialStore store = openStore(archive)) {
+            store.save(credential("alpha"));
+            store.save(credential("beta"));
+
+            clock.advance(Duration.ofMinutes(40));
+            store.findByName("beta").orElseThrow();
+            clock.advance(Duration.ofMinutes(25));
+
+            TieredCredentialStore.DemotionResult result = store.demoteIdle();
+            assertEquals(1, result.archived());
+            assertEquals(1, store.tierSizes().cold());
+            assertEquals(1, store.tierSizes().warm());
+            assertTrue(store.exists("alpha"));
+            assertEquals(2, store.findAll().size());
+
+            Credential promoted = store.findByName("alpha").orElseThrow();
+            assertArrayEquals(credential("alpha").secret().value(), promoted.secret().value());
+            assertEquals("tiered", promoted.attributes().get("label"));
+            assertEquals(0, store.tierSizes().cold());
+            assertEquals(2, store.tierSizes().warm());
+        }
+    }
+
+    @Test
+    void archivedCredentialsKeepTheirBlobsUntilDeleted() {
+        try (TieredCredentialStore store = openStore(tempDir.resolve("blobs.cold"))) {
+            CredentialBlobStore blobs = CredentialBlobStore.of(store).orElseThrow();
+            byte[] chain = "archived-certificate-chain".getBytes(StandardCharsets.UTF_8);
+            String reference = blobs.putBlob(chain);
+            store.save(Credential.create(
+                    "archived",
+                    CredentialType.FIDO2,
+                    SecretMaterial.fromHex("0011"),
+                    Map.of("fido2.attestation.chain", reference)));
+
+            clock.advance(Duration.ofMinutes(40));
+            assertEquals(1, store.demoteIdle().archived());
+            assertArrayEquals(chain, blobs.findBlob(reference).orElseThrow(), "cold credential keeps its blob");
+
+            Credential promoted = store.findByName("archived").orElseThrow();
+            assertEquals(reference, promoted.attributes().get("fido2.attestation.chain"));
+            assertArrayEquals(chain, blobs.findBlob(reference).orElseThrow(), "promotion keeps the blob");
+            assertEquals(0, store.tierSizes().cold());
+            clock.advance(Duration.ofMinutes(40));
+            assertEquals(1, store.demoteIdle().archived());
+
+            assertTrue(store.delete("archived"));
+            assertTrue(blobs.findBlob(reference).isEmpty(), "deleting the archived credential frees the blob");
+        }
+    }
+
+    @Test
+    void hotTierIsBoundedAndEvictsIdleEntries() {
+        try (TieredCredentialStore store = openStore(tempDir.resolve("hot.cold"))) {
+            for (int i = 0; i < 5; i++) {
+                store.save(credential("hot-" + i));
+                clock.advance(Duration.ofSeconds(1));
+            }
+            assertEquals(3, store.tierSizes().hot());
+
+            clock.advance(Duration.ofMinutes(6));
+            TieredCredentialStore.DemotionResult result = store.demoteIdle();
+            assertEquals(3, result.hotEvicted());
+            assertEquals(0, store.tierSizes().hot());
+            assertEquals(5, store.tierSizes().warm());
+        }
+    }
+
+    @Test
+    void coldArchiveSurvivesReopenAndHonoursDeletes() {
+        Path archive = tempDir.resolve("reopen.cold");
+        byte[] key = new byte[16];
+        try (TieredCredentialStore store = TieredCredentialStore.builder(
+                        MapDbCredentialStore.inMemory().open(), archive)
+                .hotCapacity(3)
+                .warmIdle(Duration.ofMinutes(30))
+                .demotionInterval(null)
+                .encryption(AesGcmPersistenceEncryption.withKeySupplier(key::clone))
+                .clock(clock)
+                .open()) {
+            store.save(credential("keep"));
+            store.save(credential("drop"));
+            clock.advance(Duration.ofHours(1));
+            assertEquals(2, store.demoteIdle().archived());
+            assertTrue(store.delete("drop"));
+            assertFalse(store.exists("drop"));
+        }
+
+        try (TieredCredentialStore store = TieredCredentialStore.builder(
+                        MapDbCredentialStore.inMemory().open(), archive)
+                .demotionInterval(null)
+                .encryption(AesGcmPersistenceEncryption.withKeySupplier(key::clone))
+                .clock(clock)
+                .open()) {
+            assertEquals(1, store.tierSizes().cold());
+            assertFalse(store.exists("drop"));
+            Credential restored = store.findByName("keep").orElseThrow();
+            assertArrayEquals(credential("keep").secret().value(), restored.secret().value());
+        }
+    }
+
+    @Test
+    void demotedCredentialsAreDurableBeforeTheArchiveIsClosed() {
+        Path archive = tempDir.resolve("unclosed.cold");
+        TieredCredentialStore crashed = openStore(archive);
+        try {
+            crashed.save(credential("durable"));
+            clock.advance(Duration.ofHours(1));
+            assertEquals(1, crashed.demoteIdle().archived());
+
+            // Reopen from a fresh warm store while the first archive is still open, as after a crash.
+            try (TieredCredentialStore reopened = openStore(archive)) {
+                assertEquals(1, reopened.tierSizes().cold());
+                Credential restored = reopened.findByName("durable").orElseThrow();
+                assertArrayEquals(credential("durable").secret().value(), restored.secret().value());
+            }
+        } finally {
+            crashed.close();
+        }
+    }
+
+    @Test
+    void coldArchiveCompactsSupersededEntries() throws Exception {
+        Path archive = tempDir.resolve("compact.cold");
+        try (TieredCredentialStore store = openStore(archive)) {
+            Random random = new Random(42L);
+            for (int round = 0; round < 80; round++) {
+                for (int i = 0; i < 20; i++) {
+                    store.save(Credential.create(
+                            "compact-" + i,
+                            CredentialType.GENERIC,
+                            SecretMaterial.fromHex("a1b2c3d4"),
+                            Map.of("payload", randomHex(random, 4096))));
+                }
+                clock.advance(Duration.ofHours(2));
+                store.demoteIdle();
+            }
+            long archiveBytes = store.tierSizes().coldFileBytes();
+            assertEquals(20, store.tierSizes().cold());
+            // 1,600 archived versions (~2 MiB uncompacted) must have been folded down to the live set.
+            assertTrue(archiveBytes < 1536L * 1024L, () -> "archive should be compacted: " + archiveBytes);
+            assertEquals(archiveBytes, Files.size(archive));
+        }
+    }
+
+    @Test
+    void preexistingWarmCredentialsAreTrackedByTheFirstDemotionPass() {
+        MapDbCredentialStore warm = MapDbCredentialStore.inMemory().open();
+        warm.save(credential("legacy-a"));
+        warm.save(credential("legacy-b"));
+        try (TieredCredentialStore store = TieredCredentialStore.builder(warm, tempDir.resolve("legacy.cold"))
+                .warmIdle(Duration.ofMinutes(30))
+                .demotionInterval(null)
+                .clock(clock)
+                .open()) {
+            assertEquals(0, store.tierSizes().warm());
+            store.findByName("legacy-b").orElseThrow();
+
+            clock.advance(Duration.ofMinutes(20));
+            assertEquals(0, store.demoteIdle().archived());
+            assertEquals(2, store.tierSizes().warm());
+
+            clock.advance(Duration.ofMinutes(15));
+            assertEquals(2, store.demoteIdle().archived());
+            assertEquals(2, store.findAll().size());
+        }
+    }
+
+    @Test
+    void warmPromotionNeverOverwritesANewerSave() throws Exception {
+        try (TieredCredentialStore store = openStore(tempDir.resolve("race.cold"))) {
+            store.save(versioned(0));
+            AtomicBoolean writing = new AtomicBoolean(true);
+            Thread reader = new Thread(() -> {
+                while (writing.get()) {
+                    store.findByName("racy");
+                    store.save(credential("filler-a"));
+                    store.save(credential("filler-b"));
+                    store.save(credential("filler-c"));
+                }
+            });
+            reader.start();
+            for (int version = 1; version <= 500; version++) {
+                store.save(versioned(version));
+            }
+            writing.set(false);
+            reader.join();
+
+            assertEquals("500", store.findByName("racy").orElseThrow().attributes().get("version"));
+        }
+    }
+
+    private static Credential versioned(int version) {
+        return Credential.create(
+                "racy",
+                CredentialType.OATH_TOTP,
+                SecretMaterial.fromHex("3132333435363738393031323334353637383930"),
+                Map.of("version", Integer.toString(version)));
+    }
+
+    private TieredCredentialStore openStore(Path archive) {
+        return TieredCredentialStore.builder(MapDbCredentialStore.inMemory().open(), archive)
+                .hotCapacity(3)
+                .hotIdle(Duration.ofMinutes(5))
+                .warmIdle(Duration.ofMinutes(30))
+                .demotionInterval(null)
+                .clock(clock)
+                .open();
+    }
+
+    private static String randomHex(Random random, int length) {
+        byte[] bytes = new byte[length / 2];
+        random.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private static Credential credential(String name) {
+        return Credential.create(
+                name,
+                CredentialType.OATH_TOTP,
+                SecretMaterial.fromHex("3132333435363738393031323334353637383930"),
+                Map.of("label", "tiered"));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package io.openauth.sim.infra.persistence;
 
 import io.openauth.sim.core.store.MapDbCredentialStore;
+import io.openauth.sim.core.store.TieredCredentialStore;
 import io.openauth.sim.core.store.ocra.OcraStoreMigrations;
 import io.openauth.sim.core.support.ProjectPaths;
+import io.openauth.sim.infra.persistence.replication.CredentialReplicaStore;
+import io.openauth.sim.infra.persistence.replication.CredentialReplicationPrimary;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -32,6 +36,69 @@ public final class CredentialStoreFactory {
         return OcraStoreMigrations.apply(MapDbCredentialStore.inMemory()).open();
     }
 
+    /**
+     * Opens the file store at {@code path} as the warm tier of a {@link TieredCredentialStore}, with the
+     * compressed cold archive stored next to it as {@code <file>.cold}. Background demotion runs with
+     * the builder defaults.
+     */
+    public static TieredCredentialStore openTieredFileStore(Path path) throws IOException {
+        MapDbCredentialStore warm = openFileStore(path);
+        Path coldArchive = path.toAbsolutePath().resolveSibling(path.getFileName() + ".cold");
+        try {
+            return TieredCredentialStore.builder(warm, coldArchive).open();
+        } catch (RuntimeException ex) {
+            warm.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Opens the file store at {@code path} and serves it as a replication primary on {@code
+     * bindAddress}. Writes go to the local store and are streamed to every connected replica; writes
+     * forwarded by replicas are refused.
+     */
+    public static CredentialReplicationPrimary openReplicationPrimary(Path path, InetSocketAddress bindAddress)
+            throws IOException {
+        return openReplicationPrimary(path, bindAddress, null);
+    }
+
+    /**
+     * Like {@link #openReplicationPrimary(Path, InetSocketAddress)}, but only serves replicas that prove
+     * {@code writeSecret} and applies the writes they forward. A {@code null} secret keeps the primary
+     * read-only for replicas.
+     */
+    public static CredentialReplicationPrimary openReplicationPrimary(
+            Path path, InetSocketAddress bindAddress, byte[] writeSecret) throws IOException {
+        Objects.requireNonNull(bindAddress, "bindAddress");
+        MapDbCredentialStore store = openFileStore(path);
+        try {
+            return CredentialReplicationPrimary.start(store, bindAddress, writeSecret);
+        } catch (IOException | RuntimeException ex) {
+            store.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Opens the file store at {@code path} as a read replica of the primary listening on {@code
+     * primaryAddress}. The local file receives a full snapshot on connect and is kept in sync
+     * afterwards.
+     */
+    public static CredentialReplicaStore openReadReplica(Path path, InetSocketAddress primaryAddress)
+            throws IOException {
+        return openReadReplica(path, primaryAddress, null);
+    }
+
+    /**
+     * Like {@link #openReadReplica(Path, InetSocketAddress)}, proving {@code writeSecret} to the primary
+     * so the replica can forward writes.
+     */
+    public static CredentialReplicaStore openReadReplica(
+            Path path, InetSocketAddress primaryAddress, byte[] writeSecret) throws IOException {
+        Objects.requireNonNull(primaryAddress, "primaryAddress");
+        return CredentialReplicaStore.connect(openFileStore(path), primaryAddress, writeSecret);
+    }
+
     public static Path resolveDatabasePath(String configuredPath, String defaultFileName) {
         if (hasText(configuredPath)) {
             return Paths.get(configuredPath.trim()).toAbsolutePath();
@@ -0,0 +1,449 @@
+package io.openauth.sim.infra.persistence.replication;
+
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.store.CredentialBlobStore;
+import io.openauth.sim.core.store.CredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecord;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read replica side of credential store replication.
+ *
+ * <p>Connects to a {@link CredentialReplicationPrimary}, applies the initial snapshot and every
+ * subsequent committed mutation to a local {@link CredentialStore} (normally a
+ * {@code MapDbCredentialStore}), and serves reads from that local store. Writes are forwarded to the
+ * primary, which stays the single source of truth; a forwarded write returns once the primary has
+ * committed it and this replica has applied the resulting mutation, so callers read their own writes.
+ * The connection is re-established automatically with a fresh snapshot after network failures.
+ * Forwarding requires the replication secret the primary was started with; without it the primary
+ * refuses forwarded writes, and with a wrong one it drops the session.
+ *
+ * <p>When the local store keeps a {@link CredentialBlobStore}, so does the replica: replicated blobs
+ * are applied locally ahead of the records that reference them, reads and holds use the local copy, and
+ * {@link #putBlob(byte[])} is forwarded to the primary. A forwarded blob becomes readable here once a
+ * record referencing it has been saved.
+ */
+public final class CredentialReplicaStore implements CredentialStore, CredentialBlobStore {
+
+    private static final Logger TELEMETRY_LOGGER = Logger.getLogger("io.openauth.sim.infra.persistence.replication");
+    private static final Duration DEFAULT_RECONNECT_DELAY = Duration.ofSeconds(1);
+    private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+    private static final Duration WRITE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final CredentialStore local;
+    private final InetSocketAddress primaryAddress;
+    private final Duration reconnectDelay;
+    private final byte[] writeSecret;
+    private final Thread receiver;
+    private final Object progressMonitor = new Object();
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private final ConcurrentMap<Long, CompletableFuture<Boolean>> pendingWrites = new ConcurrentHashMap<>();
+    private volatile Socket socket;
+    private volatile DataOutputStream output;
+    private volatile boolean closed;
+    private volatile boolean connected;
+    private volatile long appliedSequence;
+    private volatile long primarySequence;
+    private volatile long lastCommitMillis;
+    private volatile long pendingCommitMillis;
+    private volatile long lastApplyMillis;
+    private volatile long lastContactMillis;
+
+    private CredentialReplicaStore(
+            CredentialStore local, InetSocketAddress primaryAddress, Duration reconnectDelay, byte[] writeSecret) {
+        this.local = local;
+        this.primaryAddress = primaryAddress;
+        this.reconnectDelay = reconnectDelay;
+        this.writeSecret = writeSecret;
+        this.receiver = new Thread(this::receiveLoop, "credential-replication-replica");
+        this.receiver.setDaemon(true);
+    }
+
+    /** Starts replicating from {@code primaryAddress} into {@code local} without a write secret. */
+    public static CredentialReplicaStore connect(CredentialStore local, InetSocketAddress primaryAddress) {
+        return connect(local, primaryAddress, DEFAULT_RECONNECT_DELAY, null);
+    }
+
+    /** Starts replicating and proves {@code writeSecret} to the primary so writes can be forwarded. */
+    public static CredentialReplicaStore connect(
+            CredentialStore local, InetSocketAddress primaryAddress, byte[] writeSecret) {
+        return connect(local, primaryAddress, DEFAULT_RECONNECT_DELAY, writeSecret);
+    }
+
+    public static CredentialReplicaStore connect(
+            CredentialStore local, InetSocketAddress primaryAddress, Duration reconnectDelay) {
+        return connect(local, primaryAddress, reconnectDelay, null);
+    }
+
+    public static CredentialReplicaStore connect(
+            CredentialStore local, InetSocketAddress primaryAddress, Duration reconnectDelay, byte[] writeSecret) {
+        Objects.requireNonNull(local, "local");
+        Objects.requireNonNull(primaryAddress, "primaryAddress");
+        Objects.requireNonNull(reconnectDelay, "reconnectDelay");
+        if (reconnectDelay.isNegative()) {
+            throw new IllegalArgumentException("reconnectDelay must not be negative");
+        }
+        if (writeSecret != null && writeSecret.length == 0) {
+            throw new IllegalArgumentException("writeSecret must not be empty");
+        }
+        CredentialReplicaStore replica = new CredentialReplicaStore(
+                local, primaryAddress, reconnectDelay, writeSecret == null ? null : writeSecret.clone());
+        replica.receiver.start();
+        return replica;
+    }
+
+    /** Current replication position and lag. */
+    public ReplicationStatus status() {
+        long applied = appliedSequence;
+        long primary = Math.max(primarySequence, applied);
+        long now = System.currentTimeMillis();
+        long lagMillis;
+        if (primary > applied) {
+            // Behind: age of the oldest unapplied mutation by the primary's commit clock. Once part of a
+            // reported backlog is applied, the latest applied commit bounds the next one from below.
+            lagMillis = Math.max(0L, now - Math.max(pendingCommitMillis, lastCommitMillis));
+        } else {
+            lagMillis = Math.max(0L, lastApplyMillis - lastCommitMillis);
+        }
+        Instant contact = lastContactMillis == 0L ? null : Instant.ofEpochMilli(lastContactMillis);
+        return new ReplicationStatus(connected, applied, primary, Duration.ofMillis(lagMillis), contact);
+    }
+
+    /**
+     * Blocks until the replica has applied at least {@code sequence} or the timeout elapses.
+     *
+     * @return {@code true} when the sequence was reached in time
+     */
+    public boolean awaitSequence(long sequence, Duration timeout) throws InterruptedException {
+        Objects.requireNonNull(timeout, "timeout");
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (progressMonitor) {
+            while (appliedSequence < sequence) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0L) {
+                    return false;
+                }
+                long waitMillis = Math.max(1L, remainingNanos / 1_000_000L);
+                progressMonitor.wait(waitMillis);
+            }
+            return true;
+        }
+    }
+
+    /** Forwards the save to the primary and waits until it has been applied locally. */
+    @Override
+    public void save(Credential credential) {
+        Objects.requireNonNull(credential, "credential");
+        VersionedCredentialRecord record = VersionedCredentialRecordMapper.toRecord(credential);
+        forward(requestId -> new ReplicationFrame.SaveRequest(requestId, record));
+    }
+
+    /** Forwards the delete to the primary and waits until it has been applied locally. */
+    @Override
+    public boolean delete(String name) {
+        Objects.requireNonNull(name, "name");
+        return forward(requestId -> new ReplicationFrame.DeleteRequest(requestId, name));
+    }
+
+    /** Forwards the conditional replace to the primary, which checks the version it holds. */
+    @Override
+    public boolean replace(Credential expected, Credential replacement) {
+        Objects.requireNonNull(expected, "expected");
+        Objects.requireNonNull(replacement, "replacement");
+        CredentialStore.requireSameName(expected, replacement);
+        VersionedCredentialRecord expectedRecord = VersionedCredentialRecordMapper.toRecord(expected);
+        VersionedCredentialRecord replacementRecord = VersionedCredentialRecordMapper.toRecord(replacement);
+        return forward(requestId -> new ReplicationFrame.ReplaceRequest(requestId, expectedRecord, replacementRecord));
+    }
+
+    @Override
+    public Optional<CredentialBlobStore> blobStore() {
+        return local.blobStore().map(blobs -> this);
+    }
+
+    /** Forwards the blob to the primary and returns its reference once the primary has stored it. */
+    @Override
+    public String putBlob(byte[] content) {
+        Objects.requireNonNull(content, "content");
+        localBlobs();
+        byte[] copy = content.clone();
+        forward(requestId -> new ReplicationFrame.PutBlobRequest(requestId, copy));
+        return CredentialBlobStore.referenceFor(copy);
+    }
+
+    @Override
+    public Optional<byte[]> findBlob(String reference) {
+        return localBlobs().findBlob(reference);
+    }
+
+    @Override
+    public void retainBlob(String reference) {
+        localBlobs().retainBlob(reference);
+    }
+
+    @Override
+    public void releaseBlob(String reference) {
+        localBlobs().releaseBlob(reference);
+    }
+
+    @Override
+    public Optional<Credential> findByName(String name) {
+        return local.findByName(name);
+    }
+
+    @Override
+    public List<Credential> findAll() {
+        return local.findAll();
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return local.exists(name);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ex) {
+                TELEMETRY_LOGGER.log(Level.FINE, "Failed to close replica socket", ex);
+            }
+        }
+        receiver.interrupt();
+        try {
+            receiver.join(CONNECT_TIMEOUT_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        local.close();
+    }
+
+    private CredentialBlobStore localBlobs() {
+        return local.blobStore()
+                .orElseThrow(() -> new UnsupportedOperationException("Replica store does not keep blobs"));
+    }
+
+    private boolean forward(LongFunction<ReplicationFrame.WriteRequest> request) {
+        long deadline = System.nanoTime() + WRITE_TIMEOUT.toNanos();
+        long requestId = nextRequestId.incrementAndGet();
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        pendingWrites.put(requestId, result);
+        try {
+            DataOutputStream out = awaitConnection(deadline);
+            synchronized (out) {
+                ReplicationFrame.write(out, request.apply(requestId));
+                out.flush();
+            }
+            long remainingNanos = Math.max(0L, deadline - System.nanoTime());
+            return result.get(remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to forward write to the primary", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Forwarded write failed", ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Primary did not acknowledge the write within " + WRITE_TIMEOUT, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while forwarding write to the primary", ex);
+        } finally {
+            pendingWrites.remove(requestId);
+        }
+    }
+
+    private DataOutputStream awaitConnection(long deadline) throws InterruptedException {
+        synchronized (progressMonitor) {
+            while (!closed) {
+                DataOutputStream out = output;
+                if (connected && out != null) {
+                    return out;
+                }
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0L) {
+                    break;
+                }
+                progressMonitor.wait(Math.max(1L, remainingNanos / 1_000_000L));
+            }
+        }
+        throw new IllegalStateException("Replica is not connected to the primary; write not forwarded");
+    }
+
+    private void failPendingWrites() {
+        IllegalStateException failure =
+                new IllegalStateException("Replication stream closed before the primary acknowledged the write");
+        pendingWrites.values().forEach(pending -> pending.completeExceptionally(failure));
+    }
+
+    private void receiveLoop() {
+        while (!closed) {
+            try (Socket connection = new Socket()) {
+                connection.setTcpNoDelay(true);
+                connection.connect(primaryAddress, CONNECT_TIMEOUT_MILLIS);
+                socket = connection;
+                stream(connection);
+            } catch (IOException | RuntimeException ex) {
+                if (!closed) {
+                    TELEMETRY_LOGGER.log(Level.FINE, "Replication stream interrupted", ex);
+                }
+            } finally {
+                socket = null;
+                output = null;
+                failPendingWrites();
+                if (connected) {
+                    connected = false;
+                    logLagEvent("disconnected");
+                }
+            }
+            if (!closed && !pause()) {
+                return;
+            }
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(reconnectDelay.toMillis());
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void stream(Socket connection) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+        ReplicationFrame.write(out, new ReplicationFrame.Hello(ReplicationFrame.PROTOCOL_VERSION));
+        out.flush();
+        if (!(ReplicationFrame.read(in) instanceof ReplicationFrame.Challenge challenge)) {
+            throw new IOException("Primary did not send a replication challenge");
+        }
+        ReplicationFrame.write(
+                out, new ReplicationFrame.ChallengeResponse(ReplicationFrame.proof(writeSecret, challenge.nonce())));
+        out.flush();
+        output = out;
+        Set<String> snapshotNames = null;
+        while (!closed) {
+            ReplicationFrame frame = ReplicationFrame.read(in);
+            lastContactMillis = System.currentTimeMillis();
+            if (frame instanceof ReplicationFrame.SnapshotBegin begin) {
+                snapshotNames = new HashSet<>(Math.max(16, begin.count() * 2));
+                primarySequence = begin.sequence();
+                lastCommitMillis = begin.timestampMillis();
+            } else if (frame instanceof ReplicationFrame.SnapshotEntry entry) {
+                if (snapshotNames == null) {
+                    throw new IOException("Snapshot entry received outside of a snapshot");
+                }
+                local.save(VersionedCredentialRecordMapper.toCredential(entry.record()));
+                snapshotNames.add(entry.record().name());
+            } else if (frame instanceof ReplicationFrame.SnapshotEnd end) {
+                if (snapshotNames == null) {
+                    throw new IOException("Snapshot end received outside of a snapshot");
+                }
+                for (Credential existing : local.findAll()) {
+                    if (!snapshotNames.contains(existing.name())) {
+                        local.delete(existing.name());
+                    }
+                }
+                snapshotNames = null;
+                connected = true;
+                advance(end.sequence(), lastCommitMillis);
+                logLagEvent("snapshot");
+            } else if (frame instanceof ReplicationFrame.Upsert upsert) {
+                receiving(upsert.sequence(), upsert.commitMillis());
+                local.save(VersionedCredentialRecordMapper.toCredential(upsert.record()));
+                advance(upsert.sequence(), upsert.commitMillis());
+            } else if (frame instanceof ReplicationFrame.Delete delete) {
+                receiving(delete.sequence(), delete.commitMillis());
+                local.delete(delete.name());
+                advance(delete.sequence(), delete.commitMillis());
+            } else if (frame instanceof ReplicationFrame.Blob blob) {
+                localBlobs().putBlob(blob.content());
+            } else if (frame instanceof ReplicationFrame.Heartbeat heartbeat) {
+                if (heartbeat.sequence() > appliedSequence) {
+                    pendingCommitMillis = heartbeat.pendingCommitMillis();
+                }
+                primarySequence = Math.max(primarySequence, heartbeat.sequence());
+                logLagEvent("heartbeat");
+            } else if (frame instanceof ReplicationFrame.WriteResult result) {
+                CompletableFuture<Boolean> pending = pendingWrites.get(result.requestId());
+                if (pending != null) {
+                    if (result.error().isEmpty()) {
+                        pending.complete(result.applied());
+                    } else {
+                        pending.completeExceptionally(
+                                new IllegalStateException("Primary rejected write: " + result.error()));
+                    }
+                }
+            } else {
+                throw new IOException("Unexpected replication frame " + frame);
+            }
+        }
+    }
+
+    /** Records the mutation about to be applied as the oldest unapplied one. */
+    private void receiving(long sequence, long commitMillis) {
+        if (sequence > appliedSequence) {
+            pendingCommitMillis = commitMillis;
+            primarySequence = Math.max(primarySequence, sequence);
+        }
+    }
+
+    private void advance(long sequence, long commitMillis) {
+        lastCommitMillis = commitMillis;
+        lastApplyMillis = System.currentTimeMillis();
+        primarySequence = Math.max(primarySequence, sequence);
+        synchronized (progressMonitor) {
+            appliedSequence = sequence;
+            progressMonitor.notifyAll();
+        }
+    }
+
+    private void logLagEvent(String event) {
+        if (!TELEMETRY_LOGGER.isLoggable(Level.FINE)) {
+            return;
+        }
+        ReplicationStatus status = status();
+        Map<String, String> payload = new LinkedHashMap<>();
+        payload.put("role", "REPLICA");
+        payload.put("event", event);
+        payload.put("primary", primaryAddress.getHostString() + ":" + primaryAddress.getPort());
+        payload.put("connected", Boolean.toString(status.connected()));
+        payload.put("appliedSequence", Long.toString(status.appliedSequence()));
+        payload.put("primarySequence", Long.toString(status.primarySequence()));
+        payload.put("sequenceLag", Long.toString(status.sequenceLag()));
+        payload.put("lagMillis", Long.toString(status.lag().toMillis()));
+        TELEMETRY_LOGGER.log(Level.FINE, "persistence.replication.lag", new Object[] {payload});
+    }
+}
@@ -0,0 +1,519 @@
+package io.openauth.sim.infra.persistence.replication;
+
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.store.CredentialBlobStore;
+import io.openauth.sim.core.store.CredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecord;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Primary side of credential store replication.
+ *
+ * <p>Wraps a writable {@link CredentialStore} and streams every committed mutation to connected read
+ * replicas over the framed TCP protocol described by {@link ReplicationFrame}. Newly connected
+ * replicas receive a full snapshot followed by the live mutation stream, so they never need a shared
+ * log. Each replica is served by its own sender thread with a bounded queue; a replica that falls too
+ * far behind is disconnected and re-snapshots on reconnect instead of blocking primary writes.
+ * Writes forwarded by a replica are applied through this store, so they are committed and streamed
+ * exactly like local writes.
+ *
+ * <p>Forwarded writes are refused unless the primary is started with a shared replication secret. With
+ * a secret, every replica must answer an HMAC challenge with the same secret before it receives the
+ * snapshot, and sessions that fail are dropped. Without one, replicas may still follow the stream but
+ * each forwarded write is answered with an error.
+ *
+ * <p>When the delegate keeps a {@link CredentialBlobStore}, this store exposes it as well. A blob is
+ * streamed the first time a committed record references it, ahead of that record, and snapshots carry
+ * every blob their records reference; blobs that no record references yet stay on the primary.
+ */
+public final class CredentialReplicationPrimary implements CredentialStore, CredentialBlobStore {
+
+    private static final Logger TELEMETRY_LOGGER = Logger.getLogger("io.openauth.sim.infra.persistence.replication");
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    private static final Duration DEFAULT_HEARTBEAT_INTERVAL = Duration.ofSeconds(1);
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 10_000;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final CredentialStore delegate;
+    private final ServerSocket serverSocket;
+    private final Duration heartbeatInterval;
+    private final int queueCapacity;
+    private final byte[] writeSecret;
+    private final List<ReplicaSession> sessions = new CopyOnWriteArrayList<>();
+    private final Object mutationLock = new Object();
+    private final Thread acceptor;
+    private volatile long sequence;
+    private volatile boolean closed;
+
+    private CredentialReplicationPrimary(
+            CredentialStore delegate,
+            ServerSocket serverSocket,
+            Duration heartbeatInterval,
+            int queueCapacity,
+            byte[] writeSecret) {
+        this.delegate = delegate;
+        this.serverSocket = serverSocket;
+        this.heartbeatInterval = heartbeatInterval;
+        this.queueCapacity = queueCapacity;
+        this.writeSecret = writeSecret;
+        this.acceptor = new Thread(this::acceptLoop, "credential-replication-primary");
+        this.acceptor.setDaemon(true);
+    }
+
+    /**
+     * Starts a read-only primary listening on {@code bindAddress}: replicas follow the stream, but
+     * forwarded writes are refused. Use port {@code 0} to pick an ephemeral port and read it back via
+     * {@link #boundAddress()}.
+     */
+    public static CredentialReplicationPrimary start(CredentialStore delegate, InetSocketAddress bindAddress)
+            throws IOException {
+        return start(delegate, bindAddress, null);
+    }
+
+    /**
+     * Starts a primary that only serves replicas proving {@code writeSecret} and applies the writes they
+     * forward. A {@code null} secret starts a read-only primary.
+     */
+    public static CredentialReplicationPrimary start(
+            CredentialStore delegate, InetSocketAddress bindAddress, byte[] writeSecret) throws IOException {
+        return start(delegate, bindAddress, DEFAULT_HEARTBEAT_INTERVAL, DEFAULT_QUEUE_CAPACITY, writeSecret);
+    }
+
+    public static CredentialReplicationPrimary start(
+            CredentialStore delegate, InetSocketAddress bindAddress, Duration heartbeatInterval, int queueCapacity)
+            throws IOException {
+        return start(delegate, bindAddress, heartbeatInterval, queueCapacity, null);
+    }
+
+    public static CredentialReplicationPrimary start(
+            CredentialStore delegate,
+            InetSocketAddress bindAddress,
+            Duration heartbeatInterval,
+            int queueCapacity,
+            byte[] writeSecret)
+            throws IOException {
+        Objects.requireNonNull(delegate, "delegate");
+        Objects.requireNonNull(bindAddress, "bindAddress");
+        Objects.requireNonNull(heartbeatInterval, "heartbeatInterval");
+        if (heartbeatInterval.isZero() || heartbeatInterval.isNegative()) {
+            throw new IllegalArgumentException("heartbeatInterval must be positive");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be positive");
+        }
+        if (writeSecret != null && writeSecret.length == 0) {
+            throw new IllegalArgumentException("writeSecret must not be empty");
+        }
+        ServerSocket serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(bindAddress);
+        CredentialReplicationPrimary primary = new CredentialReplicationPrimary(
+                delegate,
+                serverSocket,
+                heartbeatInterval,
+                queueCapacity,
+                writeSecret == null ? null : writeSecret.clone());
+        primary.acceptor.start();
+        return primary;
+    }
+
+    /** Address the primary accepted connections on (resolves ephemeral ports). */
+    public InetSocketAddress boundAddress() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    /** Sequence number of the latest committed mutation. */
+    public long sequence() {
+        return sequence;
+    }
+
+    /** Number of replicas currently subscribed to the mutation stream. */
+    public int connectedReplicas() {
+        return sessions.size();
+    }
+
+    /** Drops every replica session; replicas reconnect and re-snapshot on their own. */
+    void disconnectReplicas() {
+        for (ReplicaSession session : sessions) {
+            session.close();
+        }
+    }
+
+    @Override
+    public void save(Credential credential) {
+        Objects.requireNonNull(credential, "credential");
+        synchronized (mutationLock) {
+            Set<String> previousReferences = delegate.findByName(credential.name())
+                    .map(previous -> CredentialBlobStore.referencesIn(previous.attributes()))
+                    .orElse(Set.of());
+            delegate.save(credential);
+            // Re-read so replicas receive the normalised record the primary actually committed.
+            Credential committed = delegate.findByName(credential.name()).orElse(credential);
+            for (String reference : CredentialBlobStore.referencesIn(committed.attributes())) {
+                if (!previousReferences.contains(reference)) {
+                    publishBlob(reference);
+                }
+            }
+            long next = sequence + 1;
+            sequence = next;
+            publish(new ReplicationFrame.Upsert(
+                    next, System.currentTimeMillis(), VersionedCredentialRecordMapper.toRecord(committed)));
+        }
+    }
+
+    @Override
+    public boolean replace(Credential expected, Credential replacement) {
+        Objects.requireNonNull(expected, "expected");
+        Objects.requireNonNull(replacement, "replacement");
+        CredentialStore.requireSameName(expected, replacement);
+        synchronized (mutationLock) {
+            Optional<Credential> current = delegate.findByName(expected.name());
+            if (current.isEmpty() || !CredentialStore.sameVersion(current.get(), expected)) {
+                return false;
+            }
+            save(replacement);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean delete(String name) {
+        Objects.requireNonNull(name, "name");
+        synchronized (mutationLock) {
+            boolean removed = delegate.delete(name);
+            if (removed) {
+                long next = sequence + 1;
+                sequence = next;
+                publish(new ReplicationFrame.Delete(next, System.currentTimeMillis(), name));
+            }
+            return removed;
+        }
+    }
+
+    @Override
+    public Optional<CredentialBlobStore> blobStore() {
+        return delegate.blobStore().map(blobs -> this);
+    }
+
+    /** Stores the blob on the primary; replicas receive it with the first record that references it. */
+    @Override
+    public String putBlob(byte[] content) {
+        return delegateBlobs().putBlob(content);
+    }
+
+    @Override
+    public Optional<byte[]> findBlob(String reference) {
+        return delegateBlobs().findBlob(reference);
+    }
+
+    @Override
+    public void retainBlob(String reference) {
+        delegateBlobs().retainBlob(reference);
+    }
+
+    @Override
+    public void releaseBlob(String reference) {
+        delegateBlobs().releaseBlob(reference);
+    }
+
+    @Override
+    public Optional<Credential> findByName(String name) {
+        return delegate.findByName(name);
+    }
+
+    @Override
+    public List<Credential> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return delegate.exists(name);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException ex) {
+            TELEMETRY_LOGGER.log(Level.FINE, "Failed to close replication server socket", ex);
+        }
+        for (ReplicaSession session : sessions) {
+            session.close();
+        }
+        delegate.close();
+    }
+
+    private CredentialBlobStore delegateBlobs() {
+        return delegate.blobStore()
+                .orElseThrow(() -> new UnsupportedOperationException("Replicated store does not keep blobs"));
+    }
+
+    private void publishBlob(String reference) {
+        delegate.blobStore()
+                .flatMap(blobs -> blobs.findBlob(reference))
+                .ifPresent(content -> publish(new ReplicationFrame.Blob(content)));
+    }
+
+    private void publish(ReplicationFrame frame) {
+        for (ReplicaSession session : sessions) {
+            if (!session.queue.offer(frame)) {
+                logSessionEvent("overflow", session, sequence);
+                session.close();
+            }
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                ReplicaSession session = new ReplicaSession(socket);
+                session.start();
+            } catch (SocketException ex) {
+                if (!closed) {
+                    TELEMETRY_LOGGER.log(Level.WARNING, "Replication accept loop failed", ex);
+                }
+            } catch (IOException ex) {
+                TELEMETRY_LOGGER.log(Level.WARNING, "Replication accept failed", ex);
+            }
+        }
+    }
+
+    private void logSessionEvent(String event, ReplicaSession session, long currentSequence) {
+        if (!TELEMETRY_LOGGER.isLoggable(Level.FINE)) {
+            return;
+        }
+        Map<String, String> payload = new LinkedHashMap<>();
+        payload.put("role", "PRIMARY");
+        payload.put("event", event);
+        payload.put("replica", String.valueOf(session.socket.getRemoteSocketAddress()));
+        payload.put("sequence", Long.toString(currentSequence));
+        payload.put("connectedReplicas", Integer.toString(sessions.size()));
+        payload.put("queueDepth", Integer.toString(session.queue.size()));
+        TELEMETRY_LOGGER.log(Level.FINE, "persistence.replication.session", new Object[] {payload});
+    }
+
+    private final class ReplicaSession {
+
+        private final Socket socket;
+        private final BlockingQueue<ReplicationFrame> queue;
+        private final Thread sender;
+        private volatile boolean writable;
+
+        private ReplicaSession(Socket socket) {
+            this.socket = socket;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.sender = new Thread(this::run, "credential-replication-sender-" + socket.getPort());
+            this.sender.setDaemon(true);
+        }
+
+        private void start() {
+            sender.start();
+        }
+
+        private void run() {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                ReplicationFrame hello = ReplicationFrame.read(in);
+                if (!(hello instanceof ReplicationFrame.Hello greeting)
+                        || greeting.protocolVersion() != ReplicationFrame.PROTOCOL_VERSION) {
+                    throw new IOException("Unsupported replication handshake " + hello);
+                }
+                if (!authenticate(in, out)) {
+                    TELEMETRY_LOGGER.log(
+                            Level.WARNING,
+                            "Dropped replica {0}: replication secret challenge failed",
+                            socket.getRemoteSocketAddress());
+                    return;
+                }
+                sendSnapshot(out);
+                startWriteReader(in);
+                long heartbeatNanos = heartbeatInterval.toNanos();
+                while (!closed && !socket.isClosed()) {
+                    ReplicationFrame frame = queue.poll(heartbeatNanos, TimeUnit.NANOSECONDS);
+                    if (frame == null) {
+                        frame = new ReplicationFrame.Heartbeat(
+                                sequence, System.currentTimeMillis(), oldestQueuedCommitMillis());
+                    }
+                    ReplicationFrame.write(out, frame);
+                    if (queue.isEmpty()) {
+                        out.flush();
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException ex) {
+                if (!closed && !socket.isClosed()) {
+                    TELEMETRY_LOGGER.log(Level.FINE, "Replica session terminated", ex);
+                }
+            } finally {
+                close();
+            }
+        }
+
+        /**
+         * Challenges the replica for the write secret; returns {@code false} when the primary has a secret
+         * and the replica's proof does not match it.
+         */
+        private boolean authenticate(DataInputStream in, DataOutputStream out) throws IOException {
+            byte[] nonce = new byte[ReplicationFrame.CHALLENGE_BYTES];
+            RANDOM.nextBytes(nonce);
+            ReplicationFrame.write(out, new ReplicationFrame.Challenge(nonce));
+            out.flush();
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            ReplicationFrame answer = ReplicationFrame.read(in);
+            socket.setSoTimeout(0);
+            if (!(answer instanceof ReplicationFrame.ChallengeResponse response)) {
+                throw new IOException("Expected a challenge response, got " + answer);
+            }
+            if (writeSecret == null) {
+                return true;
+            }
+            writable = ReplicationFrame.verify(writeSecret, nonce, response.proof());
+            return writable;
+        }
+
+        private void sendSnapshot(DataOutputStream out) throws IOException {
+            List<Credential> snapshot;
+            List<byte[]> blobs = new ArrayList<>();
+            long snapshotSequence;
+            // Register under the mutation lock so no committed mutation falls between the snapshot and
+            // the live stream; mutations published afterwards queue up while the snapshot is written.
+            synchronized (mutationLock) {
+                snapshot = delegate.findAll();
+                Optional<CredentialBlobStore> blobStore = delegate.blobStore();
+                if (blobStore.isPresent()) {
+                    Set<String> references = new LinkedHashSet<>();
+                    snapshot.forEach(credential ->
+                            references.addAll(CredentialBlobStore.referencesIn(credential.attributes())));
+                    for (String reference : references) {
+                        blobStore.get().findBlob(reference).ifPresent(blobs::add);
+                    }
+                }
+                snapshotSequence = sequence;
+                sessions.add(this);
+            }
+            logSessionEvent("connected", this, snapshotSequence);
+            ReplicationFrame.write(
+                    out,
+                    new ReplicationFrame.SnapshotBegin(snapshotSequence, System.currentTimeMillis(), snapshot.size()));
+            for (byte[] blob : blobs) {
+                ReplicationFrame.write(out, new ReplicationFrame.Blob(blob));
+            }
+            for (Credential credential : snapshot) {
+                VersionedCredentialRecord record = VersionedCredentialRecordMapper.toRecord(credential);
+                ReplicationFrame.write(out, new ReplicationFrame.SnapshotEntry(record));
+            }
+            ReplicationFrame.write(out, new ReplicationFrame.SnapshotEnd(snapshotSequence));
+            out.flush();
+        }
+
+        private long oldestQueuedCommitMillis() {
+            for (ReplicationFrame queued : queue) {
+                if (queued instanceof ReplicationFrame.Upsert upsert) {
+                    return upsert.commitMillis();
+                }
+                if (queued instanceof ReplicationFrame.Delete delete) {
+                    return delete.commitMillis();
+                }
+            }
+            return 0L;
+        }
+
+        /** Applies writes the replica forwards; results queue up behind the mutations they caused. */
+        private void startWriteReader(DataInputStream in) {
+            Thread reader = new Thread(
+                    () -> {
+                        try {
+                            while (!closed && !socket.isClosed()) {
+                                ReplicationFrame frame = ReplicationFrame.read(in);
+                                if (!(frame instanceof ReplicationFrame.WriteRequest request)) {
+                                    throw new IOException("Unexpected frame from replica " + frame);
+                                }
+                                if (!queue.offer(applyForwarded(request))) {
+                                    logSessionEvent("overflow", this, sequence);
+                                    close();
+                                }
+                            }
+                        } catch (IOException | RuntimeException ex) {
+                            if (!closed && !socket.isClosed()) {
+                                TELEMETRY_LOGGER.log(Level.FINE, "Replica write stream terminated", ex);
+                            }
+                        } finally {
+                            close();
+                        }
+                    },
+                    "credential-replication-writes-" + socket.getPort());
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private ReplicationFrame.WriteResult applyForwarded(ReplicationFrame.WriteRequest request) {
+            if (!writable) {
+                return new ReplicationFrame.WriteResult(
+                        request.requestId(), false, "forwarded writes are disabled on this primary");
+            }
+            try {
+                boolean applied;
+                if (request instanceof ReplicationFrame.SaveRequest save) {
+                    save(VersionedCredentialRecordMapper.toCredential(save.record()));
+                    applied = true;
+                } else if (request instanceof ReplicationFrame.DeleteRequest delete) {
+                    applied = delete(delete.name());
+                } else if (request instanceof ReplicationFrame.PutBlobRequest putBlob) {
+                    putBlob(putBlob.content());
+                    applied = true;
+                } else if (request instanceof ReplicationFrame.ReplaceRequest replace) {
+                    applied = replace(
+                            VersionedCredentialRecordMapper.toCredential(replace.expected()),
+                            VersionedCredentialRecordMapper.toCredential(replace.replacement()));
+                } else {
+                    throw new IllegalArgumentException("Unsupported write request " + request);
+                }
+                return new ReplicationFrame.WriteResult(request.requestId(), applied, "");
+            } catch (RuntimeException ex) {
+                String message = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+                return new ReplicationFrame.WriteResult(request.requestId(), false, message);
+            }
+        }
+
+        private void close() {
+            if (sessions.remove(this)) {
+                logSessionEvent("disconnected", this, sequence);
+            }
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                TELEMETRY_LOGGER.log(Level.FINE, "Failed to close replica socket", ex);
+            }
+        }
+    }
+}
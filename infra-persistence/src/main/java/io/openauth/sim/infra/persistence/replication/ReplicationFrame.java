@@ -0,0 +1,337 @@
+package io.openauth.sim.infra.persistence.replication;
+
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecord;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Objects;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Wire representation for the credential replication protocol.
+ *
+ * <p>Every frame is encoded as {@code int length | byte type | body}, where {@code length} covers the
+ * type byte and body. Credential records use {@link VersionedCredentialRecordCodec}, whose
+ * length-prefixed strings keep large attribute payloads (for example WebAuthn attestation material)
+ * free of {@code writeUTF} limits.
+ *
+ * <p>Blobs referenced from credential attributes travel as {@link Blob} frames queued ahead of the
+ * snapshot entries or mutations that first reference them, so a replica holds every blob before it
+ * applies a record pointing at it.
+ *
+ * <p>The primary answers {@link Hello} with a {@link Challenge} nonce, and the replica replies with a
+ * {@link ChallengeResponse} carrying the HMAC-SHA256 of that nonce under the shared replication secret
+ * (an empty proof when it has none). A primary with a secret drops sessions whose proof does not match.
+ *
+ * <p>Replicas may send {@link WriteRequest} frames on the same connection; the primary applies them
+ * and queues a {@link WriteResult} behind the mutation frames they produced, so a replica has applied
+ * its own write by the time the result arrives. Only sessions that proved the secret may write.
+ */
+sealed interface ReplicationFrame {
+
+    int PROTOCOL_VERSION = 2;
+    int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+    int CHALLENGE_BYTES = 32;
+
+    /** Sent by a replica immediately after connecting. */
+    record Hello(int protocolVersion) implements ReplicationFrame {}
+
+    /** Random nonce the primary sends in reply to {@link Hello}. */
+    record Challenge(byte[] nonce) implements ReplicationFrame {
+
+        public Challenge {
+            Objects.requireNonNull(nonce, "nonce");
+        }
+    }
+
+    /** Replica's answer to a {@link Challenge}; see {@link #proof(byte[], byte[])}. */
+    record ChallengeResponse(byte[] proof) implements ReplicationFrame {
+
+        public ChallengeResponse {
+            Objects.requireNonNull(proof, "proof");
+        }
+    }
+
+    /** Opens a full snapshot of the primary at {@code sequence}; followed by {@code count} entries. */
+    record SnapshotBegin(long sequence, long timestampMillis, int count) implements ReplicationFrame {}
+
+    /** Single credential included in a snapshot. */
+    record SnapshotEntry(VersionedCredentialRecord record) implements ReplicationFrame {
+
+        public SnapshotEntry {
+            Objects.requireNonNull(record, "record");
+        }
+    }
+
+    /** Closes a snapshot; the replica is consistent with the primary at {@code sequence}. */
+    record SnapshotEnd(long sequence) implements ReplicationFrame {}
+
+    /** Committed save on the primary. */
+    record Upsert(long sequence, long commitMillis, VersionedCredentialRecord record) implements ReplicationFrame {
+
+        public Upsert {
+            Objects.requireNonNull(record, "record");
+        }
+    }
+
+    /** Committed delete on the primary. */
+    record Delete(long sequence, long commitMillis, String name) implements ReplicationFrame {
+
+        public Delete {
+            Objects.requireNonNull(name, "name");
+        }
+    }
+
+    /** Blob content referenced by a following snapshot entry or upsert; applying it twice is harmless. */
+    record Blob(byte[] content) implements ReplicationFrame {
+
+        public Blob {
+            Objects.requireNonNull(content, "content");
+        }
+    }
+
+    /**
+     * Periodic liveness signal carrying the primary's latest committed sequence and the commit time of
+     * the oldest mutation still queued for this replica ({@code 0} when none is queued).
+     */
+    record Heartbeat(long sequence, long timestampMillis, long pendingCommitMillis) implements ReplicationFrame {}
+
+    /** Mutation a replica forwards to the primary; answered by a {@link WriteResult} with the same id. */
+    sealed interface WriteRequest extends ReplicationFrame {
+        long requestId();
+    }
+
+    /** Forwarded {@code save}. */
+    record SaveRequest(long requestId, VersionedCredentialRecord record) implements WriteRequest {
+
+        public SaveRequest {
+            Objects.requireNonNull(record, "record");
+        }
+    }
+
+    /** Forwarded {@code delete}. */
+    record DeleteRequest(long requestId, String name) implements WriteRequest {
+
+        public DeleteRequest {
+            Objects.requireNonNull(name, "name");
+        }
+    }
+
+    /** Forwarded conditional {@code replace}. */
+    record ReplaceRequest(long requestId, VersionedCredentialRecord expected, VersionedCredentialRecord replacement)
+            implements WriteRequest {
+
+        public ReplaceRequest {
+            Objects.requireNonNull(expected, "expected");
+            Objects.requireNonNull(replacement, "replacement");
+        }
+    }
+
+    /** Forwarded {@code putBlob}. */
+    record PutBlobRequest(long requestId, byte[] content) implements WriteRequest {
+
+        public PutBlobRequest {
+            Objects.requireNonNull(content, "content");
+        }
+    }
+
+    /**
+     * Outcome of a forwarded write: {@code applied} is the store's boolean result (always {@code true}
+     * for saves), and {@code error} is empty unless the primary rejected the write.
+     */
+    record WriteResult(long requestId, boolean applied, String error) implements ReplicationFrame {
+
+        public WriteResult {
+            Objects.requireNonNull(error, "error");
+        }
+    }
+
+    /** HMAC-SHA256 of {@code nonce} under {@code secret}, or an empty proof when there is no secret. */
+    static byte[] proof(byte[] secret, byte[] nonce) {
+        if (secret == null) {
+            return new byte[0];
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return mac.doFinal(nonce);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 unavailable", ex);
+        }
+    }
+
+    /** Checks a {@link ChallengeResponse} proof in constant time. */
+    static boolean verify(byte[] secret, byte[] nonce, byte[] proof) {
+        return secret != null && MessageDigest.isEqual(proof(secret, nonce), proof);
+    }
+
+    static void write(DataOutputStream out, ReplicationFrame frame) throws IOException {
+        FrameBuffer body = new FrameBuffer();
+        DataOutputStream data = new DataOutputStream(body);
+        if (frame instanceof Hello hello) {
+            data.writeByte(FrameType.HELLO.code);
+            data.writeInt(hello.protocolVersion());
+        } else if (frame instanceof Challenge challenge) {
+            data.writeByte(FrameType.CHALLENGE.code);
+            writeBytes(data, challenge.nonce());
+        } else if (frame instanceof ChallengeResponse response) {
+            data.writeByte(FrameType.CHALLENGE_RESPONSE.code);
+            writeBytes(data, response.proof());
+        } else if (frame instanceof SnapshotBegin begin) {
+            data.writeByte(FrameType.SNAPSHOT_BEGIN.code);
+            data.writeLong(begin.sequence());
+            data.writeLong(begin.timestampMillis());
+            data.writeInt(begin.count());
+        } else if (frame instanceof SnapshotEntry entry) {
+            data.writeByte(FrameType.SNAPSHOT_ENTRY.code);
+            VersionedCredentialRecordCodec.write(data, entry.record());
+        } else if (frame instanceof SnapshotEnd end) {
+            data.writeByte(FrameType.SNAPSHOT_END.code);
+            data.writeLong(end.sequence());
+        } else if (frame instanceof Upsert upsert) {
+            data.writeByte(FrameType.UPSERT.code);
+            data.writeLong(upsert.sequence());
+            data.writeLong(upsert.commitMillis());
+            VersionedCredentialRecordCodec.write(data, upsert.record());
+        } else if (frame instanceof Delete delete) {
+            data.writeByte(FrameType.DELETE.code);
+            data.writeLong(delete.sequence());
+            data.writeLong(delete.commitMillis());
+            VersionedCredentialRecordCodec.writeString(data, delete.name());
+        } else if (frame instanceof Heartbeat heartbeat) {
+            data.writeByte(FrameType.HEARTBEAT.code);
+            data.writeLong(heartbeat.sequence());
+            data.writeLong(heartbeat.timestampMillis());
+            data.writeLong(heartbeat.pendingCommitMillis());
+        } else if (frame instanceof SaveRequest save) {
+            data.writeByte(FrameType.SAVE_REQUEST.code);
+            data.writeLong(save.requestId());
+            VersionedCredentialRecordCodec.write(data, save.record());
+        } else if (frame instanceof DeleteRequest delete) {
+            data.writeByte(FrameType.DELETE_REQUEST.code);
+            data.writeLong(delete.requestId());
+            VersionedCredentialRecordCodec.writeString(data, delete.name());
+        } else if (frame instanceof ReplaceRequest replace) {
+            data.writeByte(FrameType.REPLACE_REQUEST.code);
+            data.writeLong(replace.requestId());
+            VersionedCredentialRecordCodec.write(data, replace.expected());
+            VersionedCredentialRecordCodec.write(data, replace.replacement());
+        } else if (frame instanceof Blob blob) {
+            data.writeByte(FrameType.BLOB.code);
+            writeBytes(data, blob.content());
+        } else if (frame instanceof PutBlobRequest putBlob) {
+            data.writeByte(FrameType.PUT_BLOB_REQUEST.code);
+            data.writeLong(putBlob.requestId());
+            writeBytes(data, putBlob.content());
+        } else if (frame instanceof WriteResult result) {
+            data.writeByte(FrameType.WRITE_RESULT.code);
+            data.writeLong(result.requestId());
+            data.writeBoolean(result.applied());
+            VersionedCredentialRecordCodec.writeString(data, result.error());
+        } else {
+            throw new IllegalArgumentException("Unsupported frame " + frame.getClass().getSimpleName());
+        }
+        data.flush();
+        if (body.size() > MAX_FRAME_BYTES) {
+            throw new IOException("Replication frame exceeds " + MAX_FRAME_BYTES + " bytes");
+        }
+        out.writeInt(body.size());
+        out.write(body.buffer(), 0, body.size());
+    }
+
+    static ReplicationFrame read(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length <= 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid replication frame length " + length);
+        }
+        byte[] body = new byte[length];
+        in.readFully(body);
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(body));
+        FrameType type = FrameType.fromCode(data.readByte());
+        return switch (type) {
+            case HELLO -> new Hello(data.readInt());
+            case SNAPSHOT_BEGIN -> new SnapshotBegin(data.readLong(), data.readLong(), data.readInt());
+            case SNAPSHOT_ENTRY -> new SnapshotEntry(VersionedCredentialRecordCodec.read(data));
+            case SNAPSHOT_END -> new SnapshotEnd(data.readLong());
+            case UPSERT -> new Upsert(data.readLong(), data.readLong(), VersionedCredentialRecordCodec.read(data));
+            case DELETE ->
+                new Delete(data.readLong(), data.readLong(), VersionedCredentialRecordCodec.readString(data));
+            case HEARTBEAT -> new Heartbeat(data.readLong(), data.readLong(), data.readLong());
+            case SAVE_REQUEST -> new SaveRequest(data.readLong(), VersionedCredentialRecordCodec.read(data));
+            case DELETE_REQUEST -> new DeleteRequest(data.readLong(), VersionedCredentialRecordCodec.readString(data));
+            case REPLACE_REQUEST ->
+                new ReplaceRequest(
+                        data.readLong(),
+                        VersionedCredentialRecordCodec.read(data),
+                        VersionedCredentialRecordCodec.read(data));
+            case WRITE_RESULT ->
+                new WriteResult(data.readLong(), data.readBoolean(), VersionedCredentialRecordCodec.readString(data));
+            case BLOB -> new Blob(readBytes(data));
+            case PUT_BLOB_REQUEST -> new PutBlobRequest(data.readLong(), readBytes(data));
+            case CHALLENGE -> new Challenge(readBytes(data));
+            case CHALLENGE_RESPONSE -> new ChallengeResponse(readBytes(data));
+        };
+    }
+
+    private static void writeBytes(DataOutputStream data, byte[] bytes) throws IOException {
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid blob length " + length);
+        }
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return bytes;
+    }
+
+    enum FrameType {
+        HELLO(1),
+        SNAPSHOT_BEGIN(2),
+        SNAPSHOT_ENTRY(3),
+        SNAPSHOT_END(4),
+        UPSERT(5),
+        DELETE(6),
+        HEARTBEAT(7),
+        SAVE_REQUEST(8),
+        DELETE_REQUEST(9),
+        REPLACE_REQUEST(10),
+        WRITE_RESULT(11),
+        BLOB(12),
+        PUT_BLOB_REQUEST(13),
+        CHALLENGE(14),
+        CHALLENGE_RESPONSE(15);
+
+        private final byte code;
+
+        FrameType(int code) {
+            this.code = (byte) code;
+        }
+
+        static FrameType fromCode(byte code) throws IOException {
+            for (FrameType type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IOException("Unknown replication frame type " + code);
+        }
+    }
+
+    /** Exposes the internal buffer so frames can be written without an extra copy. */
+    final class FrameBuffer extends ByteArrayOutputStream {
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
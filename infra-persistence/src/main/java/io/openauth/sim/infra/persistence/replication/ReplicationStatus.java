@@ -0,0 +1,31 @@
+package io.openauth.sim.infra.persistence.replication;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Point-in-time view of a read replica's position relative to its primary.
+ *
+ * @param connected whether the replica currently holds a live stream to the primary
+ * @param appliedSequence last primary sequence applied to the local store
+ * @param primarySequence latest primary sequence observed via mutations or heartbeats
+ * @param lag wall-clock delay between the primary commit and the local apply of the latest mutation,
+ *     or, when the replica is behind, the time since the primary committed the oldest unapplied mutation
+ * @param lastContact time the replica last received any frame from the primary, if ever
+ */
+public record ReplicationStatus(
+        boolean connected, long appliedSequence, long primarySequence, Duration lag, Instant lastContact) {
+
+    public ReplicationStatus {
+        Objects.requireNonNull(lag, "lag");
+        if (appliedSequence < 0L || primarySequence < 0L) {
+            throw new IllegalArgumentException("sequences must be non-negative");
+        }
+    }
+
+    /** Number of primary mutations not yet applied locally. */
+    public long sequenceLag() {
+        return Math.max(0L, primarySequence - appliedSequence);
+    }
+}
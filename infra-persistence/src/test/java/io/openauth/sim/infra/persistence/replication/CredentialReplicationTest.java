@@ -0,0 +1,296 @@
+package io.openauth.sim.infra.persistence.replication;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.model.CredentialType;
+import io.openauth.sim.core.model.SecretMaterial;
+import io.openauth.sim.core.store.CredentialBlobStore;
+import io.openauth.sim.core.store.CredentialStore;
+import io.openauth.sim.core.store.MapDbCredentialStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
+import io.openauth.sim.infra.persistence.CredentialStoreFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+final class CredentialReplicationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final byte[] SECRET = "replication-test-secret".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    @DisplayName("replica receives snapshot and subsequent committed mutations")
+    void replicaAppliesSnapshotAndMutations() throws Exception {
+        try (CredentialReplicationPrimary primary =
+                CredentialReplicationPrimary.start(CredentialStoreFactory.openInMemoryStore(), loopback())) {
+            primary.save(hotp("seeded-before-connect"));
+
+            MapDbCredentialStore local = CredentialStoreFactory.openInMemoryStore();
+            try (CredentialReplicaStore replica = CredentialReplicaStore.connect(local, primary.boundAddress())) {
+                assertTrue(replica.awaitSequence(primary.sequence(), TIMEOUT));
+                assertTrue(replica.exists("seeded-before-connect"));
+
+                primary.save(hotp("saved-after-connect"));
+                assertTrue(primary.delete("seeded-before-connect"));
+                assertTrue(replica.awaitSequence(primary.sequence(), TIMEOUT));
+
+                assertFalse(replica.exists("seeded-before-connect"));
+                Credential replicated = replica.findByName("saved-after-connect").orElseThrow();
+                assertEquals(CredentialType.OATH_HOTP, replicated.type());
+                assertEquals("0", replicated.attributes().get("hotp.counter"));
+
+                ReplicationStatus status = replica.status();
+                assertTrue(status.connected());
+                assertEquals(primary.sequence(), status.appliedSequence());
+                assertEquals(0L, status.sequenceLag());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("blobs replicate ahead of the records that reference them")
+    void blobsReplicateWithTheirRecords() throws Exception {
+        byte[] seeded = "seeded-certificate-chain".getBytes(StandardCharsets.UTF_8);
+        byte[] forwarded = "forwarded-certificate-chain".getBytes(StandardCharsets.UTF_8);
+        try (CredentialReplicationPrimary primary =
+                CredentialReplicationPrimary.start(CredentialStoreFactory.openInMemoryStore(), loopback(), SECRET)) {
+            CredentialBlobStore primaryBlobs = CredentialBlobStore.of(primary).orElseThrow();
+            String seededReference = primaryBlobs.putBlob(seeded);
+            primary.save(withBlob("seeded", seededReference));
+
+            MapDbCredentialStore local = CredentialStoreFactory.openInMemoryStore();
+            try (CredentialReplicaStore replica =
+                    CredentialReplicaStore.connect(local, primary.boundAddress(), SECRET)) {
+                assertTrue(replica.awaitSequence(primary.sequence(), TIMEOUT));
+                CredentialBlobStore replicaBlobs = CredentialBlobStore.of(replica).orElseThrow();
+                assertArrayEquals(seeded, replicaBlobs.findBlob(seededReference).orElseThrow());
+
+                String forwardedReference = replicaBlobs.putBlob(forwarded);
+                assertArrayEquals(forwarded, primaryBlobs.findBlob(forwardedReference).orElseThrow());
+                replica.save(withBlob("forwarded", forwardedReference));
+                assertArrayEquals(forwarded, replicaBlobs.findBlob(forwardedReference).orElseThrow());
+
+                assertTrue(replica.delete("seeded"));
+                assertTrue(primaryBlobs.findBlob(seededReference).isEmpty());
+                assertTrue(replicaBlobs.findBlob(seededReference).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("replica forwards writes to the primary and reads them back")
+    void replicaForwardsWrites() throws Exception {
+        MapDbCredentialStore local = CredentialStoreFactory.openInMemoryStore();
+        try (CredentialReplicationPrimary primary = CredentialReplicationPrimary.start(
+                        CredentialStoreFactory.openInMemoryStore(), loopback(), SECRET);
+                CredentialReplicaStore replica =
+                        CredentialReplicaStore.connect(local, primary.boundAddress(), SECRET)) {
+            replica.save(hotp("forwarded"));
+            assertTrue(primary.exists("forwarded"));
+            assertTrue(replica.exists("forwarded"));
+
+            Credential current = replica.findByName("forwarded").orElseThrow();
+            Credential advanced = current.withAttributes(Map.of("hotp.counter", "1"));
+            assertTrue(replica.replace(current, advanced));
+            assertEquals("1", replica.findByName("forwarded").orElseThrow().attributes().get("hotp.counter"));
+            assertEquals("1", primary.findByName("forwarded").orElseThrow().attributes().get("hotp.counter"));
+            assertFalse(replica.replace(current, current.withAttributes(Map.of("hotp.counter", "2"))));
+            assertEquals("1", primary.findByName("forwarded").orElseThrow().attributes().get("hotp.counter"));
+
+            assertTrue(replica.delete("forwarded"));
+            assertFalse(replica.delete("forwarded"));
+            assertFalse(primary.exists("forwarded"));
+            assertFalse(replica.exists("forwarded"));
+            assertEquals(primary.sequence(), replica.status().appliedSequence());
+        }
+    }
+
+    @Test
+    @DisplayName("primary without a secret refuses forwarded writes but still streams to the replica")
+    void readOnlyPrimaryRefusesForwardedWrites() throws Exception {
+        MapDbCredentialStore local = CredentialStoreFactory.openInMemoryStore();
+        try (CredentialReplicationPrimary primary =
+                        CredentialReplicationPrimary.start(CredentialStoreFactory.openInMemoryStore(), loopback());
+                CredentialReplicaStore replica =
+                        CredentialReplicaStore.connect(local, primary.boundAddress(), SECRET)) {
+            IllegalStateException refused = assertThrows(IllegalStateException.class, () -> replica.save(hotp("x")));
+            assertTrue(refused.getMessage().contains("forwarded writes are disabled"), refused::getMessage);
+            assertFalse(primary.exists("x"));
+
+            primary.save(hotp("from-primary"));
+            assertTrue(replica.awaitSequence(primary.sequence(), TIMEOUT));
+            assertTrue(replica.exists("from-primary"));
+        }
+    }
+
+    @Test
+    @DisplayName("session with a wrong secret proof is dropped before it can write")
+    void unauthenticatedWriteIsRefused() throws Exception {
+        try (CredentialReplicationPrimary primary = CredentialReplicationPrimary.start(
+                        CredentialStoreFactory.openInMemoryStore(), loopback(), SECRET);
+                Socket socket = new Socket()) {
+            socket.connect(primary.boundAddress(), (int) TIMEOUT.toMillis());
+            socket.setSoTimeout((int) TIMEOUT.toMillis());
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            ReplicationFrame.write(out, new ReplicationFrame.Hello(ReplicationFrame.PROTOCOL_VERSION));
+            out.flush();
+            ReplicationFrame.Challenge challenge = (ReplicationFrame.Challenge) ReplicationFrame.read(in);
+            byte[] forged = ReplicationFrame.proof("wrong-secret".getBytes(StandardCharsets.UTF_8), challenge.nonce());
+            ReplicationFrame.write(out, new ReplicationFrame.ChallengeResponse(forged));
+            ReplicationFrame.write(
+                    out,
+                    new ReplicationFrame.SaveRequest(1L, VersionedCredentialRecordMapper.toRecord(hotp("forged"))));
+            out.flush();
+
+            assertThrows(IOException.class, () -> ReplicationFrame.read(in));
+            assertFalse(primary.exists("forged"));
+            assertEquals(0L, primary.sequence());
+            assertEquals(0, primary.connectedReplicas());
+        }
+    }
+
+    @Test
+    @DisplayName("reconnecting replica converges on writes made while its session was down")
+    void reconnectingReplicaResynchronises() throws Exception {
+        try (CredentialReplicationPrimary primary =
+                CredentialReplicationPrimary.start(CredentialStoreFactory.openInMemoryStore(), loopback())) {
+            MapDbCredentialStore local = CredentialStoreFactory.openInMemoryStore();
+            local.save(hotp("stale-local"));
+            primary.save(hotp("primary-only"));
+            primary.save(hotp("deleted-while-offline"));
+
+            try (CredentialReplicaStore replica =
+                    CredentialReplicaStore.connect(local, primary.boundAddress(), Duration.ofMillis(200))) {
+                assertTrue(replica.awaitSequence(primary.sequence(), TIMEOUT));
+                assertFalse(replica.exists("stale-local"));
+                assertTrue(replica.exists("deleted-while-offline"));
+
+                primary.disconnectReplicas();
+                awaitCondition(() -> !replica.status().connected());
+                primary.save(hotp("saved-while-offline"));
+                assertTrue(primary.delete("deleted-while-offline"));
+                assertFalse(replica.exists("saved-while-offline"));
+
+                awaitCondition(() -> replica.status().connected());
+                assertTrue(replica.awaitSequence(primary.sequence(), TIMEOUT));
+                assertTrue(replica.exists("primary-only"));
+                assertTrue(replica.exists("saved-while-offline"));
+                assertFalse(replica.exists("deleted-while-offline"));
+                assertEquals(
+                        primary.findAll().stream().map(Credential::name).sorted().toList(),
+                        replica.findAll().stream().map(Credential::name).sorted().toList());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("lag is measured from the primary commit of the oldest unapplied mutation")
+    void lagTracksOldestUnappliedCommit() throws Exception {
+        GatedStore local = new GatedStore(CredentialStoreFactory.openInMemoryStore());
+        try (CredentialReplicationPrimary primary =
+                        CredentialReplicationPrimary.start(CredentialStoreFactory.openInMemoryStore(), loopback());
+                CredentialReplicaStore replica = CredentialReplicaStore.connect(local, primary.boundAddress())) {
+            assertTrue(replica.awaitSequence(primary.sequence(), TIMEOUT));
+
+            local.gate.drainPermits();
+            long committedAt = System.currentTimeMillis();
+            primary.save(hotp("slow-apply"));
+            awaitCondition(() -> replica.status().sequenceLag() == 1L);
+            Thread.sleep(300L);
+
+            ReplicationStatus behind = replica.status();
+            long elapsed = System.currentTimeMillis() - committedAt;
+            assertTrue(behind.lag().toMillis() >= 300L, () -> "lag " + behind.lag());
+            assertTrue(behind.lag().toMillis() <= elapsed, () -> "lag " + behind.lag() + " > " + elapsed);
+
+            local.gate.release(Integer.MAX_VALUE / 2);
+            assertTrue(replica.awaitSequence(primary.sequence(), TIMEOUT));
+            assertEquals(0L, replica.status().sequenceLag());
+        }
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(10L);
+        }
+    }
+
+    /** Local replica store whose saves wait for a permit, to hold the replica behind the primary. */
+    private static final class GatedStore implements CredentialStore {
+
+        private final CredentialStore delegate;
+        private final Semaphore gate = new Semaphore(Integer.MAX_VALUE / 2);
+
+        private GatedStore(CredentialStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void save(Credential credential) {
+            gate.acquireUninterruptibly();
+            delegate.save(credential);
+        }
+
+        @Override
+        public Optional<Credential> findByName(String name) {
+            return delegate.findByName(name);
+        }
+
+        @Override
+        public List<Credential> findAll() {
+            return delegate.findAll();
+        }
+
+        @Override
+        public boolean delete(String name) {
+            return delegate.delete(name);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    private static InetSocketAddress loopback() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    private static Credential withBlob(String name, String reference) {
+        return Credential.create(
+                name,
+                CredentialType.FIDO2,
+                SecretMaterial.fromHex("0011"),
+                Map.of("fido2.attestation.chain", reference));
+    }
+
+    private static Credential hotp(String name) {
+        return Credential.create(
+                name,
+                CredentialType.OATH_HOTP,
+                SecretMaterial.fromHex("3132333435363738393031323334353637383930"),
+                Map.of("issuer", "replication-test"));
+    }
+}
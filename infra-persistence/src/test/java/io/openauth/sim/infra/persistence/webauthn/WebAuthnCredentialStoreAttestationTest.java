@@ -2,6 +2,8 @@ package io.openauth.sim.infra.persistence.webauthn;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.openauth.sim.core.fido2.WebAuthnAttestationCredentialDescriptor;
 import io.openauth.sim.core.fido2.WebAuthnAttestationFixtures;
@@ -14,6 +16,8 @@ import io.openauth.sim.core.fido2.WebAuthnCredentialDescriptor;
 import io.openauth.sim.core.fido2.WebAuthnCredentialPersistenceAdapter;
 import io.openauth.sim.core.fido2.WebAuthnFixtures;
 import io.openauth.sim.core.model.Credential;
+import io.openauth.sim.core.store.CredentialBlobStore;
+import io.openauth.sim.core.store.serialization.VersionedCredentialRecord;
 import io.openauth.sim.core.store.serialization.VersionedCredentialRecordMapper;
 import io.openauth.sim.infra.persistence.CredentialStoreFactory;
 import java.util.List;
@@ -21,6 +25,8 @@ import org.junit.jupiter.api.Test;
 
 final class WebAuthnCredentialStoreAttestationTest {
 
+    private static final String CHAIN_ATTRIBUTE = "fido2.attestation.certificateChainPem";
+
     private final WebAuthnCredentialPersistenceAdapter adapter = new WebAuthnCredentialPersistenceAdapter();
 
     @Test
@@ -102,4 +108,99 @@ final class WebAuthnCredentialStoreAttestationTest {
             assertIterableEquals(descriptor.customRootCertificatesPem(), deserialized.customRootCertificatesPem());
         }
     }
+
+    @Test
+    void largeArtefactsMoveToSharedBlobMap() {
+        try (var store = CredentialStoreFactory.openInMemoryStore()) {
+            List<String> sharedChain = certificateChain();
+            WebAuthnAttestationCredentialDescriptor first = descriptor("blob-first", sharedChain);
+            WebAuthnAttestationCredentialDescriptor second = descriptor("blob-second", sharedChain);
+            for (WebAuthnAttestationCredentialDescriptor descriptor : List.of(first, second)) {
+                VersionedCredentialRecord record = adapter.serializeAttestation(descriptor);
+                store.save(VersionedCredentialRecordMapper.toCredential(new VersionedCredentialRecord(
+                        record.schemaVersion(),
+                        record.name(),
+                        record.type(),
+                        record.secret(),
+                        record.createdAt(),
+                        record.updatedAt(),
+                        adapter.externalizeArtefacts(record.attributes(), store))));
+            }
+
+            String firstReference = store.findByName("blob-first")
+                    .orElseThrow()
+                    .attributes()
+                    .get(CHAIN_ATTRIBUTE);
+            String secondReference = store.findByName("blob-second")
+                    .orElseThrow()
+                    .attributes()
+                    .get(CHAIN_ATTRIBUTE);
+            assertTrue(CredentialBlobStore.isReference(firstReference), firstReference);
+            assertEquals(firstReference, secondReference, "identical chains should share one blob");
+
+            VersionedCredentialRecord stored =
+                    VersionedCredentialRecordMapper.toRecord(store.findByName("blob-second").orElseThrow());
+            assertThrows(IllegalArgumentException.class, () -> adapter.deserializeAttestation(stored));
+
+            WebAuthnAttestationCredentialDescriptor resolved =
+                    adapter.deserializeAttestation(adapter.resolveArtefacts(stored, store));
+            assertIterableEquals(second.certificateChainPem(), resolved.certificateChainPem());
+            assertEquals(
+                    second.credentialDescriptor().relyingPartyId(),
+                    resolved.credentialDescriptor().relyingPartyId());
+        }
+    }
+
+    private static WebAuthnAttestationVector vector() {
+        return WebAuthnAttestationFixtures.vectorsFor(WebAuthnAttestationFormat.PACKED).stream()
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static List<String> certificateChain() {
+        WebAuthnAttestationVector vector = vector();
+        GenerationCommand.Inline command = new GenerationCommand.Inline(
+                vector.vectorId(),
+                vector.format(),
+                vector.relyingPartyId(),
+                vector.origin(),
+                vector.registration().challenge(),
+                vector.keyMaterial().credentialPrivateKeyBase64Url(),
+                vector.keyMaterial().attestationPrivateKeyBase64Url(),
+                vector.keyMaterial().attestationCertificateSerialBase64Url(),
+                SigningMode.SELF_SIGNED,
+                List.of());
+
+        return new WebAuthnAttestationGenerator().generate(command).certificateChainPem();
+    }
+
+    private static WebAuthnAttestationCredentialDescriptor descriptor(String name, List<String> certificateChain) {
+        WebAuthnAttestationVector vector = vector();
+        WebAuthnFixtures.WebAuthnFixture fixture = WebAuthnFixtures.loadPackedEs256();
+
+        WebAuthnCredentialDescriptor credentialDescriptor = WebAuthnCredentialDescriptor.builder()
+                .name(name)
+                .relyingPartyId(fixture.storedCredential().relyingPartyId())
+                .credentialId(fixture.storedCredential().credentialId())
+                .publicKeyCose(fixture.storedCredential().publicKeyCose())
+                .signatureCounter(fixture.storedCredential().signatureCounter())
+                .userVerificationRequired(fixture.storedCredential().userVerificationRequired())
+                .algorithm(fixture.algorithm())
+                .build();
+
+        return WebAuthnAttestationCredentialDescriptor.builder()
+                .name(name)
+                .format(vector.format())
+                .signingMode(SigningMode.SELF_SIGNED)
+                .credentialDescriptor(credentialDescriptor)
+                .relyingPartyId(vector.relyingPartyId())
+                .origin(vector.origin())
+                .attestationId(vector.vectorId())
+                .credentialPrivateKeyBase64Url(vector.keyMaterial().credentialPrivateKeyBase64Url())
+                .attestationPrivateKeyBase64Url(vector.keyMaterial().attestationPrivateKeyBase64Url())
+                .attestationCertificateSerialBase64Url(vector.keyMaterial().attestationCertificateSerialBase64Url())
+                .certificateChainPem(certificateChain)
+                .customRootCertificatesPem(List.of())
+                .build();
+    }
 }
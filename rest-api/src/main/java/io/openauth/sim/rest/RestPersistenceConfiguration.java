@@ -3,7 +3,10 @@ package io.openauth.sim.rest;
 import io.openauth.sim.core.store.CredentialStore;
 import io.openauth.sim.infra.persistence.CredentialStoreFactory;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.Locale;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -18,10 +21,31 @@ class RestPersistenceConfiguration {
     @Bean(destroyMethod = "close")
     @ConditionalOnMissingBean(CredentialStore.class)
     @ConditionalOnProperty(name = "openauth.sim.persistence.enable-store", havingValue = "true", matchIfMissing = true)
-    CredentialStore credentialStore(@Value("${openauth.sim.persistence.database-path:}") String databasePath)
+    CredentialStore credentialStore(
+            @Value("${openauth.sim.persistence.database-path:}") String databasePath,
+            @Value("${openauth.sim.persistence.replication.role:none}") String replicationRole,
+            @Value("${openauth.sim.persistence.replication.host:127.0.0.1}") String replicationHost,
+            @Value("${openauth.sim.persistence.replication.port:7710}") int replicationPort,
+            @Value("${openauth.sim.persistence.replication.secret:}") String replicationSecret)
             throws IOException {
         Path resolvedPath = resolveDatabasePath(databasePath);
-        return CredentialStoreFactory.openFileStore(resolvedPath);
+        byte[] writeSecret = replicationSecret == null || replicationSecret.isBlank()
+                ? null
+                : replicationSecret.trim().getBytes(StandardCharsets.UTF_8);
+        String role = replicationRole == null ? "none" : replicationRole.trim().toLowerCase(Locale.ROOT);
+        return switch (role) {
+            case "", "none" -> CredentialStoreFactory.openFileStore(resolvedPath);
+            case "primary" ->
+                CredentialStoreFactory.openReplicationPrimary(
+                        resolvedPath, new InetSocketAddress(replicationHost, replicationPort), writeSecret);
+            case "replica" ->
+                CredentialStoreFactory.openReadReplica(
+                        resolvedPath, new InetSocketAddress(replicationHost, replicationPort), writeSecret);
+            default ->
+                throw new IllegalStateException("Unsupported openauth.sim.persistence.replication.role: "
+                        + replicationRole
+                        + " (expected none, primary, or replica)");
+        };
     }
 
     static Path resolveDatabasePath(String configuredPath) {
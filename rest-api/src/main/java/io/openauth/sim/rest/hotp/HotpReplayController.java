@@ -31,7 +31,9 @@ class HotpReplayController {
     @Operation(
             summary = "Replay a HOTP submission",
             description = "Validates an OTP against a stored HOTP credential without advancing counters or"
-                    + " replays inline HOTP parameters for diagnostic purposes.")
+                    + " replays inline HOTP parameters for diagnostic purposes. Supplying lookAhead or nextOtp runs"
+                    + " a parallel large-window resynchronisation search (RFC 4226 section 7.4); lookAhead is"
+                    + " limited to 100000 counters.")
     @ApiResponses(
             value = {
                 @ApiResponse(
@@ -13,7 +13,31 @@ record HotpReplayMetadata(
         @JsonProperty("digits") Integer digits,
         @JsonProperty("previousCounter") Long previousCounter,
         @JsonProperty("nextCounter") Long nextCounter,
-        @JsonProperty("telemetryId") String telemetryId) {
+        @JsonProperty("telemetryId") String telemetryId,
+        @JsonProperty("resyncLookAhead") Integer resyncLookAhead,
+        @JsonProperty("searchedCandidates") Long searchedCandidates,
+        @JsonProperty("candidatesPerSecond") Long candidatesPerSecond) {
 
-    // Canonical record; no additional behaviour.
+    HotpReplayMetadata(
+            String credentialSource,
+            String credentialId,
+            Boolean credentialReference,
+            String hashAlgorithm,
+            Integer digits,
+            Long previousCounter,
+            Long nextCounter,
+            String telemetryId) {
+        this(
+                credentialSource,
+                credentialId,
+                credentialReference,
+                hashAlgorithm,
+                digits,
+                previousCounter,
+                nextCounter,
+                telemetryId,
+                null,
+                null,
+                null);
+    }
 }
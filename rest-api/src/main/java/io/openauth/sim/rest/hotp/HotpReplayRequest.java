@@ -4,7 +4,10 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Map;
 
-/** Request payload for HOTP replay operations (stored or inline). */
+/**
+ * Request payload for HOTP replay operations (stored or inline). Supplying {@code lookAhead} or {@code nextOtp}
+ * turns the replay into a large-window resynchronisation search.
+ */
 @JsonInclude(JsonInclude.Include.NON_NULL)
 record HotpReplayRequest(
         @JsonProperty("credentialId") String credentialId,
@@ -15,7 +18,31 @@ record HotpReplayRequest(
         @JsonProperty("counter") Long counter,
         @JsonProperty("otp") String otp,
         @JsonProperty("metadata") Map<String, String> metadata,
-        @JsonProperty("verbose") Boolean verbose) {
+        @JsonProperty("verbose") Boolean verbose,
+        @JsonProperty("lookAhead") Integer lookAhead,
+        @JsonProperty("nextOtp") String nextOtp) {
 
-    // Canonical record; controller/service validate invariants.
+    HotpReplayRequest(
+            String credentialId,
+            String sharedSecretHex,
+            String sharedSecretBase32,
+            String algorithm,
+            Integer digits,
+            Long counter,
+            String otp,
+            Map<String, String> metadata,
+            Boolean verbose) {
+        this(
+                credentialId,
+                sharedSecretHex,
+                sharedSecretBase32,
+                algorithm,
+                digits,
+                counter,
+                otp,
+                metadata,
+                verbose,
+                null,
+                null);
+    }
 }
@@ -3,6 +3,8 @@ package io.openauth.sim.rest.hotp;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService.ReplayCommand;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService.ReplayResult;
+import io.openauth.sim.application.hotp.HotpReplayApplicationService.ResyncSummary;
+import io.openauth.sim.application.hotp.HotpReplayApplicationService.ResyncWindow;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService.TelemetrySignal;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService.TelemetryStatus;
 import io.openauth.sim.application.telemetry.HotpTelemetryAdapter;
@@ -29,6 +31,11 @@ class HotpReplayService {
 
     private static final Logger TELEMETRY_LOGGER = Logger.getLogger("io.openauth.sim.rest.hotp.telemetry");
     private static final String INLINE_REPLAY_ID = "hotp-inline-replay";
+    /**
+     * Largest resynchronisation window the REST facade accepts. The search fans out over the shared fork-join pool
+     * and the endpoint is unauthenticated, so wider windows are left to the CLI.
+     */
+    static final int MAX_REST_RESYNC_LOOK_AHEAD = 100_000;
 
     static {
         TELEMETRY_LOGGER.setLevel(Level.ALL);
@@ -62,7 +69,8 @@ class HotpReplayService {
 
         ReplayCommand command = new ReplayCommand.Stored(credentialId, otp);
         Map<String, String> contextDetails = Map.of("credentialId", credentialId);
-        return handleResult(command, mode, telemetryId, credentialId, contextDetails, verbose);
+        ResyncWindow resync = resyncWindow(request, telemetryId, mode, credentialId);
+        return handleResult(command, resync, mode, telemetryId, credentialId, contextDetails, verbose);
     }
 
     private HotpReplayResponse handleInline(HotpReplayRequest request, String telemetryId, Mode mode, boolean verbose) {
@@ -98,18 +106,41 @@ class HotpReplayService {
         ensureMetadataAbsent(request.metadata(), telemetryId, mode, INLINE_REPLAY_ID, details);
 
         ReplayCommand command = new ReplayCommand.Inline(secretHex, algorithm, digits, counter, otp, Map.of());
-        return handleResult(command, mode, telemetryId, INLINE_REPLAY_ID, details, verbose);
+        ResyncWindow resync = resyncWindow(request, telemetryId, mode, INLINE_REPLAY_ID);
+        return handleResult(command, resync, mode, telemetryId, INLINE_REPLAY_ID, details, verbose);
+    }
+
+    private ResyncWindow resyncWindow(HotpReplayRequest request, String telemetryId, Mode mode, String identifier) {
+        if (request.lookAhead() == null && !hasText(request.nextOtp())) {
+            return null;
+        }
+        int lookAhead = request.lookAhead() != null
+                ? request.lookAhead()
+                : HotpReplayApplicationService.DEFAULT_RESYNC_LOOK_AHEAD;
+        if (lookAhead < 1 || lookAhead > MAX_REST_RESYNC_LOOK_AHEAD) {
+            throw validationFailure(
+                    telemetryId,
+                    mode.source,
+                    identifier,
+                    "lookAhead must be between 1 and " + MAX_REST_RESYNC_LOOK_AHEAD,
+                    "look_ahead_out_of_range",
+                    Map.of("field", "lookAhead", "credentialId", identifier));
+        }
+        return new ResyncWindow(lookAhead, request.nextOtp());
     }
 
     private HotpReplayResponse handleResult(
             ReplayCommand command,
+            ResyncWindow resync,
             Mode mode,
             String telemetryId,
             String identifier,
             Map<String, String> contextDetails,
             boolean verbose) {
 
-        ReplayResult result = applicationService.replay(command, verbose);
+        ReplayResult result = resync == null
+                ? applicationService.replay(command, verbose)
+                : applicationService.replay(command, verbose, resync);
         TelemetrySignal signal = result.telemetry();
 
         TelemetryFrame frame = signal.emit(telemetryAdapter, telemetryId);
@@ -123,7 +154,10 @@ class HotpReplayService {
                 result.digits(),
                 result.previousCounter(),
                 result.nextCounter(),
-                telemetryId);
+                telemetryId,
+                result.resyncSummary().map(ResyncSummary::lookAhead).orElse(null),
+                result.resyncSummary().map(ResyncSummary::candidatesSearched).orElse(null),
+                result.resyncSummary().map(ResyncSummary::candidatesPerSecond).orElse(null));
 
         return switch (signal.status()) {
             case SUCCESS ->
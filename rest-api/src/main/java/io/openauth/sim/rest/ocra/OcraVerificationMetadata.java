@@ -12,6 +12,19 @@ record OcraVerificationMetadata(
         @JsonProperty("durationMillis") long durationMillis,
         @JsonProperty("contextFingerprint") String contextFingerprint,
         @JsonProperty("telemetryId") String telemetryId,
-        @JsonProperty("outcome") String outcome) {
+        @JsonProperty("outcome") String outcome,
+        @JsonProperty("timestampDriftSteps") Integer timestampDriftSteps) {
     // Response metadata consumed by REST/CLI telemetry consumers.
+
+    OcraVerificationMetadata(
+            String credentialSource,
+            String mode,
+            String suite,
+            int otpLength,
+            long durationMillis,
+            String contextFingerprint,
+            String telemetryId,
+            String outcome) {
+        this(credentialSource, mode, suite, otpLength, durationMillis, contextFingerprint, telemetryId, outcome, null);
+    }
 }
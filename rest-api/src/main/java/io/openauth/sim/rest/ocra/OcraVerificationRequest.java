@@ -9,6 +9,16 @@ record OcraVerificationRequest(
         @JsonProperty("credentialId") String credentialId,
         @JsonProperty("inlineCredential") OcraVerificationInlineCredential inlineCredential,
         @JsonProperty("context") OcraVerificationContext context,
-        @JsonProperty("verbose") Boolean verbose) {
+        @JsonProperty("verbose") Boolean verbose,
+        @JsonProperty("timestampDriftSteps") Integer timestampDriftSteps) {
     // Payload contract only; behaviour defined in OcraVerificationService.
+
+    OcraVerificationRequest(
+            String otp,
+            String credentialId,
+            OcraVerificationInlineCredential inlineCredential,
+            OcraVerificationContext context,
+            Boolean verbose) {
+        this(otp, credentialId, inlineCredential, context, verbose, null);
+    }
 }
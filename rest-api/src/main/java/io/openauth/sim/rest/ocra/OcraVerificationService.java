@@ -96,7 +96,8 @@ class OcraVerificationService {
                     durationMillis,
                     (String) payload.fields().getOrDefault("contextFingerprint", "unavailable"),
                     telemetryId,
-                    (String) payload.fields().getOrDefault("outcome", "unknown"));
+                    (String) payload.fields().getOrDefault("outcome", "unknown"),
+                    matchedDriftSteps(result, envelope));
 
             String status = result.status() == VerificationStatus.MATCH ? "match" : "mismatch";
             VerboseTracePayload tracePayload =
@@ -320,6 +321,11 @@ class OcraVerificationService {
                 payload != null ? payload.counter() : null);
     }
 
+    private static Integer matchedDriftSteps(VerificationResult result, CommandEnvelope envelope) {
+        boolean timestamped = envelope.normalized().context().timestampHex() != null;
+        return result.status() == VerificationStatus.MATCH && timestamped ? result.timestampDriftSteps() : null;
+    }
+
     private static String credentialSource(OcraVerificationRequest request) {
         if (request.credentialId() != null && !request.credentialId().isBlank()) {
             return "stored";
@@ -454,7 +460,8 @@ class OcraVerificationService {
                         ctx.sessionHex(),
                         ctx.pinHashHex(),
                         ctx.timestampHex(),
-                        ctx.counter()));
+                        ctx.counter(),
+                        request.timestampDriftSteps()));
                 NormalizedRequest normalized = OcraVerificationApplicationService.NormalizedRequest.from(command);
                 return new CommandEnvelope(command, normalized, "stored", request.otp(), verbose);
             }
@@ -494,7 +501,8 @@ class OcraVerificationService {
                     ctx.pinHashHex(),
                     ctx.timestampHex(),
                     ctx.counter(),
-                    null));
+                    null,
+                    request.timestampDriftSteps()));
             NormalizedRequest normalized = OcraVerificationApplicationService.NormalizedRequest.from(command);
             return new CommandEnvelope(command, normalized, "inline", request.otp(), verbose);
         }
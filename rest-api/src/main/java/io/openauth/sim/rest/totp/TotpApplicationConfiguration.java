@@ -4,12 +4,16 @@ import io.openauth.sim.application.totp.TotpCredentialDirectoryApplicationServic
 import io.openauth.sim.application.totp.TotpCurrentOtpHelperService;
 import io.openauth.sim.application.totp.TotpEvaluationApplicationService;
 import io.openauth.sim.application.totp.TotpReplayApplicationService;
+import io.openauth.sim.application.totp.TotpReverseLookupApplicationService;
 import io.openauth.sim.application.totp.TotpSampleApplicationService;
 import io.openauth.sim.application.totp.TotpSeedApplicationService;
+import io.openauth.sim.application.totp.TotpTimelineApplicationService;
 import io.openauth.sim.core.store.CredentialStore;
 import java.time.Clock;
+import java.util.Locale;
 import java.util.Optional;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,8 +21,12 @@ import org.springframework.context.annotation.Configuration;
 class TotpApplicationConfiguration {
 
     @Bean
-    TotpEvaluationApplicationService totpEvaluationApplicationService(CredentialStore credentialStore) {
-        return new TotpEvaluationApplicationService(credentialStore);
+    TotpEvaluationApplicationService totpEvaluationApplicationService(
+            CredentialStore credentialStore, @Value("${openauth.sim.totp.drift-mode:fixed}") String driftMode) {
+        return new TotpEvaluationApplicationService(
+                credentialStore,
+                Clock.systemUTC(),
+                TotpEvaluationApplicationService.DriftMode.valueOf(driftMode.trim().toUpperCase(Locale.ROOT)));
     }
 
     @Bean
@@ -49,4 +57,16 @@ class TotpApplicationConfiguration {
         Clock clock = Optional.ofNullable(clockProvider.getIfAvailable()).orElse(Clock.systemUTC());
         return new TotpCurrentOtpHelperService(evaluationApplicationService, clock);
     }
+
+    @Bean
+    TotpReverseLookupApplicationService totpReverseLookupApplicationService(
+            CredentialStore credentialStore, ObjectProvider<Clock> clockProvider) {
+        Clock clock = Optional.ofNullable(clockProvider.getIfAvailable()).orElse(Clock.systemUTC());
+        return new TotpReverseLookupApplicationService(credentialStore, clock);
+    }
+
+    @Bean
+    TotpTimelineApplicationService totpTimelineApplicationService(CredentialStore credentialStore) {
+        return new TotpTimelineApplicationService(credentialStore);
+    }
 }
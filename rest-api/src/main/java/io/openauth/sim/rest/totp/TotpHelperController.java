@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/totp/helper")
@@ -46,6 +47,60 @@ class TotpHelperController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(
+            operationId = "reverseLookupTotpHelper",
+            summary = "List stored credentials whose current drift window produces the submitted OTP",
+            responses = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Reverse lookup completed",
+                        content = @Content(schema = @Schema(implementation = TotpReverseLookupResponse.class))),
+                @ApiResponse(
+                        responseCode = "422",
+                        description = "Validation error",
+                        content = @Content(schema = @Schema(implementation = TotpEvaluationErrorResponse.class))),
+                @ApiResponse(
+                        responseCode = "500",
+                        description = "Unexpected error",
+                        content = @Content(schema = @Schema(implementation = TotpEvaluationErrorResponse.class)))
+            })
+    @PostMapping("/reverse-lookup")
+    ResponseEntity<TotpReverseLookupResponse> reverseLookup(@RequestBody TotpReverseLookupRequest request) {
+        return ResponseEntity.ok(service.reverseLookup(request));
+    }
+
+    @Operation(
+            operationId = "timelineTotpHelper",
+            summary = "Stream the OTP of every time step between two instants as NDJSON or CSV",
+            description = "Renders stored or inline TOTP parameters over the inclusive range [from, to] (epoch"
+                    + " seconds). The body is streamed with chunked transfer encoding, so large corpora never"
+                    + " sit in memory; validation errors are reported before streaming starts.",
+            responses = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Timeline streamed",
+                        content = {
+                            @Content(mediaType = "application/x-ndjson", schema = @Schema(type = "string")),
+                            @Content(mediaType = "text/csv", schema = @Schema(type = "string"))
+                        }),
+                @ApiResponse(
+                        responseCode = "422",
+                        description = "Validation error",
+                        content = @Content(schema = @Schema(implementation = TotpEvaluationErrorResponse.class))),
+                @ApiResponse(
+                        responseCode = "500",
+                        description = "Unexpected error",
+                        content = @Content(schema = @Schema(implementation = TotpEvaluationErrorResponse.class)))
+            })
+    @PostMapping("/timeline")
+    ResponseEntity<StreamingResponseBody> timeline(@RequestBody TotpTimelineRequest request) {
+        TotpHelperService.TimelineStream stream = service.timeline(request);
+        return ResponseEntity.ok()
+                .contentType(stream.contentType())
+                .header("X-Timeline-Steps", Long.toString(stream.steps()))
+                .body(stream.body());
+    }
+
     @ExceptionHandler(TotpHelperValidationException.class)
     ResponseEntity<TotpEvaluationErrorResponse> handleValidation(TotpHelperValidationException exception) {
         TotpEvaluationErrorResponse body = new TotpEvaluationErrorResponse(
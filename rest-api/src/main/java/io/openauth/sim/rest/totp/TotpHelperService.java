@@ -7,27 +7,59 @@ import io.openauth.sim.application.totp.TotpCurrentOtpHelperService.LookupComman
 import io.openauth.sim.application.totp.TotpCurrentOtpHelperService.LookupResult;
 import io.openauth.sim.application.totp.TotpEvaluationApplicationService.TelemetrySignal;
 import io.openauth.sim.application.totp.TotpEvaluationApplicationService.TelemetryStatus;
+import io.openauth.sim.application.totp.TotpReverseLookupApplicationService;
+import io.openauth.sim.application.totp.TotpTimelineApplicationService;
+import io.openauth.sim.application.totp.TotpTimelineApplicationService.PreparedTimeline;
+import io.openauth.sim.application.totp.TotpTimelineApplicationService.TimelineCommand;
 import io.openauth.sim.core.otp.totp.TotpDriftWindow;
+import io.openauth.sim.core.otp.totp.TotpHashAlgorithm;
+import io.openauth.sim.core.otp.totp.TotpTimeline;
 import io.openauth.sim.rest.EvaluationWindowRequest;
+import jakarta.annotation.PreDestroy;
+import java.nio.channels.Channels;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Service
 class TotpHelperService {
 
     private static final Logger TELEMETRY_LOGGER = Logger.getLogger("io.openauth.sim.rest.totp.helper.telemetry");
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
     private final TotpCurrentOtpHelperService helperService;
+    private final TotpReverseLookupApplicationService reverseLookupService;
+    private final TotpTimelineApplicationService timelineService;
+    /**
+     * Rendering threads shared by every timeline request, so concurrent requests queue for the same processors
+     * instead of each starting a pool of its own.
+     */
+    private final ForkJoinPool timelinePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 
-    TotpHelperService(TotpCurrentOtpHelperService helperService) {
+    TotpHelperService(
+            TotpCurrentOtpHelperService helperService,
+            TotpReverseLookupApplicationService reverseLookupService,
+            TotpTimelineApplicationService timelineService) {
         this.helperService = helperService;
+        this.reverseLookupService = reverseLookupService;
+        this.timelineService = timelineService;
+    }
+
+    @PreDestroy
+    void shutdownTimelinePool() {
+        timelinePool.shutdown();
     }
 
     TotpHelperResponse currentOtp(TotpHelperRequest request) {
@@ -69,6 +101,113 @@ class TotpHelperService {
         return new TotpHelperResponse(credentialId, otp, generationEpochSeconds, expiresEpochSeconds, metadata);
     }
 
+    TotpReverseLookupResponse reverseLookup(TotpReverseLookupRequest request) {
+        String otp = Optional.ofNullable(request.otp())
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .orElseThrow(() -> validation("otp_invalid_format", "OTP is required"));
+
+        TotpReverseLookupApplicationService.LookupResult result;
+        try {
+            result = request.timestamp() != null
+                    ? reverseLookupService.lookup(otp, Instant.ofEpochSecond(request.timestamp()))
+                    : reverseLookupService.lookup(otp);
+        } catch (TotpReverseLookupApplicationService.InstantOutsideIndexException ex) {
+            throw validation("timestamp_out_of_range", ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            throw validation("otp_invalid_format", ex.getMessage());
+        } catch (RuntimeException ex) {
+            throw unexpected("Reverse lookup failed", ex);
+        }
+
+        if (TELEMETRY_LOGGER.isLoggable(Level.FINE)) {
+            TELEMETRY_LOGGER.fine("event=rest.totp.helper.reverseLookup status=success indexedCredentials="
+                    + result.indexedCredentials() + " matches=" + result.matches().size());
+        }
+        return new TotpReverseLookupResponse(
+                result.otp(),
+                result.evaluatedAt().getEpochSecond(),
+                result.indexedCredentials(),
+                result.matches().stream()
+                        .map(match ->
+                                new TotpReverseLookupMatch(match.credentialId(), match.timeStep(), match.skewSteps()))
+                        .toList());
+    }
+
+    /**
+     * Validates the request and returns a body that streams the timeline once the response is committed; only
+     * validation failures can still be reported as 422.
+     */
+    TimelineStream timeline(TotpTimelineRequest request) {
+        if (request.from() == null || request.to() == null) {
+            throw validation("range_invalid", "from and to are required");
+        }
+        TotpTimeline.Format format = resolveFormat(request.format());
+        int parallelism = Optional.ofNullable(request.parallelism()).orElse(1);
+        if (parallelism < 1) {
+            throw validation("parallelism_invalid", "parallelism must be positive");
+        }
+        int slots = Math.min(parallelism, Runtime.getRuntime().availableProcessors());
+
+        Instant from = Instant.ofEpochSecond(request.from());
+        Instant to = Instant.ofEpochSecond(request.to());
+        String credentialId = Optional.ofNullable(request.credentialId())
+                .map(String::trim)
+                .orElse("");
+        PreparedTimeline timeline;
+        try {
+            timeline = timelineService.prepare(
+                    credentialId.isEmpty()
+                            ? inlineTimeline(request, from, to)
+                            : new TimelineCommand.Stored(credentialId, from, to));
+        } catch (TotpTimelineApplicationService.TimelineValidationException ex) {
+            throw validation(ex.reasonCode(), ex.getMessage());
+        }
+
+        if (TELEMETRY_LOGGER.isLoggable(Level.FINE)) {
+            TELEMETRY_LOGGER.fine("event=rest.totp.helper.timeline status=success credentialId="
+                    + timeline.credentialId() + " steps=" + timeline.steps() + " format=" + format);
+        }
+        StreamingResponseBody body =
+                output -> timeline.writeTo(Channels.newChannel(output), format, slots, timelinePool);
+        return new TimelineStream(format == TotpTimeline.Format.CSV ? CSV : NDJSON, timeline.steps(), body);
+    }
+
+    private TimelineCommand inlineTimeline(TotpTimelineRequest request, Instant from, Instant to) {
+        String secret = Optional.ofNullable(request.sharedSecretHex())
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .orElseThrow(() -> validation("credential_id_required", "Provide credentialId or sharedSecretHex"));
+        TotpHashAlgorithm algorithm;
+        try {
+            algorithm = Optional.ofNullable(request.algorithm())
+                    .map(value -> value.toUpperCase(Locale.ROOT))
+                    .map(TotpHashAlgorithm::valueOf)
+                    .orElse(TotpHashAlgorithm.SHA1);
+        } catch (IllegalArgumentException ex) {
+            throw validation("validation_error", "Unsupported algorithm: " + request.algorithm());
+        }
+        int digits = Optional.ofNullable(request.digits()).orElse(6);
+        long stepSeconds = Optional.ofNullable(request.stepSeconds()).orElse(30L);
+        return new TimelineCommand.Inline(secret, algorithm, digits, Duration.ofSeconds(stepSeconds), from, to);
+    }
+
+    private TotpTimeline.Format resolveFormat(String format) {
+        if (format == null || format.isBlank()) {
+            return TotpTimeline.Format.NDJSON;
+        }
+        try {
+            return TotpTimeline.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw validation("format_invalid", "format must be ndjson or csv");
+        }
+    }
+
+    /** Content type, step count and deferred body of a validated timeline. */
+    record TimelineStream(MediaType contentType, long steps, StreamingResponseBody body) {
+        // no members
+    }
+
     private TotpHelperMetadata buildMetadata(LookupResult result, TelemetryFrame frame, String telemetryId) {
         Map<String, Object> fields = new LinkedHashMap<>(frame.fields());
         String algorithm = result.evaluationResult().algorithm() != null
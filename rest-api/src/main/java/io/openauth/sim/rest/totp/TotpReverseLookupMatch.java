@@ -0,0 +1,10 @@
+package io.openauth.sim.rest.totp;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+record TotpReverseLookupMatch(
+        @JsonProperty("credentialId") String credentialId,
+        @JsonProperty("timeStep") long timeStep,
+        @JsonProperty("skewSteps") int skewSteps) {
+    // no members
+}
@@ -0,0 +1,7 @@
+package io.openauth.sim.rest.totp;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+record TotpReverseLookupRequest(@JsonProperty("otp") String otp, @JsonProperty("timestamp") Long timestamp) {
+    // no members
+}
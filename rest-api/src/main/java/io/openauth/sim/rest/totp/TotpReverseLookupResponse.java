@@ -0,0 +1,12 @@
+package io.openauth.sim.rest.totp;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+record TotpReverseLookupResponse(
+        @JsonProperty("otp") String otp,
+        @JsonProperty("evaluatedEpochSeconds") long evaluatedEpochSeconds,
+        @JsonProperty("indexedCredentials") int indexedCredentials,
+        @JsonProperty("matches") List<TotpReverseLookupMatch> matches) {
+    // no members
+}
@@ -0,0 +1,18 @@
+package io.openauth.sim.rest.totp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record TotpTimelineRequest(
+        @JsonProperty("credentialId") String credentialId,
+        @JsonProperty("sharedSecretHex") String sharedSecretHex,
+        @JsonProperty("algorithm") String algorithm,
+        @JsonProperty("digits") Integer digits,
+        @JsonProperty("stepSeconds") Long stepSeconds,
+        @JsonProperty("from") Long from,
+        @JsonProperty("to") Long to,
+        @JsonProperty("format") String format,
+        @JsonProperty("parallelism") Integer parallelism) {
+    // no members
+}
@@ -2,11 +2,15 @@ package io.openauth.sim.rest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openauth.sim.application.totp.TotpReverseLookupApplicationService;
 import io.openauth.sim.core.model.Credential;
 import io.openauth.sim.core.model.SecretMaterial;
 import io.openauth.sim.core.otp.totp.TotpCredentialPersistenceAdapter;
@@ -35,6 +39,7 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(
@@ -45,7 +50,11 @@ class TotpHelperEndpointTest {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
     private static final Clock FIXED_CLOCK = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+    /** Reverse lookups only answer inside the index built around the application clock. */
+    private static final Clock LOOKUP_CLOCK = Clock.fixed(Instant.ofEpochSecond(89), ZoneOffset.UTC);
     private static final String ENDPOINT = "/api/v1/totp/helper/current";
+    private static final String REVERSE_LOOKUP_ENDPOINT = "/api/v1/totp/helper/reverse-lookup";
+    private static final String TIMELINE_ENDPOINT = "/api/v1/totp/helper/timeline";
     private static final String SECRET_HEX = "3132333435363738393031323334353637383930";
 
     @Autowired
@@ -54,6 +63,9 @@ class TotpHelperEndpointTest {
     @Autowired
     private CredentialStore credentialStore;
 
+    @Autowired
+    private TotpReverseLookupApplicationService reverseLookupService;
+
     @DynamicPropertySource
     static void configure(DynamicPropertyRegistry registry) {
         registry.add("openauth.sim.persistence.database-path", () -> "in-memory");
@@ -108,6 +120,104 @@ class TotpHelperEndpointTest {
                 .andExpect(status().isUnprocessableEntity());
     }
 
+    @Test
+    @DisplayName("Reverse lookup lists stored credentials producing the OTP")
+    void reverseLookupListsMatchingCredentials() throws Exception {
+        persistCredential("reverse-a", TotpHashAlgorithm.SHA1, 8, Duration.ofSeconds(30));
+        persistCredential("reverse-b", TotpHashAlgorithm.SHA1, 8, Duration.ofSeconds(30));
+        reverseLookupService.refresh(LOOKUP_CLOCK.instant());
+
+        String payload = """
+                {"otp":"94287082","timestamp":89}
+                """;
+
+        String response = mockMvc.perform(post(REVERSE_LOOKUP_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode node = MAPPER.readTree(response);
+        assertEquals("94287082", node.get("otp").asText());
+        assertEquals(89L, node.get("evaluatedEpochSeconds").asLong());
+        assertEquals(2, node.get("indexedCredentials").asInt());
+        JsonNode matches = node.get("matches");
+        assertEquals(2, matches.size());
+        assertEquals("reverse-a", matches.get(0).get("credentialId").asText());
+        assertEquals(1L, matches.get(0).get("timeStep").asLong());
+        assertEquals(-1, matches.get(0).get("skewSteps").asInt());
+        assertEquals("reverse-b", matches.get(1).get("credentialId").asText());
+    }
+
+    @Test
+    @DisplayName("Reverse lookup returns 422 for malformed OTP")
+    void reverseLookupRejectsMalformedOtp() throws Exception {
+        String response = mockMvc.perform(post(REVERSE_LOOKUP_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"otp\":\"12ab\"}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals("otp_invalid_format", MAPPER.readTree(response).get("reasonCode").asText());
+    }
+
+    @Test
+    @DisplayName("Reverse lookup returns 422 for timestamps outside the index instead of scanning the store")
+    void reverseLookupRejectsTimestampsOutsideTheIndex() throws Exception {
+        persistCredential("reverse-a", TotpHashAlgorithm.SHA1, 8, Duration.ofSeconds(30));
+
+        String response = mockMvc.perform(post(REVERSE_LOOKUP_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"otp\":\"94287082\",\"timestamp\":1735689600}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals("timestamp_out_of_range", MAPPER.readTree(response).get("reasonCode").asText());
+    }
+
+    @Test
+    @DisplayName("Timeline streams every step of a stored credential as CSV")
+    void timelineStreamsStoredCredentialAsCsv() throws Exception {
+        persistCredential("timeline-demo", TotpHashAlgorithm.SHA1, 8, Duration.ofSeconds(30));
+
+        MvcResult pending = mockMvc.perform(post(TIMELINE_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"credentialId\":\"timeline-demo\",\"from\":0,\"to\":89,\"format\":\"csv\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Timeline-Steps", "3"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals("timeStep,epochSeconds,otp\n0,0,84755224\n1,30,94287082\n2,60,37359152\n", body);
+    }
+
+    @Test
+    @DisplayName("Timeline rejects reversed ranges before streaming")
+    void timelineRejectsReversedRange() throws Exception {
+        String payload = "{\"sharedSecretHex\":\"" + SECRET_HEX + "\",\"from\":90,\"to\":30}";
+
+        String response = mockMvc.perform(post(TIMELINE_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isUnprocessableEntity())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals("range_invalid", MAPPER.readTree(response).get("reasonCode").asText());
+    }
+
     private void persistCredential(String credentialId, TotpHashAlgorithm algorithm, int digits, Duration step) {
         TotpDescriptor descriptor = TotpDescriptor.create(
                 credentialId, SecretMaterial.fromHex(SECRET_HEX), algorithm, digits, step, TotpDriftWindow.of(1, 1));
@@ -124,6 +234,11 @@ class TotpHelperEndpointTest {
         CredentialStore credentialStore() {
             return new InMemoryCredentialStore();
         }
+
+        @Bean
+        Clock clock() {
+            return LOOKUP_CLOCK;
+        }
     }
 
     static final class InMemoryCredentialStore implements CredentialStore {
@@ -349,6 +349,29 @@ final class EmvCapReplayEndpointTest {
         assertEquals("iccDataTemplate", root.get("details").get("field").asText());
     }
 
+    @Test
+    @DisplayName("Inline replay without trace rejects inputs the ATC window cannot prepare")
+    void inlineReplayWithoutTraceRejectsUnpreparableInput() throws Exception {
+        ReplayFixture fixture = EmvCapReplayFixtures.load("replay-sign-baseline");
+        EmvCapVector vector = EmvCapVectorFixtures.load(fixture.vectorId());
+        ObjectNode payload = (ObjectNode) JSON.readTree(
+                inlineRequestBody(vector, fixture.mismatchOtpDecimal(), fixture.previewWindow(), false));
+        payload.put("issuerProprietaryBitmap", "00");
+
+        String responseBody = mockMvc.perform(post("/api/v1/emv/cap/replay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(JSON.writeValueAsString(payload)))
+                .andExpect(status().isUnprocessableEntity())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode root = JSON.readTree(responseBody);
+        assertEquals("invalid_input", root.get("status").asText());
+        assertEquals("invalid_input", root.get("reasonCode").asText());
+        assertThat(root.get("message").asText()).startsWith("issuerProprietaryBitmap length (1 bytes)");
+    }
+
     @Test
     @DisplayName("Missing OTP yields a validation error with field metadata")
     void missingOtpReturnsValidationError() throws Exception {
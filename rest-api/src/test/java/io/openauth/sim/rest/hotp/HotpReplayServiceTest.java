@@ -10,6 +10,8 @@ import static org.mockito.Mockito.anyBoolean;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService.ReplayCommand;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService.ReplayResult;
+import io.openauth.sim.application.hotp.HotpReplayApplicationService.ResyncSummary;
+import io.openauth.sim.application.hotp.HotpReplayApplicationService.ResyncWindow;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService.TelemetrySignal;
 import io.openauth.sim.application.hotp.HotpReplayApplicationService.TelemetryStatus;
 import io.openauth.sim.core.encoding.Base32SecretCodec;
@@ -508,6 +510,72 @@ class HotpReplayServiceTest {
         Mockito.verifyNoInteractions(applicationService);
     }
 
+    @Test
+    @DisplayName("Stored replay with lookAhead and nextOtp runs a resynchronisation search")
+    void storedReplayWithResyncWindowReportsSearchRate() {
+        HotpReplayApplicationService applicationService = Mockito.mock(HotpReplayApplicationService.class);
+        TelemetrySignal signal = new TelemetrySignal(
+                TelemetryStatus.SUCCESS, "match", null, true, Map.of("credentialSource", "stored"), null);
+        ReplayResult result = new ReplayResult(
+                signal,
+                true,
+                "cred-123",
+                40_000L,
+                40_002L,
+                HotpHashAlgorithm.SHA1,
+                6,
+                null,
+                new ResyncSummary(50_000, true, 40_001L, 20_000_000L, 2_000_050L));
+        Mockito.when(applicationService.replay(
+                        Mockito.any(ReplayCommand.Stored.class), anyBoolean(), Mockito.any(ResyncWindow.class)))
+                .thenReturn(result);
+
+        HotpReplayService service = new HotpReplayService(applicationService);
+        HotpReplayResponse response = service.replay(new HotpReplayRequest(
+                "cred-123", null, null, null, null, null, "123456", null, null, 50_000, " 654321 "));
+
+        assertEquals("match", response.status());
+        assertEquals(40_002L, response.metadata().nextCounter());
+        assertEquals(50_000, response.metadata().resyncLookAhead());
+        assertEquals(40_001L, response.metadata().searchedCandidates());
+        assertEquals(2_000_050L, response.metadata().candidatesPerSecond());
+
+        ArgumentCaptor<ResyncWindow> captor = ArgumentCaptor.forClass(ResyncWindow.class);
+        Mockito.verify(applicationService)
+                .replay(Mockito.any(ReplayCommand.Stored.class), anyBoolean(), captor.capture());
+        assertEquals(new ResyncWindow(50_000, "654321"), captor.getValue());
+    }
+
+    @Test
+    @DisplayName("Resynchronisation windows beyond the REST limit are rejected before searching")
+    void resyncWindowAboveRestLimitIsRejected() {
+        HotpReplayApplicationService applicationService = Mockito.mock(HotpReplayApplicationService.class);
+        HotpReplayService service = new HotpReplayService(applicationService);
+
+        HotpReplayValidationException tooWide = assertThrows(
+                HotpReplayValidationException.class,
+                () -> service.replay(new HotpReplayRequest(
+                        "cred-123",
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        "123456",
+                        null,
+                        null,
+                        HotpReplayService.MAX_REST_RESYNC_LOOK_AHEAD + 1,
+                        null)));
+        assertEquals("look_ahead_out_of_range", tooWide.reasonCode());
+
+        HotpReplayValidationException empty = assertThrows(
+                HotpReplayValidationException.class,
+                () -> service.replay(new HotpReplayRequest(
+                        "cred-123", null, null, null, null, null, "123456", null, null, 0, "654321")));
+        assertEquals("look_ahead_out_of_range", empty.reasonCode());
+        Mockito.verifyNoInteractions(applicationService);
+    }
+
     private HotpJsonVector vector(int digits, long counter) {
         return HotpJsonVectorFixtures.loadAll()
                 .filter(v -> v.digits() == digits && v.counter() == counter)